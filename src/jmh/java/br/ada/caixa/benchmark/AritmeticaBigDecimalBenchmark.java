@@ -0,0 +1,67 @@
+package br.ada.caixa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aritmetica de taxas e rendimento com BigDecimal, como era feita antes de Dinheiro (sem arredondar) e com o
+ * arredondamento para centavos. Base de comparacao para {@link DinheiroBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AritmeticaBigDecimalBenchmark {
+
+    private static final BigDecimal TAXA_RETIRADA_PJ = BigDecimal.valueOf(1.005);
+    private static final BigDecimal RENDIMENTO_PF = new BigDecimal("1.01");
+
+    private BigDecimal saldo;
+    private BigDecimal valor;
+
+    @Setup
+    public void setUp() {
+        saldo = new BigDecimal("15234.67");
+        valor = new BigDecimal("123.45");
+    }
+
+    @Benchmark
+    public BigDecimal taxaSaquePJ() {
+        return valor.multiply(TAXA_RETIRADA_PJ);
+    }
+
+    @Benchmark
+    public BigDecimal taxaSaquePJEmCentavos() {
+        return valor.multiply(TAXA_RETIRADA_PJ).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public BigDecimal rendimento() {
+        return saldo.multiply(RENDIMENTO_PF);
+    }
+
+    @Benchmark
+    public BigDecimal rendimentoEmCentavos() {
+        return saldo.multiply(RENDIMENTO_PF).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public boolean debitoComparacaoSaldo() {
+        return valor.multiply(TAXA_RETIRADA_PJ).compareTo(saldo) <= 0;
+    }
+
+}
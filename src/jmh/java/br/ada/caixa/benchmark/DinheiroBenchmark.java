@@ -0,0 +1,72 @@
+package br.ada.caixa.benchmark;
+
+import br.ada.caixa.entity.Dinheiro;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * As mesmas contas de {@link AritmeticaBigDecimalBenchmark} com {@link Dinheiro}, ja arredondadas para
+ * centavos. Rodar os dois juntos com -prof gc para comparar gc.alloc.rate.norm (bytes por operacao):
+ * <pre>
+ *   mvn -Pbenchmark -DskipTests compile exec:exec -Djmh.args="Aritmetica|Dinheiro -prof gc"
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DinheiroBenchmark {
+
+    private static final long TAXA_RETIRADA_PJ = 1005;
+    private static final int CASAS_TAXA_RETIRADA_PJ = 3;
+    private static final BigDecimal RENDIMENTO_PF = new BigDecimal("1.01");
+
+    private Dinheiro saldo;
+    private Dinheiro valor;
+
+    @Setup
+    public void setUp() {
+        saldo = Dinheiro.de(new BigDecimal("15234.67"));
+        valor = Dinheiro.de(new BigDecimal("123.45"));
+    }
+
+    @Benchmark
+    public Dinheiro taxaSaquePJ() {
+        return valor.multiplicar(TAXA_RETIRADA_PJ, CASAS_TAXA_RETIRADA_PJ);
+    }
+
+    @Benchmark
+    public Dinheiro rendimento() {
+        return saldo.multiplicar(RENDIMENTO_PF);
+    }
+
+    @Benchmark
+    public boolean debitoComparacaoSaldo() {
+        return !valor.multiplicar(TAXA_RETIRADA_PJ, CASAS_TAXA_RETIRADA_PJ).maiorQue(saldo);
+    }
+
+    @Benchmark
+    public Dinheiro credito() {
+        return saldo.somar(valor);
+    }
+
+    // Conversao feita uma vez por requisicao, na borda JSON
+    @Benchmark
+    public BigDecimal paraBigDecimal() {
+        return saldo.paraBigDecimal();
+    }
+
+}
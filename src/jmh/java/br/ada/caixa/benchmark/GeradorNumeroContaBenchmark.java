@@ -0,0 +1,56 @@
+package br.ada.caixa.benchmark;
+
+import br.ada.caixa.service.conta.GeradorNumeroConta;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gerador de numero de conta (substituto do antigo ContaService.gerarNumero). A sequence e um contador
+ * em memoria, entao o resultado mede a entrega lock-free dentro do bloco e o custo da troca de bloco.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeradorNumeroContaBenchmark {
+
+    @Param({"true", "false"})
+    private boolean embaralhar;
+
+    @Param({"1000"})
+    private long tamanhoBloco;
+
+    private GeradorNumeroConta gerador;
+
+    @Setup
+    public void setUp() {
+        gerador = new GeradorNumeroConta(Stubs.sequenceEmMemoria(), tamanhoBloco, embaralhar);
+        gerador.inicializar();
+    }
+
+    @Benchmark
+    public Long proximo() {
+        return gerador.proximo();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Long proximoConcorrente() {
+        return gerador.proximo();
+    }
+
+}
@@ -0,0 +1,76 @@
+package br.ada.caixa.benchmark;
+
+import br.ada.caixa.entity.Conta;
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.entity.TipoConta;
+import br.ada.caixa.service.operacoesbancarias.investimento.InvestimentoOperacao;
+import br.ada.caixa.service.operacoesbancarias.investimento.InvestimentoOperacaoPF;
+import br.ada.caixa.service.operacoesbancarias.investimento.InvestimentoOperacaoPJ;
+import br.ada.caixa.service.operacoesbancarias.investimento.TaxaRendimentoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * InvestimentoOperacaoPF/PJ.executar e render. O saldo volta ao inicial a cada chamada para que todas
+ * as chamadas facam a mesma conta (com Dinheiro a escala ja nao cresce, mas o valor cresceria).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvestimentoOperacaoBenchmark {
+
+    private static final Dinheiro SALDO_INICIAL = Dinheiro.de(new BigDecimal("1500.00"));
+
+    @Param({"PF", "PJ"})
+    private String tipoCliente;
+
+    private InvestimentoOperacao operacao;
+    private Conta conta;
+    private Dinheiro valor;
+
+    @Setup
+    public void setUp() {
+        var taxaRendimentoService = new TaxaRendimentoService(Stubs.taxaRendimentoRepository(),
+                new BigDecimal("1.01"), new BigDecimal("1.02"));
+        taxaRendimentoService.inicializar();
+        operacao = "PF".equals(tipoCliente)
+                ? new InvestimentoOperacaoPF(taxaRendimentoService)
+                : new InvestimentoOperacaoPJ(taxaRendimentoService);
+        conta = Conta.builder()
+                .numero(1L)
+                .saldo(SALDO_INICIAL)
+                .tipo(TipoConta.CONTA_INVESTIMENTO)
+                .build();
+        valor = Dinheiro.de(new BigDecimal("250.00"));
+    }
+
+    @Benchmark
+    public Dinheiro executar() {
+        conta.setSaldo(SALDO_INICIAL);
+        operacao.executar(conta, valor);
+        return conta.getSaldo();
+    }
+
+    @Benchmark
+    public Dinheiro render() {
+        conta.setSaldo(SALDO_INICIAL);
+        operacao.render(conta);
+        return conta.getSaldo();
+    }
+
+}
@@ -0,0 +1,79 @@
+package br.ada.caixa.benchmark;
+
+import br.ada.caixa.config.AppConfiguration;
+import br.ada.caixa.dto.request.RegistrarClientePFRequestDto;
+import br.ada.caixa.dto.response.ClienteResponseDto;
+import br.ada.caixa.entity.Cliente;
+import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.enums.StatusCliente;
+import br.ada.caixa.service.cliente.ClienteMapper;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapeamento de cliente feito pelo ClienteService: ModelMapper (configuracao de AppConfiguration) contra o
+ * ClienteMapper escrito a mao.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapeamentoClienteBenchmark {
+
+    private ModelMapper modelMapper;
+    private ClienteMapper clienteMapper;
+    private RegistrarClientePFRequestDto requestPF;
+    private Cliente cliente;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new AppConfiguration().getModelMapper();
+        clienteMapper = new ClienteMapper();
+        requestPF = new RegistrarClientePFRequestDto("123.456.789-00", "Benchmark", LocalDate.of(1990, 1, 2));
+        cliente = Cliente.builder()
+                .id(UUID.randomUUID())
+                .documento("123.456.789-00")
+                .nome("Benchmark")
+                .status(StatusCliente.ATIVO)
+                .tipo(TipoCliente.PF)
+                .build();
+    }
+
+    @Benchmark
+    public Cliente requestParaClienteModelMapper() {
+        return modelMapper.map(requestPF, Cliente.class);
+    }
+
+    @Benchmark
+    public Cliente requestParaClienteMapper() {
+        return clienteMapper.paraCliente(requestPF);
+    }
+
+    @Benchmark
+    public ClienteResponseDto clienteParaResponseModelMapper() {
+        var dto = modelMapper.map(cliente, ClienteResponseDto.class);
+        dto.setTipo(cliente.getTipo().name());
+        return dto;
+    }
+
+    @Benchmark
+    public ClienteResponseDto clienteParaResponseMapper() {
+        return clienteMapper.paraResponse(cliente);
+    }
+
+}
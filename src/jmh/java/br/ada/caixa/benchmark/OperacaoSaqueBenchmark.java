@@ -0,0 +1,80 @@
+package br.ada.caixa.benchmark;
+
+import br.ada.caixa.entity.Cliente;
+import br.ada.caixa.entity.Conta;
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.entity.TipoConta;
+import br.ada.caixa.service.operacoesbancarias.saque.OperacaoSaqueLimite;
+import br.ada.caixa.service.operacoesbancarias.saque.OperacaoSaqueSaldoPF;
+import br.ada.caixa.service.operacoesbancarias.saque.OperacaoSaqueSaldoPJ;
+import br.ada.caixa.service.operacoesbancarias.saque.ParametrosSaque;
+import br.ada.caixa.service.operacoesbancarias.saque.RegrasSaque;
+import br.ada.caixa.service.operacoesbancarias.saque.SaqueService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Regras de saque da combinacao da conta (limite e PF ou PJ, via RegrasSaque) com o UPDATE de debito
+ * substituido por um stub.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OperacaoSaqueBenchmark {
+
+    @Param({"PF", "PJ"})
+    private TipoCliente tipoCliente;
+
+    private SaqueService saqueService;
+    private Conta conta;
+    private Dinheiro valor;
+
+    @Setup
+    public void setUp() {
+        var contaRepository = Stubs.contaRepository();
+        var saldosFracionados = Stubs.saldosFracionados(contaRepository);
+        // Cache, publicador e journal so sao usados no saque por numero; aqui a conta ja vem resolvida
+        var parametrosSaque = new ParametrosSaque(BigDecimal.ONE, new BigDecimal("1.005"), BigDecimal.ZERO, BigDecimal.ZERO,
+                "", Duration.ZERO);
+        saqueService = new SaqueService(contaRepository, null, null, null, new RegrasSaque(List.of(
+                new OperacaoSaqueLimite(parametrosSaque),
+                new OperacaoSaqueSaldoPF(saldosFracionados, parametrosSaque),
+                new OperacaoSaqueSaldoPJ(saldosFracionados, parametrosSaque))), null);
+        conta = Conta.builder()
+                .numero(1L)
+                .saldo(Dinheiro.de(new BigDecimal("1000.00")))
+                .tipo(TipoConta.CONTA_CORRENTE)
+                .cliente(Cliente.builder().tipo(tipoCliente).build())
+                .build();
+        valor = Dinheiro.de(new BigDecimal("123.45"));
+    }
+
+    @Benchmark
+    public Dinheiro sacar() {
+        return saqueService.sacar(conta, valor);
+    }
+
+    @Benchmark
+    public Dinheiro calcularDebito() {
+        return saqueService.calcularDebito(conta, valor);
+    }
+
+}
@@ -0,0 +1,118 @@
+package br.ada.caixa.benchmark;
+
+import br.ada.caixa.entity.Cliente;
+import br.ada.caixa.entity.Conta;
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.entity.TipoConta;
+import br.ada.caixa.service.operacoesbancarias.saque.OperacaoSaque;
+import br.ada.caixa.service.operacoesbancarias.saque.OperacaoSaqueLimite;
+import br.ada.caixa.service.operacoesbancarias.saque.OperacaoSaqueSaldoPF;
+import br.ada.caixa.service.operacoesbancarias.saque.OperacaoSaqueSaldoPJ;
+import br.ada.caixa.service.operacoesbancarias.saque.ParametrosSaque;
+import br.ada.caixa.service.operacoesbancarias.saque.RegrasSaque;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de calcular o debito de um saque PF conforme cresce o numero de regras registradas para
+ * outras combinacoes (PJ/poupanca). "tabela" percorre so as regras da combinacao, via RegrasSaque;
+ * "lista" e o despacho antigo, que chamava todas as regras e cada uma testava se se aplicava. O
+ * tempo de "tabela" deve ficar estavel com regrasExtras; o de "lista" cresce com ele.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegrasSaqueBenchmark {
+
+    @Param({"0", "8", "64"})
+    private int regrasExtras;
+
+    private RegrasSaque regrasSaque;
+    private List<OperacaoSaque> todas;
+    private Conta conta;
+    private Dinheiro valor;
+
+    @Setup
+    public void setUp() {
+        var contaRepository = Stubs.contaRepository();
+        var saldosFracionados = Stubs.saldosFracionados(contaRepository);
+        var parametrosSaque = new ParametrosSaque(BigDecimal.ONE, new BigDecimal("1.005"), BigDecimal.ZERO, BigDecimal.ZERO,
+                "", Duration.ZERO);
+        todas = new ArrayList<>();
+        todas.add(new OperacaoSaqueLimite(parametrosSaque));
+        todas.add(new OperacaoSaqueSaldoPF(saldosFracionados, parametrosSaque));
+        todas.add(new OperacaoSaqueSaldoPJ(saldosFracionados, parametrosSaque));
+        for (int i = 0; i < regrasExtras; i++) {
+            todas.add(new RegraPoupancaPJ(parametrosSaque));
+        }
+        regrasSaque = new RegrasSaque(todas);
+        conta = Conta.builder()
+                .numero(1L)
+                .tipo(TipoConta.CONTA_CORRENTE)
+                .cliente(Cliente.builder().tipo(TipoCliente.PF).build())
+                .build();
+        valor = Dinheiro.de(new BigDecimal("123.45"));
+    }
+
+    @Benchmark
+    public Dinheiro tabela() {
+        var total = Dinheiro.ZERO;
+        for (OperacaoSaque operacaoSaque : regrasSaque.para(conta)) {
+            var debito = operacaoSaque.valorDebito(conta, valor);
+            if (debito != null) {
+                total = total.somar(debito);
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Dinheiro lista() {
+        var total = Dinheiro.ZERO;
+        final var tipoCliente = conta.getCliente().getTipo();
+        for (OperacaoSaque operacaoSaque : todas) {
+            if (!operacaoSaque.aplicaA(tipoCliente, conta.getTipo())) {
+                continue;
+            }
+            var debito = operacaoSaque.valorDebito(conta, valor);
+            if (debito != null) {
+                total = total.somar(debito);
+            }
+        }
+        return total;
+    }
+
+    // Regra de outra combinacao, so para ocupar espaco na lista
+    private static final class RegraPoupancaPJ extends OperacaoSaqueLimite {
+
+        RegraPoupancaPJ(ParametrosSaque parametrosSaque) {
+            super(parametrosSaque);
+        }
+
+        @Override
+        public boolean aplicaA(TipoCliente tipoCliente, TipoConta tipoConta) {
+            return tipoCliente == TipoCliente.PJ && tipoConta == TipoConta.CONTA_POUPANCA;
+        }
+
+    }
+
+}
@@ -0,0 +1,100 @@
+package br.ada.caixa.benchmark;
+
+import br.ada.caixa.entity.TaxaRendimento;
+import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.repository.ContaRepository;
+import br.ada.caixa.repository.TaxaRendimentoRepository;
+import br.ada.caixa.service.operacoesbancarias.saldo.SaldosFracionados;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Repositorios sem banco para medir so o codigo das operacoes: as escritas atomicas sempre
+ * "atualizam uma linha" e as taxas vem fixas.
+ */
+final class Stubs {
+
+    private Stubs() {
+    }
+
+    static ContaRepository contaRepository() {
+        return proxy(ContaRepository.class, (metodo, args) -> {
+            switch (metodo) {
+                case "creditar":
+                case "debitar":
+                    return 1;
+                default:
+                    throw new UnsupportedOperationException(metodo);
+            }
+        });
+    }
+
+    /**
+     * Sem contas fracionadas: todo credito e debito vai direto ao repositorio.
+     */
+    static SaldosFracionados saldosFracionados(ContaRepository contaRepository) {
+        return new SaldosFracionados(contaRepository, null, null, new SimpleMeterRegistry(), "", 1, Duration.ZERO);
+    }
+
+    static TaxaRendimentoRepository taxaRendimentoRepository() {
+        final var taxas = List.of(
+                new TaxaRendimento(TipoCliente.PF, new BigDecimal("1.01")),
+                new TaxaRendimento(TipoCliente.PJ, new BigDecimal("1.02")));
+        return proxy(TaxaRendimentoRepository.class, (metodo, args) -> {
+            switch (metodo) {
+                case "existsById":
+                    return true;
+                case "findAll":
+                    return taxas;
+                default:
+                    throw new UnsupportedOperationException(metodo);
+            }
+        });
+    }
+
+    /**
+     * JdbcTemplate cuja "sequence" e um contador em memoria; cada chamada reserva um novo bloco.
+     */
+    static JdbcTemplate sequenceEmMemoria() {
+        final var sequence = new AtomicLong();
+        return new JdbcTemplate() {
+            @Override
+            public void execute(String sql) {
+                // create sequence: nada a fazer
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T queryForObject(String sql, Class<T> requiredType) {
+                return (T) Long.valueOf(sequence.incrementAndGet());
+            }
+        };
+    }
+
+    private interface Resposta {
+        Object responder(String metodo, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> tipo, Resposta resposta) {
+        return (T) Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[]{tipo}, (proxy, metodo, args) -> {
+            switch (metodo.getName()) {
+                case "toString":
+                    return tipo.getSimpleName() + "Stub";
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    return resposta.responder(metodo.getName(), args);
+            }
+        });
+    }
+
+}
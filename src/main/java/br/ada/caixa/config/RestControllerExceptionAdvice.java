@@ -1,6 +1,8 @@
 package br.ada.caixa.config;
 
 import br.ada.caixa.dto.error.ErrorResponseDto;
+import br.ada.caixa.exceptions.ChaveIdempotenciaReutilizadaException;
+import br.ada.caixa.exceptions.RequisicaoEmAndamentoException;
 import br.ada.caixa.exceptions.ValidacaoException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -31,6 +33,18 @@ public class RestControllerExceptionAdvice {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(erros);
     }
 
+    @ExceptionHandler(RequisicaoEmAndamentoException.class)
+    public ResponseEntity<String> handlerRequisicaoEmAndamentoException(RequisicaoEmAndamentoException ex) {
+        log.info(ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(ChaveIdempotenciaReutilizadaException.class)
+    public ResponseEntity<String> handlerChaveIdempotenciaReutilizadaException(ChaveIdempotenciaReutilizadaException ex) {
+        log.info(ex.getMessage());
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(ex.getMessage());
+    }
+
     @ExceptionHandler( { ValidacaoException.class  } )
     public ResponseEntity<String> handlerValidacaoException(ValidacaoException validacaoException) {
         log.info(validacaoException.getMessage());
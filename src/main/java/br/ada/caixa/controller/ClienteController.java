@@ -4,8 +4,11 @@ import br.ada.caixa.dto.request.RegistrarClientePFRequestDto;
 import br.ada.caixa.dto.request.RegistrarClientePJRequestDto;
 import br.ada.caixa.dto.response.ClienteResponseDto;
 import br.ada.caixa.dto.response.RegistrarClienteResponseDto;
+import br.ada.caixa.dto.response.ResultadoRegistroClienteDto;
 import br.ada.caixa.dto.response.SaldoResponseDto;
 import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.enums.StatusCliente;
+import br.ada.caixa.service.cliente.ClienteLoteService;
 import br.ada.caixa.service.cliente.ClienteService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -25,16 +28,25 @@ import java.util.Objects;
 @RequestMapping("/clientes")
 public class ClienteController {
 
+    public static final String HEADER_PROXIMO_CURSOR = "X-Proximo-Cursor";
+
     private final ClienteService clienteService;
+    private final ClienteLoteService clienteLoteService;
 
+    // O corpo continua sendo a lista; o token da proxima pagina vai no header (ausente na ultima)
     @GetMapping
     public ResponseEntity<List<ClienteResponseDto>> listarTodos(
-            @RequestParam(required = false) String tipoCliente) {
-        if (Objects.isNull(tipoCliente)) {
-            return ResponseEntity.ok(clienteService.listarTodos());
-        } else {
-            return ResponseEntity.ok(clienteService.listarTodos(TipoCliente.valueOf(tipoCliente)));
+            @RequestParam(required = false) String tipoCliente,
+            @RequestParam(required = false) StatusCliente status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int tamanho) {
+        var tipo = Objects.isNull(tipoCliente) ? null : TipoCliente.valueOf(tipoCliente);
+        var pagina = clienteService.listarPagina(tipo, status, cursor, tamanho);
+        var response = ResponseEntity.ok();
+        if (pagina.getProximoCursor() != null) {
+            response.header(HEADER_PROXIMO_CURSOR, pagina.getProximoCursor());
         }
+        return response.body(pagina.getClientes());
     }
 
     @PostMapping("/pf")
@@ -48,4 +60,15 @@ public class ClienteController {
         var response = clienteService.registrarPJ(clienteDto);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
+
+    // Resultado por linha: as linhas recusadas nao impedem o cadastro das demais
+    @PostMapping("/pf/lote")
+    public ResponseEntity<List<ResultadoRegistroClienteDto>> registrarPFLote(@RequestBody List<RegistrarClientePFRequestDto> clientes) {
+        return ResponseEntity.ok(clienteLoteService.registrarPF(clientes));
+    }
+
+    @PostMapping("/pj/lote")
+    public ResponseEntity<List<ResultadoRegistroClienteDto>> registrarPJLote(@RequestBody List<RegistrarClientePJRequestDto> clientes) {
+        return ResponseEntity.ok(clienteLoteService.registrarPJ(clientes));
+    }
 }
@@ -0,0 +1,35 @@
+package br.ada.caixa.controller;
+
+import br.ada.caixa.service.exportacao.ExportacaoService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/exportacao")
+@RequiredArgsConstructor
+public class ExportacaoController {
+
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final ExportacaoService exportacaoService;
+
+    @GetMapping("/clientes")
+    public ResponseEntity<StreamingResponseBody> exportarClientes() {
+        return ResponseEntity.ok()
+                .contentType(APPLICATION_NDJSON)
+                .body(exportacaoService::exportarClientes);
+    }
+
+    @GetMapping("/contas")
+    public ResponseEntity<StreamingResponseBody> exportarContas() {
+        return ResponseEntity.ok()
+                .contentType(APPLICATION_NDJSON)
+                .body(exportacaoService::exportarContas);
+    }
+
+}
@@ -0,0 +1,32 @@
+package br.ada.caixa.controller;
+
+import br.ada.caixa.dto.response.ProgressoImportacaoDto;
+import br.ada.caixa.service.importacao.ImportacaoClientesService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/importacao")
+@RequiredArgsConstructor
+public class ImportacaoController {
+
+    private final ImportacaoClientesService importacaoClientesService;
+
+    // O corpo e o proprio CSV, lido direto do stream da requisicao sem ser carregado inteiro
+    @PostMapping("/clientes")
+    public ResponseEntity<ProgressoImportacaoDto> importarClientes(InputStream csv) {
+        return ResponseEntity.ok(importacaoClientesService.importar(csv));
+    }
+
+    @GetMapping("/clientes/progresso")
+    public ResponseEntity<ProgressoImportacaoDto> progressoImportacao() {
+        return ResponseEntity.ok(importacaoClientesService.progresso());
+    }
+
+}
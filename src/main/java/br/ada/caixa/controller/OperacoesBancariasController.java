@@ -4,13 +4,21 @@ import br.ada.caixa.dto.request.DepositoRequestDto;
 import br.ada.caixa.dto.request.InvestimentoRequestDto;
 import br.ada.caixa.dto.request.SaqueRequestDto;
 import br.ada.caixa.dto.request.TransferenciaRequestDto;
+import br.ada.caixa.dto.response.ProgressoRendimentoDto;
+import br.ada.caixa.dto.response.ResultadoTransferenciaDto;
 import br.ada.caixa.dto.response.SaldoResponseDto;
 import br.ada.caixa.service.conta.ContaService;
+import br.ada.caixa.service.idempotencia.ControleIdempotencia;
 import br.ada.caixa.service.operacoesbancarias.deposito.DepositoService;
 import br.ada.caixa.service.operacoesbancarias.investimento.InvestimentoService;
+import br.ada.caixa.service.operacoesbancarias.investimento.ModoRendimento;
+import br.ada.caixa.service.operacoesbancarias.investimento.RendimentoEmSql;
+import br.ada.caixa.service.operacoesbancarias.investimento.RendimentoJob;
 import br.ada.caixa.service.operacoesbancarias.saldo.SaldoService;
 import br.ada.caixa.service.operacoesbancarias.saque.SaqueService;
+import br.ada.caixa.service.operacoesbancarias.transferencia.TransferenciaLoteService;
 import br.ada.caixa.service.operacoesbancarias.transferencia.TransferenciaService;
+import com.fasterxml.jackson.core.type.TypeReference;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -18,9 +26,13 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/operacoes")
 @RequiredArgsConstructor
@@ -29,27 +41,52 @@ public class OperacoesBancariasController {
     private final DepositoService depositoService;
     private final SaqueService saqueService;
     private final TransferenciaService transferenciaService;
+    private final TransferenciaLoteService transferenciaLoteService;
     private final SaldoService saldoService;
     private final InvestimentoService investimentoService;
+    private final RendimentoJob rendimentoJob;
+    private final RendimentoEmSql rendimentoEmSql;
     private final ContaService contaService;
+    private final ControleIdempotencia controleIdempotencia;
+
+    // Os POSTs aceitam Idempotency-Key: repetir a chave devolve o resultado da primeira execucao
 
     @PostMapping("/depositar")
-    public ResponseEntity<Void> depositar(@RequestBody DepositoRequestDto depositoRequestDto) {
-        depositoService.depositar(depositoRequestDto.getNumeroConta(), depositoRequestDto.getValor());
-        return ResponseEntity.ok().build();
+    public ResponseEntity<Void> depositar(@RequestBody DepositoRequestDto depositoRequestDto,
+                                          @RequestHeader(value = ControleIdempotencia.CABECALHO, required = false) String chave) {
+        return controleIdempotencia.executar("deposito", chave, depositoRequestDto, Void.class, () -> {
+            depositoService.depositar(depositoRequestDto.getNumeroConta(), depositoRequestDto.getValor());
+            return ResponseEntity.ok().build();
+        });
     }
 
     @PostMapping("/sacar")
-    public ResponseEntity<Void> sacar(@RequestBody SaqueRequestDto saqueRequestDto) {
-        saqueService.sacar(saqueRequestDto.getNumeroConta(), saqueRequestDto.getValor());
-        return ResponseEntity.ok().build();
+    public ResponseEntity<Void> sacar(@RequestBody SaqueRequestDto saqueRequestDto,
+                                      @RequestHeader(value = ControleIdempotencia.CABECALHO, required = false) String chave) {
+        return controleIdempotencia.executar("saque", chave, saqueRequestDto, Void.class, () -> {
+            saqueService.sacar(saqueRequestDto.getNumeroConta(), saqueRequestDto.getValor());
+            return ResponseEntity.ok().build();
+        });
     }
 
     @PostMapping("/transferir")
-    public void transferir(@RequestBody TransferenciaRequestDto transferenciaRequestDto) {
-        transferenciaService.transferir(transferenciaRequestDto.getNumeroContaOrigem(),
-                transferenciaRequestDto.getNumeroContaDestino(),
-                transferenciaRequestDto.getValor());
+    public ResponseEntity<Void> transferir(@RequestBody TransferenciaRequestDto transferenciaRequestDto,
+                                           @RequestHeader(value = ControleIdempotencia.CABECALHO, required = false) String chave) {
+        return controleIdempotencia.executar("transferencia", chave, transferenciaRequestDto, Void.class, () -> {
+            transferenciaService.transferir(transferenciaRequestDto.getNumeroContaOrigem(),
+                    transferenciaRequestDto.getNumeroContaDestino(),
+                    transferenciaRequestDto.getValor());
+            return ResponseEntity.ok().build();
+        });
+    }
+
+    @PostMapping("/transferir/lote")
+    public ResponseEntity<List<ResultadoTransferenciaDto>> transferirLote(
+            @RequestBody List<TransferenciaRequestDto> transferencias,
+            @RequestHeader(value = ControleIdempotencia.CABECALHO, required = false) String chave) {
+        return controleIdempotencia.executar("transferencia-lote", chave, transferencias,
+                new TypeReference<List<ResultadoTransferenciaDto>>() {},
+                () -> ResponseEntity.ok(transferenciaLoteService.transferir(transferencias)));
     }
 
     @GetMapping("/saldo/{numeroConta}")
@@ -62,24 +99,48 @@ public class OperacoesBancariasController {
 
     @PostMapping("/investir")
     public ResponseEntity<SaldoResponseDto> investir
-            (@RequestBody InvestimentoRequestDto investimentoRequestDto) {
-        var contaInvestimento = investimentoService.investir(investimentoRequestDto.getDocumentoCliente(), investimentoRequestDto.getValor());
+            (@RequestBody InvestimentoRequestDto investimentoRequestDto,
+             @RequestHeader(value = ControleIdempotencia.CABECALHO, required = false) String chave) {
+        return controleIdempotencia.executar("investimento", chave, investimentoRequestDto, SaldoResponseDto.class, () -> {
+            var contaInvestimento = investimentoService.investir(investimentoRequestDto.getDocumentoCliente(), investimentoRequestDto.getValor());
 
-        var saldoResponseDto = new SaldoResponseDto();
-        saldoResponseDto.setNumeroConta(contaInvestimento.getNumero());
-        saldoResponseDto.setSaldo(contaInvestimento.getSaldo());
-        return ResponseEntity.status(HttpStatus.OK).body(saldoResponseDto);
+            var saldoResponseDto = new SaldoResponseDto();
+            saldoResponseDto.setNumeroConta(contaInvestimento.getNumero());
+            saldoResponseDto.setSaldo(contaInvestimento.getSaldo().paraBigDecimal());
+            return ResponseEntity.status(HttpStatus.OK).body(saldoResponseDto);
+        });
+    }
+
+    @PostMapping("/render")
+    public ResponseEntity<ProgressoRendimentoDto> render(
+            @RequestParam(defaultValue = "LOTE") ModoRendimento modo,
+            @RequestHeader(value = ControleIdempotencia.CABECALHO, required = false) String chave) {
+        return controleIdempotencia.executar("rendimento", chave, modo, ProgressoRendimentoDto.class, () -> {
+            if (modo == ModoRendimento.SQL) {
+                return ResponseEntity.ok(rendimentoEmSql.executar());
+            }
+            rendimentoJob.iniciar();
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(rendimentoJob.progresso());
+        });
+    }
+
+    @GetMapping("/render/progresso")
+    public ResponseEntity<ProgressoRendimentoDto> progressoRender() {
+        return ResponseEntity.ok(rendimentoJob.progresso());
     }
 
     //Regra: cliente PJ nao pode ter conta poupanca
     @PostMapping("/abrir-conta-poupanca/{cpf}")
-    public ResponseEntity<SaldoResponseDto> abrirContaPoupanca(@PathVariable String cpf) {
-        var contaPoupanca = contaService.abrirContaPoupanca(cpf);
+    public ResponseEntity<SaldoResponseDto> abrirContaPoupanca(@PathVariable String cpf,
+                                                               @RequestHeader(value = ControleIdempotencia.CABECALHO, required = false) String chave) {
+        return controleIdempotencia.executar("abertura-poupanca", chave, cpf, SaldoResponseDto.class, () -> {
+            var contaPoupanca = contaService.abrirContaPoupanca(cpf);
 
-        var saldoResponseDto = new SaldoResponseDto();
-        saldoResponseDto.setNumeroConta(contaPoupanca.getNumero());
-        saldoResponseDto.setSaldo(contaPoupanca.getSaldo());
-        return ResponseEntity.status(HttpStatus.OK).body(saldoResponseDto);
+            var saldoResponseDto = new SaldoResponseDto();
+            saldoResponseDto.setNumeroConta(contaPoupanca.getNumero());
+            saldoResponseDto.setSaldo(contaPoupanca.getSaldo().paraBigDecimal());
+            return ResponseEntity.status(HttpStatus.OK).body(saldoResponseDto);
+        });
     }
 
 }
@@ -0,0 +1,38 @@
+package br.ada.caixa.dto.response;
+
+import br.ada.caixa.entity.Cliente;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ClienteExportDto {
+
+    private UUID id;
+    private String documento;
+    private String nome;
+    private LocalDate dataNascimento;
+    private String status;
+    private String tipo;
+    private LocalDate createdAt;
+
+    public static ClienteExportDto de(Cliente cliente) {
+        return ClienteExportDto.builder()
+                .id(cliente.getId())
+                .documento(cliente.getDocumento())
+                .nome(cliente.getNome())
+                .dataNascimento(cliente.getDataNascimento())
+                .status(cliente.getStatus() == null ? null : cliente.getStatus().name())
+                .tipo(cliente.getTipo() == null ? null : cliente.getTipo().name())
+                .createdAt(cliente.getCreatedAt())
+                .build();
+    }
+
+}
@@ -0,0 +1,30 @@
+package br.ada.caixa.dto.response;
+
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.entity.TipoConta;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ContaExportDto {
+
+    private Long numero;
+    private BigDecimal saldo;
+    private TipoConta tipo;
+    private String documentoCliente;
+    private LocalDate createdAt;
+
+    // Usado pela projecao JPQL de ContaRepository.streamExportacao, que le o saldo ja convertido
+    public ContaExportDto(Long numero, Dinheiro saldo, TipoConta tipo, String documentoCliente, LocalDate createdAt) {
+        this(numero, saldo.paraBigDecimal(), tipo, documentoCliente, createdAt);
+    }
+
+}
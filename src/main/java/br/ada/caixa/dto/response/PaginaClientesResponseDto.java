@@ -0,0 +1,20 @@
+package br.ada.caixa.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PaginaClientesResponseDto {
+
+    private List<ClienteResponseDto> clientes;
+    // null quando esta e a ultima pagina
+    private String proximoCursor;
+
+}
@@ -0,0 +1,27 @@
+package br.ada.caixa.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProgressoImportacaoDto {
+
+    private boolean emExecucao;
+    private UUID importacao;
+    private long linhasLidas;
+    private long linhasImportadas;
+    private long linhasRejeitadas;
+    private double linhasPorSegundo;
+    private String arquivoRejeitados;
+    private Instant inicio;
+    private Instant fim;
+
+}
@@ -0,0 +1,26 @@
+package br.ada.caixa.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProgressoRendimentoDto {
+
+    private boolean emExecucao;
+    private UUID execucao;
+    private long totalContas;
+    private long contasProcessadas;
+    private double percentual;
+    private double contasPorSegundo;
+    private Instant inicio;
+    private Instant fim;
+
+}
@@ -0,0 +1,20 @@
+package br.ada.caixa.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResultadoRegistroClienteDto {
+
+    private int indice;
+    private String documento;
+    private Long numeroConta;
+    private boolean sucesso;
+    private String erro;
+
+}
@@ -0,0 +1,23 @@
+package br.ada.caixa.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResultadoTransferenciaDto {
+
+    private int indice;
+    private Long numeroContaOrigem;
+    private Long numeroContaDestino;
+    private BigDecimal valor;
+    private boolean sucesso;
+    private String erro;
+
+}
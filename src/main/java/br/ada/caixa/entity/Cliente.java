@@ -21,6 +21,10 @@ import java.util.UUID;
 @NoArgsConstructor
 @Builder
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_cliente_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_cliente_tipo_status_created_at_id", columnList = "tipo, status, created_at, id")
+})
 public class Cliente implements Serializable {
 
     @Id
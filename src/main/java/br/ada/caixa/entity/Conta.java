@@ -8,7 +8,6 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.GenericGenerator;
 
 import javax.persistence.*;
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.UUID;
 
@@ -28,8 +27,9 @@ public class Conta {
     @Column(unique = true, nullable = false)
     private Long numero;
 
+    // Centavos em BIGINT (ver DinheiroConverter)
     @Column(nullable = false)
-    private BigDecimal saldo;
+    private Dinheiro saldo;
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
@@ -42,4 +42,7 @@ public class Conta {
     @CreationTimestamp
     private LocalDate createdAt;
 
+    @Version
+    private Long versao;
+
 }
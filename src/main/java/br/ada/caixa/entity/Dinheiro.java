@@ -0,0 +1,133 @@
+package br.ada.caixa.entity;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Valor monetario em centavos, num long. Valores e produtos por taxa sao arredondados ao centavo com
+ * HALF_UP; soma e subtracao sao exatas e falham com {@link ArithmeticException} em vez de transbordar.
+ */
+public final class Dinheiro implements Comparable<Dinheiro> {
+
+    public static final Dinheiro ZERO = new Dinheiro(0);
+
+    private static final int CASAS = 2;
+    private static final long[] POTENCIAS_DE_DEZ = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+            10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L,
+            1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L};
+
+    private final long centavos;
+
+    private Dinheiro(long centavos) {
+        this.centavos = centavos;
+    }
+
+    public static Dinheiro deCentavos(long centavos) {
+        return centavos == 0 ? ZERO : new Dinheiro(centavos);
+    }
+
+    /**
+     * Converte um valor da API; null continua null para que a validacao de quem chama decida.
+     */
+    public static Dinheiro de(BigDecimal valor) {
+        if (valor == null) {
+            return null;
+        }
+        return deCentavos(valor.setScale(CASAS, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    public long getCentavos() {
+        return centavos;
+    }
+
+    public Dinheiro somar(Dinheiro outro) {
+        return deCentavos(Math.addExact(centavos, outro.centavos));
+    }
+
+    public Dinheiro subtrair(Dinheiro outro) {
+        return deCentavos(Math.subtractExact(centavos, outro.centavos));
+    }
+
+    public Dinheiro negar() {
+        return deCentavos(Math.negateExact(centavos));
+    }
+
+    /**
+     * Multiplica por um fator em ponto fixo ({@code fator / 10^casasFator}, ex.: 1005 com 3 casas =
+     * 1,005) e arredonda para o centavo com HALF_UP.
+     */
+    public Dinheiro multiplicar(long fator, int casasFator) {
+        final long divisor = POTENCIAS_DE_DEZ[casasFator];
+        final long alto = Math.multiplyHigh(centavos, fator);
+        final long produto = centavos * fator;
+        // Sem transbordo o produto cabe em um long: os 64 bits altos sao so a extensao do sinal
+        if ((alto == 0 && produto >= 0) || (alto == -1 && produto < 0)) {
+            long quociente = produto / divisor;
+            long resto = produto % divisor;
+            if (Math.abs(resto) * 2 >= divisor) {
+                quociente += Long.signum(produto);
+            }
+            return deCentavos(quociente);
+        }
+        return deCentavos(BigDecimal.valueOf(centavos).multiply(BigDecimal.valueOf(fator, casasFator))
+                .setScale(0, RoundingMode.HALF_UP).longValueExact());
+    }
+
+    /**
+     * Multiplica por uma taxa decimal (ex.: taxa de rendimento 1.01), com a regra de {@link #multiplicar(long, int)}.
+     */
+    public Dinheiro multiplicar(BigDecimal fator) {
+        final var normalizado = fator.scale() < 0 ? fator.setScale(0) : fator;
+        if (normalizado.scale() < POTENCIAS_DE_DEZ.length && normalizado.precision() <= 18) {
+            return multiplicar(normalizado.unscaledValue().longValue(), normalizado.scale());
+        }
+        return deCentavos(new BigDecimal(BigInteger.valueOf(centavos)).multiply(fator)
+                .setScale(0, RoundingMode.HALF_UP).longValueExact());
+    }
+
+    public int signum() {
+        return Long.signum(centavos);
+    }
+
+    public boolean isNegativo() {
+        return centavos < 0;
+    }
+
+    public boolean isZero() {
+        return centavos == 0;
+    }
+
+    public boolean maiorQue(Dinheiro outro) {
+        return centavos > outro.centavos;
+    }
+
+    /**
+     * Valor com duas casas, para a borda JSON/SQL.
+     */
+    public BigDecimal paraBigDecimal() {
+        return BigDecimal.valueOf(centavos, CASAS);
+    }
+
+    @Override
+    public int compareTo(Dinheiro outro) {
+        return Long.compare(centavos, outro.centavos);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Dinheiro && ((Dinheiro) o).centavos == centavos);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(centavos);
+    }
+
+    @Override
+    public String toString() {
+        return paraBigDecimal().toPlainString();
+    }
+
+}
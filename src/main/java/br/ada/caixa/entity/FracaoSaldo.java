@@ -0,0 +1,49 @@
+package br.ada.caixa.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import javax.persistence.Version;
+import java.util.UUID;
+
+/**
+ * Parte do saldo de uma conta com saldo fracionado. A fracao 0 e o proprio {@link Conta#getSaldo()};
+ * as linhas desta tabela sao as fracoes 1 a N-1, e o saldo da conta e a soma de todas.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"numero_conta", "indice"}))
+public class FracaoSaldo {
+
+    @Id
+    @GeneratedValue(generator = "uuid-hibernate-generator")
+    @GenericGenerator(name = "uuid-hibernate-generator", strategy = "org.hibernate.id.UUIDGenerator")
+    @Column(columnDefinition = "uuid")
+    private UUID id;
+
+    @Column(nullable = false)
+    private Long numeroConta;
+
+    @Column(nullable = false)
+    private Integer indice;
+
+    // Centavos em BIGINT, como o saldo da conta
+    @Column(nullable = false)
+    private Dinheiro saldo;
+
+    @Version
+    private Long versao;
+
+}
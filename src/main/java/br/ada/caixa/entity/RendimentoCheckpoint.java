@@ -0,0 +1,53 @@
+package br.ada.caixa.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Progresso de uma particao (faixa de numeros de conta) de uma execucao do rendimento mensal.
+ * Gravado na mesma transacao de cada pagina processada, permite retomar a execucao de onde parou.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+public class RendimentoCheckpoint {
+
+    @Id
+    @GeneratedValue(generator = "uuid-hibernate-generator")
+    @GenericGenerator(name = "uuid-hibernate-generator", strategy = "org.hibernate.id.UUIDGenerator")
+    @Column(columnDefinition = "uuid")
+    private UUID id;
+
+    @Column(nullable = false)
+    private UUID execucao;
+
+    @Column(nullable = false)
+    private Integer particao;
+
+    @Column(nullable = false)
+    private Long inicio;
+
+    @Column(nullable = false)
+    private Long fim;
+
+    // Ultimo numero de conta ja rendido nesta particao; null enquanto nenhuma pagina foi gravada
+    private Long ultimoNumero;
+
+    @Column(nullable = false)
+    private boolean concluida;
+
+    private LocalDateTime atualizadoEm;
+
+}
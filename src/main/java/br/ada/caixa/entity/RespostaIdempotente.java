@@ -0,0 +1,51 @@
+package br.ada.caixa.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Lob;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * Resultado de uma operacao executada com Idempotency-Key, para que repeticoes da mesma chave
+ * devolvam o mesmo resultado sem executar de novo, inclusive depois de reiniciar.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(indexes = @Index(name = "idx_resposta_idempotente_criada_em", columnList = "criadaEm"))
+public class RespostaIdempotente {
+
+    // Operacao e chave enviada pelo cliente, ex.: "deposito:3f9c..."
+    @Id
+    @Column(length = 300)
+    private String chave;
+
+    // SHA-256 (hex) da requisicao original, para recusar a mesma chave com outro corpo
+    @Column(nullable = false, length = 64)
+    private String hashRequisicao;
+
+    @Column(nullable = false)
+    private Integer status;
+
+    // Corpo da resposta em JSON; null quando a resposta nao tem corpo ou a operacao falhou
+    @Lob
+    private String corpo;
+
+    // Mensagem da ValidacaoException quando a operacao foi recusada
+    @Column(length = 1000)
+    private String erro;
+
+    @Column(nullable = false)
+    private LocalDateTime criadaEm;
+
+}
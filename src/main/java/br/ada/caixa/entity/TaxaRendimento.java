@@ -0,0 +1,33 @@
+package br.ada.caixa.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import java.math.BigDecimal;
+
+/**
+ * Fator de rendimento mensal aplicado as contas investimento de cada tipo de cliente
+ * (ex.: 1.01 = 1% ao mes).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+public class TaxaRendimento {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    private TipoCliente tipoCliente;
+
+    @Column(nullable = false, precision = 12, scale = 8)
+    private BigDecimal taxa;
+
+}
@@ -0,0 +1,14 @@
+package br.ada.caixa.enums;
+
+public enum TipoLancamento {
+
+    DEPOSITO,
+    SAQUE,
+    TRANSFERENCIA,
+    INVESTIMENTO,
+    RENDIMENTO,
+    // Marcadores do journal: fecham um lote, sem conta nem delta
+    CONFIRMACAO,
+    CANCELAMENTO
+
+}
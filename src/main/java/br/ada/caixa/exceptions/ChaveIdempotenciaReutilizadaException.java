@@ -0,0 +1,9 @@
+package br.ada.caixa.exceptions;
+
+public class ChaveIdempotenciaReutilizadaException extends ValidacaoException {
+
+    public ChaveIdempotenciaReutilizadaException() {
+        super("Idempotency-Key já usada com outra requisição!");
+    }
+
+}
@@ -0,0 +1,13 @@
+package br.ada.caixa.exceptions;
+
+public class ContaInvalidaException extends ValidacaoException {
+
+    public ContaInvalidaException() {
+        super("Conta inválida!");
+    }
+
+    public ContaInvalidaException(String msg) {
+        super(msg);
+    }
+
+}
@@ -0,0 +1,9 @@
+package br.ada.caixa.exceptions;
+
+public class RequisicaoEmAndamentoException extends ValidacaoException {
+
+    public RequisicaoEmAndamentoException() {
+        super("Requisição com a mesma Idempotency-Key em andamento!");
+    }
+
+}
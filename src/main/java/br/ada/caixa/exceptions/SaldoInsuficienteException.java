@@ -0,0 +1,9 @@
+package br.ada.caixa.exceptions;
+
+public class SaldoInsuficienteException extends ValidacaoException {
+
+    public SaldoInsuficienteException() {
+        super("Saldo insuficiente!");
+    }
+
+}
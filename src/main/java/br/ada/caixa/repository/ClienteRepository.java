@@ -3,17 +3,32 @@ package br.ada.caixa.repository;
 import br.ada.caixa.entity.Cliente;
 import br.ada.caixa.entity.TipoCliente;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
-public interface ClienteRepository extends JpaRepository<Cliente, UUID> {
+public interface ClienteRepository extends JpaRepository<Cliente, UUID>, ClienteRepositoryCustom {
 
     Optional<Cliente> findByDocumento(String documento);
 
+    @Query("select c.documento from Cliente c where c.documento in :documentos")
+    List<String> findDocumentosExistentes(@Param("documentos") Collection<String> documentos);
+
     List<Cliente> findAllByTipo(TipoCliente tipoCliente);
 
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select c from Cliente c")
+    Stream<Cliente> streamAll();
+
 }
@@ -0,0 +1,20 @@
+package br.ada.caixa.repository;
+
+import br.ada.caixa.entity.Cliente;
+import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.enums.StatusCliente;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+public interface ClienteRepositoryCustom {
+
+    /**
+     * Pagina de clientes em ordem (createdAt, id) a partir da chave informada (exclusiva), sem COUNT.
+     * Filtros e chave nulos sao ignorados; sem chave retorna a primeira pagina.
+     */
+    Slice<Cliente> buscarPagina(TipoCliente tipo, StatusCliente status,
+                                LocalDate aposCreatedAt, UUID aposId, int tamanho);
+
+}
@@ -0,0 +1,66 @@
+package br.ada.caixa.repository;
+
+import br.ada.caixa.entity.Cliente;
+import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.enums.StatusCliente;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+class ClienteRepositoryCustomImpl implements ClienteRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // O JPQL e montado so com os filtros presentes para que o banco use o indice (tipo, status, created_at, id)
+    // em vez de avaliar "(:param is null or ...)" linha a linha
+    @Override
+    public Slice<Cliente> buscarPagina(TipoCliente tipo, StatusCliente status,
+                                       LocalDate aposCreatedAt, UUID aposId, int tamanho) {
+        List<String> condicoes = new ArrayList<>();
+        if (tipo != null) {
+            condicoes.add("c.tipo = :tipo");
+        }
+        if (status != null) {
+            condicoes.add("c.status = :status");
+        }
+        final boolean comChave = aposCreatedAt != null && aposId != null;
+        if (comChave) {
+            condicoes.add("(c.createdAt > :createdAt or (c.createdAt = :createdAt and c.id > :id))");
+        }
+
+        var jpql = new StringBuilder("select c from Cliente c");
+        if (!condicoes.isEmpty()) {
+            jpql.append(" where ").append(String.join(" and ", condicoes));
+        }
+        jpql.append(" order by c.createdAt, c.id");
+
+        var query = entityManager.createQuery(jpql.toString(), Cliente.class);
+        if (tipo != null) {
+            query.setParameter("tipo", tipo);
+        }
+        if (status != null) {
+            query.setParameter("status", status);
+        }
+        if (comChave) {
+            query.setParameter("createdAt", aposCreatedAt);
+            query.setParameter("id", aposId);
+        }
+
+        // Um registro a mais diz se existe proxima pagina sem precisar de COUNT(*)
+        List<Cliente> clientes = query.setMaxResults(tamanho + 1).getResultList();
+        final boolean temProxima = clientes.size() > tamanho;
+        if (temProxima) {
+            clientes = clientes.subList(0, tamanho);
+        }
+        return new SliceImpl<>(clientes, PageRequest.of(0, tamanho), temProxima);
+    }
+
+}
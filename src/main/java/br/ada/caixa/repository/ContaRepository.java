@@ -1,14 +1,28 @@
 package br.ada.caixa.repository;
 
+import br.ada.caixa.dto.response.ContaExportDto;
 import br.ada.caixa.entity.Cliente;
 import br.ada.caixa.entity.Conta;
 import br.ada.caixa.entity.TipoConta;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface ContaRepository extends JpaRepository<Conta, UUID> {
@@ -17,4 +31,62 @@ public interface ContaRepository extends JpaRepository<Conta, UUID> {
     List<Conta> findContasByTipo(TipoConta tipoConta);
     Optional<Conta> findByNumero(Long numero);
 
+    boolean existsByNumero(Long numero);
+
+    // Projecao direto para o DTO: nada fica no contexto de persistencia e o cliente vem no mesmo join
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new br.ada.caixa.dto.response.ContaExportDto(c.numero, c.saldo, c.tipo, cl.documento, c.createdAt)"
+            + " from Conta c join c.cliente cl")
+    Stream<ContaExportDto> streamExportacao();
+
+    long countByTipo(TipoConta tipoConta);
+
+    @Query("select min(c.numero) from Conta c where c.tipo = :tipo")
+    Long findMenorNumeroPorTipo(@Param("tipo") TipoConta tipoConta);
+
+    @Query("select max(c.numero) from Conta c where c.tipo = :tipo")
+    Long findMaiorNumeroPorTipo(@Param("tipo") TipoConta tipoConta);
+
+    /**
+     * Pagina por keyset (numero entre desde e ate, em ordem) bloqueando as linhas lidas. Deve ser
+     * chamado dentro de uma transacao.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Conta c join fetch c.cliente " +
+            "where c.tipo = :tipo and c.numero between :desde and :ate order by c.numero")
+    List<Conta> findPaginaParaAtualizacao(@Param("tipo") TipoConta tipoConta,
+                                          @Param("desde") Long desde,
+                                          @Param("ate") Long ate,
+                                          Pageable pageable);
+
+    /**
+     * Carrega as contas em uma unica consulta com SELECT ... FOR UPDATE, bloqueando as linhas na
+     * ordem do numero para que transacoes concorrentes sobre as mesmas contas nao entrem em deadlock.
+     * Deve ser chamado dentro de uma transacao.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Conta c join fetch c.cliente where c.numero in :numeros order by c.numero")
+    List<Conta> findAllByNumeroInParaAtualizacao(@Param("numeros") Collection<Long> numeros);
+
+    /**
+     * Soma os centavos ao saldo em um unico UPDATE, incrementando a versao para invalidar leituras
+     * otimistas concorrentes. Retorna 0 quando a conta nao existe. A consulta e nativa porque o JPQL
+     * nao faz aritmetica sobre um atributo convertido ({@link br.ada.caixa.entity.DinheiroConverter}).
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "update conta set saldo = saldo + :centavos, versao = versao + 1 where numero = :numero",
+            nativeQuery = true)
+    int creditar(@Param("numero") Long numero, @Param("centavos") long centavos);
+
+    /**
+     * Subtrai os centavos do saldo somente se houver saldo suficiente. Retorna 0 quando a conta nao
+     * existe ou o saldo e insuficiente; nesse caso nada e alterado.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "update conta set saldo = saldo - :centavos, versao = versao + 1 where numero = :numero and saldo >= :centavos",
+            nativeQuery = true)
+    int debitar(@Param("numero") Long numero, @Param("centavos") long centavos);
+
 }
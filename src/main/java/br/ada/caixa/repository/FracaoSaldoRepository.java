@@ -0,0 +1,56 @@
+package br.ada.caixa.repository;
+
+import br.ada.caixa.entity.FracaoSaldo;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface FracaoSaldoRepository extends JpaRepository<FracaoSaldo, UUID> {
+
+    @Query("select distinct f.numeroConta from FracaoSaldo f")
+    List<Long> findNumerosConta();
+
+    /**
+     * Bloqueia as fracoes das contas em ordem (conta, indice). Quem tambem bloqueia a linha da conta
+     * deve bloquea-la antes. Deve ser chamado dentro de uma transacao.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select f from FracaoSaldo f where f.numeroConta in :numeros order by f.numeroConta, f.indice")
+    List<FracaoSaldo> findAllByNumeroContaInParaAtualizacao(@Param("numeros") Collection<Long> numerosConta);
+
+    /**
+     * Soma das fracoes por conta (numero, centavos), so das contas com soma diferente de zero.
+     */
+    @Query(value = "select numero_conta, sum(saldo) from fracao_saldo group by numero_conta having sum(saldo) <> 0",
+            nativeQuery = true)
+    List<Object[]> somarPorConta();
+
+    /**
+     * Como {@link ContaRepository#creditar}, para uma fracao. Retorna 0 quando a fracao nao existe.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "update fracao_saldo set saldo = saldo + :centavos, versao = versao + 1"
+            + " where numero_conta = :numero and indice = :indice", nativeQuery = true)
+    int creditar(@Param("numero") Long numeroConta, @Param("indice") int indice, @Param("centavos") long centavos);
+
+    /**
+     * Como {@link ContaRepository#debitar}, para uma fracao: so debita se a fracao tiver saldo suficiente.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "update fracao_saldo set saldo = saldo - :centavos, versao = versao + 1"
+            + " where numero_conta = :numero and indice = :indice and saldo >= :centavos", nativeQuery = true)
+    int debitar(@Param("numero") Long numeroConta, @Param("indice") int indice, @Param("centavos") long centavos);
+
+}
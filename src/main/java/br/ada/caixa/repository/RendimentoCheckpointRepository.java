@@ -0,0 +1,15 @@
+package br.ada.caixa.repository;
+
+import br.ada.caixa.entity.RendimentoCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface RendimentoCheckpointRepository extends JpaRepository<RendimentoCheckpoint, UUID> {
+
+    List<RendimentoCheckpoint> findByConcluidaFalseOrderByParticao();
+
+}
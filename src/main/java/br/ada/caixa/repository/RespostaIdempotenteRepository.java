@@ -0,0 +1,34 @@
+package br.ada.caixa.repository;
+
+import br.ada.caixa.entity.RespostaIdempotente;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface RespostaIdempotenteRepository extends JpaRepository<RespostaIdempotente, String> {
+
+    /**
+     * Reserva a chave com um INSERT puro (status 0): outra reserva da mesma chave falha na chave
+     * primaria ou espera o commit de quem a reservou, mesmo em outro no.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "insert into resposta_idempotente (chave, hash_requisicao, status, criada_em)"
+            + " values (:chave, :hash, 0, :criadaEm)", nativeQuery = true)
+    int reservar(@Param("chave") String chave, @Param("hash") String hash, @Param("criadaEm") LocalDateTime criadaEm);
+
+    @Modifying
+    @Query("delete from RespostaIdempotente r where r.chave = :chave and r.criadaEm < :limite")
+    int apagarSeCriadaAntesDe(@Param("chave") String chave, @Param("limite") LocalDateTime limite);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RespostaIdempotente r where r.criadaEm < :limite")
+    int apagarCriadasAntesDe(@Param("limite") LocalDateTime limite);
+
+}
@@ -0,0 +1,10 @@
+package br.ada.caixa.repository;
+
+import br.ada.caixa.entity.TaxaRendimento;
+import br.ada.caixa.entity.TipoCliente;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TaxaRendimentoRepository extends JpaRepository<TaxaRendimento, TipoCliente> {
+}
@@ -0,0 +1,57 @@
+package br.ada.caixa.service.agendamento;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executa uma tarefa com intervalo fixo numa thread daemon com o nome informado; uma excecao da tarefa
+ * vai para o log sem cancelar as execucoes seguintes, e intervalo zero nao agenda nada.
+ */
+@Slf4j
+public class TarefaPeriodica {
+
+    private final String nome;
+    private final Runnable tarefa;
+    private ScheduledExecutorService agendador;
+
+    public TarefaPeriodica(String nome, Runnable tarefa) {
+        this.nome = nome;
+        this.tarefa = tarefa;
+    }
+
+    public synchronized void iniciar(Duration intervalo) {
+        if (agendador != null || intervalo.isZero() || intervalo.isNegative()) {
+            return;
+        }
+        agendador = Executors.newSingleThreadScheduledExecutor(execucao -> {
+            var thread = new Thread(execucao, nome);
+            thread.setDaemon(true);
+            return thread;
+        });
+        agendador.scheduleWithFixedDelay(this::executar, intervalo.toMillis(), intervalo.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void parar() {
+        if (agendador != null) {
+            agendador.shutdownNow();
+            agendador = null;
+        }
+    }
+
+    public synchronized boolean isAgendada() {
+        return agendador != null;
+    }
+
+    private void executar() {
+        try {
+            tarefa.run();
+        } catch (RuntimeException e) {
+            log.error("Falha na tarefa periodica {}", nome, e);
+        }
+    }
+
+}
@@ -0,0 +1,140 @@
+package br.ada.caixa.service.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache em memoria limitado por quantidade de entradas e por TTL, com metricas em {@code banco.cache.*}.
+ */
+public class CacheLimitado<K, V> {
+
+    private final Map<K, Entrada<V>> entradas = new ConcurrentHashMap<>();
+    private final int tamanhoMaximo;
+    private final long ttlNanos;
+    private final LongSupplier relogio;
+    private final Counter acertos;
+    private final Counter falhas;
+    private final Counter remocoes;
+
+    public CacheLimitado(String nome, int tamanhoMaximo, Duration ttl, MeterRegistry meterRegistry) {
+        this(nome, tamanhoMaximo, ttl, meterRegistry, System::nanoTime);
+    }
+
+    CacheLimitado(String nome, int tamanhoMaximo, Duration ttl, MeterRegistry meterRegistry, LongSupplier relogio) {
+        if (tamanhoMaximo <= 0) {
+            throw new IllegalArgumentException("Tamanho maximo do cache deve ser positivo");
+        }
+        this.tamanhoMaximo = tamanhoMaximo;
+        this.ttlNanos = ttl.toNanos();
+        this.relogio = relogio;
+        this.acertos = Counter.builder("banco.cache.acessos").tag("cache", nome).tag("resultado", "acerto")
+                .register(meterRegistry);
+        this.falhas = Counter.builder("banco.cache.acessos").tag("cache", nome).tag("resultado", "falha")
+                .register(meterRegistry);
+        this.remocoes = Counter.builder("banco.cache.remocoes").tag("cache", nome).register(meterRegistry);
+        Gauge.builder("banco.cache.tamanho", entradas, Map::size).tag("cache", nome).register(meterRegistry);
+    }
+
+    public Optional<V> obter(K chave) {
+        final var entrada = entradas.get(chave);
+        if (entrada == null) {
+            falhas.increment();
+            return Optional.empty();
+        }
+        if (entrada.expirada(relogio.getAsLong(), ttlNanos)) {
+            // remove(chave, entrada) nao apaga um valor novo gravado por outra thread nesse meio tempo
+            entradas.remove(chave, entrada);
+            falhas.increment();
+            return Optional.empty();
+        }
+        acertos.increment();
+        return Optional.of(entrada.valor);
+    }
+
+    /**
+     * Retorna o valor em cache ou o carrega; carregamentos que retornam null nao sao guardados.
+     */
+    public Optional<V> obter(K chave, Function<K, V> carregar) {
+        final var emCache = obter(chave);
+        if (emCache.isPresent()) {
+            return emCache;
+        }
+        final var valor = carregar.apply(chave);
+        if (valor != null) {
+            colocar(chave, valor);
+        }
+        return Optional.ofNullable(valor);
+    }
+
+    public void colocar(K chave, V valor) {
+        entradas.put(chave, new Entrada<>(valor, relogio.getAsLong()));
+        if (entradas.size() > tamanhoMaximo) {
+            liberarEspaco();
+        }
+    }
+
+    public void invalidar(K chave) {
+        entradas.remove(chave);
+    }
+
+    public void limpar() {
+        entradas.clear();
+    }
+
+    public int tamanho() {
+        return entradas.size();
+    }
+
+    private synchronized void liberarEspaco() {
+        if (entradas.size() <= tamanhoMaximo) {
+            return;
+        }
+        final long agora = relogio.getAsLong();
+        entradas.entrySet().removeIf(item -> {
+            boolean expirada = item.getValue().expirada(agora, ttlNanos);
+            if (expirada) {
+                remocoes.increment();
+            }
+            return expirada;
+        });
+
+        final int alvo = tamanhoMaximo - Math.max(1, tamanhoMaximo / 10);
+        final int excedente = entradas.size() - alvo;
+        if (excedente <= 0) {
+            return;
+        }
+        entradas.entrySet().stream()
+                .sorted(Comparator.comparingLong(item -> item.getValue().gravadaEm))
+                .limit(excedente)
+                .forEach(item -> {
+                    if (entradas.remove(item.getKey(), item.getValue())) {
+                        remocoes.increment();
+                    }
+                });
+    }
+
+    private static final class Entrada<V> {
+
+        final V valor;
+        final long gravadaEm;
+
+        Entrada(V valor, long gravadaEm) {
+            this.valor = valor;
+            this.gravadaEm = gravadaEm;
+        }
+
+        boolean expirada(long agora, long ttlNanos) {
+            return agora - gravadaEm >= ttlNanos;
+        }
+    }
+
+}
@@ -0,0 +1,233 @@
+package br.ada.caixa.service.cliente;
+
+import br.ada.caixa.dto.request.RegistrarClientePFRequestDto;
+import br.ada.caixa.dto.request.RegistrarClientePJRequestDto;
+import br.ada.caixa.dto.response.ResultadoRegistroClienteDto;
+import br.ada.caixa.entity.Cliente;
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.entity.TipoConta;
+import br.ada.caixa.enums.StatusCliente;
+import br.ada.caixa.enums.TipoLancamento;
+import br.ada.caixa.exceptions.ValidacaoException;
+import br.ada.caixa.repository.ClienteRepository;
+import br.ada.caixa.service.conta.GeradorNumeroConta;
+import br.ada.caixa.service.journal.JournalLancamentos;
+import br.ada.caixa.service.journal.Lancamento;
+import br.ada.caixa.service.operacoesbancarias.saldo.SaldoPublicador;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Cadastro de clientes em lote, para migracoes de agencia: valida todas as linhas e grava em blocos,
+ * cada um numa transacao com batches JDBC.
+ */
+@Slf4j
+@Service
+public class ClienteLoteService {
+
+    private static final String SQL_INSERIR_CLIENTE =
+            "insert into cliente (id, documento, nome, data_nascimento, status, tipo, created_at) values (?, ?, ?, ?, ?, ?, ?)";
+    private static final String SQL_INSERIR_CONTA =
+            "insert into conta (id, numero, saldo, tipo, cliente_id, created_at, versao) values (?, ?, ?, ?, ?, ?, 0)";
+
+    private final ClienteService clienteService;
+    private final ClienteMapper clienteMapper;
+    private final ClienteRepository clienteRepository;
+    private final GeradorNumeroConta geradorNumeroConta;
+    private final JdbcTemplate jdbcTemplate;
+    private final SaldoPublicador saldoPublicador;
+    private final JournalLancamentos journalLancamentos;
+    private final TransactionTemplate transactionTemplate;
+    private final int itensPorTransacao;
+
+    public ClienteLoteService(ClienteService clienteService,
+                              ClienteMapper clienteMapper,
+                              ClienteRepository clienteRepository,
+                              GeradorNumeroConta geradorNumeroConta,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              SaldoPublicador saldoPublicador,
+                              JournalLancamentos journalLancamentos,
+                              @Value("${banco.cliente.lote.itens-por-transacao:1000}") int itensPorTransacao) {
+        this.clienteService = clienteService;
+        this.clienteMapper = clienteMapper;
+        this.clienteRepository = clienteRepository;
+        this.geradorNumeroConta = geradorNumeroConta;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.saldoPublicador = saldoPublicador;
+        this.journalLancamentos = journalLancamentos;
+        this.itensPorTransacao = itensPorTransacao;
+    }
+
+    public List<ResultadoRegistroClienteDto> registrarPF(List<RegistrarClientePFRequestDto> clientes) {
+        return registrar(clientes.stream()
+                .map(dto -> ClienteService.novo(clienteMapper.paraCliente(dto), TipoCliente.PF))
+                .collect(Collectors.toList()));
+    }
+
+    public List<ResultadoRegistroClienteDto> registrarPJ(List<RegistrarClientePJRequestDto> clientes) {
+        return registrar(clientes.stream()
+                .map(dto -> ClienteService.novo(clienteMapper.paraCliente(dto), TipoCliente.PJ))
+                .collect(Collectors.toList()));
+    }
+
+    public List<ResultadoRegistroClienteDto> registrar(List<Cliente> clientes) {
+        return registrar(clientes, null);
+    }
+
+    /**
+     * Como {@link #registrar(List)}, com o saldo inicial da conta de cada cliente na mesma posicao
+     * (null deixa todas com saldo zero).
+     */
+    public List<ResultadoRegistroClienteDto> registrar(List<Cliente> clientes, List<Dinheiro> saldosIniciais) {
+        return registrar(clientes, saldosIniciais, itensPorTransacao);
+    }
+
+    /**
+     * Como {@link #registrar(List, List)}, gravando itensPorTransacao clientes por transacao. Com
+     * itensPorTransacao igual ao tamanho do lote, uma excecao garante que nada do lote foi gravado.
+     */
+    public List<ResultadoRegistroClienteDto> registrar(List<Cliente> clientes, List<Dinheiro> saldosIniciais,
+                                                       int itensPorTransacao) {
+        if (saldosIniciais != null && saldosIniciais.size() != clientes.size()) {
+            throw new IllegalArgumentException("Um saldo inicial por cliente");
+        }
+        if (itensPorTransacao <= 0) {
+            throw new IllegalArgumentException("Itens por transacao deve ser positivo");
+        }
+        final var erros = validar(clientes);
+        List<ResultadoRegistroClienteDto> resultados = new ArrayList<>(clientes.size());
+        for (int inicio = 0; inicio < clientes.size(); inicio += itensPorTransacao) {
+            final int deslocamento = inicio;
+            final int fim = Math.min(inicio + itensPorTransacao, clientes.size());
+            final var bloco = clientes.subList(inicio, fim);
+            final var errosBloco = erros.subList(inicio, fim);
+            final var saldosBloco = saldosIniciais == null ? null : saldosIniciais.subList(inicio, fim);
+            resultados.addAll(gravarBloco(bloco, errosBloco, saldosBloco, deslocamento));
+        }
+        return resultados;
+    }
+
+    // Um bloco que falha so recusa as proprias linhas; os blocos ja confirmados continuam gravados
+    private List<ResultadoRegistroClienteDto> gravarBloco(List<Cliente> bloco, List<String> erros, List<Dinheiro> saldos,
+                                                          int deslocamento) {
+        try {
+            return transactionTemplate.execute(status -> gravar(bloco, erros, saldos, deslocamento));
+        } catch (DuplicateKeyException e) {
+            // Outro cadastro gravou um dos documentos entre a consulta e o insert; a nova consulta o encontra
+            log.debug("Documento gravado concorrentemente no bloco iniciado em {}, repetindo o bloco", deslocamento);
+        }
+        try {
+            return transactionTemplate.execute(status -> gravar(bloco, erros, saldos, deslocamento));
+        } catch (DuplicateKeyException e) {
+            log.warn("Bloco iniciado em {} recusado: documento gravado concorrentemente de novo", deslocamento);
+            List<ResultadoRegistroClienteDto> recusados = new ArrayList<>(bloco.size());
+            for (int i = 0; i < bloco.size(); i++) {
+                final var cliente = bloco.get(i);
+                final var erro = erros.get(i);
+                recusados.add(ResultadoRegistroClienteDto.builder()
+                        .indice(deslocamento + i)
+                        .documento(cliente == null ? null : cliente.getDocumento())
+                        .sucesso(false)
+                        .erro(erro == null ? "Documento gravado concorrentemente, tente novamente!" : erro)
+                        .build());
+            }
+            return recusados;
+        }
+    }
+
+    // Erro de cada linha (null quando valida) pelas regras de cadastro e pela repeticao dentro do lote
+    private List<String> validar(List<Cliente> clientes) {
+        List<String> erros = new ArrayList<>(clientes.size());
+        Set<String> documentos = new HashSet<>();
+        for (Cliente cliente : clientes) {
+            String erro = null;
+            try {
+                clienteService.validar(cliente);
+                if (!documentos.add(cliente.getDocumento())) {
+                    erro = "Documento repetido no lote!";
+                }
+            } catch (ValidacaoException e) {
+                erro = e.getMessage();
+            }
+            erros.add(erro);
+        }
+        return erros;
+    }
+
+    private List<ResultadoRegistroClienteDto> gravar(List<Cliente> bloco, List<String> erros, List<Dinheiro> saldos,
+                                                     int deslocamento) {
+        Set<String> documentos = new HashSet<>();
+        for (int i = 0; i < bloco.size(); i++) {
+            if (erros.get(i) == null) {
+                documentos.add(bloco.get(i).getDocumento());
+            }
+        }
+        final Set<String> existentes = documentos.isEmpty()
+                ? Set.of()
+                : new HashSet<>(clienteRepository.findDocumentosExistentes(documentos));
+
+        final var hoje = LocalDate.now();
+        List<ResultadoRegistroClienteDto> resultados = new ArrayList<>(bloco.size());
+        List<Object[]> clientes = new ArrayList<>(bloco.size());
+        List<Object[]> contas = new ArrayList<>(bloco.size());
+        List<Lancamento> depositos = new ArrayList<>();
+        for (int i = 0; i < bloco.size(); i++) {
+            final var cliente = bloco.get(i);
+            var erro = erros.get(i);
+            if (erro == null && existentes.contains(cliente.getDocumento())) {
+                erro = "Cliente ja cadastrado com o documento informado!";
+            }
+            Long numeroConta = null;
+            if (erro == null) {
+                final var idCliente = UUID.randomUUID();
+                numeroConta = geradorNumeroConta.proximo();
+                clientes.add(new Object[]{idCliente, cliente.getDocumento(), cliente.getNome(), cliente.getDataNascimento(),
+                        Objects.requireNonNullElse(cliente.getStatus(), StatusCliente.ATIVO).name(), cliente.getTipo().name(), hoje});
+                final var saldo = saldos == null || saldos.get(i) == null ? Dinheiro.ZERO : saldos.get(i);
+                contas.add(new Object[]{UUID.randomUUID(), numeroConta, saldo.getCentavos(), TipoConta.CONTA_CORRENTE.name(),
+                        idCliente, hoje});
+                if (!saldo.isZero()) {
+                    depositos.add(new Lancamento(TipoLancamento.DEPOSITO, numeroConta, saldo));
+                }
+            }
+            resultados.add(ResultadoRegistroClienteDto.builder()
+                    .indice(deslocamento + i)
+                    .documento(cliente == null ? null : cliente.getDocumento())
+                    .numeroConta(numeroConta)
+                    .sucesso(erro == null)
+                    .erro(erro)
+                    .build());
+        }
+
+        if (!clientes.isEmpty()) {
+            jdbcTemplate.batchUpdate(SQL_INSERIR_CLIENTE, clientes);
+            jdbcTemplate.batchUpdate(SQL_INSERIR_CONTA, contas);
+        }
+        if (!depositos.isEmpty()) {
+            if (journalLancamentos.isHabilitado()) {
+                journalLancamentos.registrar(depositos);
+            }
+            saldoPublicador.publicar(depositos.stream().map(Lancamento::getNumeroConta).collect(Collectors.toList()));
+        }
+        log.debug("Bloco de {} clientes gravado com {} novos cadastros", bloco.size(), clientes.size());
+        return resultados;
+    }
+
+}
@@ -0,0 +1,68 @@
+package br.ada.caixa.service.cliente;
+
+import br.ada.caixa.dto.request.RegistrarClientePFRequestDto;
+import br.ada.caixa.dto.request.RegistrarClientePJRequestDto;
+import br.ada.caixa.dto.response.ClientePFResponseDto;
+import br.ada.caixa.dto.response.ClientePJResponseDto;
+import br.ada.caixa.dto.response.ClienteResponseDto;
+import br.ada.caixa.entity.Cliente;
+import org.springframework.stereotype.Component;
+
+/**
+ * Conversoes entre Cliente e seus DTOs escritas a mao, com o mesmo resultado do antigo ModelMapper.
+ */
+@Component
+public class ClienteMapper {
+
+    public Cliente paraCliente(RegistrarClientePFRequestDto dto) {
+        if (dto == null) {
+            return null;
+        }
+        return Cliente.builder()
+                .documento(dto.getCpf())
+                .nome(dto.getNome())
+                .dataNascimento(dto.getDataNascimento())
+                .build();
+    }
+
+    public Cliente paraCliente(RegistrarClientePJRequestDto dto) {
+        if (dto == null) {
+            return null;
+        }
+        return Cliente.builder()
+                .documento(dto.getCnpj())
+                .nome(dto.getNomeFantasia())
+                .build();
+    }
+
+    public ClienteResponseDto paraResponse(Cliente cliente) {
+        if (cliente == null) {
+            return null;
+        }
+        var dto = new ClienteResponseDto();
+        dto.setDocumento(cliente.getDocumento());
+        dto.setTipo(cliente.getTipo() == null ? null : cliente.getTipo().name());
+        return dto;
+    }
+
+    public ClientePFResponseDto paraClientePFResponse(Cliente cliente) {
+        if (cliente == null) {
+            return null;
+        }
+        var dto = new ClientePFResponseDto();
+        dto.setCpf(cliente.getDocumento());
+        dto.setNome(cliente.getNome());
+        dto.setDataNascimento(cliente.getDataNascimento());
+        return dto;
+    }
+
+    public ClientePJResponseDto paraClientePJResponse(Cliente cliente) {
+        if (cliente == null) {
+            return null;
+        }
+        var dto = new ClientePJResponseDto();
+        dto.setCnpj(cliente.getDocumento());
+        return dto;
+    }
+
+}
@@ -3,54 +3,55 @@ package br.ada.caixa.service.cliente;
 import br.ada.caixa.dto.request.RegistrarClientePFRequestDto;
 import br.ada.caixa.dto.request.RegistrarClientePJRequestDto;
 import br.ada.caixa.dto.response.ClienteResponseDto;
+import br.ada.caixa.dto.response.PaginaClientesResponseDto;
 import br.ada.caixa.dto.response.RegistrarClienteResponseDto;
 import br.ada.caixa.dto.response.SaldoResponseDto;
 import br.ada.caixa.entity.Cliente;
 import br.ada.caixa.entity.Conta;
+import br.ada.caixa.entity.Dinheiro;
 import br.ada.caixa.entity.TipoCliente;
 import br.ada.caixa.entity.TipoConta;
 import br.ada.caixa.enums.StatusCliente;
+import br.ada.caixa.exceptions.ValidacaoException;
 import br.ada.caixa.repository.ClienteRepository;
 import br.ada.caixa.repository.ContaRepository;
-import br.ada.caixa.service.conta.ContaService;
+import br.ada.caixa.service.conta.ContaCache;
+import br.ada.caixa.service.conta.GeradorNumeroConta;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
-import java.util.Random;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ClienteService {
 
+    public static final int TAMANHO_MAXIMO_PAGINA = 500;
+    public static final int TAMANHO_MAXIMO_TEXTO = 255;
+
     private final ClienteRepository clienteRepository;
     private final ContaRepository contaRepository;
-    private final ModelMapper modelMapper;
+    private final ClienteMapper clienteMapper;
+    private final GeradorNumeroConta geradorNumeroConta;
+    private final ContaCache contaCache;
 
     public RegistrarClienteResponseDto registrarPF(RegistrarClientePFRequestDto clienteDto) {
-        final var cliente = modelMapper.map(clienteDto, Cliente.class);
-        cliente.setTipo(TipoCliente.PF);
-        cliente.setStatus(StatusCliente.ATIVO);
-        return registrar(cliente);
+        return registrar(novo(clienteMapper.paraCliente(clienteDto), TipoCliente.PF));
     }
 
     public RegistrarClienteResponseDto registrarPJ(RegistrarClientePJRequestDto clienteDto) {
-        final var cliente = modelMapper.map(clienteDto, Cliente.class);
-        cliente.setTipo(TipoCliente.PJ);
-        cliente.setStatus(StatusCliente.ATIVO);
-        return registrar(cliente);
+        return registrar(novo(clienteMapper.paraCliente(clienteDto), TipoCliente.PJ));
     }
 
     public RegistrarClienteResponseDto registrar(Cliente cliente) {
         cliente = clienteRepository.save(cliente);
         final var conta = criarConta(cliente);
-        conta.setNumero(ContaService.gerarNumero(contaRepository));
-        contaRepository.save(conta);
+        conta.setNumero(geradorNumeroConta.proximo());
+        contaCache.atualizar(contaRepository.save(conta));
         final SaldoResponseDto saldoResponseDto = SaldoResponseDto.builder()
-                .saldo(conta.getSaldo())
+                .saldo(conta.getSaldo().paraBigDecimal())
                 .numeroConta(conta.getNumero())
                 .build();
 
@@ -60,29 +61,85 @@ public class ClienteService {
                 .build();
     }
 
+    /**
+     * Regras de cadastro checadas antes de gravar em lote, onde uma linha invalida derrubaria o
+     * batch inteiro: documento e nome preenchidos e dentro do tamanho da coluna, data de nascimento
+     * (quando informada) que nao esteja no futuro.
+     */
+    public void validar(Cliente cliente) {
+        if (cliente == null) {
+            throw new ValidacaoException("Cliente invalido!");
+        }
+        validarTexto(cliente.getDocumento(), "Documento");
+        validarTexto(cliente.getNome(), "Nome");
+        if (cliente.getTipo() == null) {
+            throw new ValidacaoException("Tipo de cliente obrigatorio!");
+        }
+        if (cliente.getDataNascimento() != null && cliente.getDataNascimento().isAfter(LocalDate.now())) {
+            throw new ValidacaoException("Data de nascimento no futuro!");
+        }
+    }
+
+    private static void validarTexto(String valor, String campo) {
+        if (valor == null || valor.isBlank()) {
+            throw new ValidacaoException(campo + " obrigatorio!");
+        }
+        if (valor.length() > TAMANHO_MAXIMO_TEXTO) {
+            throw new ValidacaoException(campo + " deve ter no maximo " + TAMANHO_MAXIMO_TEXTO + " caracteres!");
+        }
+    }
+
+    /**
+     * Cliente recem-cadastrado: tipo informado e status ativo.
+     */
+    public static Cliente novo(Cliente cliente, TipoCliente tipo) {
+        if (cliente != null) {
+            cliente.setTipo(tipo);
+            cliente.setStatus(StatusCliente.ATIVO);
+        }
+        return cliente;
+    }
+
     private static Conta criarConta(final Cliente cliente) {
         final var contaCorrente = new Conta();
         contaCorrente.setCliente(cliente);
-        contaCorrente.setSaldo(BigDecimal.ZERO);
+        contaCorrente.setSaldo(Dinheiro.ZERO);
         contaCorrente.setTipo(TipoConta.CONTA_CORRENTE);
         return contaCorrente;
     }
 
+    /**
+     * Lista por keyset em (createdAt, id): cada pagina custa uma consulta do tamanho da pagina,
+     * independente de quantos clientes vieram antes.
+     */
+    public PaginaClientesResponseDto listarPagina(TipoCliente tipoCliente, StatusCliente status,
+                                                  String cursor, int tamanho) {
+        if (tamanho <= 0 || tamanho > TAMANHO_MAXIMO_PAGINA) {
+            throw new ValidacaoException("Tamanho da pagina deve estar entre 1 e " + TAMANHO_MAXIMO_PAGINA);
+        }
+        final var posicao = cursor == null || cursor.isBlank() ? null : CursorCliente.decodificar(cursor);
+        final var pagina = clienteRepository.buscarPagina(tipoCliente, status,
+                posicao == null ? null : posicao.getCreatedAt(),
+                posicao == null ? null : posicao.getId(),
+                tamanho);
+
+        final var clientes = pagina.getContent();
+        final var proximoCursor = pagina.hasNext()
+                ? CursorCliente.de(clientes.get(clientes.size() - 1)).codificar()
+                : null;
+        return PaginaClientesResponseDto.builder()
+                .clientes(clientes.stream().map(clienteMapper::paraResponse).collect(Collectors.toList()))
+                .proximoCursor(proximoCursor)
+                .build();
+    }
+
     public List<ClienteResponseDto> listarTodos(TipoCliente tipoCliente) {
         List<Cliente> clientes = clienteRepository.findAllByTipo(tipoCliente);
-        return clientes.stream().map(cliente -> {
-            ClienteResponseDto clienteResponseDto = modelMapper.map(cliente, ClienteResponseDto.class);
-            clienteResponseDto.setTipo(cliente.getTipo().name());
-            return clienteResponseDto;
-        }).collect(Collectors.toList());
+        return clientes.stream().map(clienteMapper::paraResponse).collect(Collectors.toList());
     }
 
     public List<ClienteResponseDto> listarTodos() {
         List<Cliente> clientes = clienteRepository.findAll();
-        return clientes.stream().map(cliente -> {
-            ClienteResponseDto clienteResponseDto = modelMapper.map(cliente, ClienteResponseDto.class);
-            clienteResponseDto.setTipo(cliente.getTipo().name());
-            return clienteResponseDto;
-        }).collect(Collectors.toList());
+        return clientes.stream().map(clienteMapper::paraResponse).collect(Collectors.toList());
     }
 }
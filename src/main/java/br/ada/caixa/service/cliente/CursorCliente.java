@@ -0,0 +1,44 @@
+package br.ada.caixa.service.cliente;
+
+import br.ada.caixa.entity.Cliente;
+import br.ada.caixa.exceptions.ValidacaoException;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Posicao na listagem de clientes: a chave (createdAt, id) do ultimo cliente entregue.
+ * Vai para o cliente HTTP como token opaco (base64 url-safe).
+ */
+@Value
+public class CursorCliente {
+
+    private static final String SEPARADOR = "|";
+
+    LocalDate createdAt;
+    UUID id;
+
+    public static CursorCliente de(Cliente cliente) {
+        return new CursorCliente(cliente.getCreatedAt(), cliente.getId());
+    }
+
+    public String codificar() {
+        final var texto = createdAt + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CursorCliente decodificar(String token) {
+        try {
+            final var texto = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            final int separador = texto.indexOf(SEPARADOR);
+            return new CursorCliente(LocalDate.parse(texto.substring(0, separador)),
+                    UUID.fromString(texto.substring(separador + 1)));
+        } catch (RuntimeException e) {
+            throw new ValidacaoException("Cursor inválido!");
+        }
+    }
+
+}
@@ -0,0 +1,56 @@
+package br.ada.caixa.service.conta;
+
+import br.ada.caixa.entity.Conta;
+import br.ada.caixa.repository.ContaRepository;
+import br.ada.caixa.service.cache.CacheLimitado;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Cache de numero da conta para {@link ContaResumo}, na frente de {@link ContaRepository#findByNumero}.
+ * Quem grava uma conta atualiza a entrada; quem descobre que a conta sumiu a invalida.
+ */
+@Component
+public class ContaCache {
+
+    private final ContaRepository contaRepository;
+    private final CacheLimitado<Long, ContaResumo> cache;
+
+    public ContaCache(ContaRepository contaRepository,
+                      MeterRegistry meterRegistry,
+                      @Value("${banco.cache.conta.tamanho-maximo:10000}") int tamanhoMaximo,
+                      @Value("${banco.cache.conta.ttl:10m}") Duration ttl) {
+        this.contaRepository = contaRepository;
+        this.cache = new CacheLimitado<>("conta", tamanhoMaximo, ttl, meterRegistry);
+    }
+
+    public Optional<ContaResumo> buscar(Long numero) {
+        if (numero == null) {
+            return Optional.empty();
+        }
+        return cache.obter(numero, chave -> contaRepository.findByNumero(chave)
+                .map(ContaResumo::de)
+                .orElse(null));
+    }
+
+    public void atualizar(Conta conta) {
+        if (conta != null && conta.getNumero() != null && conta.getCliente() != null) {
+            cache.colocar(conta.getNumero(), ContaResumo.de(conta));
+        }
+    }
+
+    public void invalidar(Long numero) {
+        if (numero != null) {
+            cache.invalidar(numero);
+        }
+    }
+
+    public void limpar() {
+        cache.limpar();
+    }
+
+}
@@ -0,0 +1,40 @@
+package br.ada.caixa.service.conta;
+
+import br.ada.caixa.entity.Cliente;
+import br.ada.caixa.entity.Conta;
+import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.entity.TipoConta;
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * Atributos de uma conta que nunca mudam depois da abertura; e o que o {@link ContaCache} guarda.
+ * O saldo fica de fora de proposito: ele e sempre lido e alterado no banco.
+ */
+@Value
+public class ContaResumo {
+
+    UUID id;
+    Long numero;
+    TipoConta tipo;
+    TipoCliente tipoCliente;
+
+    public static ContaResumo de(Conta conta) {
+        return new ContaResumo(conta.getId(), conta.getNumero(), conta.getTipo(), conta.getCliente().getTipo());
+    }
+
+    /**
+     * Conta desanexada so com a identidade preenchida, para as operacoes que decidem pelo tipo do
+     * cliente e gravam com UPDATE por numero. Nao tem saldo e nao deve ser salva.
+     */
+    public Conta paraConta() {
+        return Conta.builder()
+                .id(id)
+                .numero(numero)
+                .tipo(tipo)
+                .cliente(Cliente.builder().tipo(tipoCliente).build())
+                .build();
+    }
+
+}
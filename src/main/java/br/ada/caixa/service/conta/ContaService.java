@@ -1,6 +1,7 @@
 package br.ada.caixa.service.conta;
 
 import br.ada.caixa.entity.Conta;
+import br.ada.caixa.entity.Dinheiro;
 import br.ada.caixa.entity.TipoCliente;
 import br.ada.caixa.entity.TipoConta;
 import br.ada.caixa.exceptions.ValidacaoException;
@@ -9,15 +10,14 @@ import br.ada.caixa.repository.ContaRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.util.Random;
-
 @Service
 @RequiredArgsConstructor
 public class ContaService {
 
     private final ContaRepository contaRepository;
     private final ClienteRepository clienteRepository;
+    private final GeradorNumeroConta geradorNumeroConta;
+    private final ContaCache contaCache;
 
     public Conta abrirContaPoupanca(String cpf) {
         return clienteRepository.findByDocumento(cpf)
@@ -28,21 +28,20 @@ public class ContaService {
                     var contaPoupanca = new Conta();
                     contaPoupanca.setTipo(TipoConta.CONTA_POUPANCA);
                     contaPoupanca.setCliente(cliente);
-                    contaPoupanca.setSaldo(BigDecimal.ZERO);
-                    contaPoupanca.setNumero(gerarNumero(contaRepository));
-                    return contaRepository.save(contaPoupanca);
+                    contaPoupanca.setSaldo(Dinheiro.ZERO);
+                    contaPoupanca.setNumero(geradorNumeroConta.proximo());
+                    var contaSalva = contaRepository.save(contaPoupanca);
+                    contaCache.atualizar(contaSalva);
+                    return contaSalva;
                 })
                 .orElseThrow(() -> new ValidacaoException("Cliente nao encontrado com o CPF informado!"));
     }
 
-    public static Long gerarNumero(ContaRepository repository) {
-        Random random = new Random();
-        Long numero;
-        do {
-            numero = random.nextLong();
-        } while (repository.findByNumero(numero).isPresent());
-
-        return numero;
+    // Conta aberta ja com saldo (importacao): o saldo inicial nao pode ser negativo
+    public void validarSaldoInicial(Dinheiro saldoInicial) {
+        if (saldoInicial == null || saldoInicial.isNegativo()) {
+            throw new ValidacaoException("Saldo inicial invalido!");
+        }
     }
 
 }
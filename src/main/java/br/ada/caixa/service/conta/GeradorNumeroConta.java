@@ -0,0 +1,99 @@
+package br.ada.caixa.service.conta;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Gera numeros de conta sem consultar a tabela conta (hi/lo): cada valor de conta_numero_seq reserva
+ * um bloco de {@code tamanhoBloco} numeros para este no.
+ */
+@Slf4j
+@Component
+public class GeradorNumeroConta {
+
+    static final String SEQUENCE = "conta_numero_seq";
+
+    // Multiplicador impar: multiplicar por ele e inversivel modulo 2^63
+    private static final long MULTIPLICADOR = 0x9E3779B97F4A7C15L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long tamanhoBloco;
+    private final boolean embaralhar;
+    private final AtomicReference<Bloco> blocoAtual = new AtomicReference<>(Bloco.VAZIO);
+
+    public GeradorNumeroConta(JdbcTemplate jdbcTemplate,
+                              @Value("${banco.conta.numero.tamanho-bloco:1000}") long tamanhoBloco,
+                              @Value("${banco.conta.numero.embaralhar:true}") boolean embaralhar) {
+        if (tamanhoBloco <= 0) {
+            throw new IllegalArgumentException("Tamanho do bloco deve ser positivo");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.tamanhoBloco = tamanhoBloco;
+        this.embaralhar = embaralhar;
+    }
+
+    @PostConstruct
+    public void inicializar() {
+        // Comeca em 1 para que o bloco 0 (que conteria o numero 0) nunca seja usado
+        jdbcTemplate.execute("create sequence if not exists " + SEQUENCE + " start with 1 increment by 1");
+    }
+
+    public Long proximo() {
+        while (true) {
+            final var bloco = blocoAtual.get();
+            final long sequencial = bloco.proximo.getAndIncrement();
+            if (sequencial < bloco.fim) {
+                return embaralhar ? embaralhar(sequencial) : sequencial;
+            }
+            trocarBloco(bloco);
+        }
+    }
+
+    private synchronized void trocarBloco(Bloco esgotado) {
+        // Outra thread pode ter trocado o bloco enquanto esta esperava o monitor
+        if (blocoAtual.get() != esgotado) {
+            return;
+        }
+        final Long hi = jdbcTemplate.queryForObject("select next value for " + SEQUENCE, Long.class);
+        if (hi == null || hi <= 0 || hi > (Long.MAX_VALUE - tamanhoBloco) / tamanhoBloco) {
+            throw new IllegalStateException("Sequence de numero de conta fora da faixa: " + hi);
+        }
+        final long inicio = Math.multiplyExact(hi, tamanhoBloco);
+        blocoAtual.set(new Bloco(inicio, inicio + tamanhoBloco));
+        log.debug("Reservado bloco de numeros de conta [{}, {})", inicio, inicio + tamanhoBloco);
+    }
+
+    /**
+     * Bijecao em [0, 2^63): xorshift e multiplicacao por impar sao ambos inversiveis, entao
+     * sequenciais distintos nunca colidem e numeros positivos continuam positivos.
+     */
+    static long embaralhar(long sequencial) {
+        long x = sequencial;
+        x ^= x >>> 31;
+        x = (x * MULTIPLICADOR) & Long.MAX_VALUE;
+        x ^= x >>> 29;
+        x = (x * MULTIPLICADOR) & Long.MAX_VALUE;
+        x ^= x >>> 32;
+        return x;
+    }
+
+    private static final class Bloco {
+
+        static final Bloco VAZIO = new Bloco(0, 0);
+
+        final AtomicLong proximo;
+        final long fim;
+
+        Bloco(long inicio, long fim) {
+            this.proximo = new AtomicLong(inicio);
+            this.fim = fim;
+        }
+    }
+
+}
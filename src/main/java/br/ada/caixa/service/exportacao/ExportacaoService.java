@@ -0,0 +1,115 @@
+package br.ada.caixa.service.exportacao;
+
+import br.ada.caixa.dto.response.ClienteExportDto;
+import br.ada.caixa.dto.response.ContaExportDto;
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.repository.ClienteRepository;
+import br.ada.caixa.repository.ContaRepository;
+import br.ada.caixa.service.operacoesbancarias.saldo.SaldosFracionados;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Exporta clientes e contas em NDJSON direto no OutputStream da resposta, lendo um Stream do repositorio
+ * com fetch size, sem que o heap cresca com o tamanho da tabela.
+ */
+@Slf4j
+@Service
+public class ExportacaoService {
+
+    private final ClienteRepository clienteRepository;
+    private final ContaRepository contaRepository;
+    private final SaldosFracionados saldosFracionados;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter objectWriter;
+    private final int flushACada;
+
+    public ExportacaoService(ClienteRepository clienteRepository,
+                             ContaRepository contaRepository,
+                             SaldosFracionados saldosFracionados,
+                             EntityManager entityManager,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             @Value("${banco.exportacao.flush-a-cada:1000}") int flushACada) {
+        this.clienteRepository = clienteRepository;
+        this.contaRepository = contaRepository;
+        this.saldosFracionados = saldosFracionados;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        // O flush e feito a cada bloco de linhas, nao a cada objeto
+        this.objectWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.flushACada = flushACada;
+    }
+
+    public long exportarClientes(OutputStream saida) {
+        return transactionTemplate.execute(status -> {
+            try (var clientes = clienteRepository.streamAll()) {
+                return escrever(clientes, cliente -> {
+                    var dto = ClienteExportDto.de(cliente);
+                    entityManager.detach(cliente);
+                    return dto;
+                }, saida);
+            }
+        });
+    }
+
+    public long exportarContas(OutputStream saida) {
+        return transactionTemplate.execute(status -> {
+            final var fracoes = saldosFracionados.somarFracoes();
+            try (var contas = contaRepository.streamExportacao()) {
+                return escrever(contas, conta -> somarFracoes(conta, fracoes), saida);
+            }
+        });
+    }
+
+    private static ContaExportDto somarFracoes(ContaExportDto conta, Map<Long, Dinheiro> fracoes) {
+        final var soma = fracoes.get(conta.getNumero());
+        if (soma != null) {
+            conta.setSaldo(conta.getSaldo().add(soma.paraBigDecimal()));
+        }
+        return conta;
+    }
+
+    private <T> long escrever(Stream<T> linhas, Function<T, ?> converter, OutputStream saida) {
+        long escritas = 0;
+        try (JsonGenerator gerador = objectMapper.getFactory().createGenerator(saida)) {
+            // O stream da resposta e do container; fechar o gerador so descarrega o buffer
+            gerador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            gerador.setRootValueSeparator(null);
+            Iterator<T> iterator = linhas.iterator();
+            while (iterator.hasNext()) {
+                objectWriter.writeValue(gerador, converter.apply(iterator.next()));
+                gerador.writeRaw('\n');
+                if (++escritas % flushACada == 0) {
+                    gerador.flush();
+                }
+            }
+            gerador.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao escrever exportacao", e);
+        }
+        log.info("Exportacao concluida com {} linhas", escritas);
+        return escritas;
+    }
+
+}
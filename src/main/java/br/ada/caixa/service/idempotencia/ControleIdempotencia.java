@@ -0,0 +1,306 @@
+package br.ada.caixa.service.idempotencia;
+
+import br.ada.caixa.entity.RespostaIdempotente;
+import br.ada.caixa.exceptions.ChaveIdempotenciaReutilizadaException;
+import br.ada.caixa.exceptions.RequisicaoEmAndamentoException;
+import br.ada.caixa.exceptions.ValidacaoException;
+import br.ada.caixa.repository.RespostaIdempotenteRepository;
+import br.ada.caixa.service.agendamento.TarefaPeriodica;
+import br.ada.caixa.service.cache.CacheLimitado;
+import br.ada.caixa.service.retry.RetryExecutor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Executa operacoes com Idempotency-Key: a chave e reservada no banco na mesma transacao da operacao
+ * e as repeticoes devolvem o resultado gravado sem executar de novo.
+ */
+@Slf4j
+@Component
+public class ControleIdempotencia {
+
+    public static final String CABECALHO = "Idempotency-Key";
+    public static final String CABECALHO_REPETICAO = "Idempotent-Replayed";
+    static final int TAMANHO_MAXIMO_CHAVE = 255;
+
+    private final RespostaIdempotenteRepository repository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final RetryExecutor retryExecutor;
+    private final CacheLimitado<String, RespostaIdempotente> cache;
+    private final Duration ttl;
+    private final Duration intervaloLimpeza;
+    // Atalho para repeticoes no mesmo no; entre nos quem decide e a reserva no banco
+    private final Map<String, Boolean> emAndamento = new ConcurrentHashMap<>();
+    private final Counter novas;
+    private final Counter repeticoesMemoria;
+    private final Counter repeticoesBanco;
+    private final Counter recusasEmAndamento;
+    private final Counter recusasReutilizada;
+    private final TarefaPeriodica limpeza;
+
+    public ControleIdempotencia(RespostaIdempotenteRepository repository,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                PlatformTransactionManager transactionManager,
+                                RetryExecutor retryExecutor,
+                                @Value("${banco.idempotencia.tamanho-maximo:100000}") int tamanhoMaximo,
+                                @Value("${banco.idempotencia.ttl:24h}") Duration ttl,
+                                @Value("${banco.idempotencia.limpeza:1h}") Duration intervaloLimpeza) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retryExecutor = retryExecutor;
+        this.cache = new CacheLimitado<>("idempotencia", tamanhoMaximo, ttl, meterRegistry);
+        this.ttl = ttl;
+        this.intervaloLimpeza = intervaloLimpeza;
+        this.limpeza = new TarefaPeriodica("idempotencia-limpeza", this::apagarExpiradas);
+        this.novas = contador(meterRegistry, "nova");
+        this.repeticoesMemoria = contador(meterRegistry, "repetida_memoria");
+        this.repeticoesBanco = contador(meterRegistry, "repetida_banco");
+        this.recusasEmAndamento = contador(meterRegistry, "em_andamento");
+        this.recusasReutilizada = contador(meterRegistry, "chave_reutilizada");
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        limpeza.iniciar(intervaloLimpeza);
+    }
+
+    @PreDestroy
+    public void parar() {
+        limpeza.parar();
+    }
+
+    public <T> ResponseEntity<T> executar(String operacao, String chave, Object requisicao, Class<T> tipoResposta,
+                                          Supplier<ResponseEntity<T>> acao) {
+        return executar(operacao, chave, requisicao, objectMapper.constructType(tipoResposta), acao);
+    }
+
+    public <T> ResponseEntity<T> executar(String operacao, String chave, Object requisicao, TypeReference<T> tipoResposta,
+                                          Supplier<ResponseEntity<T>> acao) {
+        return executar(operacao, chave, requisicao, objectMapper.constructType(tipoResposta), acao);
+    }
+
+    /**
+     * Apaga as respostas gravadas ha mais tempo que o TTL.
+     */
+    public int apagarExpiradas() {
+        try {
+            int apagadas = repository.apagarCriadasAntesDe(LocalDateTime.now().minus(ttl));
+            if (apagadas > 0) {
+                log.info("{} respostas idempotentes expiradas apagadas", apagadas);
+            }
+            return apagadas;
+        } catch (RuntimeException e) {
+            log.error("Falha ao apagar respostas idempotentes expiradas", e);
+            return 0;
+        }
+    }
+
+    public void limpar() {
+        cache.limpar();
+    }
+
+    private <T> ResponseEntity<T> executar(String operacao, String chave, Object requisicao, JavaType tipoResposta,
+                                           Supplier<ResponseEntity<T>> acao) {
+        if (chave == null || chave.isBlank()) {
+            return acao.get();
+        }
+        if (chave.length() > TAMANHO_MAXIMO_CHAVE) {
+            throw new ValidacaoException(CABECALHO + " deve ter no maximo " + TAMANHO_MAXIMO_CHAVE + " caracteres!");
+        }
+        final var id = operacao + ":" + chave;
+        final var hash = hash(operacao, requisicao);
+
+        var registrada = cache.obter(id);
+        if (registrada.isPresent()) {
+            repeticoesMemoria.increment();
+            return repetir(registrada.get(), hash, tipoResposta);
+        }
+        final var limite = LocalDateTime.now().minus(ttl);
+        final var gravada = repository.findById(id);
+        if (gravada.isPresent() && gravada.get().getCriadaEm().isAfter(limite)) {
+            repeticoesBanco.increment();
+            cache.colocar(id, gravada.get());
+            return repetir(gravada.get(), hash, tipoResposta);
+        }
+        // Uma resposta expirada que a limpeza ainda nao apagou e trocada pela nova reserva
+        final var expiradaAntesDe = gravada.isPresent() ? limite : null;
+
+        if (emAndamento.putIfAbsent(id, Boolean.TRUE) != null) {
+            recusasEmAndamento.increment();
+            throw new RequisicaoEmAndamentoException();
+        }
+        try {
+            final var concluida = new AtomicReference<RespostaIdempotente>();
+            final ResponseEntity<T> resposta;
+            try {
+                // Reserva, operacao e resultado no mesmo commit; um conflito refaz os tres juntos
+                resposta = retryExecutor.executar(operacao, () -> transactionTemplate.execute(status -> {
+                    if (!reservar(id, hash, expiradaAntesDe)) {
+                        status.setRollbackOnly();
+                        return null;
+                    }
+                    var executada = acao.get();
+                    var registro = resposta(id, hash, executada.getStatusCodeValue(), json(executada.getBody()), null);
+                    repository.save(registro);
+                    concluida.set(registro);
+                    return executada;
+                }));
+            } catch (ValidacaoException e) {
+                novas.increment();
+                recusar(id, hash, e.getMessage(), expiradaAntesDe);
+                throw e;
+            }
+            if (resposta == null) {
+                return repetirReservada(id, hash, tipoResposta);
+            }
+            novas.increment();
+            cache.colocar(id, concluida.get());
+            return resposta;
+        } finally {
+            emAndamento.remove(id);
+        }
+    }
+
+    // Outra requisicao reservou a chave: repete o resultado se ela ja terminou
+    private <T> ResponseEntity<T> repetirReservada(String id, String hash, JavaType tipoResposta) {
+        var concluida = buscarNoBanco(id);
+        if (concluida.isPresent()) {
+            repeticoesBanco.increment();
+            cache.colocar(id, concluida.get());
+            return repetir(concluida.get(), hash, tipoResposta);
+        }
+        recusasEmAndamento.increment();
+        throw new RequisicaoEmAndamentoException();
+    }
+
+    private <T> ResponseEntity<T> repetir(RespostaIdempotente registrada, String hash, JavaType tipoResposta) {
+        if (!registrada.getHashRequisicao().equals(hash)) {
+            recusasReutilizada.increment();
+            throw new ChaveIdempotenciaReutilizadaException();
+        }
+        if (registrada.getErro() != null) {
+            throw new ValidacaoException(registrada.getErro());
+        }
+        T corpo = null;
+        if (registrada.getCorpo() != null) {
+            try {
+                corpo = objectMapper.readValue(registrada.getCorpo(), tipoResposta);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Resposta idempotente ilegivel para " + registrada.getChave(), e);
+            }
+        }
+        return ResponseEntity.status(registrada.getStatus())
+                .header(CABECALHO_REPETICAO, "true")
+                .body(corpo);
+    }
+
+    private Optional<RespostaIdempotente> buscarNoBanco(String id) {
+        final var limite = LocalDateTime.now().minus(ttl);
+        return repository.findById(id).filter(resposta -> resposta.getCriadaEm().isAfter(limite));
+    }
+
+    // Falso quando outra requisicao ja reservou a chave, neste ou em outro no
+    private boolean reservar(String id, String hash, LocalDateTime expiradaAntesDe) {
+        try {
+            if (expiradaAntesDe != null) {
+                repository.apagarSeCriadaAntesDe(id, expiradaAntesDe);
+            }
+            repository.reservar(id, hash, LocalDateTime.now());
+            return true;
+        } catch (DataIntegrityViolationException | PessimisticLockingFailureException e) {
+            return false;
+        }
+    }
+
+    // A recusa desfez a transacao da operacao e nao alterou nada, entao e gravada numa transacao propria
+    private void recusar(String id, String hash, String erro, LocalDateTime expiradaAntesDe) {
+        var recusa = resposta(id, hash, 400, null, erro);
+        try {
+            boolean gravada = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                if (!reservar(id, hash, expiradaAntesDe)) {
+                    status.setRollbackOnly();
+                    return false;
+                }
+                repository.save(recusa);
+                return true;
+            }));
+            if (gravada) {
+                cache.colocar(id, recusa);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Nao foi possivel gravar a recusa idempotente {}", id, e);
+        }
+    }
+
+    private static RespostaIdempotente resposta(String id, String hash, int status, String corpo, String erro) {
+        return RespostaIdempotente.builder()
+                .chave(id)
+                .hashRequisicao(hash)
+                .status(status)
+                .corpo(corpo)
+                .erro(erro)
+                .criadaEm(LocalDateTime.now())
+                .build();
+    }
+
+    private String hash(String operacao, Object requisicao) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operacao.getBytes(StandardCharsets.UTF_8));
+            digest.update(objectMapper.writeValueAsBytes(requisicao));
+            var hex = new StringBuilder(64);
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Nao foi possivel calcular o hash da requisicao", e);
+        }
+    }
+
+    private String json(Object corpo) {
+        if (corpo == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(corpo);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Nao foi possivel serializar a resposta idempotente", e);
+        }
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder("banco.idempotencia.requisicoes")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+
+}
@@ -0,0 +1,352 @@
+package br.ada.caixa.service.importacao;
+
+import br.ada.caixa.dto.response.ProgressoImportacaoDto;
+import br.ada.caixa.dto.response.ResultadoRegistroClienteDto;
+import br.ada.caixa.entity.Cliente;
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.exceptions.ValidacaoException;
+import br.ada.caixa.service.cliente.ClienteLoteService;
+import br.ada.caixa.service.cliente.ClienteService;
+import br.ada.caixa.service.conta.ContaService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Importa clientes e saldos iniciais de um CSV ({@code documento,nome,dataNascimento,tipo,saldoInicial}),
+ * gravando em lotes por um pool limitado; as linhas recusadas vao para um CSV de rejeitados.
+ */
+@Slf4j
+@Service
+public class ImportacaoClientesService {
+
+    static final List<String> CABECALHO = List.of("documento", "nome", "dataNascimento", "tipo", "saldoInicial");
+    private static final char SEPARADOR = ',';
+
+    private final ClienteLoteService clienteLoteService;
+    private final ContaService contaService;
+    private final int linhasPorLote;
+    private final int trabalhadores;
+    private final int lotesEmEspera;
+    private final Path diretorio;
+    private final Duration intervaloProgresso;
+    private final Counter importadas;
+    private final Counter rejeitadas;
+
+    private final AtomicBoolean emExecucao = new AtomicBoolean();
+    private volatile Execucao execucao;
+
+    public ImportacaoClientesService(ClienteLoteService clienteLoteService,
+                                     ContaService contaService,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${banco.importacao.linhas-por-lote:1000}") int linhasPorLote,
+                                     @Value("${banco.importacao.trabalhadores:4}") int trabalhadores,
+                                     @Value("${banco.importacao.lotes-em-espera:8}") int lotesEmEspera,
+                                     @Value("${banco.importacao.diretorio:data/importacao}") String diretorio,
+                                     @Value("${banco.importacao.progresso.intervalo:10s}") Duration intervaloProgresso) {
+        if (linhasPorLote <= 0 || trabalhadores <= 0 || lotesEmEspera <= 0) {
+            throw new IllegalArgumentException("Lote, trabalhadores e fila da importacao devem ser positivos");
+        }
+        this.clienteLoteService = clienteLoteService;
+        this.contaService = contaService;
+        this.linhasPorLote = linhasPorLote;
+        this.trabalhadores = trabalhadores;
+        this.lotesEmEspera = lotesEmEspera;
+        this.diretorio = Paths.get(diretorio);
+        this.intervaloProgresso = intervaloProgresso;
+        this.importadas = contador(meterRegistry, "importada");
+        this.rejeitadas = contador(meterRegistry, "rejeitada");
+    }
+
+    /**
+     * Importa o CSV (UTF-8) e so retorna depois que todas as linhas foram gravadas ou rejeitadas.
+     */
+    public ProgressoImportacaoDto importar(InputStream csv) {
+        return importar(new InputStreamReader(csv, StandardCharsets.UTF_8));
+    }
+
+    public ProgressoImportacaoDto importar(Reader csv) {
+        if (!emExecucao.compareAndSet(false, true)) {
+            throw new ValidacaoException("Importacao ja esta em execucao");
+        }
+        try {
+            final var id = UUID.randomUUID();
+            final var atual = new Execucao(id, diretorio.resolve("clientes-" + id + "-rejeitados.csv"));
+            execucao = atual;
+            processar(csv, atual);
+            return progresso();
+        } finally {
+            emExecucao.set(false);
+        }
+    }
+
+    public ProgressoImportacaoDto progresso() {
+        final var atual = execucao;
+        if (atual == null) {
+            return ProgressoImportacaoDto.builder().emExecucao(emExecucao.get()).build();
+        }
+        final long processadas = atual.importadas.get() + atual.rejeitadas.get();
+        final var termino = atual.fim;
+        double segundos = Duration.between(atual.inicio, termino == null ? Instant.now() : termino).toMillis() / 1000.0;
+        return ProgressoImportacaoDto.builder()
+                .emExecucao(termino == null)
+                .importacao(atual.id)
+                .linhasLidas(atual.lidas.get())
+                .linhasImportadas(atual.importadas.get())
+                .linhasRejeitadas(atual.rejeitadas.get())
+                .linhasPorSegundo(segundos <= 0 ? 0 : processadas / segundos)
+                .arquivoRejeitados(atual.rejeitadas.get() == 0 ? null : atual.arquivoRejeitados.toString())
+                .inicio(atual.inicio)
+                .fim(termino)
+                .build();
+    }
+
+    private void processar(Reader csv, Execucao atual) {
+        final var contador = new AtomicInteger();
+        final var pool = new ThreadPoolExecutor(trabalhadores, trabalhadores, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(lotesEmEspera), tarefa -> {
+                    var thread = new Thread(tarefa, "importacao-" + contador.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        long proximoRelatorio = System.nanoTime() + intervaloProgresso.toNanos();
+        try (var leitor = new LeitorCsv(csv, SEPARADOR)) {
+            List<LinhaImportacao> lote = new ArrayList<>(linhasPorLote);
+            List<String> campos;
+            while ((campos = leitor.proximo()) != null) {
+                if (vazia(campos) || (leitor.getLinha() == 1 && cabecalho(campos))) {
+                    continue;
+                }
+                atual.lidas.incrementAndGet();
+                final var linha = new LinhaImportacao(leitor.getLinha(), campos);
+                try {
+                    converter(linha);
+                    lote.add(linha);
+                } catch (ValidacaoException e) {
+                    rejeitar(atual, linha, e.getMessage());
+                }
+                if (lote.size() == linhasPorLote) {
+                    final var cheio = lote;
+                    pool.execute(() -> gravar(atual, cheio));
+                    lote = new ArrayList<>(linhasPorLote);
+                }
+                if (!intervaloProgresso.isZero() && System.nanoTime() - proximoRelatorio >= 0) {
+                    relatar();
+                    proximoRelatorio = System.nanoTime() + intervaloProgresso.toNanos();
+                }
+            }
+            if (!lote.isEmpty()) {
+                final var resto = lote;
+                pool.execute(() -> gravar(atual, resto));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler o arquivo de importacao", e);
+        } finally {
+            // Os lotes ja entregues ao pool terminam mesmo se a leitura falhou
+            pool.shutdown();
+            aguardar(pool);
+            atual.fecharRejeitados();
+            atual.fim = Instant.now();
+            relatar();
+        }
+    }
+
+    private void converter(LinhaImportacao linha) {
+        final var campos = linha.campos;
+        if (campos.size() != CABECALHO.size()) {
+            throw new ValidacaoException("Linha deve ter " + CABECALHO.size() + " colunas!");
+        }
+        final TipoCliente tipo;
+        try {
+            tipo = TipoCliente.valueOf(campos.get(3).trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ValidacaoException("Tipo de cliente invalido!");
+        }
+        final LocalDate dataNascimento;
+        try {
+            dataNascimento = campos.get(2).isBlank() ? null : LocalDate.parse(campos.get(2).trim());
+        } catch (DateTimeParseException e) {
+            throw new ValidacaoException("Data de nascimento invalida!");
+        }
+        final Dinheiro saldoInicial;
+        try {
+            saldoInicial = campos.get(4).isBlank() ? Dinheiro.ZERO : Dinheiro.de(new BigDecimal(campos.get(4).trim()));
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new ValidacaoException("Saldo inicial invalido!");
+        }
+        contaService.validarSaldoInicial(saldoInicial);
+
+        linha.cliente = ClienteService.novo(Cliente.builder()
+                .documento(campos.get(0).trim())
+                .nome(campos.get(1).trim())
+                .dataNascimento(dataNascimento)
+                .build(), tipo);
+        linha.saldoInicial = saldoInicial;
+    }
+
+    private void gravar(Execucao atual, List<LinhaImportacao> lote) {
+        final List<Cliente> clientes = new ArrayList<>(lote.size());
+        final List<Dinheiro> saldos = new ArrayList<>(lote.size());
+        for (LinhaImportacao linha : lote) {
+            clientes.add(linha.cliente);
+            saldos.add(linha.saldoInicial);
+        }
+        final List<ResultadoRegistroClienteDto> resultados;
+        try {
+            // O lote inteiro em uma transacao: se registrar falhar, nenhuma linha dele foi gravada
+            resultados = clienteLoteService.registrar(clientes, saldos, lote.size());
+        } catch (RuntimeException e) {
+            log.error("Falha ao gravar o lote de {} linhas iniciado na linha {}", lote.size(), lote.get(0).numero, e);
+            lote.forEach(linha -> rejeitar(atual, linha, "Falha ao gravar o lote!"));
+            return;
+        }
+        for (int i = 0; i < lote.size(); i++) {
+            final var resultado = resultados.get(i);
+            if (resultado.isSucesso()) {
+                atual.importadas.incrementAndGet();
+                importadas.increment();
+            } else {
+                rejeitar(atual, lote.get(i), resultado.getErro());
+            }
+        }
+    }
+
+    private void rejeitar(Execucao atual, LinhaImportacao linha, String erro) {
+        atual.rejeitadas.incrementAndGet();
+        rejeitadas.increment();
+        final List<String> registro = new ArrayList<>(linha.campos.size() + 2);
+        registro.add(String.valueOf(linha.numero));
+        registro.add(erro);
+        registro.addAll(linha.campos);
+        atual.escreverRejeitado(LeitorCsv.formatar(registro, SEPARADOR));
+    }
+
+    private void relatar() {
+        final var andamento = progresso();
+        log.info("Importacao {}: {} linhas lidas, {} importadas, {} rejeitadas ({} linhas/s)",
+                andamento.getImportacao(), andamento.getLinhasLidas(), andamento.getLinhasImportadas(),
+                andamento.getLinhasRejeitadas(), String.format(Locale.ROOT, "%.1f", andamento.getLinhasPorSegundo()));
+    }
+
+    private static void aguardar(ThreadPoolExecutor pool) {
+        try {
+            while (!pool.awaitTermination(1, TimeUnit.MINUTES)) {
+                log.info("Aguardando {} lotes da importacao", pool.getQueue().size() + pool.getActiveCount());
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean vazia(List<String> campos) {
+        return campos.size() == 1 && campos.get(0).isBlank();
+    }
+
+    private static boolean cabecalho(List<String> campos) {
+        return campos.get(0).trim().equalsIgnoreCase(CABECALHO.get(0));
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder("banco.importacao.linhas")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+
+    private static final class LinhaImportacao {
+
+        final long numero;
+        final List<String> campos;
+        Cliente cliente;
+        Dinheiro saldoInicial;
+
+        LinhaImportacao(long numero, List<String> campos) {
+            this.numero = numero;
+            this.campos = campos;
+        }
+    }
+
+    private static final class Execucao {
+
+        final UUID id;
+        final Path arquivoRejeitados;
+        final Instant inicio = Instant.now();
+        final AtomicLong lidas = new AtomicLong();
+        final AtomicLong importadas = new AtomicLong();
+        final AtomicLong rejeitadas = new AtomicLong();
+        volatile Instant fim;
+        private BufferedWriter rejeitados;
+        private boolean falhaRejeitados;
+
+        Execucao(UUID id, Path arquivoRejeitados) {
+            this.id = id;
+            this.arquivoRejeitados = arquivoRejeitados;
+        }
+
+        // O arquivo so e criado na primeira rejeicao
+        synchronized void escreverRejeitado(String registro) {
+            if (falhaRejeitados) {
+                return;
+            }
+            try {
+                if (rejeitados == null) {
+                    Files.createDirectories(arquivoRejeitados.getParent());
+                    rejeitados = Files.newBufferedWriter(arquivoRejeitados, StandardCharsets.UTF_8);
+                    final List<String> cabecalho = new ArrayList<>();
+                    cabecalho.add("linha");
+                    cabecalho.add("erro");
+                    cabecalho.addAll(CABECALHO);
+                    rejeitados.write(LeitorCsv.formatar(cabecalho, SEPARADOR));
+                    rejeitados.newLine();
+                }
+                rejeitados.write(registro);
+                rejeitados.newLine();
+            } catch (IOException e) {
+                // As rejeicoes continuam contadas; so o arquivo fica incompleto
+                falhaRejeitados = true;
+                log.error("Falha ao escrever o arquivo de rejeitados {}", arquivoRejeitados, e);
+            }
+        }
+
+        synchronized void fecharRejeitados() {
+            if (rejeitados == null) {
+                return;
+            }
+            try {
+                rejeitados.close();
+            } catch (IOException e) {
+                log.error("Falha ao fechar o arquivo de rejeitados {}", arquivoRejeitados, e);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,112 @@
+package br.ada.caixa.service.importacao;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Leitor de CSV (RFC 4180) que devolve um registro por chamada, sem carregar o arquivo.
+ */
+final class LeitorCsv implements Closeable {
+
+    private static final char ASPAS = '"';
+    private static final char BOM = '\uFEFF';
+
+    private final Reader reader;
+    private final char separador;
+    private long linhaAtual;
+    private long linhaRegistro;
+    private boolean inicio = true;
+
+    LeitorCsv(Reader reader, char separador) {
+        this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader);
+        this.separador = separador;
+    }
+
+    /**
+     * Proximo registro, ou null no fim do arquivo.
+     */
+    List<String> proximo() throws IOException {
+        int c = reader.read();
+        if (inicio) {
+            inicio = false;
+            if (c == BOM) {
+                c = reader.read();
+            }
+        }
+        if (c == -1) {
+            return null;
+        }
+        linhaRegistro = ++linhaAtual;
+        List<String> campos = new ArrayList<>();
+        var campo = new StringBuilder();
+        boolean entreAspas = false;
+        while (c != -1) {
+            final char caractere = (char) c;
+            if (entreAspas) {
+                if (caractere == ASPAS) {
+                    c = reader.read();
+                    if (c != ASPAS) {
+                        // Aspas de fechamento: o caractere seguinte e tratado fora das aspas
+                        entreAspas = false;
+                        continue;
+                    }
+                    campo.append(ASPAS);
+                } else {
+                    if (caractere == '\n') {
+                        linhaAtual++;
+                    }
+                    campo.append(caractere);
+                }
+            } else if (caractere == ASPAS && campo.length() == 0) {
+                entreAspas = true;
+            } else if (caractere == separador) {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else if (caractere == '\n') {
+                break;
+            } else if (caractere != '\r') {
+                campo.append(caractere);
+            }
+            c = reader.read();
+        }
+        campos.add(campo.toString());
+        return campos;
+    }
+
+    /**
+     * Linha do arquivo (a partir de 1) em que comeca o ultimo registro lido.
+     */
+    long getLinha() {
+        return linhaRegistro;
+    }
+
+    /**
+     * Registro formatado de volta em CSV, com aspas apenas onde precisa.
+     */
+    static String formatar(List<String> campos, char separador) {
+        var linha = new StringBuilder();
+        for (int i = 0; i < campos.size(); i++) {
+            if (i > 0) {
+                linha.append(separador);
+            }
+            final var campo = campos.get(i) == null ? "" : campos.get(i);
+            if (campo.indexOf(separador) >= 0 || campo.indexOf(ASPAS) >= 0
+                    || campo.indexOf('\n') >= 0 || campo.indexOf('\r') >= 0) {
+                linha.append(ASPAS).append(campo.replace("\"", "\"\"")).append(ASPAS);
+            } else {
+                linha.append(campo);
+            }
+        }
+        return linha.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+}
@@ -0,0 +1,254 @@
+package br.ada.caixa.service.journal;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Snapshot binario dos saldos de todas as contas: cabecalho, registros (numero, tipo, saldo em centavos)
+ * e o CRC32 de cada bloco, para que leitores em paralelo validem e carreguem blocos diferentes.
+ */
+final class ArquivoSnapshot implements Closeable {
+
+    static final String PREFIXO = "saldos-";
+    static final String SUFIXO = ".snap";
+
+    private static final int MARCA = 0x53414C44;
+    private static final int VERSAO_FORMATO = 2;
+    private static final int TAMANHO_CABECALHO = Integer.BYTES + Integer.BYTES + Long.BYTES + Long.BYTES + Long.BYTES + Integer.BYTES;
+    static final int TAMANHO_REGISTRO = Long.BYTES + Byte.BYTES + Long.BYTES;
+    static final int REGISTROS_POR_BLOCO = 64 * 1024;
+
+    private final Path arquivo;
+    private final FileChannel canal;
+    private final long inicio;
+    private final long sequencia;
+    private final long quantidade;
+    private final int registrosPorBloco;
+    private final int[] crcs;
+
+    private ArquivoSnapshot(Path arquivo, FileChannel canal, long inicio, long sequencia, long quantidade,
+                            int registrosPorBloco, int[] crcs) {
+        this.arquivo = arquivo;
+        this.canal = canal;
+        this.inicio = inicio;
+        this.sequencia = sequencia;
+        this.quantidade = quantidade;
+        this.registrosPorBloco = registrosPorBloco;
+        this.crcs = crcs;
+    }
+
+    /**
+     * Grava o snapshot num arquivo temporario, sincroniza e so entao o renomeia para o nome final:
+     * um snapshot incompleto nunca fica visivel. Os lotes do journal ate {@code inicio} estao nos saldos,
+     * os depois de {@code sequencia} nao, e os do meio podem estar ou nao.
+     */
+    static Path gravar(Path diretorio, long inicio, long sequencia, SaldosPorConta saldos) {
+        final var destino = diretorio.resolve(nomeArquivo(sequencia));
+        final var temporario = diretorio.resolve(destino.getFileName() + ".tmp");
+        final int blocos = blocos(saldos.tamanho(), REGISTROS_POR_BLOCO);
+        final int[] crcs = new int[blocos];
+        try (var canal = FileChannel.open(temporario, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            var saida = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(canal), 1 << 16));
+            saida.writeInt(MARCA);
+            saida.writeInt(VERSAO_FORMATO);
+            saida.writeLong(inicio);
+            saida.writeLong(sequencia);
+            saida.writeLong(saldos.tamanho());
+            saida.writeInt(REGISTROS_POR_BLOCO);
+
+            final var registro = ByteBuffer.allocate(TAMANHO_REGISTRO);
+            final var crc = new CRC32();
+            final int[] escritos = {0};
+            final IOException[] erro = {null};
+            saldos.paraCada((numero, tipo, centavos) -> {
+                if (erro[0] != null) {
+                    return;
+                }
+                registro.clear();
+                registro.putLong(numero).put(tipo).putLong(centavos);
+                crc.update(registro.array());
+                try {
+                    saida.write(registro.array());
+                } catch (IOException e) {
+                    erro[0] = e;
+                }
+                if (++escritos[0] % REGISTROS_POR_BLOCO == 0) {
+                    crcs[escritos[0] / REGISTROS_POR_BLOCO - 1] = (int) crc.getValue();
+                    crc.reset();
+                }
+            });
+            if (erro[0] != null) {
+                throw erro[0];
+            }
+            if (escritos[0] % REGISTROS_POR_BLOCO != 0) {
+                crcs[blocos - 1] = (int) crc.getValue();
+            }
+            for (int valor : crcs) {
+                saida.writeInt(valor);
+            }
+            saida.flush();
+            canal.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Nao foi possivel gravar o snapshot " + destino, e);
+        }
+        try {
+            Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Nao foi possivel publicar o snapshot " + destino, e);
+        }
+        return destino;
+    }
+
+    /**
+     * Abre o snapshot para leitura e valida o cabecalho e o tamanho do arquivo. Os registros so sao
+     * validados, bloco a bloco, em {@link #lerBloco}.
+     */
+    static ArquivoSnapshot abrir(Path arquivo) {
+        FileChannel canal = null;
+        try {
+            canal = FileChannel.open(arquivo, StandardOpenOption.READ);
+            var cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO);
+            lerCompleto(canal, cabecalho, 0);
+            cabecalho.flip();
+            if (cabecalho.getInt() != MARCA || cabecalho.getInt() != VERSAO_FORMATO) {
+                throw new IllegalStateException("Arquivo nao e um snapshot de saldos: " + arquivo);
+            }
+            final long inicio = cabecalho.getLong();
+            final long sequencia = cabecalho.getLong();
+            final long quantidade = cabecalho.getLong();
+            final int registrosPorBloco = cabecalho.getInt();
+            if (quantidade < 0 || registrosPorBloco <= 0 || inicio > sequencia) {
+                throw new IllegalStateException("Cabecalho de snapshot invalido: " + arquivo);
+            }
+            final int blocos = blocos(quantidade, registrosPorBloco);
+            final long inicioCrcs = TAMANHO_CABECALHO + quantidade * TAMANHO_REGISTRO;
+            if (canal.size() != inicioCrcs + (long) blocos * Integer.BYTES) {
+                throw new IllegalStateException("Snapshot truncado: " + arquivo);
+            }
+            var tabela = ByteBuffer.allocate(blocos * Integer.BYTES);
+            lerCompleto(canal, tabela, inicioCrcs);
+            tabela.flip();
+            final int[] crcs = new int[blocos];
+            tabela.asIntBuffer().get(crcs);
+            return new ArquivoSnapshot(arquivo, canal, inicio, sequencia, quantidade, registrosPorBloco, crcs);
+        } catch (IOException e) {
+            fecharSilenciosamente(canal);
+            throw new UncheckedIOException("Nao foi possivel abrir o snapshot " + arquivo, e);
+        } catch (RuntimeException e) {
+            fecharSilenciosamente(canal);
+            throw e;
+        }
+    }
+
+    long getInicio() {
+        return inicio;
+    }
+
+    long getSequencia() {
+        return sequencia;
+    }
+
+    long getQuantidade() {
+        return quantidade;
+    }
+
+    int getBlocos() {
+        return crcs.length;
+    }
+
+    /**
+     * Tamanho de buffer que {@link #lerBloco} precisa.
+     */
+    int getTamanhoBloco() {
+        return registrosPorBloco * TAMANHO_REGISTRO;
+    }
+
+    /**
+     * Le um bloco com leitura posicional, confere o CRC e so entao entrega os registros. Pode ser
+     * chamado de varias threads ao mesmo tempo, cada uma com seu buffer.
+     */
+    void lerBloco(int bloco, ByteBuffer buffer, SaldosPorConta.RegistroSaldo consumidor) {
+        final long primeiro = (long) bloco * registrosPorBloco;
+        final int registros = (int) Math.min(registrosPorBloco, quantidade - primeiro);
+        buffer.clear().limit(registros * TAMANHO_REGISTRO);
+        try {
+            lerCompleto(canal, buffer, TAMANHO_CABECALHO + primeiro * TAMANHO_REGISTRO);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Nao foi possivel ler o snapshot " + arquivo, e);
+        }
+        buffer.flip();
+        var crc = new CRC32();
+        crc.update(buffer.duplicate());
+        if ((int) crc.getValue() != crcs[bloco]) {
+            throw new IllegalStateException("Snapshot corrompido: " + arquivo + ", bloco " + bloco);
+        }
+        for (int i = 0; i < registros; i++) {
+            consumidor.aceitar(buffer.getLong(), buffer.get(), buffer.getLong());
+        }
+    }
+
+    Path getArquivo() {
+        return arquivo;
+    }
+
+    @Override
+    public void close() {
+        try {
+            canal.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static String nomeArquivo(long sequencia) {
+        return String.format("%s%020d%s", PREFIXO, sequencia, SUFIXO);
+    }
+
+    static long sequencia(Path arquivo) {
+        var nome = arquivo.getFileName().toString();
+        return Long.parseLong(nome.substring(PREFIXO.length(), nome.length() - SUFIXO.length()));
+    }
+
+    static boolean isSnapshot(Path arquivo) {
+        var nome = arquivo.getFileName().toString();
+        return Files.isRegularFile(arquivo) && nome.startsWith(PREFIXO) && nome.endsWith(SUFIXO);
+    }
+
+    private static int blocos(long quantidade, int registrosPorBloco) {
+        return Math.toIntExact((quantidade + registrosPorBloco - 1) / registrosPorBloco);
+    }
+
+    private static void lerCompleto(FileChannel canal, ByteBuffer buffer, long posicao) throws IOException {
+        while (buffer.hasRemaining()) {
+            int lidos = canal.read(buffer, posicao);
+            if (lidos < 0) {
+                throw new IOException("Fim inesperado do arquivo");
+            }
+            posicao += lidos;
+        }
+    }
+
+    private static void fecharSilenciosamente(FileChannel canal) {
+        if (canal == null) {
+            return;
+        }
+        try {
+            canal.close();
+        } catch (IOException ignorada) {
+            // ja ha uma falha sendo propagada
+        }
+    }
+
+}
@@ -0,0 +1,417 @@
+package br.ada.caixa.service.journal;
+
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.enums.TipoLancamento;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Write-ahead log dos movimentos de saldo: os lancamentos de uma transacao ficam em disco antes do
+ * commit dela, e um marcador de confirmacao ou cancelamento depois diz se valem na releitura.
+ */
+@Slf4j
+@Component
+public class JournalLancamentos {
+
+    private final boolean habilitado;
+    private final Path diretorio;
+    private final int tamanhoSegmento;
+    private final Timer tempoFsync;
+    private final DistributionSummary lancamentosPorFsync;
+    private final Counter lancamentosRegistrados;
+
+    private final ReentrantLock escrita = new ReentrantLock();
+    private final Condition pendente = escrita.newCondition();
+    private final Condition duravel = escrita.newCondition();
+    private final TreeSet<Long> lotesAbertos = new TreeSet<>();
+    private SegmentoJournal segmentoAtual;
+    private long proximaSequencia;
+    private long ultimaEscrita;
+    private long ultimaDuravel;
+    private RuntimeException falha;
+    private boolean aberto;
+    private Thread sincronizador;
+
+    public JournalLancamentos(MeterRegistry meterRegistry,
+                              @Value("${banco.journal.habilitado:false}") boolean habilitado,
+                              @Value("${banco.journal.diretorio:data/journal}") String diretorio,
+                              @Value("${banco.journal.tamanho-segmento:64MB}") DataSize tamanhoSegmento) {
+        if (tamanhoSegmento.toBytes() < SegmentoJournal.TAMANHO_REGISTRO || tamanhoSegmento.toBytes() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Tamanho de segmento do journal invalido: " + tamanhoSegmento);
+        }
+        this.habilitado = habilitado;
+        this.diretorio = Path.of(diretorio);
+        this.tamanhoSegmento = (int) tamanhoSegmento.toBytes();
+        this.tempoFsync = Timer.builder("banco.journal.fsync")
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(meterRegistry);
+        this.lancamentosPorFsync = DistributionSummary.builder("banco.journal.lancamentos-por-fsync")
+                .register(meterRegistry);
+        this.lancamentosRegistrados = meterRegistry.counter("banco.journal.lancamentos");
+    }
+
+    @PostConstruct
+    public void abrir() {
+        if (!habilitado) {
+            return;
+        }
+        try {
+            Files.createDirectories(diretorio);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Nao foi possivel criar o diretorio do journal " + diretorio, e);
+        }
+        var segmentos = segmentos();
+        segmentoAtual = segmentos.isEmpty()
+                ? SegmentoJournal.criar(diretorio, 1, tamanhoSegmento)
+                : SegmentoJournal.abrir(segmentos.get(segmentos.size() - 1), tamanhoSegmento);
+        ultimaEscrita = segmentoAtual.getUltimaSequencia();
+        ultimaDuravel = ultimaEscrita;
+        proximaSequencia = ultimaEscrita + 1;
+        aberto = true;
+
+        sincronizador = new Thread(this::sincronizar, "journal-fsync");
+        sincronizador.setDaemon(true);
+        sincronizador.start();
+        log.info("Journal aberto em {} ({} segmentos, proxima sequencia {})", diretorio,
+                Math.max(1, segmentos.size()), proximaSequencia);
+    }
+
+    @PreDestroy
+    public void fechar() {
+        escrita.lock();
+        try {
+            if (!aberto) {
+                return;
+            }
+            aberto = false;
+            pendente.signalAll();
+            segmentoAtual.forcar();
+            segmentoAtual.close();
+            ultimaDuravel = ultimaEscrita;
+            duravel.signalAll();
+        } finally {
+            escrita.unlock();
+        }
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    public void registrar(TipoLancamento tipo, Long numeroConta, Dinheiro delta) {
+        registrar(List.of(new Lancamento(tipo, numeroConta, delta)));
+    }
+
+    /**
+     * Grava os lancamentos no lote da transacao atual. O commit espera o fsync deles e falha se o journal
+     * estiver indisponivel; fora de transacao, falha na hora.
+     */
+    public void registrar(Collection<Lancamento> lancamentos) {
+        if (!habilitado || lancamentos.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Lancamentos do journal precisam ser registrados dentro de uma transacao");
+        }
+        var lote = (LoteTransacao) TransactionSynchronizationManager.getResource(this);
+        if (lote == null) {
+            lote = new LoteTransacao();
+            TransactionSynchronizationManager.bindResource(this, lote);
+            TransactionSynchronizationManager.registerSynchronization(lote);
+        }
+        lote.gravar(lancamentos);
+        lancamentosRegistrados.increment(lancamentos.size());
+    }
+
+    /**
+     * Entrega, na ordem em que foram confirmados, os lancamentos dos lotes iniciados a partir da
+     * sequencia informada. Lotes cancelados ou sem marcador ficam de fora.
+     */
+    public void ler(long aPartirDe, Consumer<Lancamento> consumidor) {
+        if (!habilitado) {
+            return;
+        }
+        var leitor = new LeitorLotes(aPartirDe, consumidor);
+        lerRegistros(aPartirDe, leitor);
+        if (leitor.lotesEmDuvida() > 0) {
+            log.warn("{} lotes do journal sem confirmacao nem cancelamento foram ignorados", leitor.lotesEmDuvida());
+        }
+    }
+
+    public Map<Long, Dinheiro> reconstruirSaldos() {
+        Map<Long, Dinheiro> saldos = new HashMap<>();
+        ler(1, lancamento -> saldos.merge(lancamento.getNumeroConta(), lancamento.getDelta(), Dinheiro::somar));
+        return saldos;
+    }
+
+    public long getUltimaSequencia() {
+        escrita.lock();
+        try {
+            return ultimaEscrita;
+        } finally {
+            escrita.unlock();
+        }
+    }
+
+    /**
+     * Ultima sequencia ja sincronizada em disco; o que vem depois dela ainda pode se perder numa queda.
+     */
+    public long getUltimaSequenciaDuravel() {
+        escrita.lock();
+        try {
+            return ultimaDuravel;
+        } finally {
+            escrita.unlock();
+        }
+    }
+
+    /**
+     * Sequencia ate a qual todos os lotes ja terminaram (commit ou rollback): uma leitura do banco
+     * iniciada depois disto ve o resultado de todos eles.
+     */
+    long getUltimaSequenciaConcluida() {
+        escrita.lock();
+        try {
+            return lotesAbertos.isEmpty() ? ultimaEscrita : lotesAbertos.first() - 1;
+        } finally {
+            escrita.unlock();
+        }
+    }
+
+    Path getDiretorio() {
+        return diretorio;
+    }
+
+    /**
+     * Apaga os segmentos cujos lancamentos estao todos ate a sequencia informada. O ultimo segmento, onde
+     * o journal escreve, nunca e apagado.
+     *
+     * @return quantos segmentos foram apagados
+     */
+    int apagarAte(long sequencia) {
+        var segmentos = segmentos();
+        int apagados = 0;
+        // Um segmento termina logo antes da primeira sequencia do seguinte
+        for (int i = 0; i + 1 < segmentos.size()
+                && SegmentoJournal.primeiraSequencia(segmentos.get(i + 1)) - 1 <= sequencia; i++) {
+            try {
+                Files.deleteIfExists(segmentos.get(i));
+                apagados++;
+            } catch (IOException e) {
+                log.warn("Nao foi possivel apagar o segmento {}", segmentos.get(i), e);
+            }
+        }
+        return apagados;
+    }
+
+    /**
+     * Segmentos que podem ter lancamentos a partir da sequencia informada, em ordem.
+     */
+    List<Path> segmentosAPartirDe(long aPartirDe) {
+        var segmentos = segmentos();
+        int primeiro = 0;
+        // Pula segmentos inteiros que terminam antes do ponto pedido
+        while (primeiro + 1 < segmentos.size() && SegmentoJournal.primeiraSequencia(segmentos.get(primeiro + 1)) <= aPartirDe) {
+            primeiro++;
+        }
+        return segmentos.subList(primeiro, segmentos.size());
+    }
+
+    // Todos os registros a partir da sequencia, marcadores inclusive, em ordem
+    void lerRegistros(long aPartirDe, Consumer<Lancamento> consumidor) {
+        for (Path segmento : segmentosAPartirDe(aPartirDe)) {
+            SegmentoJournal.ler(segmento, aPartirDe, consumidor);
+        }
+    }
+
+    private void sincronizar() {
+        while (true) {
+            final long alvo;
+            final long anterior;
+            final SegmentoJournal segmento;
+            escrita.lock();
+            try {
+                while (aberto && ultimaDuravel >= ultimaEscrita) {
+                    pendente.awaitUninterruptibly();
+                }
+                if (!aberto) {
+                    return;
+                }
+                alvo = ultimaEscrita;
+                anterior = ultimaDuravel;
+                segmento = segmentoAtual;
+            } finally {
+                escrita.unlock();
+            }
+
+            RuntimeException erro = null;
+            try {
+                // Fora do lock: quem chegar durante o fsync grava no segmento e espera o proximo
+                tempoFsync.record(segmento::forcar);
+            } catch (RuntimeException e) {
+                log.error("Falha no fsync do journal; novas operacoes serao recusadas", e);
+                erro = e;
+            }
+
+            escrita.lock();
+            try {
+                if (erro != null) {
+                    falha = erro;
+                } else if (alvo > ultimaDuravel) {
+                    lancamentosPorFsync.record(alvo - Math.max(anterior, ultimaDuravel));
+                    ultimaDuravel = alvo;
+                }
+                duravel.signalAll();
+                if (erro != null) {
+                    return;
+                }
+            } finally {
+                escrita.unlock();
+            }
+        }
+    }
+
+    // Chamado com o lock de escrita; o segmento cheio e sincronizado aqui, entao tudo ate ele fica duravel
+    private void trocarSegmento() {
+        segmentoAtual.forcar();
+        segmentoAtual.close();
+        ultimaDuravel = Math.max(ultimaDuravel, segmentoAtual.getUltimaSequencia());
+        duravel.signalAll();
+        segmentoAtual = SegmentoJournal.criar(diretorio, proximaSequencia, tamanhoSegmento);
+        log.debug("Journal trocou para o segmento {}", segmentoAtual.getArquivo());
+    }
+
+    // Chamado com o lock de escrita
+    private void escrever(Lancamento lancamento, long lote, Instant instante) {
+        if (!segmentoAtual.cabe()) {
+            trocarSegmento();
+        }
+        segmentoAtual.escrever(lancamento.registrado(proximaSequencia, lote, instante));
+        ultimaEscrita = proximaSequencia++;
+        pendente.signal();
+    }
+
+    private void verificarDisponivel() {
+        if (falha != null) {
+            throw new IllegalStateException("Journal de lancamentos indisponivel", falha);
+        }
+        if (!aberto) {
+            throw new IllegalStateException("Journal de lancamentos fechado");
+        }
+    }
+
+    private List<Path> segmentos() {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.filter(SegmentoJournal::isSegmento)
+                    .sorted((a, b) -> Long.compare(SegmentoJournal.primeiraSequencia(a), SegmentoJournal.primeiraSequencia(b)))
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Nao foi possivel listar o journal em " + diretorio, e);
+        }
+    }
+
+    /**
+     * Lote do journal de uma transacao: o id e a sequencia do primeiro lancamento gravado por ela.
+     */
+    private class LoteTransacao implements TransactionSynchronization {
+
+        private long id;
+        private long ultima;
+
+        void gravar(Collection<Lancamento> lancamentos) {
+            final var agora = Instant.now();
+            escrita.lock();
+            try {
+                verificarDisponivel();
+                if (id == 0) {
+                    id = proximaSequencia;
+                    lotesAbertos.add(id);
+                }
+                for (Lancamento lancamento : lancamentos) {
+                    escrever(lancamento, id, agora);
+                }
+                ultima = ultimaEscrita;
+            } finally {
+                escrita.unlock();
+            }
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(JournalLancamentos.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(JournalLancamentos.this, this);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (id == 0) {
+                return;
+            }
+            escrita.lock();
+            try {
+                while (ultimaDuravel < ultima) {
+                    verificarDisponivel();
+                    duravel.awaitUninterruptibly();
+                }
+            } finally {
+                escrita.unlock();
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(JournalLancamentos.this);
+            if (id == 0) {
+                return;
+            }
+            final var marcador = Lancamento.marcador(
+                    status == STATUS_COMMITTED ? TipoLancamento.CONFIRMACAO : TipoLancamento.CANCELAMENTO, id);
+            escrita.lock();
+            try {
+                lotesAbertos.remove(id);
+                // Com status desconhecido o lote fica sem marcador e a releitura o trata como em duvida
+                if (status == STATUS_UNKNOWN) {
+                    return;
+                }
+                verificarDisponivel();
+                escrever(marcador, id, Instant.now());
+            } catch (RuntimeException e) {
+                log.error("Nao foi possivel gravar o marcador do lote {} do journal; ele fica em duvida", id, e);
+            } finally {
+                escrita.unlock();
+            }
+        }
+
+    }
+
+}
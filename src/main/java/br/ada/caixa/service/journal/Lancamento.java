@@ -0,0 +1,41 @@
+package br.ada.caixa.service.journal;
+
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.enums.TipoLancamento;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * Movimento de saldo gravado no {@link JournalLancamentos}, com o mesmo delta em centavos aplicado no
+ * UPDATE. Sequencia, lote e instante sao atribuidos pelo journal.
+ */
+@Value
+@AllArgsConstructor
+public class Lancamento {
+
+    long sequencia;
+    long lote;
+    Long numeroConta;
+    Dinheiro delta;
+    TipoLancamento tipo;
+    Instant instante;
+
+    public Lancamento(TipoLancamento tipo, Long numeroConta, Dinheiro delta) {
+        this(0, 0, numeroConta, delta, tipo, null);
+    }
+
+    static Lancamento marcador(TipoLancamento tipo, long lote) {
+        return new Lancamento(0, lote, 0L, Dinheiro.ZERO, tipo, null);
+    }
+
+    boolean isMarcador() {
+        return tipo == TipoLancamento.CONFIRMACAO || tipo == TipoLancamento.CANCELAMENTO;
+    }
+
+    Lancamento registrado(long sequencia, long lote, Instant instante) {
+        return new Lancamento(sequencia, lote, numeroConta, delta, tipo, instante);
+    }
+
+}
@@ -0,0 +1,54 @@
+package br.ada.caixa.service.journal;
+
+import br.ada.caixa.enums.TipoLancamento;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Recebe os registros do journal em ordem de sequencia e so entrega os lancamentos de um lote quando
+ * encontra a confirmacao dele. Lotes anteriores a {@code primeiroLote} sao ignorados.
+ */
+final class LeitorLotes implements Consumer<Lancamento> {
+
+    private final long primeiroLote;
+    private final Consumer<Lancamento> confirmados;
+    private final Map<Long, List<Lancamento>> abertos = new HashMap<>();
+
+    LeitorLotes(long primeiroLote, Consumer<Lancamento> confirmados) {
+        this.primeiroLote = primeiroLote;
+        this.confirmados = confirmados;
+    }
+
+    @Override
+    public void accept(Lancamento registro) {
+        if (registro.getLote() < primeiroLote) {
+            return;
+        }
+        if (registro.getTipo() == TipoLancamento.CONFIRMACAO) {
+            var lancamentos = abertos.remove(registro.getLote());
+            if (lancamentos != null) {
+                lancamentos.forEach(confirmados);
+            }
+        } else if (registro.getTipo() == TipoLancamento.CANCELAMENTO) {
+            abertos.remove(registro.getLote());
+        } else {
+            abertos.computeIfAbsent(registro.getLote(), lote -> new ArrayList<>()).add(registro);
+        }
+    }
+
+    /**
+     * Lancamentos de lotes sem confirmacao nem cancelamento ate aqui: a transacao caiu ou ainda nao terminou.
+     */
+    void emDuvida(Consumer<Lancamento> consumidor) {
+        abertos.values().forEach(lancamentos -> lancamentos.forEach(consumidor));
+    }
+
+    int lotesEmDuvida() {
+        return abertos.size();
+    }
+
+}
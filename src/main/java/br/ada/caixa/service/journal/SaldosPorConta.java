@@ -0,0 +1,98 @@
+package br.ada.caixa.service.journal;
+
+import java.util.Arrays;
+
+/**
+ * Mapa numero da conta -> (tipo, saldo em centavos) em arrays primitivos, sem um objeto por conta.
+ * Nao e thread-safe.
+ */
+final class SaldosPorConta {
+
+    private static final byte LIVRE = -1;
+    private static final int CAPACIDADE_MINIMA = 1024;
+
+    private long[] numeros;
+    private long[] centavos;
+    private byte[] tipos;
+    private int tamanho;
+
+    SaldosPorConta(int capacidadeEsperada) {
+        alocar(Integer.highestOneBit(Math.max(CAPACIDADE_MINIMA, capacidadeEsperada * 2 - 1)) << 1);
+    }
+
+    void definir(long numero, byte tipo, long saldoCentavos) {
+        int i = posicao(numero);
+        if (tipos[i] == LIVRE) {
+            i = inserir(i, numero);
+        }
+        tipos[i] = tipo;
+        centavos[i] = saldoCentavos;
+    }
+
+    int tamanho() {
+        return tamanho;
+    }
+
+    void paraCada(RegistroSaldo consumidor) {
+        for (int i = 0; i < numeros.length; i++) {
+            if (tipos[i] != LIVRE) {
+                consumidor.aceitar(numeros[i], tipos[i], centavos[i]);
+            }
+        }
+    }
+
+    private int inserir(int i, long numero) {
+        if ((tamanho + 1) * 2 > numeros.length) {
+            crescer();
+            i = posicao(numero);
+        }
+        numeros[i] = numero;
+        centavos[i] = 0;
+        tamanho++;
+        return i;
+    }
+
+    // Posicao da conta ou a primeira livre da sua sequencia de sondagem
+    private int posicao(long numero) {
+        final int mascara = numeros.length - 1;
+        int i = espalhar(numero) & mascara;
+        while (tipos[i] != LIVRE && numeros[i] != numero) {
+            i = (i + 1) & mascara;
+        }
+        return i;
+    }
+
+    private void crescer() {
+        final var antigosNumeros = numeros;
+        final var antigosCentavos = centavos;
+        final var antigosTipos = tipos;
+        alocar(numeros.length << 1);
+        for (int i = 0; i < antigosNumeros.length; i++) {
+            if (antigosTipos[i] != LIVRE) {
+                int j = posicao(antigosNumeros[i]);
+                numeros[j] = antigosNumeros[i];
+                centavos[j] = antigosCentavos[i];
+                tipos[j] = antigosTipos[i];
+            }
+        }
+    }
+
+    private void alocar(int capacidade) {
+        numeros = new long[capacidade];
+        centavos = new long[capacidade];
+        tipos = new byte[capacidade];
+        Arrays.fill(tipos, LIVRE);
+    }
+
+    // Os numeros de conta sao sequenciais por bloco; sem espalhar, agrupariam na mesma regiao da tabela
+    private static int espalhar(long numero) {
+        long h = numero * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    @FunctionalInterface
+    interface RegistroSaldo {
+        void aceitar(long numero, byte tipo, long centavos);
+    }
+
+}
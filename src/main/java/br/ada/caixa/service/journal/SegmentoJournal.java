@@ -0,0 +1,190 @@
+package br.ada.caixa.service.journal;
+
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.enums.TipoLancamento;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Um arquivo do journal mapeado em memoria. Registro: tamanho do corpo, corpo (sequencia, lote, conta,
+ * tipo, instante, delta em centavos) e CRC32; o primeiro registro vazio ou com CRC invalido marca o fim.
+ */
+final class SegmentoJournal implements Closeable {
+
+    static final String PREFIXO = "lancamentos-";
+    static final String SUFIXO = ".wal";
+
+    private static final int TAMANHO_CORPO = Long.BYTES + Long.BYTES + Long.BYTES + Byte.BYTES + Long.BYTES + Integer.BYTES + Long.BYTES;
+    static final int TAMANHO_REGISTRO = Integer.BYTES + TAMANHO_CORPO + Integer.BYTES;
+    private static final TipoLancamento[] TIPOS = TipoLancamento.values();
+
+    private final Path arquivo;
+    private final FileChannel canal;
+    private final MappedByteBuffer buffer;
+    private final long primeiraSequencia;
+    private final CRC32 crc = new CRC32();
+    private int posicao;
+    private long ultimaSequencia;
+
+    private SegmentoJournal(Path arquivo, FileChannel canal, MappedByteBuffer buffer, long primeiraSequencia) {
+        this.arquivo = arquivo;
+        this.canal = canal;
+        this.buffer = buffer;
+        this.primeiraSequencia = primeiraSequencia;
+        this.ultimaSequencia = primeiraSequencia - 1;
+    }
+
+    static SegmentoJournal criar(Path diretorio, long primeiraSequencia, int tamanho) {
+        return abrir(diretorio.resolve(nomeArquivo(primeiraSequencia)), tamanho);
+    }
+
+    /**
+     * Abre (ou cria) o segmento e posiciona a escrita logo depois do ultimo registro valido. O que
+     * houver depois dele (restos de uma escrita interrompida) e zerado.
+     */
+    static SegmentoJournal abrir(Path arquivo, int tamanho) {
+        try {
+            var canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            int tamanhoMapeado = (int) Math.max(tamanho, canal.size());
+            var buffer = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanhoMapeado);
+            var segmento = new SegmentoJournal(arquivo, canal, buffer, primeiraSequencia(arquivo));
+            segmento.recuperar();
+            return segmento;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Nao foi possivel abrir o segmento " + arquivo, e);
+        }
+    }
+
+    /**
+     * Le os registros validos do arquivo, sem abrir para escrita.
+     */
+    static void ler(Path arquivo, long aPartirDe, Consumer<Lancamento> consumidor) {
+        try (var canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            var buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            var crc = new CRC32();
+            int posicao = 0;
+            Lancamento lancamento;
+            while ((lancamento = decodificar(buffer, posicao, crc)) != null) {
+                if (lancamento.getSequencia() >= aPartirDe) {
+                    consumidor.accept(lancamento);
+                }
+                posicao += TAMANHO_REGISTRO;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Nao foi possivel ler o segmento " + arquivo, e);
+        }
+    }
+
+    boolean cabe() {
+        return posicao + TAMANHO_REGISTRO <= buffer.capacity();
+    }
+
+    void escrever(Lancamento lancamento) {
+        final int inicioCorpo = posicao + Integer.BYTES;
+        buffer.putLong(inicioCorpo, lancamento.getSequencia());
+        buffer.putLong(inicioCorpo + 8, lancamento.getLote());
+        buffer.putLong(inicioCorpo + 16, lancamento.getNumeroConta());
+        buffer.put(inicioCorpo + 24, (byte) lancamento.getTipo().ordinal());
+        buffer.putLong(inicioCorpo + 25, lancamento.getInstante().getEpochSecond());
+        buffer.putInt(inicioCorpo + 33, lancamento.getInstante().getNano());
+        buffer.putLong(inicioCorpo + 37, lancamento.getDelta().getCentavos());
+        buffer.putInt(inicioCorpo + TAMANHO_CORPO, crc(buffer, inicioCorpo, crc));
+        // O tamanho por ultimo: um registro sem tamanho e tratado como fim do segmento
+        buffer.putInt(posicao, TAMANHO_CORPO);
+        posicao += TAMANHO_REGISTRO;
+        ultimaSequencia = lancamento.getSequencia();
+    }
+
+    void forcar() {
+        buffer.force();
+    }
+
+    long getPrimeiraSequencia() {
+        return primeiraSequencia;
+    }
+
+    long getUltimaSequencia() {
+        return ultimaSequencia;
+    }
+
+    Path getArquivo() {
+        return arquivo;
+    }
+
+    @Override
+    public void close() {
+        try {
+            canal.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static String nomeArquivo(long primeiraSequencia) {
+        return String.format("%s%020d%s", PREFIXO, primeiraSequencia, SUFIXO);
+    }
+
+    static long primeiraSequencia(Path arquivo) {
+        var nome = arquivo.getFileName().toString();
+        return Long.parseLong(nome.substring(PREFIXO.length(), nome.length() - SUFIXO.length()));
+    }
+
+    static boolean isSegmento(Path arquivo) {
+        var nome = arquivo.getFileName().toString();
+        return Files.isRegularFile(arquivo) && nome.startsWith(PREFIXO) && nome.endsWith(SUFIXO);
+    }
+
+    private void recuperar() {
+        Lancamento lancamento;
+        while ((lancamento = decodificar(buffer, posicao, crc)) != null) {
+            ultimaSequencia = lancamento.getSequencia();
+            posicao += TAMANHO_REGISTRO;
+        }
+        for (int i = posicao; i < buffer.capacity(); i++) {
+            if (buffer.get(i) != 0) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+    }
+
+    private static Lancamento decodificar(ByteBuffer buffer, int posicao, CRC32 crc) {
+        if (posicao + TAMANHO_REGISTRO > buffer.capacity() || buffer.getInt(posicao) != TAMANHO_CORPO) {
+            return null;
+        }
+        final int inicioCorpo = posicao + Integer.BYTES;
+        if (buffer.getInt(inicioCorpo + TAMANHO_CORPO) != crc(buffer, inicioCorpo, crc)) {
+            return null;
+        }
+        final int tipo = buffer.get(inicioCorpo + 24);
+        if (tipo < 0 || tipo >= TIPOS.length) {
+            return null;
+        }
+        return new Lancamento(
+                buffer.getLong(inicioCorpo),
+                buffer.getLong(inicioCorpo + 8),
+                buffer.getLong(inicioCorpo + 16),
+                Dinheiro.deCentavos(buffer.getLong(inicioCorpo + 37)),
+                TIPOS[tipo],
+                Instant.ofEpochSecond(buffer.getLong(inicioCorpo + 25), buffer.getInt(inicioCorpo + 33)));
+    }
+
+    private static int crc(ByteBuffer buffer, int inicioCorpo, CRC32 crc) {
+        var corpo = buffer.duplicate();
+        corpo.limit(inicioCorpo + TAMANHO_CORPO).position(inicioCorpo);
+        crc.reset();
+        crc.update(corpo);
+        return (int) crc.getValue();
+    }
+
+}
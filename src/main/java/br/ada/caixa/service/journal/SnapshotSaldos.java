@@ -0,0 +1,260 @@
+package br.ada.caixa.service.journal;
+
+import br.ada.caixa.entity.TipoConta;
+import br.ada.caixa.service.agendamento.TarefaPeriodica;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Snapshots periodicos dos saldos lidos do banco, marcados com a janela de sequencias do journal em que
+ * a leitura aconteceu, para que a subida carregue a projecao sem varrer a tabela de contas.
+ */
+@Slf4j
+@Component
+public class SnapshotSaldos {
+
+    static final String SQL_SALDOS = "select numero, tipo,"
+            + " saldo + coalesce((select sum(f.saldo) from fracao_saldo f where f.numero_conta = conta.numero), 0) as saldo"
+            + " from conta";
+
+    private final JournalLancamentos journalLancamentos;
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration intervalo;
+    private final int leitores;
+    private final int manter;
+    private final Timer tempoGeracao;
+    private final AtomicLong ultimaSequencia = new AtomicLong();
+    private final TarefaPeriodica geracao;
+
+    public SnapshotSaldos(JournalLancamentos journalLancamentos,
+                          JdbcTemplate jdbcTemplate,
+                          MeterRegistry meterRegistry,
+                          @Value("${banco.journal.snapshot.intervalo:10m}") Duration intervalo,
+                          @Value("${banco.journal.snapshot.leitores:4}") int leitores,
+                          @Value("${banco.journal.snapshot.manter:2}") int manter) {
+        if (leitores < 1 || manter < 1) {
+            throw new IllegalArgumentException("banco.journal.snapshot.leitores e banco.journal.snapshot.manter devem ser positivos");
+        }
+        this.journalLancamentos = journalLancamentos;
+        this.jdbcTemplate = jdbcTemplate;
+        this.intervalo = intervalo;
+        this.leitores = leitores;
+        this.manter = manter;
+        this.geracao = new TarefaPeriodica("journal-snapshot", this::gerar);
+        this.tempoGeracao = Timer.builder("banco.journal.snapshot")
+                .description("Tempo para gerar um snapshot de saldos")
+                .register(meterRegistry);
+        meterRegistry.gauge("banco.journal.snapshot.sequencia", ultimaSequencia);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        if (!isHabilitado()) {
+            return;
+        }
+        ultimoSnapshot().ifPresent(arquivo -> ultimaSequencia.set(ArquivoSnapshot.sequencia(arquivo)));
+        // Uma geracao que falha fica no log; o proximo ciclo tenta de novo e ate la vale o snapshot anterior
+        geracao.iniciar(intervalo);
+    }
+
+    @PreDestroy
+    public void parar() {
+        geracao.parar();
+    }
+
+    public boolean isHabilitado() {
+        return journalLancamentos.isHabilitado();
+    }
+
+    /**
+     * Gera um snapshot se o journal andou desde o anterior e apaga os mais antigos alem dos que devem ser
+     * mantidos, junto com os segmentos do journal que nenhum deles usa mais.
+     *
+     * @return a sequencia do snapshot mais recente
+     */
+    public synchronized long gerar() {
+        if (!isHabilitado()) {
+            return 0;
+        }
+        final var anterior = ultimoSnapshot();
+        if (anterior.isPresent() && journalLancamentos.getUltimaSequencia() <= ArquivoSnapshot.sequencia(anterior.get())) {
+            return ArquivoSnapshot.sequencia(anterior.get());
+        }
+        return tempoGeracao.record(() -> {
+            // Lotes ate o inicio ja terminaram antes da leitura; os iniciados depois de ate comecaram depois dela
+            final long inicio = journalLancamentos.getUltimaSequenciaConcluida();
+            final var saldos = new SaldosPorConta(anterior.map(SnapshotSaldos::quantidade).orElse(0));
+            jdbcTemplate.query(SQL_SALDOS, rs -> {
+                saldos.definir(rs.getLong("numero"), (byte) TipoConta.valueOf(rs.getString("tipo")).ordinal(),
+                        rs.getLong("saldo"));
+            });
+            final long ate = journalLancamentos.getUltimaSequencia();
+            var arquivo = ArquivoSnapshot.gravar(journalLancamentos.getDiretorio(), inicio, ate, saldos);
+            ultimaSequencia.set(ate);
+            apagarAntigos();
+            log.info("Snapshot {} gerado com {} contas ate a sequencia {}", arquivo.getFileName(), saldos.tamanho(), ate);
+            return ate;
+        });
+    }
+
+    /**
+     * Carrega o snapshot mais recente e reaplica a cauda confirmada do journal. Os saldos do snapshot vao
+     * a {@code saldo}, de varias threads, e depois os lancamentos a {@code delta}; por fim, as contas com
+     * lotes que o snapshot pode ou nao ter visto, ou sem confirmacao, vao a {@code descartar}.
+     *
+     * @return quantas contas vieram do snapshot mais quantos lancamentos foram reaplicados
+     */
+    public long recuperar(BiConsumer<Long, BigDecimal> saldo, BiConsumer<Long, BigDecimal> delta, Consumer<Long> descartar) {
+        if (!isHabilitado()) {
+            return 0;
+        }
+        var snapshot = ultimoSnapshot();
+        if (snapshot.isEmpty()) {
+            log.info("Nenhum snapshot de saldos; a projecao vem so do banco");
+            return 0;
+        }
+        final long ate = journalLancamentos.getUltimaSequencia();
+        final long contas;
+        final long inicio;
+        final long sequencia;
+        ExecutorService executor = Executors.newFixedThreadPool(leitores);
+        try (var arquivo = ArquivoSnapshot.abrir(snapshot.get())) {
+            inicio = arquivo.getInicio();
+            sequencia = arquivo.getSequencia();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int leitor = 0; leitor < leitores; leitor++) {
+                final int primeiroBloco = leitor;
+                futures.add(executor.submit(() -> {
+                    var buffer = ByteBuffer.allocate(arquivo.getTamanhoBloco());
+                    for (int bloco = primeiroBloco; bloco < arquivo.getBlocos(); bloco += leitores) {
+                        arquivo.lerBloco(bloco, buffer, (numero, tipo, centavos) ->
+                                saldo.accept(numero, BigDecimal.valueOf(centavos, 2)));
+                    }
+                }));
+            }
+            aguardar(futures);
+            contas = arquivo.getQuantidade();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        final var lancamentos = new AtomicLong();
+        final Set<Long> incertas = new HashSet<>();
+        var leitor = new LeitorLotes(sequencia + 1, lancamento -> {
+            delta.accept(lancamento.getNumeroConta(), lancamento.getDelta().paraBigDecimal());
+            lancamentos.incrementAndGet();
+        });
+        journalLancamentos.lerRegistros(inicio + 1, registro -> {
+            if (registro.getSequencia() > ate) {
+                return;
+            }
+            if (registro.getLote() > sequencia) {
+                leitor.accept(registro);
+            } else if (registro.getLote() > inicio && !registro.isMarcador()) {
+                incertas.add(registro.getNumeroConta());
+            }
+        });
+        leitor.emDuvida(lancamento -> incertas.add(lancamento.getNumeroConta()));
+        incertas.forEach(descartar);
+        log.info("Saldos recuperados: {} contas do snapshot da sequencia {}, {} lancamentos do journal e {} contas"
+                + " deixadas para o banco", contas, sequencia, lancamentos.get(), incertas.size());
+        return contas + lancamentos.get();
+    }
+
+    private Optional<Path> ultimoSnapshot() {
+        var snapshots = snapshots();
+        return snapshots.isEmpty() ? Optional.empty() : Optional.of(snapshots.get(snapshots.size() - 1));
+    }
+
+    private void apagarAntigos() {
+        var snapshots = snapshots();
+        final int primeiroMantido = Math.max(0, snapshots.size() - manter);
+        for (Path antigo : snapshots.subList(0, primeiroMantido)) {
+            try {
+                Files.deleteIfExists(antigo);
+            } catch (IOException e) {
+                log.warn("Nao foi possivel apagar o snapshot {}", antigo, e);
+            }
+        }
+        if (primeiroMantido < snapshots.size()) {
+            // A recuperacao rele o journal a partir do inicio da janela do snapshot
+            final long coberta;
+            try (var arquivo = ArquivoSnapshot.abrir(snapshots.get(primeiroMantido))) {
+                coberta = arquivo.getInicio();
+            }
+            final int segmentos = journalLancamentos.apagarAte(coberta);
+            if (segmentos > 0) {
+                log.info("{} segmentos do journal ate a sequencia {} apagados", segmentos, coberta);
+            }
+        }
+    }
+
+    private List<Path> snapshots() {
+        try (Stream<Path> arquivos = Files.list(journalLancamentos.getDiretorio())) {
+            return arquivos.filter(ArquivoSnapshot::isSnapshot)
+                    .sorted((a, b) -> Long.compare(ArquivoSnapshot.sequencia(a), ArquivoSnapshot.sequencia(b)))
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Nao foi possivel listar os snapshots em " + journalLancamentos.getDiretorio(), e);
+        }
+    }
+
+    private static int quantidade(Path snapshot) {
+        try (var arquivo = ArquivoSnapshot.abrir(snapshot)) {
+            return Math.toIntExact(arquivo.getQuantidade());
+        }
+    }
+
+    private static void aguardar(List<Future<?>> futures) {
+        RuntimeException falha = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Leitura de snapshot interrompida", e);
+            } catch (ExecutionException e) {
+                var causa = e.getCause() instanceof RuntimeException
+                        ? (RuntimeException) e.getCause()
+                        : new IllegalStateException(e.getCause());
+                if (falha == null) {
+                    falha = causa;
+                } else {
+                    falha.addSuppressed(causa);
+                }
+            }
+        }
+        if (falha != null) {
+            throw falha;
+        }
+    }
+
+}
@@ -0,0 +1,126 @@
+package br.ada.caixa.service.metricas;
+
+import br.ada.caixa.exceptions.ContaInvalidaException;
+import br.ada.caixa.exceptions.SaldoInsuficienteException;
+import br.ada.caixa.exceptions.ValidacaoException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mede os metodos anotados com {@link OperacaoMonitorada} em banco.operacoes.latencia, .valor e
+ * .em-andamento, por operacao; roda por fora do {@code RetryAspect}, entao a latencia inclui as retentativas.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MetricasOperacaoAspect {
+
+    private final MeterRegistry meterRegistry;
+    // Medidores ja registrados por operacao, para nao passar pelos builders e pelo registry a cada chamada
+    private final Map<String, Medidores> medidores = new ConcurrentHashMap<>();
+
+    public MetricasOperacaoAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("@annotation(operacaoMonitorada)")
+    public Object medir(ProceedingJoinPoint joinPoint, OperacaoMonitorada operacaoMonitorada) throws Throwable {
+        final var medidor = medidores.computeIfAbsent(operacaoMonitorada.value(), Medidores::new);
+        final long inicio = System.nanoTime();
+        String resultado = "erro";
+        medidor.emAndamento.incrementAndGet();
+        try {
+            var retorno = joinPoint.proceed();
+            resultado = "sucesso";
+            registrarValor(medidor, joinPoint.getArgs());
+            return retorno;
+        } catch (Throwable e) {
+            resultado = resultado(e);
+            throw e;
+        } finally {
+            medidor.emAndamento.decrementAndGet();
+            medidor.latencia(resultado).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    static String resultado(Throwable e) {
+        if (e instanceof SaldoInsuficienteException) {
+            return "saldo_insuficiente";
+        }
+        if (e instanceof ContaInvalidaException) {
+            return "conta_invalida";
+        }
+        if (e instanceof ValidacaoException) {
+            return "validacao";
+        }
+        if (e instanceof ConcurrencyFailureException) {
+            return "conflito";
+        }
+        return "erro";
+    }
+
+    private static void registrarValor(Medidores medidor, Object[] argumentos) {
+        for (Object argumento : argumentos) {
+            if (argumento instanceof BigDecimal) {
+                medidor.valor().record(((BigDecimal) argumento).doubleValue());
+                return;
+            }
+        }
+    }
+
+    private final class Medidores {
+
+        private final String operacao;
+        private final AtomicInteger emAndamento = new AtomicInteger();
+        private volatile DistributionSummary valor;
+        private final Map<String, Timer> latencias = new ConcurrentHashMap<>();
+
+        private Medidores(String operacao) {
+            this.operacao = operacao;
+            Gauge.builder("banco.operacoes.em-andamento", emAndamento, AtomicInteger::get)
+                    .description("Operacoes bancarias em execucao")
+                    .tag("operacao", operacao)
+                    .register(meterRegistry);
+        }
+
+        // Criado no primeiro sucesso; registrar duas vezes numa corrida devolve o mesmo medidor
+        private DistributionSummary valor() {
+            var registrado = valor;
+            if (registrado == null) {
+                registrado = DistributionSummary.builder("banco.operacoes.valor")
+                        .description("Valores movimentados pelas operacoes bancarias")
+                        .baseUnit("reais")
+                        .tag("operacao", operacao)
+                        .register(meterRegistry);
+                valor = registrado;
+            }
+            return registrado;
+        }
+
+        private Timer latencia(String resultado) {
+            return latencias.computeIfAbsent(resultado, nome -> Timer.builder("banco.operacoes.latencia")
+                    .description("Latencia das operacoes bancarias")
+                    .tag("operacao", operacao)
+                    .tag("resultado", nome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+
+    }
+
+}
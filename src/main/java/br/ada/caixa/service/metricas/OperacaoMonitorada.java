@@ -0,0 +1,21 @@
+package br.ada.caixa.service.metricas;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca uma operacao bancaria para ser medida pelo {@link MetricasOperacaoAspect}: latencia e
+ * quantidade por resultado, operacoes em andamento e valor movimentado.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface OperacaoMonitorada {
+
+    /**
+     * Nome da operacao usado como tag nas metricas.
+     */
+    String value();
+
+}
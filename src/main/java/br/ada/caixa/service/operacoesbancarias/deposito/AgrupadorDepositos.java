@@ -0,0 +1,154 @@
+package br.ada.caixa.service.operacoesbancarias.deposito;
+
+import br.ada.caixa.entity.Dinheiro;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit de depositos: o primeiro deposito de uma conta espera ate atrasoMaximo pelos seguintes
+ * e grava todos de uma vez, entregando o mesmo resultado a cada um.
+ */
+final class AgrupadorDepositos {
+
+    /**
+     * Grava os valores de um lote na conta, de uma vez.
+     */
+    interface Gravacao {
+        void gravar(Long numeroConta, List<Dinheiro> valores);
+    }
+
+    private final Map<Long, Lote> abertos = new ConcurrentHashMap<>();
+    private final long atrasoMaximoNanos;
+    private final int tamanhoMaximo;
+    private final Gravacao gravacao;
+    private final DistributionSummary tamanhos;
+
+    AgrupadorDepositos(Duration atrasoMaximo, int tamanhoMaximo, Gravacao gravacao, MeterRegistry meterRegistry) {
+        if (tamanhoMaximo < 1) {
+            throw new IllegalArgumentException("banco.deposito.agrupamento.tamanho-maximo deve ser positivo");
+        }
+        this.atrasoMaximoNanos = atrasoMaximo.toNanos();
+        this.tamanhoMaximo = tamanhoMaximo;
+        this.gravacao = gravacao;
+        this.tamanhos = DistributionSummary.builder("banco.deposito.agrupamento.tamanho")
+                .description("Depositos gravados por lote")
+                .register(meterRegistry);
+    }
+
+    void depositar(Long numeroConta, Dinheiro valor) {
+        while (true) {
+            var novo = new Lote(numeroConta, valor);
+            var aberto = abertos.putIfAbsent(numeroConta, novo);
+            if (aberto == null) {
+                liderar(novo);
+                return;
+            }
+            var pedido = aberto.entrar(valor);
+            if (pedido != null) {
+                aguardar(pedido);
+                return;
+            }
+            // O lote fechou depois da consulta ao mapa e ja saiu dele: abre ou entra no proximo
+        }
+    }
+
+    private void liderar(Lote lote) {
+        lote.aguardarFechamento();
+        tamanhos.record(lote.valores.size());
+        try {
+            gravacao.gravar(lote.numeroConta, lote.valores);
+        } catch (RuntimeException | Error e) {
+            lote.pedidos.forEach(pedido -> pedido.completeExceptionally(e));
+            throw e;
+        }
+        lote.pedidos.forEach(pedido -> pedido.complete(null));
+    }
+
+    // Sem interrupcao: o deposito sera gravado de qualquer jeito, quem chamou precisa saber o resultado
+    private static void aguardar(CompletableFuture<Void> pedido) {
+        try {
+            pedido.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Depositos de uma conta esperando a gravacao. Valores e pedidos so mudam com o monitor do lote,
+     * enquanto ele esta aberto; depois de fechado so o lider os le.
+     */
+    private final class Lote {
+
+        private final Long numeroConta;
+        private final List<Dinheiro> valores = new ArrayList<>();
+        private final List<CompletableFuture<Void>> pedidos = new ArrayList<>();
+        private boolean fechado;
+
+        Lote(Long numeroConta, Dinheiro valorLider) {
+            this.numeroConta = numeroConta;
+            this.valores.add(valorLider);
+        }
+
+        /**
+         * @return o pedido a aguardar, ou null se o lote ja fechou
+         */
+        synchronized CompletableFuture<Void> entrar(Dinheiro valor) {
+            if (fechado) {
+                return null;
+            }
+            valores.add(valor);
+            var pedido = new CompletableFuture<Void>();
+            pedidos.add(pedido);
+            if (valores.size() >= tamanhoMaximo) {
+                fechar();
+                notifyAll();
+            }
+            return pedido;
+        }
+
+        synchronized void aguardarFechamento() {
+            boolean interrompido = false;
+            final long limite = System.nanoTime() + atrasoMaximoNanos;
+            long restante = atrasoMaximoNanos;
+            while (!fechado && valores.size() < tamanhoMaximo && restante > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(this, restante);
+                } catch (InterruptedException e) {
+                    // O lote ainda precisa ser gravado; a interrupcao volta para quem chamou depois
+                    interrompido = true;
+                    break;
+                }
+                restante = limite - System.nanoTime();
+            }
+            if (!fechado) {
+                fechar();
+            }
+            if (interrompido) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Sai do mapa antes de ficar visivel como fechado, para que quem o ache fechado nao o ache de novo
+        private void fechar() {
+            abertos.remove(numeroConta, this);
+            fechado = true;
+        }
+
+    }
+
+}
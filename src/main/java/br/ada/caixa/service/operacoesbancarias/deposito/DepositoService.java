@@ -1,26 +1,99 @@
 package br.ada.caixa.service.operacoesbancarias.deposito;
 
-import br.ada.caixa.exceptions.ValidacaoException;
-import br.ada.caixa.repository.ContaRepository;
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.enums.TipoLancamento;
+import br.ada.caixa.exceptions.ContaInvalidaException;
+import br.ada.caixa.service.conta.ContaCache;
+import br.ada.caixa.service.journal.JournalLancamentos;
+import br.ada.caixa.service.journal.Lancamento;
+import br.ada.caixa.service.metricas.OperacaoMonitorada;
+import br.ada.caixa.service.operacoesbancarias.saldo.SaldoPublicador;
+import br.ada.caixa.service.operacoesbancarias.saldo.SaldosFracionados;
+import br.ada.caixa.service.retry.RetentarEmConflito;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * Depositos; com banco.deposito.agrupamento.habilitado, os concorrentes na mesma conta sao gravados
+ * juntos por {@link AgrupadorDepositos}.
+ */
 @Service
 public class DepositoService {
 
-    private final ContaRepository contaRepository;
+    private final SaldosFracionados saldosFracionados;
+    private final ContaCache contaCache;
+    private final SaldoPublicador saldoPublicador;
+    private final JournalLancamentos journalLancamentos;
+    private final TransactionTemplate transactionTemplate;
+    private final AgrupadorDepositos agrupador;
 
-    public DepositoService(ContaRepository contaRepository) {
-        this.contaRepository = contaRepository;
+    public DepositoService(SaldosFracionados saldosFracionados,
+                           ContaCache contaCache,
+                           SaldoPublicador saldoPublicador,
+                           JournalLancamentos journalLancamentos,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${banco.deposito.agrupamento.habilitado:false}") boolean agrupamentoHabilitado,
+                           @Value("${banco.deposito.agrupamento.atraso-maximo:1ms}") Duration atrasoMaximo,
+                           @Value("${banco.deposito.agrupamento.tamanho-maximo:256}") int tamanhoMaximo) {
+        this.saldosFracionados = saldosFracionados;
+        this.contaCache = contaCache;
+        this.saldoPublicador = saldoPublicador;
+        this.journalLancamentos = journalLancamentos;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.agrupador = agrupamentoHabilitado
+                ? new AgrupadorDepositos(atrasoMaximo, tamanhoMaximo, this::gravar, meterRegistry)
+                : null;
     }
 
+    @OperacaoMonitorada("deposito")
+    @RetentarEmConflito("deposito")
     public void depositar(Long numeroConta, BigDecimal valor) {
-        contaRepository.findByNumero(numeroConta)
-                .ifPresentOrElse(conta -> {
-                    conta.setSaldo(conta.getSaldo().add(valor));
-                    contaRepository.save(conta);
-                }, () -> { throw new ValidacaoException("Conta inválida!"); });
+        final var dinheiro = Dinheiro.de(valor);
+        // Dentro de uma transacao (ex.: com Idempotency-Key) o deposito e de quem a abriu, nao do lote
+        if (agrupador != null && !TransactionSynchronizationManager.isActualTransactionActive()) {
+            agrupador.depositar(numeroConta, dinheiro);
+            return;
+        }
+        gravar(numeroConta, List.of(dinheiro));
+    }
+
+    // Grava um ou mais depositos na conta: a soma num unico UPDATE, mas um lancamento por deposito no journal
+    private void gravar(Long numeroConta, List<Dinheiro> valores) {
+        if (journalLancamentos.isHabilitado()) {
+            // O journal grava os lancamentos antes do commit, entao o UPDATE precisa de uma transacao
+            transactionTemplate.executeWithoutResult(status -> creditar(numeroConta, valores));
+        } else {
+            creditar(numeroConta, valores);
+        }
+        saldoPublicador.publicar(numeroConta);
+    }
+
+    private void creditar(Long numeroConta, List<Dinheiro> valores) {
+        var total = Dinheiro.ZERO;
+        for (var valor : valores) {
+            total = total.somar(valor);
+        }
+        if (saldosFracionados.creditar(numeroConta, total.getCentavos()) == 0) {
+            contaCache.invalidar(numeroConta);
+            throw new ContaInvalidaException();
+        }
+        if (journalLancamentos.isHabilitado()) {
+            final List<Lancamento> lancamentos = new ArrayList<>(valores.size());
+            for (var valor : valores) {
+                lancamentos.add(new Lancamento(TipoLancamento.DEPOSITO, numeroConta, valor));
+            }
+            journalLancamentos.registrar(lancamentos);
+        }
     }
 
 }
@@ -1,10 +1,9 @@
 package br.ada.caixa.service.operacoesbancarias.investimento;
 
 import br.ada.caixa.entity.Conta;
-
-import java.math.BigDecimal;
+import br.ada.caixa.entity.Dinheiro;
 
 public interface InvestimentoOperacao {
-    void executar(Conta contaInvestimento, BigDecimal valor);
+    void executar(Conta contaInvestimento, Dinheiro valor);
     void render(Conta contaInvestimento);
 }
@@ -1,23 +1,26 @@
 package br.ada.caixa.service.operacoesbancarias.investimento;
 
 import br.ada.caixa.entity.Conta;
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.entity.TipoCliente;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-
 @Service("investimentoOperacaoPF")
+@RequiredArgsConstructor
 public class InvestimentoOperacaoPF implements InvestimentoOperacao {
-    private static final BigDecimal RENDIMENTO_INVESTIMENTO = BigDecimal.valueOf(1.01);
+
+    private final TaxaRendimentoService taxaRendimentoService;
 
     @Override
-    public void executar(Conta contaInvestimento, BigDecimal valor) {
+    public void executar(Conta contaInvestimento, Dinheiro valor) {
         // O rendimento é aplicado uma vez por mês e não na execução do investimento
         // valor = valor.multiply(RENDIMENTO_INVESTIMENTO);
-        contaInvestimento.setSaldo(contaInvestimento.getSaldo().add(valor));
+        contaInvestimento.setSaldo(contaInvestimento.getSaldo().somar(valor));
     }
 
     @Override
     public void render(Conta contaInvestimento) {
-        contaInvestimento.setSaldo(contaInvestimento.getSaldo().multiply(RENDIMENTO_INVESTIMENTO));
+        contaInvestimento.setSaldo(contaInvestimento.getSaldo().multiplicar(taxaRendimentoService.taxa(TipoCliente.PF)));
     }
 }
@@ -2,18 +2,25 @@ package br.ada.caixa.service.operacoesbancarias.investimento;
 
 import br.ada.caixa.entity.Cliente;
 import br.ada.caixa.entity.Conta;
+import br.ada.caixa.entity.Dinheiro;
 import br.ada.caixa.entity.TipoCliente;
 import br.ada.caixa.entity.TipoConta;
+import br.ada.caixa.enums.TipoLancamento;
 import br.ada.caixa.exceptions.ValidacaoException;
 import br.ada.caixa.repository.ClienteRepository;
 import br.ada.caixa.repository.ContaRepository;
-import br.ada.caixa.service.conta.ContaService;
+import br.ada.caixa.service.conta.ContaCache;
+import br.ada.caixa.service.conta.GeradorNumeroConta;
+import br.ada.caixa.service.journal.JournalLancamentos;
+import br.ada.caixa.service.metricas.OperacaoMonitorada;
+import br.ada.caixa.service.operacoesbancarias.saldo.SaldoPublicador;
+import br.ada.caixa.service.retry.RetentarEmConflito;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
-import java.util.Random;
 
 @Service
 @RequiredArgsConstructor
@@ -26,19 +33,49 @@ public class InvestimentoService {
 
     private final ContaRepository contaRepository;
     private final ClienteRepository clienteRepository;
+    private final RendimentoJob rendimentoJob;
+    private final RendimentoEmSql rendimentoEmSql;
+    private final GeradorNumeroConta geradorNumeroConta;
+    private final ContaCache contaCache;
+    private final SaldoPublicador saldoPublicador;
+    private final JournalLancamentos journalLancamentos;
+    private final TransactionTemplate transactionTemplate;
 
+    @OperacaoMonitorada("investimento")
+    @RetentarEmConflito("investimento")
     public Conta investir(String documentoCliente, BigDecimal valor) {
+        // O journal grava o lancamento antes do commit, entao com ele ligado o investimento roda numa transacao
+        var contaSalva = journalLancamentos.isHabilitado()
+                ? transactionTemplate.execute(status -> aplicar(documentoCliente, valor))
+                : aplicar(documentoCliente, valor);
+        contaCache.atualizar(contaSalva);
+        saldoPublicador.publicar(contaSalva);
+        return contaSalva;
+    }
+
+    private Conta aplicar(String documentoCliente, BigDecimal valor) {
         var clienteOptional = clienteRepository.findByDocumento(documentoCliente);
         var cliente = clienteOptional.orElseThrow(() -> new ValidacaoException("Cliente nao existe"));
         var contaInvestimento = getSingleContaInvestimento(cliente);
-        getOperacaoTipoCliente(cliente).executar(contaInvestimento, valor);
-        return contaRepository.save(contaInvestimento);
+        var saldoAnterior = contaInvestimento.getSaldo();
+        getOperacaoTipoCliente(cliente).executar(contaInvestimento, Dinheiro.de(valor));
+        var contaSalva = contaRepository.save(contaInvestimento);
+        if (journalLancamentos.isHabilitado()) {
+            journalLancamentos.registrar(TipoLancamento.INVESTIMENTO, contaSalva.getNumero(),
+                    contaSalva.getSaldo().subtrair(saldoAnterior));
+        }
+        return contaSalva;
     }
 
-    // TODO: Mover pra outra classe pra respeitar o princípio da responsabilidade única
     public void render() {
-        for (Conta conta : contaRepository.findContasByTipo(TipoConta.CONTA_INVESTIMENTO)) {
-            getOperacaoTipoCliente(conta.getCliente()).render(conta);
+        render(ModoRendimento.LOTE);
+    }
+
+    public void render(ModoRendimento modo) {
+        if (modo == ModoRendimento.SQL) {
+            rendimentoEmSql.executar();
+        } else {
+            rendimentoJob.executar();
         }
     }
 
@@ -55,8 +92,8 @@ public class InvestimentoService {
             contaInvestimento = new Conta();
             contaInvestimento.setTipo(TipoConta.CONTA_INVESTIMENTO);
             contaInvestimento.setCliente(cliente);
-            contaInvestimento.setSaldo(BigDecimal.ZERO);
-            contaInvestimento.setNumero(ContaService.gerarNumero(contaRepository));
+            contaInvestimento.setSaldo(Dinheiro.ZERO);
+            contaInvestimento.setNumero(geradorNumeroConta.proximo());
         } else {
             contaInvestimento = contas.get(0);
         }
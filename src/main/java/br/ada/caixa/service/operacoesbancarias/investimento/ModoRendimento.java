@@ -0,0 +1,8 @@
+package br.ada.caixa.service.operacoesbancarias.investimento;
+
+public enum ModoRendimento {
+    /** Conta a conta em Java, paginado e retomavel ({@link RendimentoJob}). */
+    LOTE,
+    /** Um UPDATE por tipo de cliente direto no banco ({@link RendimentoEmSql}). */
+    SQL
+}
@@ -0,0 +1,168 @@
+package br.ada.caixa.service.operacoesbancarias.investimento;
+
+import br.ada.caixa.dto.response.ProgressoRendimentoDto;
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.entity.TipoConta;
+import br.ada.caixa.enums.TipoLancamento;
+import br.ada.caixa.exceptions.ValidacaoException;
+import br.ada.caixa.repository.RendimentoCheckpointRepository;
+import br.ada.caixa.service.journal.JournalLancamentos;
+import br.ada.caixa.service.journal.Lancamento;
+import br.ada.caixa.service.operacoesbancarias.saldo.SaldoPublicador;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Aplica o rendimento mensal direto no banco, um UPDATE por tipo de cliente, todos na mesma transacao.
+ */
+@Slf4j
+@Component
+public class RendimentoEmSql {
+
+    // O H2 nao tem UPDATE ... JOIN; o filtro por tipo de cliente vira um semi-join em cliente.
+    // O saldo e BIGINT em centavos: o produto volta ao centavo com HALF_UP, como Dinheiro.multiplicar
+    private static final String SQL_RENDER_TIPO_CLIENTE =
+            "update conta set saldo = cast(round(saldo * ?, 0) as bigint),"
+                    + " versao = versao + 1"
+                    + " where tipo = ?"
+                    + " and cliente_id in (select cl.id from cliente cl where cl.tipo = ?)";
+    private static final String SQL_SALDOS_TIPO_CLIENTE =
+            "select numero, saldo from conta where tipo = ?"
+                    + " and cliente_id in (select cl.id from cliente cl where cl.tipo = ?)"
+                    + " for update";
+    private static final int LANCAMENTOS_POR_REGISTRO = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RendimentoJob rendimentoJob;
+    private final RendimentoCheckpointRepository checkpointRepository;
+    private final TaxaRendimentoService taxaRendimentoService;
+    private final SaldoPublicador saldoPublicador;
+    private final JournalLancamentos journalLancamentos;
+    private final AtomicBoolean emExecucao = new AtomicBoolean();
+
+    public RendimentoEmSql(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           RendimentoJob rendimentoJob,
+                           RendimentoCheckpointRepository checkpointRepository,
+                           TaxaRendimentoService taxaRendimentoService,
+                           SaldoPublicador saldoPublicador,
+                           JournalLancamentos journalLancamentos) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rendimentoJob = rendimentoJob;
+        this.checkpointRepository = checkpointRepository;
+        this.taxaRendimentoService = taxaRendimentoService;
+        this.saldoPublicador = saldoPublicador;
+        this.journalLancamentos = journalLancamentos;
+    }
+
+    public ProgressoRendimentoDto executar() {
+        if (rendimentoJob.progresso().isEmExecucao() || !emExecucao.compareAndSet(false, true)) {
+            throw new ValidacaoException("Rendimento ja esta em execucao");
+        }
+        try {
+            // Um lote interrompido sera retomado pelo RendimentoJob; rodar o SQL agora renderia essas contas duas vezes
+            if (!checkpointRepository.findByConcluidaFalseOrderByParticao().isEmpty()) {
+                throw new ValidacaoException("Existe rendimento em lote pendente; retome-o antes de usar o modo SQL");
+            }
+            final var inicio = Instant.now();
+            taxaRendimentoService.recarregar();
+            Long total = transactionTemplate.execute(status -> {
+                long atualizadas = 0;
+                Map<TipoCliente, SaldosAnteriores> anteriores = new EnumMap<>(TipoCliente.class);
+                for (TipoCliente tipoCliente : TipoCliente.values()) {
+                    // Falha antes do UPDATE se a taxa nao estiver cadastrada, em vez de zerar o saldo com null
+                    final var taxa = taxaRendimentoService.taxa(tipoCliente);
+                    if (journalLancamentos.isHabilitado()) {
+                        anteriores.put(tipoCliente, lerSaldos(tipoCliente, taxa));
+                    }
+                    atualizadas += jdbcTemplate.update(SQL_RENDER_TIPO_CLIENTE,
+                            taxa, TipoConta.CONTA_INVESTIMENTO.name(), tipoCliente.name());
+                }
+                // Direto dos arrays, em blocos, sem montar a lista inteira de lancamentos
+                anteriores.forEach(this::registrarLancamentos);
+                saldoPublicador.publicarRecalculo(TipoConta.CONTA_INVESTIMENTO);
+                return atualizadas;
+            });
+            final var fim = Instant.now();
+            final long processadas = total == null ? 0 : total;
+            final double segundos = Duration.between(inicio, fim).toMillis() / 1000.0;
+            log.info("Rendimento em SQL concluido: {} contas em {} ms", processadas, Duration.between(inicio, fim).toMillis());
+            return ProgressoRendimentoDto.builder()
+                    .emExecucao(false)
+                    .execucao(UUID.randomUUID())
+                    .totalContas(processadas)
+                    .contasProcessadas(processadas)
+                    .percentual(100)
+                    .contasPorSegundo(segundos <= 0 ? processadas : processadas / segundos)
+                    .inicio(inicio)
+                    .fim(fim)
+                    .build();
+        } finally {
+            emExecucao.set(false);
+        }
+    }
+
+    private SaldosAnteriores lerSaldos(TipoCliente tipoCliente, BigDecimal taxa) {
+        var saldos = new SaldosAnteriores(taxa);
+        jdbcTemplate.query(SQL_SALDOS_TIPO_CLIENTE,
+                rs -> saldos.adicionar(rs.getLong(1), rs.getLong(2)),
+                TipoConta.CONTA_INVESTIMENTO.name(), tipoCliente.name());
+        return saldos;
+    }
+
+    private void registrarLancamentos(TipoCliente tipoCliente, SaldosAnteriores saldos) {
+        List<Lancamento> lancamentos = new ArrayList<>(Math.min(saldos.tamanho, LANCAMENTOS_POR_REGISTRO));
+        for (int i = 0; i < saldos.tamanho; i++) {
+            final var saldo = Dinheiro.deCentavos(saldos.centavos[i]);
+            lancamentos.add(new Lancamento(TipoLancamento.RENDIMENTO, saldos.numeros[i],
+                    saldo.multiplicar(saldos.taxa).subtrair(saldo)));
+            if (lancamentos.size() == LANCAMENTOS_POR_REGISTRO) {
+                journalLancamentos.registrar(lancamentos);
+                lancamentos.clear();
+            }
+        }
+        journalLancamentos.registrar(lancamentos);
+    }
+
+    // Numero e saldo em centavos antes do rendimento, em arrays primitivos para nao manter um objeto por conta
+    private static class SaldosAnteriores {
+
+        private final BigDecimal taxa;
+        private long[] numeros = new long[1024];
+        private long[] centavos = new long[1024];
+        private int tamanho;
+
+        SaldosAnteriores(BigDecimal taxa) {
+            this.taxa = taxa;
+        }
+
+        void adicionar(long numero, long saldo) {
+            if (tamanho == numeros.length) {
+                numeros = Arrays.copyOf(numeros, tamanho * 2);
+                centavos = Arrays.copyOf(centavos, tamanho * 2);
+            }
+            numeros[tamanho] = numero;
+            centavos[tamanho] = saldo;
+            tamanho++;
+        }
+
+    }
+
+}
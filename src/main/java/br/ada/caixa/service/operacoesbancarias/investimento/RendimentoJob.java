@@ -0,0 +1,317 @@
+package br.ada.caixa.service.operacoesbancarias.investimento;
+
+import br.ada.caixa.dto.response.ProgressoRendimentoDto;
+import br.ada.caixa.entity.Conta;
+import br.ada.caixa.entity.RendimentoCheckpoint;
+import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.entity.TipoConta;
+import br.ada.caixa.enums.TipoLancamento;
+import br.ada.caixa.exceptions.ValidacaoException;
+import br.ada.caixa.repository.ContaRepository;
+import br.ada.caixa.repository.RendimentoCheckpointRepository;
+import br.ada.caixa.service.journal.JournalLancamentos;
+import br.ada.caixa.service.journal.Lancamento;
+import br.ada.caixa.service.operacoesbancarias.saldo.SaldoPublicador;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Aplica o rendimento mensal nas contas investimento em particoes paralelas, por paginas com checkpoint
+ * na mesma transacao; uma execucao interrompida e retomada do ultimo numero gravado.
+ */
+@Slf4j
+@Component
+public class RendimentoJob {
+
+    private static final String SQL_ATUALIZAR_SALDO =
+            "update conta set saldo = ?, versao = versao + 1 where numero = ?";
+
+    private final ContaRepository contaRepository;
+    private final RendimentoCheckpointRepository checkpointRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final SaldoPublicador saldoPublicador;
+    private final JournalLancamentos journalLancamentos;
+    private final TaxaRendimentoService taxaRendimentoService;
+    private final Map<TipoCliente, InvestimentoOperacao> operacoes = new EnumMap<>(TipoCliente.class);
+    private final int tamanhoPagina;
+    private final int particoes;
+    private final int paralelismo;
+
+    private final ExecutorService coordenador = Executors.newSingleThreadExecutor();
+    private final AtomicBoolean emExecucao = new AtomicBoolean();
+    private final AtomicLong contasProcessadas = new AtomicLong();
+    private volatile long totalContas;
+    private volatile UUID execucao;
+    private volatile Instant inicio;
+    private volatile Instant fim;
+
+    public RendimentoJob(ContaRepository contaRepository,
+                         RendimentoCheckpointRepository checkpointRepository,
+                         JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         EntityManager entityManager,
+                         @Qualifier("investimentoOperacaoPF") InvestimentoOperacao investimentoOperacaoPF,
+                         @Qualifier("investimentoOperacaoPJ") InvestimentoOperacao investimentoOperacaoPJ,
+                         MeterRegistry meterRegistry,
+                         SaldoPublicador saldoPublicador,
+                         JournalLancamentos journalLancamentos,
+                         TaxaRendimentoService taxaRendimentoService,
+                         @Value("${banco.rendimento.tamanho-pagina:500}") int tamanhoPagina,
+                         @Value("${banco.rendimento.particoes:8}") int particoes,
+                         @Value("${banco.rendimento.paralelismo:4}") int paralelismo) {
+        this.contaRepository = contaRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManager = entityManager;
+        this.saldoPublicador = saldoPublicador;
+        this.journalLancamentos = journalLancamentos;
+        this.taxaRendimentoService = taxaRendimentoService;
+        this.operacoes.put(TipoCliente.PF, investimentoOperacaoPF);
+        this.operacoes.put(TipoCliente.PJ, investimentoOperacaoPJ);
+        this.tamanhoPagina = tamanhoPagina;
+        this.particoes = particoes;
+        this.paralelismo = paralelismo;
+
+        Gauge.builder("banco.rendimento.contas.processadas", contasProcessadas, AtomicLong::get)
+                .register(meterRegistry);
+        Gauge.builder("banco.rendimento.contas.total", this, job -> job.totalContas)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Executa (ou retoma) o rendimento e so retorna quando todas as particoes terminarem.
+     */
+    public void executar() {
+        if (!emExecucao.compareAndSet(false, true)) {
+            throw new ValidacaoException("Rendimento ja esta em execucao");
+        }
+        try {
+            processar();
+        } finally {
+            emExecucao.set(false);
+        }
+    }
+
+    /**
+     * Dispara o rendimento em segundo plano; o andamento pode ser acompanhado por {@link #progresso()}.
+     */
+    public void iniciar() {
+        if (!emExecucao.compareAndSet(false, true)) {
+            throw new ValidacaoException("Rendimento ja esta em execucao");
+        }
+        coordenador.execute(() -> {
+            try {
+                processar();
+            } catch (RuntimeException e) {
+                log.error("Falha no rendimento; a proxima execucao retoma do ultimo checkpoint", e);
+            } finally {
+                emExecucao.set(false);
+            }
+        });
+    }
+
+    public ProgressoRendimentoDto progresso() {
+        final long processadas = contasProcessadas.get();
+        final long total = totalContas;
+        final var comeco = inicio;
+        final var termino = fim;
+        double segundos = comeco == null ? 0
+                : Duration.between(comeco, termino == null ? Instant.now() : termino).toMillis() / 1000.0;
+        return ProgressoRendimentoDto.builder()
+                .emExecucao(emExecucao.get())
+                .execucao(execucao)
+                .totalContas(total)
+                .contasProcessadas(processadas)
+                .percentual(total == 0 ? 0 : processadas * 100.0 / total)
+                .contasPorSegundo(segundos <= 0 ? 0 : processadas / segundos)
+                .inicio(comeco)
+                .fim(termino)
+                .build();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        coordenador.shutdownNow();
+    }
+
+    private void processar() {
+        taxaRendimentoService.recarregar();
+        var pendentes = checkpointRepository.findByConcluidaFalseOrderByParticao();
+        if (pendentes.isEmpty()) {
+            pendentes = planejar();
+        } else {
+            log.info("Retomando rendimento {} com {} particoes pendentes",
+                    pendentes.get(0).getExecucao(), pendentes.size());
+        }
+
+        contasProcessadas.set(0);
+        totalContas = contaRepository.countByTipo(TipoConta.CONTA_INVESTIMENTO);
+        inicio = Instant.now();
+        fim = null;
+        if (pendentes.isEmpty()) {
+            fim = inicio;
+            return;
+        }
+        execucao = pendentes.get(0).getExecucao();
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(paralelismo, pendentes.size()));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (RendimentoCheckpoint checkpoint : pendentes) {
+                futures.add(executor.submit(() -> processarParticao(checkpoint)));
+            }
+            aguardar(futures);
+        } finally {
+            executor.shutdownNow();
+            fim = Instant.now();
+        }
+        log.info("Rendimento {} concluido: {} contas em {} ms", execucao, contasProcessadas.get(),
+                Duration.between(inicio, fim).toMillis());
+    }
+
+    private List<RendimentoCheckpoint> planejar() {
+        final var menor = contaRepository.findMenorNumeroPorTipo(TipoConta.CONTA_INVESTIMENTO);
+        final var maior = contaRepository.findMaiorNumeroPorTipo(TipoConta.CONTA_INVESTIMENTO);
+        if (menor == null || maior == null) {
+            return List.of();
+        }
+
+        final var novaExecucao = UUID.randomUUID();
+        final var primeiro = BigInteger.valueOf(menor);
+        final var ultimo = BigInteger.valueOf(maior);
+        final var quantidade = BigInteger.valueOf(particoes);
+        final var tamanho = ultimo.subtract(primeiro).add(BigInteger.ONE)
+                .add(quantidade).subtract(BigInteger.ONE)
+                .divide(quantidade);
+
+        List<RendimentoCheckpoint> checkpoints = new ArrayList<>();
+        for (int particao = 0; particao < particoes; particao++) {
+            var inicioParticao = primeiro.add(tamanho.multiply(BigInteger.valueOf(particao)));
+            if (inicioParticao.compareTo(ultimo) > 0) {
+                break;
+            }
+            var fimParticao = inicioParticao.add(tamanho).subtract(BigInteger.ONE).min(ultimo);
+            checkpoints.add(RendimentoCheckpoint.builder()
+                    .execucao(novaExecucao)
+                    .particao(particao)
+                    .inicio(inicioParticao.longValueExact())
+                    .fim(fimParticao.longValueExact())
+                    .concluida(false)
+                    .atualizadoEm(LocalDateTime.now())
+                    .build());
+        }
+        return checkpointRepository.saveAll(checkpoints);
+    }
+
+    private void processarParticao(RendimentoCheckpoint checkpoint) {
+        while (true) {
+            final var ultimoNumero = checkpoint.getUltimoNumero();
+            if (ultimoNumero != null && ultimoNumero >= checkpoint.getFim()) {
+                break;
+            }
+            final long desde = ultimoNumero == null ? checkpoint.getInicio() : ultimoNumero + 1;
+            Integer processadas = transactionTemplate.execute(status -> processarPagina(checkpoint, desde));
+            if (processadas == null || processadas < tamanhoPagina) {
+                break;
+            }
+        }
+        checkpoint.setConcluida(true);
+        checkpoint.setAtualizadoEm(LocalDateTime.now());
+        checkpointRepository.save(checkpoint);
+    }
+
+    private int processarPagina(RendimentoCheckpoint checkpoint, long desde) {
+        List<Conta> contas = contaRepository.findPaginaParaAtualizacao(TipoConta.CONTA_INVESTIMENTO,
+                desde, checkpoint.getFim(), PageRequest.of(0, tamanhoPagina));
+        if (contas.isEmpty()) {
+            return 0;
+        }
+        // As linhas continuam bloqueadas; desanexar evita que o Hibernate grave de novo por dirty checking
+        entityManager.clear();
+
+        List<Object[]> parametros = new ArrayList<>(contas.size());
+        List<Long> numeros = new ArrayList<>(contas.size());
+        List<Lancamento> lancamentos = new ArrayList<>(journalLancamentos.isHabilitado() ? contas.size() : 0);
+        for (Conta conta : contas) {
+            final var saldoAnterior = conta.getSaldo();
+            operacao(conta.getCliente().getTipo()).render(conta);
+            parametros.add(new Object[]{conta.getSaldo().getCentavos(), conta.getNumero()});
+            numeros.add(conta.getNumero());
+            if (journalLancamentos.isHabilitado()) {
+                lancamentos.add(new Lancamento(TipoLancamento.RENDIMENTO, conta.getNumero(),
+                        conta.getSaldo().subtrair(saldoAnterior)));
+            }
+        }
+        jdbcTemplate.batchUpdate(SQL_ATUALIZAR_SALDO, parametros);
+        journalLancamentos.registrar(lancamentos);
+        saldoPublicador.publicar(numeros);
+
+        checkpoint.setUltimoNumero(contas.get(contas.size() - 1).getNumero());
+        checkpoint.setAtualizadoEm(LocalDateTime.now());
+        checkpointRepository.save(checkpoint);
+        contasProcessadas.addAndGet(contas.size());
+        return contas.size();
+    }
+
+    private InvestimentoOperacao operacao(TipoCliente tipoCliente) {
+        var operacao = operacoes.get(tipoCliente);
+        if (operacao == null) {
+            throw new ValidacaoException("Operacao investimento nao encontrada!");
+        }
+        return operacao;
+    }
+
+    private static void aguardar(List<Future<?>> futures) {
+        RuntimeException falha = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Rendimento interrompido", e);
+            } catch (ExecutionException e) {
+                var causa = e.getCause() instanceof RuntimeException
+                        ? (RuntimeException) e.getCause()
+                        : new IllegalStateException(e.getCause());
+                if (falha == null) {
+                    falha = causa;
+                } else {
+                    falha.addSuppressed(causa);
+                }
+            }
+        }
+        if (falha != null) {
+            throw falha;
+        }
+    }
+
+}
@@ -0,0 +1,61 @@
+package br.ada.caixa.service.operacoesbancarias.investimento;
+
+import br.ada.caixa.entity.TaxaRendimento;
+import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.exceptions.ValidacaoException;
+import br.ada.caixa.repository.TaxaRendimentoRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Taxas de rendimento por tipo de cliente, lidas da tabela taxa_rendimento. Na primeira subida a
+ * tabela e preenchida com os valores configurados; depois disso a tabela e a fonte da verdade. As
+ * taxas ficam em memoria e sao relidas no inicio de cada rendimento ({@link #recarregar()}).
+ */
+@Service
+public class TaxaRendimentoService {
+
+    private final TaxaRendimentoRepository taxaRendimentoRepository;
+    private final Map<TipoCliente, BigDecimal> padroes = new EnumMap<>(TipoCliente.class);
+
+    private volatile Map<TipoCliente, BigDecimal> taxas = new EnumMap<>(TipoCliente.class);
+
+    public TaxaRendimentoService(TaxaRendimentoRepository taxaRendimentoRepository,
+                                 @Value("${banco.rendimento.taxa.pf:1.01}") BigDecimal taxaPF,
+                                 @Value("${banco.rendimento.taxa.pj:1.02}") BigDecimal taxaPJ) {
+        this.taxaRendimentoRepository = taxaRendimentoRepository;
+        this.padroes.put(TipoCliente.PF, taxaPF);
+        this.padroes.put(TipoCliente.PJ, taxaPJ);
+    }
+
+    @PostConstruct
+    public void inicializar() {
+        padroes.forEach((tipoCliente, taxa) -> {
+            if (!taxaRendimentoRepository.existsById(tipoCliente)) {
+                taxaRendimentoRepository.save(new TaxaRendimento(tipoCliente, taxa));
+            }
+        });
+        recarregar();
+    }
+
+    public void recarregar() {
+        Map<TipoCliente, BigDecimal> novasTaxas = new EnumMap<>(TipoCliente.class);
+        taxaRendimentoRepository.findAll()
+                .forEach(taxaRendimento -> novasTaxas.put(taxaRendimento.getTipoCliente(), taxaRendimento.getTaxa()));
+        taxas = novasTaxas;
+    }
+
+    public BigDecimal taxa(TipoCliente tipoCliente) {
+        var taxa = taxas.get(tipoCliente);
+        if (taxa == null) {
+            throw new ValidacaoException("Taxa de rendimento nao cadastrada para " + tipoCliente);
+        }
+        return taxa;
+    }
+
+}
@@ -0,0 +1,265 @@
+package br.ada.caixa.service.operacoesbancarias.saldo;
+
+import br.ada.caixa.service.journal.SnapshotSaldos;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.LongSupplier;
+
+/**
+ * Modelo de leitura dos saldos por conta, alimentado pelos {@link SaldoAlteradoEvent}; uma versao menor
+ * da linha nunca sobrescreve uma maior. Entradas vencidas sao relidas do banco em segundo plano.
+ */
+@Slf4j
+@Component
+public class ProjecaoSaldo {
+
+    static final long VERSAO_RECUPERADA = -1;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SnapshotSaldos snapshotSaldos;
+    private final Map<Long, Projetado> saldos = new ConcurrentHashMap<>();
+    // Contas com releitura pendente: no maximo uma por conta, por mais consultas que cheguem vencidas
+    private final Set<Long> relendo = ConcurrentHashMap.newKeySet();
+    private final Executor releitura;
+    private final long validadeNanos;
+    private final LongSupplier relogio;
+    private final Timer atraso;
+    private final Timer recuperacaoJournal;
+    private final Timer recuperacaoBanco;
+    private final Counter expiradas;
+    private volatile Instant ultimaAtualizacao;
+
+    public ProjecaoSaldo(JdbcTemplate jdbcTemplate,
+                         SnapshotSaldos snapshotSaldos,
+                         MeterRegistry meterRegistry,
+                         @Value("${banco.saldo.projecao.validade:30s}") Duration validade) {
+        this(jdbcTemplate, snapshotSaldos, meterRegistry, validade, System::nanoTime,
+                Executors.newSingleThreadExecutor(tarefa -> {
+                    var thread = new Thread(tarefa, "projecao-saldo-releitura");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+
+    ProjecaoSaldo(JdbcTemplate jdbcTemplate, SnapshotSaldos snapshotSaldos, MeterRegistry meterRegistry,
+                  Duration validade, LongSupplier relogio, Executor releitura) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.snapshotSaldos = snapshotSaldos;
+        this.validadeNanos = validade.isNegative() ? 0 : validade.toNanos();
+        this.relogio = relogio;
+        this.releitura = releitura;
+        this.atraso = Timer.builder("banco.saldo.projecao.atraso")
+                .description("Tempo entre a escrita do saldo e sua aplicacao na projecao")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.recuperacaoJournal = timerRecuperacao(meterRegistry, "journal");
+        this.recuperacaoBanco = timerRecuperacao(meterRegistry, "banco");
+        this.expiradas = Counter.builder("banco.saldo.projecao.expiradas")
+                .description("Consultas que acharam a entrada da projecao vencida e dispararam a releitura")
+                .register(meterRegistry);
+        Gauge.builder("banco.saldo.projecao.contas", saldos, Map::size).register(meterRegistry);
+        Gauge.builder("banco.saldo.projecao.segundos-desde-atualizacao", this, ProjecaoSaldo::segundosDesdeAtualizacao)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Saldo projetado da conta; vazio se ela nao esta na projecao.
+     */
+    public Optional<BigDecimal> saldo(Long numeroConta) {
+        final var projetado = saldos.get(numeroConta);
+        if (projetado == null) {
+            return Optional.empty();
+        }
+        if (validadeNanos > 0 && relogio.getAsLong() - projetado.confirmadoEm >= validadeNanos) {
+            reler(numeroConta);
+        }
+        return Optional.of(projetado.saldoConta.getSaldo());
+    }
+
+    /**
+     * Le a conta direto do banco e a inclui (ou reconfirma) na projecao.
+     */
+    public Optional<BigDecimal> carregar(Long numeroConta) {
+        List<SaldoConta> encontrados = jdbcTemplate.query(SaldoPublicador.SQL_SALDOS + " where numero = ?",
+                SaldoPublicador.SALDO_CONTA, numeroConta);
+        if (encontrados.isEmpty()) {
+            saldos.remove(numeroConta);
+            return Optional.empty();
+        }
+        aplicar(encontrados.get(0));
+        final var projetado = saldos.get(numeroConta);
+        return projetado == null ? Optional.empty() : Optional.of(projetado.saldoConta.getSaldo());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSaldoAlterado(SaldoAlteradoEvent event) {
+        event.getSaldos().forEach(this::aplicar);
+        registrarAtraso(event.getInstante());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSaldosRecalculados(SaldosRecalculadosEvent event) {
+        jdbcTemplate.query(SaldoPublicador.SQL_SALDOS + " where tipo = ?",
+                rs -> {
+                    aplicar(SaldoPublicador.SALDO_CONTA.mapRow(rs, 0));
+                },
+                event.getTipoConta().name());
+        registrarAtraso(event.getInstante());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        if (snapshotSaldos.isHabilitado()) {
+            recuperarDoJournal();
+        }
+        final var inicio = Instant.now();
+        recuperacaoBanco.record(() -> jdbcTemplate.query(SaldoPublicador.SQL_SALDOS, rs -> {
+            aplicar(SaldoPublicador.SALDO_CONTA.mapRow(rs, 0));
+        }));
+        if (removerRecuperadas()) {
+            log.warn("Contas recuperadas do journal que nao existem mais no banco sairam da projecao");
+        }
+        ultimaAtualizacao = Instant.now();
+        log.info("Projecao de saldos reconstruida com {} contas em {} ms", saldos.size(),
+                Duration.between(inicio, ultimaAtualizacao).toMillis());
+    }
+
+    public void limpar() {
+        saldos.clear();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        if (releitura instanceof ExecutorService) {
+            ((ExecutorService) releitura).shutdownNow();
+        }
+    }
+
+    /**
+     * Saldo absoluto vindo do snapshot; nao sobrescreve o que ja veio do banco.
+     */
+    void restaurar(Long numeroConta, BigDecimal saldo) {
+        aplicar(new SaldoConta(numeroConta, saldo, VERSAO_RECUPERADA));
+    }
+
+    /**
+     * Delta de um lancamento da cauda do journal. So vale para entradas que ainda sao da recuperacao:
+     * um saldo lido do banco ja inclui o lancamento.
+     */
+    void somar(Long numeroConta, BigDecimal delta) {
+        final long agora = relogio.getAsLong();
+        saldos.compute(numeroConta, (numero, atual) -> {
+            if (atual == null) {
+                return new Projetado(new SaldoConta(numero, delta, VERSAO_RECUPERADA), agora);
+            }
+            return atual.saldoConta.getVersao() == VERSAO_RECUPERADA
+                    ? new Projetado(new SaldoConta(numero, atual.saldoConta.getSaldo().add(delta), VERSAO_RECUPERADA), agora)
+                    : atual;
+        });
+    }
+
+    /**
+     * Tira da projecao uma conta recuperada cujo saldo o journal nao garante; ela volta com a varredura.
+     */
+    void descartar(Long numeroConta) {
+        saldos.computeIfPresent(numeroConta,
+                (numero, atual) -> atual.saldoConta.getVersao() == VERSAO_RECUPERADA ? null : atual);
+    }
+
+    // Uma versao igual tambem substitui: e o que reconfirma a entrada dentro da validade
+    void aplicar(SaldoConta novo) {
+        saldos.merge(novo.getNumero(), new Projetado(novo, relogio.getAsLong()),
+                (atual, recebido) -> recebido.saldoConta.getVersao() >= atual.saldoConta.getVersao() ? recebido : atual);
+    }
+
+    private void recuperarDoJournal() {
+        final var inicio = Instant.now();
+        try {
+            recuperacaoJournal.record(() -> snapshotSaldos.recuperar(this::restaurar, this::somar, this::descartar));
+            ultimaAtualizacao = Instant.now();
+            log.info("Projecao de saldos recuperada do journal com {} contas em {} ms", saldos.size(),
+                    Duration.between(inicio, ultimaAtualizacao).toMillis());
+        } catch (RuntimeException e) {
+            // Um snapshot parcial nao serve; a varredura do banco em seguida cobre todas as contas
+            log.error("Falha ao recuperar saldos do journal; usando so o banco", e);
+            removerRecuperadas();
+        }
+    }
+
+    private void reler(Long numeroConta) {
+        if (!relendo.add(numeroConta)) {
+            return;
+        }
+        expiradas.increment();
+        try {
+            releitura.execute(() -> {
+                try {
+                    carregar(numeroConta);
+                } catch (RuntimeException e) {
+                    log.warn("Falha ao reler o saldo da conta {}; a proxima consulta tenta de novo", numeroConta, e);
+                } finally {
+                    relendo.remove(numeroConta);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            relendo.remove(numeroConta);
+        }
+    }
+
+    private boolean removerRecuperadas() {
+        return saldos.values().removeIf(projetado -> projetado.saldoConta.getVersao() == VERSAO_RECUPERADA);
+    }
+
+    private void registrarAtraso(Instant instante) {
+        final var agora = Instant.now();
+        atraso.record(Duration.between(instante, agora));
+        ultimaAtualizacao = agora;
+    }
+
+    private static Timer timerRecuperacao(MeterRegistry meterRegistry, String origem) {
+        return Timer.builder("banco.saldo.projecao.recuperacao")
+                .description("Tempo para recuperar a projecao de saldos na subida")
+                .tag("origem", origem)
+                .register(meterRegistry);
+    }
+
+    private double segundosDesdeAtualizacao() {
+        final var ultima = ultimaAtualizacao;
+        return ultima == null ? Double.NaN : Duration.between(ultima, Instant.now()).toMillis() / 1000.0;
+    }
+
+    private static final class Projetado {
+
+        final SaldoConta saldoConta;
+        final long confirmadoEm;
+
+        Projetado(SaldoConta saldoConta, long confirmadoEm) {
+            this.saldoConta = saldoConta;
+            this.confirmadoEm = confirmadoEm;
+        }
+    }
+
+}
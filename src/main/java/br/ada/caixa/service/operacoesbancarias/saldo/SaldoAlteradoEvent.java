@@ -0,0 +1,18 @@
+package br.ada.caixa.service.operacoesbancarias.saldo;
+
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Saldos gravados por uma operacao (deposito, saque, transferencia, investimento, rendimento),
+ * lidos do banco na mesma transacao da escrita.
+ */
+@Value
+public class SaldoAlteradoEvent {
+
+    List<SaldoConta> saldos;
+    Instant instante;
+
+}
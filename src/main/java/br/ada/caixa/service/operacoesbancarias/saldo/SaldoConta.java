@@ -0,0 +1,17 @@
+package br.ada.caixa.service.operacoesbancarias.saldo;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * Saldo de uma conta em uma versao (coluna conta.versao). Versoes maiores sempre substituem menores.
+ */
+@Value
+public class SaldoConta {
+
+    Long numero;
+    BigDecimal saldo;
+    long versao;
+
+}
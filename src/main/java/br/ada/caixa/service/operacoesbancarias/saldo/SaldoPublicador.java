@@ -0,0 +1,72 @@
+package br.ada.caixa.service.operacoesbancarias.saldo;
+
+import br.ada.caixa.entity.Conta;
+import br.ada.caixa.entity.TipoConta;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Publica para a {@link ProjecaoSaldo} os saldos alterados, relidos com a versao depois do UPDATE atomico.
+ */
+@Component
+public class SaldoPublicador {
+
+    // O saldo e gravado em centavos (BIGINT); a projecao guarda o valor com duas casas
+    static final RowMapper<SaldoConta> SALDO_CONTA = (rs, linha) ->
+            new SaldoConta(rs.getLong("numero"), BigDecimal.valueOf(rs.getLong("saldo"), 2), rs.getLong("versao"));
+
+    // Contas com saldo fracionado (SaldosFracionados) somam as fracoes ao saldo e as versoes a versao;
+    // as linhas de fracao nunca sao apagadas, entao a versao somada so cresce
+    static final String SQL_SALDOS = "select numero,"
+            + " saldo + coalesce((select sum(f.saldo) from fracao_saldo f where f.numero_conta = conta.numero), 0) as saldo,"
+            + " coalesce(versao, 0) + coalesce((select sum(f.versao) from fracao_saldo f where f.numero_conta = conta.numero), 0) as versao"
+            + " from conta";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public SaldoPublicador(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public void publicar(Long numeroConta) {
+        publicar(Collections.singletonList(numeroConta));
+    }
+
+    public void publicar(Collection<Long> numerosConta) {
+        if (numerosConta.isEmpty()) {
+            return;
+        }
+        final var marcadores = String.join(",", Collections.nCopies(numerosConta.size(), "?"));
+        List<SaldoConta> saldos = jdbcTemplate.query(SQL_SALDOS + " where numero in (" + marcadores + ")",
+                SALDO_CONTA, numerosConta.toArray());
+        if (!saldos.isEmpty()) {
+            eventPublisher.publishEvent(new SaldoAlteradoEvent(saldos, Instant.now()));
+        }
+    }
+
+    /**
+     * Para escritas feitas pela entidade (save), que ja volta com saldo e versao atualizados.
+     */
+    public void publicar(Conta conta) {
+        final long versao = conta.getVersao() == null ? 0 : conta.getVersao();
+        List<SaldoConta> saldos = new ArrayList<>(1);
+        saldos.add(new SaldoConta(conta.getNumero(), conta.getSaldo().paraBigDecimal(), versao));
+        eventPublisher.publishEvent(new SaldoAlteradoEvent(saldos, Instant.now()));
+    }
+
+    public void publicarRecalculo(TipoConta tipoConta) {
+        eventPublisher.publishEvent(new SaldosRecalculadosEvent(tipoConta, Instant.now()));
+    }
+
+}
@@ -1,8 +1,7 @@
 package br.ada.caixa.service.operacoesbancarias.saldo;
 
-import br.ada.caixa.entity.Conta;
-import br.ada.caixa.exceptions.ValidacaoException;
-import br.ada.caixa.repository.ContaRepository;
+import br.ada.caixa.exceptions.ContaInvalidaException;
+import br.ada.caixa.service.metricas.OperacaoMonitorada;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -10,16 +9,19 @@ import java.math.BigDecimal;
 @Service
 public class SaldoService {
 
-    private final ContaRepository contaRepository;
+    private final ProjecaoSaldo projecaoSaldo;
 
-    public SaldoService(ContaRepository contaRepository) {
-        this.contaRepository = contaRepository;
+    public SaldoService(ProjecaoSaldo projecaoSaldo) {
+        this.projecaoSaldo = projecaoSaldo;
     }
 
+    // Servido pela projecao; so uma conta ainda nao projetada vai ao banco. Nos dois casos o saldo de
+    // uma conta fracionada ja vem somado com as fracoes (SaldoPublicador.SQL_SALDOS)
+    @OperacaoMonitorada("saldo")
     public BigDecimal consultarSaldo(Long numeroConta) {
-        return contaRepository.findByNumero(numeroConta)
-                .map(Conta::getSaldo)
-                .orElseThrow(() -> new ValidacaoException("Conta inexistente!"));
+        return projecaoSaldo.saldo(numeroConta)
+                .or(() -> projecaoSaldo.carregar(numeroConta))
+                .orElseThrow(() -> new ContaInvalidaException("Conta inexistente!"));
     }
 
 }
@@ -0,0 +1,318 @@
+package br.ada.caixa.service.operacoesbancarias.saldo;
+
+import br.ada.caixa.entity.Conta;
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.entity.FracaoSaldo;
+import br.ada.caixa.entity.TipoConta;
+import br.ada.caixa.exceptions.ContaInvalidaException;
+import br.ada.caixa.exceptions.ValidacaoException;
+import br.ada.caixa.repository.ContaRepository;
+import br.ada.caixa.repository.FracaoSaldoRepository;
+import br.ada.caixa.service.agendamento.TarefaPeriodica;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Credito e debito de saldo, com o saldo das contas de banco.saldo.fracionado.contas dividido entre a
+ * linha da conta e linhas de {@link FracaoSaldo}. Quem bloqueia as duas bloqueia a conta primeiro.
+ */
+@Slf4j
+@Component
+public class SaldosFracionados {
+
+    private final ContaRepository contaRepository;
+    private final FracaoSaldoRepository fracaoSaldoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Set<Long> contasConfiguradas;
+    private final int fracoesConfiguradas;
+    private final Duration intervaloRebalanceamento;
+    private final Map<Long, Integer> fracoesPorConta = new ConcurrentHashMap<>();
+    private final Counter varreduras;
+    private final Counter rebalanceamentos;
+    private final TarefaPeriodica rebalanceamento;
+
+    public SaldosFracionados(ContaRepository contaRepository,
+                             FracaoSaldoRepository fracaoSaldoRepository,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${banco.saldo.fracionado.contas:}") String contas,
+                             @Value("${banco.saldo.fracionado.fracoes:8}") int fracoes,
+                             @Value("${banco.saldo.fracionado.rebalanceamento:1s}") Duration intervaloRebalanceamento) {
+        if (fracoes < 1) {
+            throw new IllegalArgumentException("banco.saldo.fracionado.fracoes deve ser positivo");
+        }
+        this.contaRepository = contaRepository;
+        this.fracaoSaldoRepository = fracaoSaldoRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.contasConfiguradas = lerContas(contas);
+        this.fracoesConfiguradas = fracoes;
+        this.intervaloRebalanceamento = intervaloRebalanceamento;
+        this.rebalanceamento = new TarefaPeriodica("saldo-rebalanceamento", this::rebalancearTodas);
+        this.varreduras = Counter.builder("banco.saldo.fracionado.varreduras")
+                .description("Debitos que juntaram as fracoes por falta de saldo na fracao sorteada")
+                .register(meterRegistry);
+        this.rebalanceamentos = Counter.builder("banco.saldo.fracionado.rebalanceamentos")
+                .description("Contas com o saldo redistribuido entre as fracoes")
+                .register(meterRegistry);
+        Gauge.builder("banco.saldo.fracionado.contas", fracoesPorConta, Map::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        rebalanceamento.iniciar(intervaloRebalanceamento);
+    }
+
+    @PreDestroy
+    public void parar() {
+        rebalanceamento.parar();
+    }
+
+    /**
+     * Fraciona as contas configuradas e junta de volta as que deixaram de ser; roda na subida,
+     * quando as contas ja estao no banco.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preparar() {
+        var numeros = new LinkedHashSet<>(contasConfiguradas);
+        numeros.addAll(fracaoSaldoRepository.findNumerosConta());
+        for (Long numero : numeros) {
+            try {
+                fracionar(numero, contasConfiguradas.contains(numero) ? fracoesConfiguradas : 1);
+            } catch (ValidacaoException e) {
+                log.warn("Conta {} nao fracionada: {}", numero, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Divide o saldo da conta em fracoes (1 desfaz o fracionamento). As linhas de fracao nunca sao
+     * apagadas, para que a versao somada do saldo nunca diminua; as que sobram ficam zeradas.
+     */
+    public void fracionar(Long numeroConta, int fracoes) {
+        if (fracoes < 1) {
+            throw new ValidacaoException("Quantidade de fracoes invalida!");
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            var conta = bloquearConta(numeroConta);
+            if (fracoes > 1 && conta.getTipo() == TipoConta.CONTA_INVESTIMENTO) {
+                throw new ValidacaoException("Conta investimento nao pode ter saldo fracionado!");
+            }
+            var existentes = new TreeSet<Integer>();
+            fracaoSaldoRepository.findAllByNumeroContaInParaAtualizacao(List.of(numeroConta))
+                    .forEach(fracao -> existentes.add(fracao.getIndice()));
+            List<FracaoSaldo> novas = new ArrayList<>();
+            for (int indice = 1; indice < fracoes; indice++) {
+                if (!existentes.contains(indice)) {
+                    novas.add(FracaoSaldo.builder()
+                            .numeroConta(numeroConta)
+                            .indice(indice)
+                            .saldo(Dinheiro.ZERO)
+                            .build());
+                }
+            }
+            fracaoSaldoRepository.saveAll(novas);
+            fracaoSaldoRepository.flush();
+            redistribuir(conta, fracoes);
+        });
+        if (fracoes > 1) {
+            fracoesPorConta.put(numeroConta, fracoes);
+        } else {
+            fracoesPorConta.remove(numeroConta);
+        }
+        log.info("Conta {} com saldo em {} fracoes", numeroConta, fracoes);
+    }
+
+    public boolean isFracionada(Long numeroConta) {
+        return fracoesPorConta.containsKey(numeroConta);
+    }
+
+    /**
+     * Soma os centavos ao saldo. Retorna 0 quando a conta nao existe.
+     */
+    public int creditar(Long numeroConta, long centavos) {
+        final var fracoes = fracoesPorConta.get(numeroConta);
+        final int indice = fracoes == null ? 0 : ThreadLocalRandom.current().nextInt(fracoes);
+        if (indice != 0 && fracaoSaldoRepository.creditar(numeroConta, indice, centavos) > 0) {
+            return 1;
+        }
+        // Sem a linha da fracao (conta apagada e recriada, por exemplo) o credito vai para a conta
+        return contaRepository.creditar(numeroConta, centavos);
+    }
+
+    /**
+     * Subtrai os centavos do saldo somente se houver saldo suficiente. Retorna 0 quando a conta nao
+     * existe ou o saldo (somadas as fracoes) e insuficiente; nesse caso nada e alterado.
+     */
+    public int debitar(Long numeroConta, long centavos) {
+        final var fracoes = fracoesPorConta.get(numeroConta);
+        if (fracoes == null) {
+            return contaRepository.debitar(numeroConta, centavos);
+        }
+        final int indice = ThreadLocalRandom.current().nextInt(fracoes);
+        final int debitadas = indice == 0
+                ? contaRepository.debitar(numeroConta, centavos)
+                : fracaoSaldoRepository.debitar(numeroConta, indice, centavos);
+        if (debitadas > 0) {
+            return debitadas;
+        }
+        varreduras.increment();
+        return transactionTemplate.execute(status -> {
+            try {
+                bloquearConta(numeroConta);
+            } catch (ContaInvalidaException e) {
+                return 0;
+            }
+            juntar(numeroConta);
+            return contaRepository.debitar(numeroConta, centavos);
+        });
+    }
+
+    /**
+     * Soma das fracoes de cada conta, bloqueando-as ate o fim da transacao de quem chama, que ja deve
+     * ter bloqueado as linhas dessas contas. Contas sem fracoes nao aparecem.
+     */
+    public Map<Long, Dinheiro> somarFracoesBloqueando(Collection<Long> numerosConta) {
+        Map<Long, Dinheiro> somas = new HashMap<>();
+        if (fracoesPorConta.isEmpty() || numerosConta.isEmpty()) {
+            return somas;
+        }
+        for (FracaoSaldo fracao : fracaoSaldoRepository.findAllByNumeroContaInParaAtualizacao(numerosConta)) {
+            somas.merge(fracao.getNumeroConta(), fracao.getSaldo(), Dinheiro::somar);
+        }
+        return somas;
+    }
+
+    /**
+     * Soma das fracoes das contas em que ela nao e zero, sem bloquear; para leituras como a exportacao.
+     */
+    public Map<Long, Dinheiro> somarFracoes() {
+        Map<Long, Dinheiro> somas = new HashMap<>();
+        for (Object[] linha : fracaoSaldoRepository.somarPorConta()) {
+            somas.put(((Number) linha[0]).longValue(), Dinheiro.deCentavos(((Number) linha[1]).longValue()));
+        }
+        return somas;
+    }
+
+    /**
+     * Redistribui o saldo da conta igualmente entre as fracoes, se alguma delas tiver ficado com
+     * menos da metade da sua parte. Retorna se algo mudou.
+     */
+    public boolean rebalancear(Long numeroConta) {
+        final var fracoes = fracoesPorConta.get(numeroConta);
+        if (fracoes == null) {
+            return false;
+        }
+        final boolean mudou;
+        try {
+            mudou = Boolean.TRUE.equals(transactionTemplate.execute(status ->
+                    redistribuir(bloquearConta(numeroConta), fracoes)));
+        } catch (ContaInvalidaException e) {
+            fracoesPorConta.remove(numeroConta);
+            return false;
+        }
+        if (mudou) {
+            rebalanceamentos.increment();
+        }
+        return mudou;
+    }
+
+    void rebalancearTodas() {
+        for (Long numero : fracoesPorConta.keySet()) {
+            try {
+                rebalancear(numero);
+            } catch (RuntimeException e) {
+                log.error("Falha ao rebalancear o saldo da conta {}", numero, e);
+            }
+        }
+    }
+
+    // Com a conta bloqueada: passa o saldo de todas as fracoes para a linha da conta
+    private void juntar(Long numeroConta) {
+        long soma = 0;
+        for (FracaoSaldo fracao : fracaoSaldoRepository.findAllByNumeroContaInParaAtualizacao(List.of(numeroConta))) {
+            if (!fracao.getSaldo().isZero()) {
+                soma = Math.addExact(soma, fracao.getSaldo().getCentavos());
+                fracao.setSaldo(Dinheiro.ZERO);
+            }
+        }
+        if (soma != 0) {
+            // O UPDATE descarrega antes as fracoes zeradas
+            contaRepository.creditar(numeroConta, soma);
+        }
+    }
+
+    // Com a conta bloqueada: cada fracao ativa fica com total / fracoes, a conta com o resto e as
+    // fracoes alem de fracoes com zero. So grava se alguma parte estiver abaixo da metade do alvo.
+    private boolean redistribuir(Conta conta, int fracoes) {
+        final var numeroConta = conta.getNumero();
+        final var existentes = fracaoSaldoRepository.findAllByNumeroContaInParaAtualizacao(List.of(numeroConta));
+        long total = conta.getSaldo().getCentavos();
+        for (FracaoSaldo fracao : existentes) {
+            total = Math.addExact(total, fracao.getSaldo().getCentavos());
+        }
+        final long alvo = Math.floorDiv(total, fracoes);
+        final long alvoConta = total - alvo * (fracoes - 1);
+
+        boolean desbalanceada = conta.getSaldo().getCentavos() < alvo / 2;
+        for (FracaoSaldo fracao : existentes) {
+            final long atual = fracao.getSaldo().getCentavos();
+            desbalanceada |= fracao.getIndice() < fracoes ? atual < alvo / 2 : atual != 0;
+        }
+        if (!desbalanceada) {
+            return false;
+        }
+        for (FracaoSaldo fracao : existentes) {
+            fracao.setSaldo(Dinheiro.deCentavos(fracao.getIndice() < fracoes ? alvo : 0));
+        }
+        final long delta = alvoConta - conta.getSaldo().getCentavos();
+        if (delta != 0) {
+            contaRepository.creditar(numeroConta, delta);
+        } else {
+            fracaoSaldoRepository.flush();
+        }
+        return true;
+    }
+
+    private Conta bloquearConta(Long numeroConta) {
+        return contaRepository.findAllByNumeroInParaAtualizacao(List.of(numeroConta)).stream()
+                .findFirst()
+                .orElseThrow(() -> new ContaInvalidaException("Conta inexistente!"));
+    }
+
+    private static Set<Long> lerContas(String contas) {
+        Set<Long> numeros = new LinkedHashSet<>();
+        for (String numero : contas.split(",")) {
+            if (!numero.isBlank()) {
+                try {
+                    numeros.add(Long.valueOf(numero.trim()));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("banco.saldo.fracionado.contas invalido: " + numero, e);
+                }
+            }
+        }
+        return numeros;
+    }
+
+}
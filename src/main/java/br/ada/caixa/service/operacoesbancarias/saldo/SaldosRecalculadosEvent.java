@@ -0,0 +1,18 @@
+package br.ada.caixa.service.operacoesbancarias.saldo;
+
+import br.ada.caixa.entity.TipoConta;
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * Todas as contas de um tipo tiveram o saldo alterado por uma unica instrucao (ex.: rendimento em SQL);
+ * a projecao recarrega esse tipo do banco em vez de receber cada conta no evento.
+ */
+@Value
+public class SaldosRecalculadosEvent {
+
+    TipoConta tipoConta;
+    Instant instante;
+
+}
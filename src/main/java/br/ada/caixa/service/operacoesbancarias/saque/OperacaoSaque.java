@@ -1,18 +1,39 @@
 package br.ada.caixa.service.operacoesbancarias.saque;
 
 import br.ada.caixa.entity.Conta;
-import br.ada.caixa.exceptions.ValidacaoException;
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.entity.TipoConta;
+import br.ada.caixa.exceptions.SaldoInsuficienteException;
 
-import java.math.BigDecimal;
-
-@FunctionalInterface
+/**
+ * Regra aplicada a um saque. As regras sao organizadas por {@link RegrasSaque} e so sao chamadas
+ * para contas das combinacoes em que {@link #aplicaA} e verdadeiro.
+ */
 public interface OperacaoSaque {
 
-    void executar(Conta conta, BigDecimal valorSaque);
+    /**
+     * Decide, uma unica vez na subida, a que combinacoes de tipo de cliente e tipo de conta a regra
+     * se aplica.
+     */
+    boolean aplicaA(TipoCliente tipoCliente, TipoConta tipoConta);
+
+    /**
+     * Aplica a regra e devolve o valor que ela debitou da conta (ja com taxas), ou null quando nao
+     * debita nada. Quem grava o movimento usa este valor em vez de chamar {@link #valorDebito} de novo:
+     * os parametros de saque podem ter sido recarregados entre as duas chamadas.
+     */
+    Dinheiro executar(Conta conta, Dinheiro valorSaque);
+
+    /**
+     * Valor que esta operacao debita da conta para um saque de valorSaque (ja com taxas),
+     * ou null quando a regra nao debita nada. Nao altera nada.
+     */
+    Dinheiro valorDebito(Conta conta, Dinheiro valorSaque);
 
-    default void validarSaldo(Conta conta, BigDecimal valorSaque) {
-        if (valorSaque.compareTo(conta.getSaldo()) > 0) {
-            throw new ValidacaoException("Saldo insuficiente!");
+    default void validarSaldo(Conta conta, Dinheiro valorSaque) {
+        if (valorSaque.maiorQue(conta.getSaldo())) {
+            throw new SaldoInsuficienteException();
         }
     }
 }
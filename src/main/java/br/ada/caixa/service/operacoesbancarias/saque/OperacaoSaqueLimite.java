@@ -0,0 +1,41 @@
+package br.ada.caixa.service.operacoesbancarias.saque;
+
+import br.ada.caixa.entity.Conta;
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.entity.TipoConta;
+import br.ada.caixa.exceptions.ValidacaoException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+/**
+ * Recusa saques acima do limite configurado em {@link ParametrosSaque}. Roda antes das regras que
+ * debitam e nao debita nada.
+ */
+@Order(0)
+@Service
+@RequiredArgsConstructor
+public class OperacaoSaqueLimite implements OperacaoSaque {
+
+    private final ParametrosSaque parametrosSaque;
+
+    @Override
+    public boolean aplicaA(TipoCliente tipoCliente, TipoConta tipoConta) {
+        return true;
+    }
+
+    @Override
+    public Dinheiro executar(Conta conta, Dinheiro valorSaque) {
+        return valorDebito(conta, valorSaque);
+    }
+
+    @Override
+    public Dinheiro valorDebito(Conta conta, Dinheiro valorSaque) {
+        if (parametrosSaque.de(conta.getCliente().getTipo(), conta.getTipo()).excedeLimite(valorSaque)) {
+            throw new ValidacaoException("Valor acima do limite de saque!");
+        }
+        return null;
+    }
+
+}
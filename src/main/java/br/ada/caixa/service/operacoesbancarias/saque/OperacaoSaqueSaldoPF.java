@@ -1,25 +1,40 @@
 package br.ada.caixa.service.operacoesbancarias.saque;
 
 import br.ada.caixa.entity.Conta;
+import br.ada.caixa.entity.Dinheiro;
 import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.entity.TipoConta;
+import br.ada.caixa.exceptions.SaldoInsuficienteException;
+import br.ada.caixa.service.operacoesbancarias.saldo.SaldosFracionados;
+import lombok.RequiredArgsConstructor;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-
 @Order(1)
 @Service
+@RequiredArgsConstructor
 public class OperacaoSaqueSaldoPF implements OperacaoSaque {
 
+    private final SaldosFracionados saldosFracionados;
+    private final ParametrosSaque parametrosSaque;
+
     @Override
-    public void executar(Conta conta, BigDecimal valorSaque) {
+    public boolean aplicaA(TipoCliente tipoCliente, TipoConta tipoConta) {
+        return tipoCliente == TipoCliente.PF;
+    }
 
-        if (!(conta.getCliente().getTipo().equals(TipoCliente.PF))) {
-            return;
+    @Override
+    public Dinheiro executar(Conta conta, Dinheiro valorSaque) {
+        final var debito = valorDebito(conta, valorSaque);
+        if (saldosFracionados.debitar(conta.getNumero(), debito.getCentavos()) == 0) {
+            throw new SaldoInsuficienteException();
         }
+        return debito;
+    }
 
-        OperacaoSaque.super.validarSaldo(conta, valorSaque);
-        conta.setSaldo(conta.getSaldo().subtract(valorSaque));
+    @Override
+    public Dinheiro valorDebito(Conta conta, Dinheiro valorSaque) {
+        return parametrosSaque.de(TipoCliente.PF, conta.getTipo()).aplicarTaxa(valorSaque);
     }
 
 }
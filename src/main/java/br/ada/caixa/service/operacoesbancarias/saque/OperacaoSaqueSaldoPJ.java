@@ -1,28 +1,40 @@
 package br.ada.caixa.service.operacoesbancarias.saque;
 
 import br.ada.caixa.entity.Conta;
+import br.ada.caixa.entity.Dinheiro;
 import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.entity.TipoConta;
+import br.ada.caixa.exceptions.SaldoInsuficienteException;
+import br.ada.caixa.service.operacoesbancarias.saldo.SaldosFracionados;
+import lombok.RequiredArgsConstructor;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-
 @Order(1)
 @Service
+@RequiredArgsConstructor
 public class OperacaoSaqueSaldoPJ implements OperacaoSaque {
 
-    private static final BigDecimal TAXA_RETIRADA = BigDecimal.valueOf(1.005);
+    private final SaldosFracionados saldosFracionados;
+    private final ParametrosSaque parametrosSaque;
 
     @Override
-    public void executar(Conta conta, BigDecimal valorSaque) {
+    public boolean aplicaA(TipoCliente tipoCliente, TipoConta tipoConta) {
+        return tipoCliente == TipoCliente.PJ;
+    }
 
-        if (!(conta.getCliente().getTipo().equals(TipoCliente.PJ))) {
-            return;
+    @Override
+    public Dinheiro executar(Conta conta, Dinheiro valorSaque) {
+        final var debito = valorDebito(conta, valorSaque);
+        if (saldosFracionados.debitar(conta.getNumero(), debito.getCentavos()) == 0) {
+            throw new SaldoInsuficienteException();
         }
+        return debito;
+    }
 
-        valorSaque = valorSaque.multiply(TAXA_RETIRADA);
-        OperacaoSaque.super.validarSaldo(conta, valorSaque);
-        conta.setSaldo(conta.getSaldo().subtract(valorSaque));
+    @Override
+    public Dinheiro valorDebito(Conta conta, Dinheiro valorSaque) {
+        return parametrosSaque.de(TipoCliente.PJ, conta.getTipo()).aplicarTaxa(valorSaque);
     }
 
 }
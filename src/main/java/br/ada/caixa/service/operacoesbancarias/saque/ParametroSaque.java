@@ -0,0 +1,58 @@
+package br.ada.caixa.service.operacoesbancarias.saque;
+
+import br.ada.caixa.entity.Dinheiro;
+
+import java.math.BigDecimal;
+
+/**
+ * Taxa e limite de saque de uma combinacao de tipo de cliente e tipo de conta. A taxa multiplica o
+ * valor sacado (1.005 = 0,5%) e fica guardada em ponto fixo para o calculo nao alocar.
+ */
+final class ParametroSaque {
+
+    private static final int CASAS_MAXIMAS_TAXA = 9;
+
+    private final BigDecimal taxaDecimal;
+    private final long taxa;
+    private final int casasTaxa;
+    private final Dinheiro limite;
+
+    /**
+     * @param limite valor maximo por saque; zero ou null para sem limite
+     */
+    ParametroSaque(BigDecimal taxa, BigDecimal limite) {
+        if (taxa == null || taxa.compareTo(BigDecimal.ONE) < 0) {
+            throw new IllegalArgumentException("Taxa de saque deve ser maior ou igual a 1: " + taxa);
+        }
+        final var normalizada = taxa.stripTrailingZeros();
+        final var semExpoente = normalizada.scale() < 0 ? normalizada.setScale(0) : normalizada;
+        if (semExpoente.scale() > CASAS_MAXIMAS_TAXA) {
+            throw new IllegalArgumentException("Taxa de saque com mais de " + CASAS_MAXIMAS_TAXA + " casas: " + taxa);
+        }
+        if (limite != null && limite.signum() < 0) {
+            throw new IllegalArgumentException("Limite de saque negativo: " + limite);
+        }
+        this.taxaDecimal = semExpoente;
+        this.taxa = semExpoente.unscaledValue().longValueExact();
+        this.casasTaxa = semExpoente.scale();
+        this.limite = limite == null || limite.signum() == 0 ? null : Dinheiro.de(limite);
+    }
+
+    Dinheiro aplicarTaxa(Dinheiro valor) {
+        // Taxa 1 (sem taxa) e o caso comum: nada a multiplicar
+        return casasTaxa == 0 && taxa == 1 ? valor : valor.multiplicar(taxa, casasTaxa);
+    }
+
+    boolean excedeLimite(Dinheiro valor) {
+        return limite != null && valor.maiorQue(limite);
+    }
+
+    BigDecimal getTaxa() {
+        return taxaDecimal;
+    }
+
+    Dinheiro getLimite() {
+        return limite;
+    }
+
+}
@@ -0,0 +1,162 @@
+package br.ada.caixa.service.operacoesbancarias.saque;
+
+import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.entity.TipoConta;
+import br.ada.caixa.service.agendamento.TarefaPeriodica;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Taxas e limites de saque por tipo de cliente (banco.saque.*), sobrescritos opcionalmente, inclusive por
+ * tipo de conta, pelo arquivo banco.saque.parametros.arquivo (ex.: {@code taxa.pj.conta_poupanca=1.01}).
+ */
+@Slf4j
+@Component
+public class ParametrosSaque {
+
+    static final String TAXA = "taxa";
+    static final String LIMITE = "limite";
+
+    private final Map<TipoCliente, BigDecimal> taxasPadrao = new EnumMap<>(TipoCliente.class);
+    private final Map<TipoCliente, BigDecimal> limitesPadrao = new EnumMap<>(TipoCliente.class);
+    private final Path arquivo;
+    private final Duration intervalo;
+    private volatile ParametroSaque[] parametros;
+    private FileTime versaoArquivo;
+    private final TarefaPeriodica recarga;
+
+    public ParametrosSaque(@Value("${banco.saque.taxa.pf:1}") BigDecimal taxaPF,
+                           @Value("${banco.saque.taxa.pj:1.005}") BigDecimal taxaPJ,
+                           @Value("${banco.saque.limite.pf:0}") BigDecimal limitePF,
+                           @Value("${banco.saque.limite.pj:0}") BigDecimal limitePJ,
+                           @Value("${banco.saque.parametros.arquivo:}") String arquivo,
+                           @Value("${banco.saque.parametros.intervalo:30s}") Duration intervalo) {
+        this.taxasPadrao.put(TipoCliente.PF, taxaPF);
+        this.taxasPadrao.put(TipoCliente.PJ, taxaPJ);
+        this.limitesPadrao.put(TipoCliente.PF, limitePF);
+        this.limitesPadrao.put(TipoCliente.PJ, limitePJ);
+        this.arquivo = arquivo == null || arquivo.isBlank() ? null : Paths.get(arquivo);
+        this.intervalo = intervalo;
+        this.parametros = montar(new Properties());
+        this.recarga = new TarefaPeriodica("saque-parametros", this::recarregarSeMudou);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        if (arquivo == null) {
+            return;
+        }
+        recarregar();
+        recarga.iniciar(intervalo);
+    }
+
+    @PreDestroy
+    public void parar() {
+        recarga.parar();
+    }
+
+    /**
+     * Le o arquivo de novo e troca os parametros. Falha com IllegalStateException, sem trocar nada,
+     * se o arquivo nao puder ser lido ou tiver valores invalidos.
+     */
+    public synchronized void recarregar() {
+        if (arquivo == null) {
+            return;
+        }
+        try {
+            final var versao = Files.getLastModifiedTime(arquivo);
+            var propriedades = new Properties();
+            try (Reader leitor = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+                propriedades.load(leitor);
+            }
+            parametros = montar(propriedades);
+            versaoArquivo = versao;
+            log.info("Parametros de saque carregados de {}", arquivo);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalStateException("Parametros de saque invalidos em " + arquivo + ": " + e.getMessage(), e);
+        }
+    }
+
+    ParametroSaque de(TipoCliente tipoCliente, TipoConta tipoConta) {
+        return parametros[RegrasSaque.indice(tipoCliente, tipoConta)];
+    }
+
+    private void recarregarSeMudou() {
+        try {
+            if (!Files.getLastModifiedTime(arquivo).equals(versaoArquivo)) {
+                recarregar();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Falha ao recarregar parametros de saque; mantendo os anteriores", e);
+        }
+    }
+
+    private ParametroSaque[] montar(Properties propriedades) {
+        validarChaves(propriedades);
+        var novos = new ParametroSaque[TipoCliente.values().length * TipoConta.values().length];
+        for (TipoCliente tipoCliente : TipoCliente.values()) {
+            for (TipoConta tipoConta : TipoConta.values()) {
+                novos[RegrasSaque.indice(tipoCliente, tipoConta)] = new ParametroSaque(
+                        valor(propriedades, TAXA, tipoCliente, tipoConta, taxasPadrao.get(tipoCliente)),
+                        valor(propriedades, LIMITE, tipoCliente, tipoConta, limitesPadrao.get(tipoCliente)));
+            }
+        }
+        return novos;
+    }
+
+    // O valor mais especifico ganha: tipo de cliente e conta, so tipo de cliente, e por fim o padrao
+    private static BigDecimal valor(Properties propriedades, String parametro, TipoCliente tipoCliente,
+                                    TipoConta tipoConta, BigDecimal padrao) {
+        final var porCliente = parametro + "." + nome(tipoCliente);
+        var texto = propriedades.getProperty(porCliente + "." + nome(tipoConta), propriedades.getProperty(porCliente));
+        return texto == null ? padrao : new BigDecimal(texto.trim());
+    }
+
+    // Uma chave com erro de digitacao seria ignorada em silencio; melhor recusar o arquivo
+    private static void validarChaves(Properties propriedades) {
+        for (String chave : propriedades.stringPropertyNames()) {
+            if (!chaveValida(chave)) {
+                throw new IllegalArgumentException("chave desconhecida " + chave);
+            }
+        }
+    }
+
+    private static boolean chaveValida(String chave) {
+        for (String parametro : new String[]{TAXA, LIMITE}) {
+            for (TipoCliente tipoCliente : TipoCliente.values()) {
+                final var porCliente = parametro + "." + nome(tipoCliente);
+                if (chave.equals(porCliente)) {
+                    return true;
+                }
+                for (TipoConta tipoConta : TipoConta.values()) {
+                    if (chave.equals(porCliente + "." + nome(tipoConta))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String nome(Enum<?> valor) {
+        return valor.name().toLowerCase(Locale.ROOT);
+    }
+
+}
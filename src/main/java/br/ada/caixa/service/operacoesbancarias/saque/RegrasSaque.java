@@ -0,0 +1,53 @@
+package br.ada.caixa.service.operacoesbancarias.saque;
+
+import br.ada.caixa.entity.Conta;
+import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.entity.TipoConta;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tabela de despacho das regras de saque: na construcao, cada {@link OperacaoSaque} registrada e
+ * colocada nas combinacoes de tipo de cliente e tipo de conta a que se aplica (ver
+ * {@link OperacaoSaque#aplicaA}), na ordem da lista injetada (@Order). Um saque percorre so as regras da
+ * sua combinacao, entao o custo nao cresce com regras de outros tipos.
+ */
+@Slf4j
+@Component
+public class RegrasSaque {
+
+    private static final int TIPOS_CONTA = TipoConta.values().length;
+
+    private final OperacaoSaque[][] tabela;
+
+    public RegrasSaque(List<OperacaoSaque> operacoesSaque) {
+        this.tabela = new OperacaoSaque[TipoCliente.values().length * TIPOS_CONTA][];
+        for (TipoCliente tipoCliente : TipoCliente.values()) {
+            for (TipoConta tipoConta : TipoConta.values()) {
+                List<OperacaoSaque> aplicaveis = new ArrayList<>();
+                for (OperacaoSaque operacaoSaque : operacoesSaque) {
+                    if (operacaoSaque.aplicaA(tipoCliente, tipoConta)) {
+                        aplicaveis.add(operacaoSaque);
+                    }
+                }
+                tabela[indice(tipoCliente, tipoConta)] = aplicaveis.toArray(new OperacaoSaque[0]);
+                log.debug("Regras de saque {}/{}: {}", tipoCliente, tipoConta, aplicaveis.size());
+            }
+        }
+    }
+
+    /**
+     * Regras que se aplicam a conta, na ordem de execucao. O array e compartilhado: nao alterar.
+     */
+    public OperacaoSaque[] para(Conta conta) {
+        return tabela[indice(conta.getCliente().getTipo(), conta.getTipo())];
+    }
+
+    static int indice(TipoCliente tipoCliente, TipoConta tipoConta) {
+        return tipoCliente.ordinal() * TIPOS_CONTA + tipoConta.ordinal();
+    }
+
+}
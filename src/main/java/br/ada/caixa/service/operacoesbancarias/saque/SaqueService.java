@@ -1,29 +1,107 @@
 package br.ada.caixa.service.operacoesbancarias.saque;
 
 
+import br.ada.caixa.entity.Conta;
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.enums.TipoLancamento;
+import br.ada.caixa.exceptions.ContaInvalidaException;
+import br.ada.caixa.exceptions.ValidacaoException;
 import br.ada.caixa.repository.ContaRepository;
+import br.ada.caixa.service.conta.ContaCache;
+import br.ada.caixa.service.conta.ContaResumo;
+import br.ada.caixa.service.journal.JournalLancamentos;
+import br.ada.caixa.service.metricas.OperacaoMonitorada;
+import br.ada.caixa.service.operacoesbancarias.saldo.SaldoPublicador;
+import br.ada.caixa.service.retry.RetentarEmConflito;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
-import java.util.List;
 
 @Service
 public class SaqueService {
 
     private final ContaRepository contaRepository;
-    private final List<OperacaoSaque> operacaoSaqueList;
+    private final ContaCache contaCache;
+    private final SaldoPublicador saldoPublicador;
+    private final JournalLancamentos journalLancamentos;
+    private final RegrasSaque regrasSaque;
+    private final TransactionTemplate transactionTemplate;
 
-    public SaqueService(ContaRepository contaRepository, List<OperacaoSaque> operacaoSaqueList) {
+    public SaqueService(ContaRepository contaRepository,
+                        ContaCache contaCache,
+                        SaldoPublicador saldoPublicador,
+                        JournalLancamentos journalLancamentos,
+                        RegrasSaque regrasSaque,
+                        PlatformTransactionManager transactionManager) {
         this.contaRepository = contaRepository;
-        this.operacaoSaqueList = operacaoSaqueList;
+        this.contaCache = contaCache;
+        this.saldoPublicador = saldoPublicador;
+        this.journalLancamentos = journalLancamentos;
+        this.regrasSaque = regrasSaque;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
+    // Cada OperacaoSaque debita com um UPDATE condicional, entao nao ha save da entidade aqui
+    @OperacaoMonitorada("saque")
+    @RetentarEmConflito("saque")
     public void sacar(Long numeroConta, BigDecimal valor) {
-        contaRepository.findByNumero(numeroConta)
-                        .ifPresent(conta -> {
-                            operacaoSaqueList.forEach(operacaoSaque -> operacaoSaque.executar(conta, valor));
-                            contaRepository.save(conta);
-                        });
+        final var dinheiro = Dinheiro.de(valor);
+        final var conta = contaCache.buscar(numeroConta)
+                .map(ContaResumo::paraConta)
+                .orElseThrow(ContaInvalidaException::new);
+        sacarDoCache(conta, dinheiro);
+    }
+
+    private void sacarDoCache(Conta conta, Dinheiro valor) {
+        try {
+            if (journalLancamentos.isHabilitado()) {
+                // O journal grava o lancamento antes do commit, entao o debito precisa de uma transacao
+                transactionTemplate.executeWithoutResult(status -> journalLancamentos.registrar(
+                        TipoLancamento.SAQUE, conta.getNumero(), sacar(conta, valor).negar()));
+            } else {
+                sacar(conta, valor);
+            }
+            saldoPublicador.publicar(conta.getNumero());
+        } catch (ValidacaoException e) {
+            // O UPDATE nao achou a linha: ou falta saldo ou a conta em cache ja nao existe
+            if (!contaRepository.existsByNumero(conta.getNumero())) {
+                contaCache.invalidar(conta.getNumero());
+                throw new ContaInvalidaException();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Aplica as regras de saque e devolve o total debitado (ja com taxas), o valor a gravar no journal.
+     * Usado dentro de outras operacoes (transferencia); quem chama publica o saldo resultante.
+     */
+    public Dinheiro sacar(Conta conta, Dinheiro valor) {
+        var total = Dinheiro.ZERO;
+        for (OperacaoSaque operacaoSaque : regrasSaque.para(conta)) {
+            var debito = operacaoSaque.executar(conta, valor);
+            if (debito != null) {
+                total = total.somar(debito);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Quanto um saque de valor debitaria da conta segundo as mesmas regras de sacar, sem alterar nada.
+     * Falha com ValidacaoException quando uma regra recusa o saque (ex.: limite).
+     */
+    public Dinheiro calcularDebito(Conta conta, Dinheiro valor) {
+        var total = Dinheiro.ZERO;
+        for (OperacaoSaque operacaoSaque : regrasSaque.para(conta)) {
+            var valorDebito = operacaoSaque.valorDebito(conta, valor);
+            if (valorDebito != null) {
+                total = total.somar(valorDebito);
+            }
+        }
+        return total;
     }
 
 }
@@ -0,0 +1,191 @@
+package br.ada.caixa.service.operacoesbancarias.transferencia;
+
+import br.ada.caixa.dto.request.TransferenciaRequestDto;
+import br.ada.caixa.dto.response.ResultadoTransferenciaDto;
+import br.ada.caixa.entity.Conta;
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.enums.TipoLancamento;
+import br.ada.caixa.exceptions.ValidacaoException;
+import br.ada.caixa.repository.ContaRepository;
+import br.ada.caixa.service.journal.JournalLancamentos;
+import br.ada.caixa.service.journal.Lancamento;
+import br.ada.caixa.service.operacoesbancarias.saldo.SaldoPublicador;
+import br.ada.caixa.service.operacoesbancarias.saldo.SaldosFracionados;
+import br.ada.caixa.service.operacoesbancarias.saque.SaqueService;
+import br.ada.caixa.service.retry.RetryExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Transferencias em lote: cada bloco bloqueia as contas de uma vez, valida os itens em ordem contra o
+ * saldo em memoria e grava so o delta liquido de cada conta.
+ */
+@Slf4j
+@Service
+public class TransferenciaLoteService {
+
+    private static final String SQL_APLICAR_DELTA =
+            "update conta set saldo = saldo + ?, versao = versao + 1 where numero = ?";
+
+    private final ContaRepository contaRepository;
+    private final SaqueService saqueService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RetryExecutor retryExecutor;
+    private final SaldoPublicador saldoPublicador;
+    private final JournalLancamentos journalLancamentos;
+    private final SaldosFracionados saldosFracionados;
+    private final int itensPorTransacao;
+
+    public TransferenciaLoteService(ContaRepository contaRepository,
+                                    SaqueService saqueService,
+                                    JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    RetryExecutor retryExecutor,
+                                    SaldoPublicador saldoPublicador,
+                                    JournalLancamentos journalLancamentos,
+                                    SaldosFracionados saldosFracionados,
+                                    @Value("${banco.transferencia.lote.itens-por-transacao:1000}") int itensPorTransacao) {
+        this.contaRepository = contaRepository;
+        this.saqueService = saqueService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retryExecutor = retryExecutor;
+        this.saldoPublicador = saldoPublicador;
+        this.journalLancamentos = journalLancamentos;
+        this.saldosFracionados = saldosFracionados;
+        this.itensPorTransacao = itensPorTransacao;
+    }
+
+    public List<ResultadoTransferenciaDto> transferir(List<TransferenciaRequestDto> transferencias) {
+        List<ResultadoTransferenciaDto> resultados = new ArrayList<>(transferencias.size());
+        for (int inicio = 0; inicio < transferencias.size(); inicio += itensPorTransacao) {
+            final int deslocamento = inicio;
+            final var bloco = transferencias.subList(inicio, Math.min(inicio + itensPorTransacao, transferencias.size()));
+            resultados.addAll(retryExecutor.executar("transferencia-lote", () ->
+                    transactionTemplate.execute(status -> liquidar(bloco, deslocamento))));
+        }
+        return resultados;
+    }
+
+    private List<ResultadoTransferenciaDto> liquidar(List<TransferenciaRequestDto> bloco, int deslocamento) {
+        var numeros = new TreeSet<Long>();
+        for (TransferenciaRequestDto transferencia : bloco) {
+            if (transferencia.getNumeroContaOrigem() != null) {
+                numeros.add(transferencia.getNumeroContaOrigem());
+            }
+            if (transferencia.getNumeroContaDestino() != null) {
+                numeros.add(transferencia.getNumeroContaDestino());
+            }
+        }
+
+        Map<Long, Conta> contas = new HashMap<>();
+        if (!numeros.isEmpty()) {
+            contaRepository.findAllByNumeroInParaAtualizacao(numeros)
+                    .forEach(conta -> contas.put(conta.getNumero(), conta));
+        }
+        Map<Long, Dinheiro> saldos = new HashMap<>();
+        contas.values().forEach(conta -> saldos.put(conta.getNumero(), conta.getSaldo()));
+        saldosFracionados.somarFracoesBloqueando(contas.keySet()).forEach((numero, fracoes) ->
+                saldos.merge(numero, fracoes, Dinheiro::somar));
+        Map<Long, Dinheiro> deltas = new TreeMap<>();
+
+        List<ResultadoTransferenciaDto> resultados = new ArrayList<>(bloco.size());
+        for (int i = 0; i < bloco.size(); i++) {
+            var transferencia = bloco.get(i);
+            var erro = aplicar(transferencia, contas, saldos, deltas);
+            resultados.add(ResultadoTransferenciaDto.builder()
+                    .indice(deslocamento + i)
+                    .numeroContaOrigem(transferencia.getNumeroContaOrigem())
+                    .numeroContaDestino(transferencia.getNumeroContaDestino())
+                    .valor(transferencia.getValor())
+                    .sucesso(erro == null)
+                    .erro(erro)
+                    .build());
+        }
+
+        List<Object[]> parametros = deltas.entrySet().stream()
+                .filter(delta -> !delta.getValue().isZero())
+                .map(delta -> new Object[]{delta.getValue().getCentavos(), delta.getKey()})
+                .collect(Collectors.toList());
+        if (!parametros.isEmpty()) {
+            Map<Boolean, List<Object[]>> porFracionamento = parametros.stream()
+                    .collect(Collectors.partitioningBy(parametro -> saldosFracionados.isFracionada((Long) parametro[1])));
+            if (!porFracionamento.get(false).isEmpty()) {
+                jdbcTemplate.batchUpdate(SQL_APLICAR_DELTA, porFracionamento.get(false));
+            }
+            porFracionamento.get(true).forEach(parametro -> aplicarFracionada((Long) parametro[1], (Long) parametro[0]));
+            if (journalLancamentos.isHabilitado()) {
+                // Um lancamento por conta com o delta liquido, o mesmo valor que o UPDATE aplica
+                journalLancamentos.registrar(parametros.stream()
+                        .map(parametro -> new Lancamento(TipoLancamento.TRANSFERENCIA, (Long) parametro[1],
+                                Dinheiro.deCentavos((Long) parametro[0])))
+                        .collect(Collectors.toList()));
+            }
+            saldoPublicador.publicar(parametros.stream().map(parametro -> (Long) parametro[1]).collect(Collectors.toList()));
+        }
+        log.debug("Bloco de {} transferencias liquidado em {} contas", bloco.size(), parametros.size());
+        return resultados;
+    }
+
+    // Como na transferencia individual: a conta e as fracoes ja estao bloqueadas e o saldo somado foi
+    // validado, entao o debito nao falha e nenhuma linha fica negativa
+    private void aplicarFracionada(Long numeroConta, long centavos) {
+        final int alteradas = centavos < 0
+                ? saldosFracionados.debitar(numeroConta, -centavos)
+                : saldosFracionados.creditar(numeroConta, centavos);
+        if (alteradas == 0) {
+            throw new IllegalStateException("Saldo fracionado da conta " + numeroConta + " mudou durante o bloco");
+        }
+    }
+
+    // Retorna a mensagem de erro do item ou null quando a transferencia foi aceita
+    private String aplicar(TransferenciaRequestDto transferencia,
+                           Map<Long, Conta> contas,
+                           Map<Long, Dinheiro> saldos,
+                           Map<Long, Dinheiro> deltas) {
+        var valor = Dinheiro.de(transferencia.getValor());
+        if (valor == null || valor.signum() <= 0) {
+            return "Valor inválido!";
+        }
+        var contaOrigem = contas.get(transferencia.getNumeroContaOrigem());
+        var contaDestino = contas.get(transferencia.getNumeroContaDestino());
+        if (contaOrigem == null || contaDestino == null) {
+            return "Conta inválida!";
+        }
+        if (Objects.equals(contaOrigem.getNumero(), contaDestino.getNumero())) {
+            return "Conta de origem e destino devem ser diferentes!";
+        }
+
+        final Dinheiro debito;
+        try {
+            debito = saqueService.calcularDebito(contaOrigem, valor);
+        } catch (ValidacaoException e) {
+            return e.getMessage();
+        }
+        var saldoOrigem = saldos.get(contaOrigem.getNumero());
+        if (debito.maiorQue(saldoOrigem)) {
+            return "Saldo insuficiente!";
+        }
+
+        saldos.put(contaOrigem.getNumero(), saldoOrigem.subtrair(debito));
+        saldos.merge(contaDestino.getNumero(), valor, Dinheiro::somar);
+        deltas.merge(contaOrigem.getNumero(), debito.negar(), Dinheiro::somar);
+        deltas.merge(contaDestino.getNumero(), valor, Dinheiro::somar);
+        return null;
+    }
+
+}
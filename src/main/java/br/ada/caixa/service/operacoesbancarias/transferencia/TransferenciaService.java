@@ -1,24 +1,100 @@
 package br.ada.caixa.service.operacoesbancarias.transferencia;
 
-import br.ada.caixa.service.operacoesbancarias.deposito.DepositoService;
+import br.ada.caixa.entity.Conta;
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.enums.TipoLancamento;
+import br.ada.caixa.exceptions.ContaInvalidaException;
+import br.ada.caixa.exceptions.ValidacaoException;
+import br.ada.caixa.repository.ContaRepository;
+import br.ada.caixa.service.journal.JournalLancamentos;
+import br.ada.caixa.service.journal.Lancamento;
+import br.ada.caixa.service.metricas.OperacaoMonitorada;
+import br.ada.caixa.service.operacoesbancarias.saldo.SaldoPublicador;
+import br.ada.caixa.service.operacoesbancarias.saldo.SaldosFracionados;
 import br.ada.caixa.service.operacoesbancarias.saque.SaqueService;
-import lombok.RequiredArgsConstructor;
+import br.ada.caixa.service.retry.RetentarEmConflito;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Objects;
 
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class TransferenciaService {
 
+    private final ContaRepository contaRepository;
     private final SaqueService saqueService;
-    private final DepositoService depositoService;
+    private final TransactionTemplate transactionTemplate;
+    private final SaldoPublicador saldoPublicador;
+    private final JournalLancamentos journalLancamentos;
+    private final SaldosFracionados saldosFracionados;
 
+    public TransferenciaService(ContaRepository contaRepository,
+                                SaqueService saqueService,
+                                PlatformTransactionManager transactionManager,
+                                SaldoPublicador saldoPublicador,
+                                JournalLancamentos journalLancamentos,
+                                SaldosFracionados saldosFracionados) {
+        this.contaRepository = contaRepository;
+        this.saqueService = saqueService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.saldoPublicador = saldoPublicador;
+        this.journalLancamentos = journalLancamentos;
+        this.saldosFracionados = saldosFracionados;
+    }
+
+    /**
+     * Debita a origem (com as regras de saque, incluindo a taxa PJ) e credita o destino em uma unica
+     * transacao. As duas linhas sao bloqueadas no banco em ordem deterministica (SELECT ... FOR UPDATE
+     * ordenado por numero), entao A->B e B->A concorrentes nao entram em deadlock, em um ou em varios nos.
+     */
+    @OperacaoMonitorada("transferencia")
+    @RetentarEmConflito("transferencia")
     public void transferir(Long numeroContaOrigem,
                            Long numeroContaDestino,
                            BigDecimal valor) {
-        saqueService.sacar(numeroContaOrigem, valor);
-        depositoService.depositar(numeroContaDestino, valor);
+        if (Objects.isNull(numeroContaOrigem) || Objects.isNull(numeroContaDestino)) {
+            throw new ContaInvalidaException();
+        }
+        if (numeroContaOrigem.equals(numeroContaDestino)) {
+            throw new ValidacaoException("Conta de origem e destino devem ser diferentes!");
+        }
+
+        final var dinheiro = Dinheiro.de(valor);
+        // A latencia fica em banco.operacoes.latencia{operacao=transferencia}, via @OperacaoMonitorada
+        transactionTemplate.execute(status -> {
+            aplicar(numeroContaOrigem, numeroContaDestino, dinheiro);
+            return null;
+        });
+        log.debug("Transferencia {} -> {} de {}", numeroContaOrigem, numeroContaDestino, dinheiro);
+    }
+
+    private void aplicar(Long numeroContaOrigem, Long numeroContaDestino, Dinheiro valor) {
+        List<Conta> contas = contaRepository.findAllByNumeroInParaAtualizacao(
+                List.of(numeroContaOrigem, numeroContaDestino));
+
+        var contaOrigem = buscar(contas, numeroContaOrigem);
+        var contaDestino = buscar(contas, numeroContaDestino);
+
+        final var debito = saqueService.sacar(contaOrigem, valor);
+        saldosFracionados.creditar(contaDestino.getNumero(), valor.getCentavos());
+        if (journalLancamentos.isHabilitado()) {
+            journalLancamentos.registrar(List.of(
+                    new Lancamento(TipoLancamento.TRANSFERENCIA, contaOrigem.getNumero(), debito.negar()),
+                    new Lancamento(TipoLancamento.TRANSFERENCIA, contaDestino.getNumero(), valor)));
+        }
+        saldoPublicador.publicar(List.of(contaOrigem.getNumero(), contaDestino.getNumero()));
+    }
+
+    private static Conta buscar(List<Conta> contas, Long numeroConta) {
+        return contas.stream()
+                .filter(conta -> conta.getNumero().equals(numeroConta))
+                .findFirst()
+                .orElseThrow(ContaInvalidaException::new);
     }
 
 }
@@ -0,0 +1,21 @@
+package br.ada.caixa.service.retry;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca uma operacao que altera saldo para ser reexecutada pelo {@link RetryExecutor} quando
+ * houver conflito de concorrencia (versao desatualizada, deadlock, lock nao obtido).
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetentarEmConflito {
+
+    /**
+     * Nome da operacao usado como tag nas metricas.
+     */
+    String value();
+
+}
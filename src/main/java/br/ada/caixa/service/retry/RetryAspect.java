@@ -0,0 +1,41 @@
+package br.ada.caixa.service.retry;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Aplica o {@link RetryExecutor} aos metodos anotados com {@link RetentarEmConflito}. Roda por fora
+ * do interceptor de transacao para que cada tentativa use uma transacao nova; chamadas feitas
+ * dentro de uma transacao ja aberta nao sao retentadas, quem retenta e a operacao mais externa.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@RequiredArgsConstructor
+public class RetryAspect {
+
+    private final RetryExecutor retryExecutor;
+
+    @Around("@annotation(retentarEmConflito)")
+    public Object retentar(ProceedingJoinPoint joinPoint, RetentarEmConflito retentarEmConflito) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        return retryExecutor.executar(retentarEmConflito.value(), () -> {
+            try {
+                return joinPoint.proceed();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+}
@@ -0,0 +1,76 @@
+package br.ada.caixa.service.retry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Reexecuta uma operacao enquanto ela falhar por conflito de concorrencia, com numero maximo de
+ * tentativas e backoff exponencial com jitter. Publica as metricas banco.retry.execucoes,
+ * banco.retry.conflitos e banco.retry.esgotadas por operacao; a taxa de conflito e
+ * conflitos / execucoes. Chamado dentro de uma transacao ja aberta, executa uma vez so.
+ */
+@Slf4j
+@Component
+public class RetryExecutor {
+
+    private final MeterRegistry meterRegistry;
+    private final int tentativas;
+    private final long backoffInicialMs;
+    private final long backoffMaximoMs;
+
+    public RetryExecutor(MeterRegistry meterRegistry,
+                         @Value("${banco.retry.tentativas:5}") int tentativas,
+                         @Value("${banco.retry.backoff-inicial-ms:5}") long backoffInicialMs,
+                         @Value("${banco.retry.backoff-maximo-ms:200}") long backoffMaximoMs) {
+        if (tentativas < 1) {
+            throw new IllegalArgumentException("Numero de tentativas deve ser ao menos 1");
+        }
+        this.meterRegistry = meterRegistry;
+        this.tentativas = tentativas;
+        this.backoffInicialMs = backoffInicialMs;
+        this.backoffMaximoMs = backoffMaximoMs;
+    }
+
+    public <T> T executar(String operacao, Supplier<T> acao) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Dentro de uma transacao externa o conflito a marca para rollback; quem a abriu retenta
+            return acao.get();
+        }
+        meterRegistry.counter("banco.retry.execucoes", "operacao", operacao).increment();
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                return acao.get();
+            } catch (ConcurrencyFailureException e) {
+                meterRegistry.counter("banco.retry.conflitos", "operacao", operacao).increment();
+                if (tentativa >= tentativas) {
+                    meterRegistry.counter("banco.retry.esgotadas", "operacao", operacao).increment();
+                    log.warn("Conflito em {} apos {} tentativas", operacao, tentativa);
+                    throw e;
+                }
+                aguardar(tentativa, e);
+            }
+        }
+    }
+
+    // Full jitter: espera aleatoria entre 0 e min(maximo, inicial * 2^(tentativa - 1))
+    private void aguardar(int tentativa, ConcurrencyFailureException conflito) {
+        long teto = Math.min(backoffMaximoMs, backoffInicialMs << Math.min(tentativa - 1, 20));
+        if (teto <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(teto + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflito;
+        }
+    }
+
+}
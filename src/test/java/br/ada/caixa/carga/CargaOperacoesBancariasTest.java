@@ -0,0 +1,420 @@
+package br.ada.caixa.carga;
+
+import br.ada.caixa.dto.request.DepositoRequestDto;
+import br.ada.caixa.dto.request.InvestimentoRequestDto;
+import br.ada.caixa.dto.request.SaqueRequestDto;
+import br.ada.caixa.dto.request.TransferenciaRequestDto;
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.entity.TipoConta;
+import br.ada.caixa.enums.StatusCliente;
+import br.ada.caixa.repository.ClienteRepository;
+import br.ada.caixa.repository.ContaRepository;
+import br.ada.caixa.service.conta.ContaCache;
+import br.ada.caixa.service.operacoesbancarias.saldo.ProjecaoSaldo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Driver de carga ponta a ponta de {@code /operacoes}: sobe a aplicacao com H2, cria as contas e
+ * dispara um mix de depositos, saques, transferencias, consultas de saldo e investimentos via HTTP.
+ * <p>
+ * A carga e de laco aberto: as requisicoes seguem uma agenda fixa ({@code carga.taxa} por segundo) e a
+ * latencia e medida a partir do instante previsto na agenda, nao do envio. Assim, quando o servidor
+ * atrasa, o tempo que as requisicoes seguintes passam esperando tambem entra no histograma (correcao de
+ * coordinated omission). O tempo de servico (envio ate resposta) sai no relatorio ao lado, para
+ * comparacao. As contas sao sorteadas por uma distribuicao de Zipf, concentrando o trafego nas contas
+ * quentes.
+ * <p>
+ * Roda apenas com -Dcarga=true; parametros opcionais (com os padroes):
+ * <pre>
+ * -Dcarga.concorrencia=16 -Dcarga.taxa=500 -Dcarga.duracao=30 -Dcarga.aquecimento=5
+ * -Dcarga.contas=1000 -Dcarga.zipf=1.1 -Dcarga.mix=depositar=30,sacar=25,transferir=20,saldo=20,investir=5
+ * -Dcarga.relatorio=target/carga
+ * </pre>
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "carga", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.jpa.show-sql=false"})
+class CargaOperacoesBancariasTest {
+
+    private static final String SQL_INSERIR_CLIENTE =
+            "insert into cliente (id, documento, nome, data_nascimento, status, tipo, created_at) values (?, ?, ?, ?, ?, ?, ?)";
+    private static final String SQL_INSERIR_CONTA =
+            "insert into conta (id, numero, saldo, tipo, cliente_id, created_at, versao) values (?, ?, ?, ?, ?, ?, 0)";
+    private static final int LOTE_INSERCAO = 5_000;
+    private static final BigDecimal SALDO_INICIAL = BigDecimal.valueOf(1_000_000);
+    private static final BigDecimal VALOR_OPERACAO = BigDecimal.TEN;
+    // Latencias em microssegundos, ate 1 hora, com 3 digitos significativos
+    private static final long LATENCIA_MAXIMA_US = TimeUnit.HOURS.toMicros(1);
+    private static final int FALHA_CONEXAO = -1;
+
+    private final int concorrencia = Integer.getInteger("carga.concorrencia", 16);
+    private final double taxa = Double.parseDouble(System.getProperty("carga.taxa", "500"));
+    private final int duracao = Integer.getInteger("carga.duracao", 30);
+    private final int aquecimento = Integer.getInteger("carga.aquecimento", 5);
+    private final int quantidadeContas = Integer.getInteger("carga.contas", 1000);
+    private final double expoenteZipf = Double.parseDouble(System.getProperty("carga.zipf", "1.1"));
+    private final String mix = System.getProperty("carga.mix", "depositar=30,sacar=25,transferir=20,saldo=20,investir=5");
+    private final Path diretorioRelatorio = Path.of(System.getProperty("carga.relatorio", "target/carga"));
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+    @Autowired
+    private ContaRepository contaRepository;
+    @Autowired
+    private ContaCache contaCache;
+    @Autowired
+    private ProjecaoSaldo projecaoSaldo;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String url;
+    private HttpClient httpClient;
+    private DistribuicaoZipf distribuicaoContas;
+    private OperacaoCarga[] roleta;
+
+    @BeforeEach
+    void setUp() {
+        url = "http://localhost:" + port + "/operacoes";
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        distribuicaoContas = new DistribuicaoZipf(quantidadeContas, expoenteZipf);
+        roleta = montarRoleta(OperacaoCarga.lerMix(mix));
+        carregarContas();
+    }
+
+    @AfterEach
+    void tearDown() {
+        contaCache.limpar();
+        projecaoSaldo.limpar();
+        contaRepository.deleteAllInBatch();
+        clienteRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void executarCargaTest() throws IOException {
+        // given
+        final var resultados = new Resultados();
+        final var agenda = new Agenda();
+
+        // when
+        ExecutorService executor = Executors.newFixedThreadPool(concorrencia);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < concorrencia; i++) {
+                futures.add(executor.submit(() -> executarTrabalhador(agenda, resultados)));
+            }
+            aguardar(futures);
+        } finally {
+            executor.shutdownNow();
+        }
+        final var relatorio = escreverRelatorio(resultados, agenda);
+
+        // then
+        log.info("Relatorio de carga: {}", relatorio.toAbsolutePath());
+        assertTrue(resultados.total() > 0);
+        assertEquals(0, resultados.falhasConexao.sum());
+    }
+
+    private void executarTrabalhador(Agenda agenda, Resultados resultados) {
+        while (!Thread.currentThread().isInterrupted()) {
+            final long previsto = agenda.proximoInstante();
+            if (previsto >= agenda.fim) {
+                return;
+            }
+            final long espera = previsto - System.nanoTime();
+            if (espera > 0) {
+                LockSupport.parkNanos(espera);
+            }
+
+            final var operacao = roleta[ThreadLocalRandom.current().nextInt(roleta.length)];
+            final var requisicao = montarRequisicao(operacao);
+            final long envio = System.nanoTime();
+            final int status = enviar(requisicao);
+            final long resposta = System.nanoTime();
+
+            if (previsto >= agenda.fimAquecimento) {
+                resultados.registrar(operacao, status, resposta - previsto, resposta - envio);
+            }
+        }
+    }
+
+    private HttpRequest montarRequisicao(OperacaoCarga operacao) {
+        final int numeroConta = distribuicaoContas.sortear();
+        switch (operacao) {
+            case DEPOSITAR:
+                return post("/depositar", DepositoRequestDto.builder()
+                        .numeroConta((long) numeroConta)
+                        .valor(VALOR_OPERACAO)
+                        .build());
+            case SACAR:
+                return post("/sacar", SaqueRequestDto.builder()
+                        .numeroConta((long) numeroConta)
+                        .valor(VALOR_OPERACAO)
+                        .build());
+            case TRANSFERIR:
+                int destino = distribuicaoContas.sortear();
+                if (destino == numeroConta) {
+                    destino = numeroConta % quantidadeContas + 1;
+                }
+                return post("/transferir", TransferenciaRequestDto.builder()
+                        .numeroContaOrigem((long) numeroConta)
+                        .numeroContaDestino((long) destino)
+                        .valor(VALOR_OPERACAO)
+                        .build());
+            case SALDO:
+                return HttpRequest.newBuilder(URI.create(url + "/saldo/" + numeroConta)).GET().build();
+            case INVESTIR:
+                return post("/investir", InvestimentoRequestDto.builder()
+                        .documentoCliente(documento(numeroConta))
+                        .valor(VALOR_OPERACAO)
+                        .build());
+            default:
+                throw new IllegalStateException("Operacao sem requisicao: " + operacao);
+        }
+    }
+
+    private HttpRequest post(String caminho, Object corpo) {
+        try {
+            return HttpRequest.newBuilder(URI.create(url + caminho))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(corpo)))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private int enviar(HttpRequest requisicao) {
+        try {
+            return httpClient.send(requisicao, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            return FALHA_CONEXAO;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return FALHA_CONEXAO;
+        }
+    }
+
+    private Path escreverRelatorio(Resultados resultados, Agenda agenda) throws IOException {
+        Files.createDirectories(diretorioRelatorio);
+        final var agora = LocalDateTime.now();
+        final var arquivo = diretorioRelatorio.resolve(
+                "carga-" + agora.format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".txt");
+        final double segundosMedidos = (agenda.fim - agenda.fimAquecimento) / 1e9;
+
+        try (var saida = new PrintStream(Files.newOutputStream(arquivo), true, StandardCharsets.UTF_8)) {
+            saida.printf("Carga /operacoes em %s%n", agora);
+            saida.printf("concorrencia=%d taxa=%.0f ops/s duracao=%ds aquecimento=%ds contas=%d zipf=%.2f%n",
+                    concorrencia, taxa, duracao, aquecimento, quantidadeContas, expoenteZipf);
+            saida.printf("mix=%s%n", mix);
+            saida.printf("vazao alcancada=%.1f ops/s (%d operacoes em %.1fs)%n%n",
+                    resultados.total() / segundosMedidos, resultados.total(), segundosMedidos);
+
+            saida.println("Latencia em ms. 'corrigida' parte do instante previsto na agenda; 'servico', do envio.");
+            saida.printf("%-11s %8s %6s | %9s %9s %9s %9s %9s | %9s %9s %9s%n", "operacao", "total", "erros",
+                    "p50", "p90", "p99", "p99.9", "max", "serv p50", "serv p99", "serv p99.9");
+            for (OperacaoCarga operacao : OperacaoCarga.values()) {
+                var corrigida = resultados.corrigida.get(operacao);
+                var servico = resultados.servico.get(operacao);
+                if (corrigida.getTotalCount() == 0) {
+                    continue;
+                }
+                saida.printf("%-11s %8d %6d | %9.2f %9.2f %9.2f %9.2f %9.2f | %9.2f %9.2f %9.2f%n",
+                        operacao, corrigida.getTotalCount(), resultados.erros.get(operacao).sum(),
+                        ms(corrigida.getValueAtPercentile(50)), ms(corrigida.getValueAtPercentile(90)),
+                        ms(corrigida.getValueAtPercentile(99)), ms(corrigida.getValueAtPercentile(99.9)),
+                        ms(corrigida.getMaxValue()), ms(servico.getValueAtPercentile(50)),
+                        ms(servico.getValueAtPercentile(99)), ms(servico.getValueAtPercentile(99.9)));
+            }
+
+            saida.printf("%nRespostas por status:%n");
+            resultados.status.entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .forEach(entrada -> saida.printf("  %s = %d%n", entrada.getKey(), entrada.getValue().sum()));
+
+            for (OperacaoCarga operacao : OperacaoCarga.values()) {
+                var corrigida = resultados.corrigida.get(operacao);
+                if (corrigida.getTotalCount() == 0) {
+                    continue;
+                }
+                saida.printf("%n== %s %s (latencia corrigida, ms) ==%n", operacao, operacao.getEndpoint());
+                corrigida.outputPercentileDistribution(saida, 1000.0);
+            }
+        }
+        return arquivo;
+    }
+
+    private void carregarContas() {
+        final var hoje = LocalDate.now();
+        List<Object[]> clientes = new ArrayList<>(LOTE_INSERCAO);
+        List<Object[]> contas = new ArrayList<>(LOTE_INSERCAO * 2);
+        for (int numero = 1; numero <= quantidadeContas; numero++) {
+            final var clienteId = UUID.randomUUID();
+            final var tipoCliente = numero % 2 == 0 ? TipoCliente.PJ : TipoCliente.PF;
+            clientes.add(new Object[]{clienteId, documento(numero), "Carga " + numero, hoje,
+                    StatusCliente.ATIVO.name(), tipoCliente.name(), hoje});
+            // Conta investimento ja criada para que investimentos concorrentes nao criem duas por cliente
+            contas.add(new Object[]{UUID.randomUUID(), (long) numero, Dinheiro.de(SALDO_INICIAL).getCentavos(),
+                    TipoConta.CONTA_CORRENTE.name(), clienteId, hoje});
+            contas.add(new Object[]{UUID.randomUUID(), (long) quantidadeContas + numero, 0L,
+                    TipoConta.CONTA_INVESTIMENTO.name(), clienteId, hoje});
+            if (clientes.size() == LOTE_INSERCAO) {
+                inserir(clientes, contas);
+            }
+        }
+        inserir(clientes, contas);
+    }
+
+    private void inserir(List<Object[]> clientes, List<Object[]> contas) {
+        if (clientes.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(SQL_INSERIR_CLIENTE, clientes);
+        jdbcTemplate.batchUpdate(SQL_INSERIR_CONTA, contas);
+        clientes.clear();
+        contas.clear();
+    }
+
+    private static String documento(int numeroConta) {
+        return String.format("%011d", numeroConta);
+    }
+
+    private static OperacaoCarga[] montarRoleta(Map<OperacaoCarga, Integer> pesos) {
+        List<OperacaoCarga> roleta = new ArrayList<>();
+        pesos.forEach((operacao, peso) -> {
+            for (int i = 0; i < peso; i++) {
+                roleta.add(operacao);
+            }
+        });
+        return roleta.toArray(new OperacaoCarga[0]);
+    }
+
+    private static double ms(long microssegundos) {
+        return microssegundos / 1000.0;
+    }
+
+    private static void aguardar(List<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Carga interrompida", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Agenda de laco aberto: a k-esima requisicao esta prevista para inicio + k / taxa, independente de
+     * quando as anteriores terminaram.
+     */
+    private class Agenda {
+
+        private final AtomicLong sequencia = new AtomicLong();
+        private final double intervaloNanos = TimeUnit.SECONDS.toNanos(1) / taxa;
+        private final long inicio = System.nanoTime();
+        private final long fimAquecimento = inicio + TimeUnit.SECONDS.toNanos(aquecimento);
+        private final long fim = fimAquecimento + TimeUnit.SECONDS.toNanos(duracao);
+
+        long proximoInstante() {
+            return inicio + (long) (sequencia.getAndIncrement() * intervaloNanos);
+        }
+
+    }
+
+    private static class Resultados {
+
+        private final Map<OperacaoCarga, Histogram> corrigida = new EnumMap<>(OperacaoCarga.class);
+        private final Map<OperacaoCarga, Histogram> servico = new EnumMap<>(OperacaoCarga.class);
+        private final Map<OperacaoCarga, LongAdder> erros = new EnumMap<>(OperacaoCarga.class);
+        private final Map<String, LongAdder> status = new ConcurrentHashMap<>();
+        private final LongAdder falhasConexao = new LongAdder();
+
+        Resultados() {
+            for (OperacaoCarga operacao : OperacaoCarga.values()) {
+                corrigida.put(operacao, new ConcurrentHistogram(LATENCIA_MAXIMA_US, 3));
+                servico.put(operacao, new ConcurrentHistogram(LATENCIA_MAXIMA_US, 3));
+                erros.put(operacao, new LongAdder());
+            }
+        }
+
+        void registrar(OperacaoCarga operacao, int codigo, long latenciaCorrigidaNanos, long latenciaServicoNanos) {
+            corrigida.get(operacao).recordValue(microssegundos(latenciaCorrigidaNanos));
+            servico.get(operacao).recordValue(microssegundos(latenciaServicoNanos));
+            if (codigo < 200 || codigo >= 300) {
+                erros.get(operacao).increment();
+            }
+            if (codigo == FALHA_CONEXAO) {
+                falhasConexao.increment();
+            }
+            status.computeIfAbsent(operacao + " " + (codigo == FALHA_CONEXAO ? "falha-conexao" : codigo),
+                    chave -> new LongAdder()).increment();
+        }
+
+        long total() {
+            return corrigida.values().stream().mapToLong(Histogram::getTotalCount).sum();
+        }
+
+        private static long microssegundos(long nanos) {
+            return Math.min(LATENCIA_MAXIMA_US, Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos)));
+        }
+
+    }
+
+}
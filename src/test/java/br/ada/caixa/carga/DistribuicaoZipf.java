@@ -0,0 +1,52 @@
+package br.ada.caixa.carga;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sorteia posicoes de 1 a n com probabilidade proporcional a 1 / posicao^expoente, o que concentra o
+ * trafego em poucas contas "quentes" como acontece em producao. Expoente 0 equivale ao sorteio uniforme.
+ */
+class DistribuicaoZipf {
+
+    private final double[] acumulada;
+
+    DistribuicaoZipf(int n, double expoente) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("Quantidade de posicoes deve ser positiva");
+        }
+        if (expoente < 0) {
+            throw new IllegalArgumentException("Expoente nao pode ser negativo");
+        }
+        acumulada = new double[n];
+        double soma = 0;
+        for (int posicao = 1; posicao <= n; posicao++) {
+            soma += 1 / Math.pow(posicao, expoente);
+            acumulada[posicao - 1] = soma;
+        }
+    }
+
+    int sortear() {
+        return sortear(ThreadLocalRandom.current().nextDouble());
+    }
+
+    // Recebe u em [0, 1) para que o teste possa verificar a distribuicao de forma deterministica
+    int sortear(double u) {
+        final double alvo = u * acumulada[acumulada.length - 1];
+        int indice = Arrays.binarySearch(acumulada, alvo);
+        if (indice < 0) {
+            indice = -indice - 1;
+        }
+        return Math.min(indice, acumulada.length - 1) + 1;
+    }
+
+    double probabilidade(int posicao) {
+        final double anterior = posicao == 1 ? 0 : acumulada[posicao - 2];
+        return (acumulada[posicao - 1] - anterior) / acumulada[acumulada.length - 1];
+    }
+
+    int tamanho() {
+        return acumulada.length;
+    }
+
+}
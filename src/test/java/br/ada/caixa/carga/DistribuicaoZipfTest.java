@@ -0,0 +1,79 @@
+package br.ada.caixa.carga;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DistribuicaoZipfTest {
+
+    @Test
+    void sortearLimitesTest() {
+        // given
+        var distribuicao = new DistribuicaoZipf(100, 1.1);
+
+        // when
+        var primeira = distribuicao.sortear(0.0);
+        var ultima = distribuicao.sortear(Math.nextDown(1.0));
+
+        // then
+        assertEquals(1, primeira);
+        assertEquals(100, ultima);
+    }
+
+    @Test
+    void sortearConcentraNasPrimeirasPosicoesTest() {
+        // given
+        var distribuicao = new DistribuicaoZipf(1000, 1.1);
+        int[] contagem = new int[distribuicao.tamanho() + 1];
+        final int amostras = 100_000;
+
+        // when
+        for (int i = 0; i < amostras; i++) {
+            contagem[distribuicao.sortear((i + 0.5) / amostras)]++;
+        }
+
+        // then
+        assertEquals(distribuicao.probabilidade(1), contagem[1] / (double) amostras, 0.001);
+        assertTrue(contagem[1] > contagem[2]);
+        assertTrue(contagem[2] > contagem[10]);
+        assertTrue(contagem[10] > contagem[1000]);
+    }
+
+    @Test
+    void sortearUniformeComExpoenteZeroTest() {
+        // given
+        var distribuicao = new DistribuicaoZipf(4, 0);
+
+        // when / then
+        assertEquals(1, distribuicao.sortear(0.10));
+        assertEquals(2, distribuicao.sortear(0.30));
+        assertEquals(3, distribuicao.sortear(0.60));
+        assertEquals(4, distribuicao.sortear(0.90));
+        assertEquals(0.25, distribuicao.probabilidade(3), 1e-9);
+    }
+
+    @Test
+    void criarComParametrosInvalidosTest() {
+        assertThrows(IllegalArgumentException.class, () -> new DistribuicaoZipf(0, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> new DistribuicaoZipf(10, -0.5));
+    }
+
+    @Test
+    void lerMixTest() {
+        // given
+        var mix = "depositar=30, saldo=70";
+
+        // when
+        var pesos = OperacaoCarga.lerMix(mix);
+
+        // then
+        assertEquals(30, pesos.get(OperacaoCarga.DEPOSITAR));
+        assertEquals(70, pesos.get(OperacaoCarga.SALDO));
+        assertEquals(2, pesos.size());
+        assertThrows(IllegalArgumentException.class, () -> OperacaoCarga.lerMix("saldo=0"));
+        assertThrows(IllegalArgumentException.class, () -> OperacaoCarga.lerMix("resgatar=10"));
+    }
+
+}
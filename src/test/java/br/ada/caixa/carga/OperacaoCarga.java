@@ -0,0 +1,54 @@
+package br.ada.caixa.carga;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Endpoints de {@code /operacoes} exercitados pelo driver de carga.
+ */
+enum OperacaoCarga {
+
+    DEPOSITAR("POST /operacoes/depositar"),
+    SACAR("POST /operacoes/sacar"),
+    TRANSFERIR("POST /operacoes/transferir"),
+    SALDO("GET /operacoes/saldo/{numeroConta}"),
+    INVESTIR("POST /operacoes/investir");
+
+    private final String endpoint;
+
+    OperacaoCarga(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * Le um mix no formato {@code depositar=30,sacar=25,saldo=45}. Operacoes omitidas ficam com peso zero.
+     */
+    static Map<OperacaoCarga, Integer> lerMix(String mix) {
+        Map<OperacaoCarga, Integer> pesos = new EnumMap<>(OperacaoCarga.class);
+        for (String item : mix.split(",")) {
+            if (item.isBlank()) {
+                continue;
+            }
+            var partes = item.split("=");
+            if (partes.length != 2) {
+                throw new IllegalArgumentException("Item de mix invalido: " + item);
+            }
+            var operacao = valueOf(partes[0].trim().toUpperCase(Locale.ROOT));
+            int peso = Integer.parseInt(partes[1].trim());
+            if (peso < 0) {
+                throw new IllegalArgumentException("Peso negativo para " + operacao);
+            }
+            pesos.put(operacao, peso);
+        }
+        if (pesos.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("Mix sem nenhuma operacao: " + mix);
+        }
+        return pesos;
+    }
+
+}
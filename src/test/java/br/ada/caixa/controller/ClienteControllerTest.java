@@ -4,8 +4,11 @@ import br.ada.caixa.dto.request.RegistrarClientePFRequestDto;
 import br.ada.caixa.dto.request.RegistrarClientePJRequestDto;
 import br.ada.caixa.dto.response.ClienteResponseDto;
 import br.ada.caixa.dto.response.RegistrarClienteResponseDto;
+import br.ada.caixa.dto.response.ResultadoRegistroClienteDto;
 import br.ada.caixa.entity.Cliente;
+import br.ada.caixa.entity.Dinheiro;
 import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.entity.TipoConta;
 import br.ada.caixa.enums.StatusCliente;
 import br.ada.caixa.repository.ClienteRepository;
 import br.ada.caixa.repository.ContaRepository;
@@ -20,10 +23,15 @@ import org.springframework.http.HttpStatus;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -109,6 +117,47 @@ class ClienteControllerTest {
         assertEquals(0, response.getBody().length);
     }
 
+    @Test
+    void listarTodosPaginadoTest() {
+        // given
+        final var paginaUrl = url + "?tamanho=2";
+
+        // when
+        var primeira = restTemplate.getForEntity(paginaUrl, ClienteResponseDto[].class);
+        var cursor = primeira.getHeaders().getFirst(ClienteController.HEADER_PROXIMO_CURSOR);
+        var segunda = restTemplate.getForEntity(paginaUrl + "&cursor=" + cursor, ClienteResponseDto[].class);
+
+        // then
+        assertEquals(2, primeira.getBody().length);
+        assertNotNull(cursor);
+        assertEquals(1, segunda.getBody().length);
+        assertNull(segunda.getHeaders().getFirst(ClienteController.HEADER_PROXIMO_CURSOR));
+        var documentos = new HashSet<String>();
+        Stream.concat(Arrays.stream(primeira.getBody()), Arrays.stream(segunda.getBody()))
+                .forEach(cliente -> documentos.add(cliente.getDocumento()));
+        assertEquals(3, documentos.size());
+    }
+
+    @Test
+    void listarTodosPorStatusTest() {
+        // when
+        var ativos = restTemplate.getForEntity(url + "?status=ATIVO", ClienteResponseDto[].class);
+        var inativos = restTemplate.getForEntity(url + "?status=INATIVO", ClienteResponseDto[].class);
+
+        // then
+        assertEquals(3, ativos.getBody().length);
+        assertEquals(0, inativos.getBody().length);
+    }
+
+    @Test
+    void listarTodosCursorInvalidoTest() {
+        // when
+        var response = restTemplate.getForEntity(url + "?cursor=invalido", String.class);
+
+        // then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
     @Test
     void registrarPFTest() {
         // given
@@ -138,7 +187,7 @@ class ClienteControllerTest {
         assertEquals(nome, entity.get().getNome());
 
         assertNotNull(dtoResponse.getSaldoResponseDto());
-        assertEquals(BigDecimal.ZERO, dtoResponse.getSaldoResponseDto().getSaldo());
+        assertEquals(new BigDecimal("0.00"), dtoResponse.getSaldoResponseDto().getSaldo());
         assertNotNull(dtoResponse.getSaldoResponseDto().getNumeroConta());
     }
 
@@ -171,13 +220,53 @@ class ClienteControllerTest {
         assertEquals(nomeFantasia, entity.get().getNome());
     }
 
+    @Test
+    void registrarPFLoteTest() {
+        // given
+        final var clientes = List.of(
+                RegistrarClientePFRequestDto.builder().cpf("111").nome("Lote 1").dataNascimento(LocalDate.now().minusYears(30)).build(),
+                RegistrarClientePFRequestDto.builder().cpf("123456789").nome("Ja cadastrado").build(),
+                RegistrarClientePFRequestDto.builder().cpf("222").nome(" ").build(),
+                RegistrarClientePFRequestDto.builder().cpf("111").nome("Repetido").build(),
+                RegistrarClientePFRequestDto.builder().cpf("333").nome("Lote 3").build());
 
+        // when
+        var response = restTemplate.postForEntity(url + "/pf/lote", clientes, ResultadoRegistroClienteDto[].class);
 
+        // then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        var resultados = response.getBody();
+        assertEquals(5, resultados.length);
+        assertTrue(resultados[0].isSucesso());
+        assertEquals("Cliente ja cadastrado com o documento informado!", resultados[1].getErro());
+        assertEquals("Nome obrigatorio!", resultados[2].getErro());
+        assertEquals("Documento repetido no lote!", resultados[3].getErro());
+        assertTrue(resultados[4].isSucesso());
+
+        final var cliente = clienteRepository.findByDocumento("111").get();
+        assertEquals("Lote 1", cliente.getNome());
+        assertEquals(TipoCliente.PF, cliente.getTipo());
+        assertEquals(StatusCliente.ATIVO, cliente.getStatus());
+        final var conta = contaRepository.findByNumero(resultados[0].getNumeroConta()).get();
+        assertEquals(TipoConta.CONTA_CORRENTE, conta.getTipo());
+        assertEquals(Dinheiro.ZERO, conta.getSaldo());
+        assertEquals(cliente.getId(), conta.getCliente().getId());
+        assertEquals(5, clienteRepository.count());
+    }
 
+    @Test
+    void registrarPJLoteTest() {
+        // given
+        final var clientes = List.of(
+                RegistrarClientePJRequestDto.builder().cnpj("12.345.678/0001-91").nomeFantasia("Lote PJ").razaoSocial("Lote PJ LTDA").build());
 
+        // when
+        var response = restTemplate.postForEntity(url + "/pj/lote", clientes, ResultadoRegistroClienteDto[].class);
 
+        // then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody()[0].isSucesso());
+        assertEquals(TipoCliente.PJ, clienteRepository.findByDocumento("12.345.678/0001-91").get().getTipo());
+    }
 
-
-
-
-}
\ No newline at end of file
+}
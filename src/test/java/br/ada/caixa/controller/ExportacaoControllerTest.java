@@ -0,0 +1,108 @@
+package br.ada.caixa.controller;
+
+import br.ada.caixa.entity.Cliente;
+import br.ada.caixa.entity.Conta;
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.entity.TipoConta;
+import br.ada.caixa.enums.StatusCliente;
+import br.ada.caixa.repository.ClienteRepository;
+import br.ada.caixa.repository.ContaRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ExportacaoControllerTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+    @Autowired
+    private ClienteRepository clienteRepository;
+    @Autowired
+    private ContaRepository contaRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String url;
+
+    @BeforeEach
+    void setUp() {
+        url = "http://localhost:" + port + "/exportacao";
+
+        var cliente1 = Cliente.builder()
+                .documento("111.222.333-44")
+                .nome("Exportacao 1")
+                .dataNascimento(LocalDate.now())
+                .status(StatusCliente.ATIVO)
+                .tipo(TipoCliente.PF)
+                .build();
+        var cliente2 = Cliente.builder()
+                .documento("11.222.333/0001-44")
+                .nome("Exportacao 2")
+                .dataNascimento(LocalDate.now())
+                .status(StatusCliente.ATIVO)
+                .tipo(TipoCliente.PJ)
+                .build();
+        clienteRepository.saveAllAndFlush(List.of(cliente1, cliente2));
+
+        contaRepository.saveAndFlush(Conta.builder()
+                .numero(1L)
+                .saldo(Dinheiro.de(BigDecimal.TEN))
+                .tipo(TipoConta.CONTA_CORRENTE)
+                .cliente(cliente1)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        contaRepository.deleteAllInBatch();
+        clienteRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void exportarClientesTest() throws Exception {
+        // when
+        var response = restTemplate.getForEntity(url + "/clientes", String.class);
+
+        // then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(ExportacaoController.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        var linhas = response.getBody().split("\n");
+        assertEquals(2, linhas.length);
+        for (String linha : linhas) {
+            assertTrue(objectMapper.readTree(linha).hasNonNull("documento"));
+        }
+    }
+
+    @Test
+    void exportarContasTest() throws Exception {
+        // when
+        var response = restTemplate.getForEntity(url + "/contas", String.class);
+
+        // then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        var linhas = response.getBody().split("\n");
+        assertEquals(1, linhas.length);
+        var conta = objectMapper.readTree(linhas[0]);
+        assertEquals(1L, conta.get("numero").asLong());
+        assertEquals("111.222.333-44", conta.get("documentoCliente").asText());
+    }
+
+}
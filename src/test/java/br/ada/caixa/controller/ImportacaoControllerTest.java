@@ -0,0 +1,73 @@
+package br.ada.caixa.controller;
+
+import br.ada.caixa.dto.response.ProgressoImportacaoDto;
+import br.ada.caixa.repository.ClienteRepository;
+import br.ada.caixa.repository.ContaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "banco.importacao.diretorio=target/importacao-teste")
+class ImportacaoControllerTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+    @Autowired
+    private ClienteRepository clienteRepository;
+    @Autowired
+    private ContaRepository contaRepository;
+
+    private String url;
+
+    @BeforeEach
+    void setUp() {
+        url = "http://localhost:" + port + "/importacao/clientes";
+    }
+
+    @AfterEach
+    void tearDown() {
+        contaRepository.deleteAllInBatch();
+        clienteRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void importarClientesTest() {
+        // given
+        var headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("text/csv"));
+        var csv = "documento,nome,dataNascimento,tipo,saldoInicial\n"
+                + "123.456.789-01,Importado PF,1985-03-10,PF,25.00\n"
+                + "12.345.678/0001-01,Importado PJ,,PJ,0\n"
+                + ",Sem documento,,PF,0\n";
+
+        // when
+        var response = restTemplate.postForEntity(url, new HttpEntity<>(csv, headers), ProgressoImportacaoDto.class);
+        var progresso = restTemplate.getForEntity(url + "/progresso", ProgressoImportacaoDto.class);
+
+        // then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(3, response.getBody().getLinhasLidas());
+        assertEquals(2, response.getBody().getLinhasImportadas());
+        assertEquals(1, response.getBody().getLinhasRejeitadas());
+        assertTrue(clienteRepository.findByDocumento("123.456.789-01").isPresent());
+        assertEquals(response.getBody().getImportacao(), progresso.getBody().getImportacao());
+        assertFalse(progresso.getBody().isEmExecucao());
+    }
+
+}
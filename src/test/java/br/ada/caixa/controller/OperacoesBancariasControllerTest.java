@@ -7,15 +7,20 @@ import br.ada.caixa.dto.request.TransferenciaRequestDto;
 import br.ada.caixa.dto.response.SaldoResponseDto;
 import br.ada.caixa.entity.Cliente;
 import br.ada.caixa.entity.Conta;
+import br.ada.caixa.entity.Dinheiro;
 import br.ada.caixa.entity.TipoCliente;
 import br.ada.caixa.entity.TipoConta;
 import br.ada.caixa.enums.StatusCliente;
 import br.ada.caixa.exceptions.ValidacaoException;
 import br.ada.caixa.repository.ClienteRepository;
 import br.ada.caixa.repository.ContaRepository;
+import br.ada.caixa.repository.RespostaIdempotenteRepository;
+import br.ada.caixa.service.conta.ContaCache;
 import br.ada.caixa.service.conta.ContaService;
+import br.ada.caixa.service.idempotencia.ControleIdempotencia;
 import br.ada.caixa.service.operacoesbancarias.deposito.DepositoService;
 import br.ada.caixa.service.operacoesbancarias.investimento.InvestimentoService;
+import br.ada.caixa.service.operacoesbancarias.saldo.ProjecaoSaldo;
 import br.ada.caixa.service.operacoesbancarias.saldo.SaldoService;
 import br.ada.caixa.service.operacoesbancarias.saque.SaqueService;
 import br.ada.caixa.service.operacoesbancarias.transferencia.TransferenciaService;
@@ -26,10 +31,13 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 
 import java.math.BigDecimal;
@@ -41,10 +49,15 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"management.endpoints.web.exposure.include=prometheus"})
+@AutoConfigureMetrics
 @ExtendWith(MockitoExtension.class)
 class OperacoesBancariasControllerTest {
 
@@ -71,6 +84,14 @@ class OperacoesBancariasControllerTest {
     InvestimentoService investimentoService;
     @Autowired
     ContaService contaService;
+    @Autowired
+    ContaCache contaCache;
+    @Autowired
+    ProjecaoSaldo projecaoSaldo;
+    @Autowired
+    ControleIdempotencia controleIdempotencia;
+    @Autowired
+    RespostaIdempotenteRepository respostaIdempotenteRepository;
 
     private String url;
 
@@ -102,7 +123,7 @@ class OperacoesBancariasControllerTest {
         // CRIAR CONTAS
         var contaCorrente1 = Conta.builder()
                 .numero(1L)
-                .saldo(BigDecimal.ZERO)
+                .saldo(Dinheiro.ZERO)
                 .tipo(TipoConta.CONTA_CORRENTE)
                 .cliente(cliente1)
                 .createdAt(LocalDate.now())
@@ -110,7 +131,7 @@ class OperacoesBancariasControllerTest {
 
         var contaCorrente2 = Conta.builder()
                 .numero(2L)
-                .saldo(BigDecimal.valueOf(100.50))
+                .saldo(Dinheiro.de(BigDecimal.valueOf(100.50)))
                 .tipo(TipoConta.CONTA_CORRENTE)
                 .cliente(cliente2)
                 .createdAt(LocalDate.now())
@@ -122,6 +143,10 @@ class OperacoesBancariasControllerTest {
 
     @AfterEach
     void tearDown() {
+        contaCache.limpar();
+        projecaoSaldo.limpar();
+        controleIdempotencia.limpar();
+        respostaIdempotenteRepository.deleteAllInBatch();
         contaRepository.deleteAllInBatch();
         clienteRepository.deleteAllInBatch();
     }
@@ -142,9 +167,50 @@ class OperacoesBancariasControllerTest {
 
         // then
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
-        assertThat(valor.compareTo(contaRepository.findByNumero(numeroConta).get().getSaldo())).isZero();
-        // assertEquals(0, valor.compareTo(contaRepository.findByNumero(numeroConta).get().getSaldo()));
-        verify(contaRepository).save(any(Conta.class));
+        assertThat(valor.compareTo(contaRepository.findByNumero(numeroConta).get().getSaldo().paraBigDecimal())).isZero();
+        // assertEquals(0, valor.compareTo(contaRepository.findByNumero(numeroConta).get().getSaldo().paraBigDecimal()));
+        verify(contaRepository).creditar(eq(numeroConta), anyLong());
+        verify(contaRepository, never()).save(any(Conta.class));
+    }
+
+    @Test
+    void depositarRepetidoComIdempotencyKeyCreditaUmaVezTest() {
+        // given
+        var headers = new HttpHeaders();
+        headers.set(ControleIdempotencia.CABECALHO, "deposito-celular-1");
+        var requisicao = new HttpEntity<>(DepositoRequestDto.builder()
+                .numeroConta(1L)
+                .valor(BigDecimal.TEN)
+                .build(), headers);
+        var primeira = restTemplate.postForEntity(url + "/depositar", requisicao, Void.class);
+
+        // when
+        var repetida = restTemplate.postForEntity(url + "/depositar", requisicao, Void.class);
+
+        // then
+        assertThat(primeira.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(repetida.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(repetida.getHeaders().getFirst(ControleIdempotencia.CABECALHO_REPETICAO)).isEqualTo("true");
+        assertEquals(0, BigDecimal.TEN.compareTo(contaRepository.findByNumero(1L).get().getSaldo().paraBigDecimal()));
+        verify(contaRepository, times(1)).creditar(eq(1L), anyLong());
+        assertThat(respostaIdempotenteRepository.findById("deposito:deposito-celular-1")).isPresent();
+    }
+
+    @Test
+    void depositarComIdempotencyKeyReutilizadaTest() {
+        // given
+        var headers = new HttpHeaders();
+        headers.set(ControleIdempotencia.CABECALHO, "deposito-celular-2");
+        restTemplate.postForEntity(url + "/depositar",
+                new HttpEntity<>(DepositoRequestDto.builder().numeroConta(1L).valor(BigDecimal.TEN).build(), headers), Void.class);
+
+        // when
+        var response = restTemplate.postForEntity(url + "/depositar",
+                new HttpEntity<>(DepositoRequestDto.builder().numeroConta(1L).valor(BigDecimal.ONE).build(), headers), String.class);
+
+        // then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertEquals(0, BigDecimal.TEN.compareTo(contaRepository.findByNumero(1L).get().getSaldo().paraBigDecimal()));
     }
 
     @Test
@@ -163,8 +229,26 @@ class OperacoesBancariasControllerTest {
 
         // then
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
-        assertEquals(0, BigDecimal.ZERO.compareTo(contaRepository.findByNumero(numeroConta).get().getSaldo()));
-        verify(contaRepository).save(any(Conta.class));
+        assertEquals(0, BigDecimal.ZERO.compareTo(contaRepository.findByNumero(numeroConta).get().getSaldo().paraBigDecimal()));
+        verify(contaRepository).debitar(eq(numeroConta), anyLong());
+        verify(contaRepository, never()).save(any(Conta.class));
+    }
+
+    @Test
+    void sacarContaInexistenteTest() {
+        // given
+        SaqueRequestDto saqueRequestDto =
+                SaqueRequestDto.builder()
+                        .numeroConta(99L)
+                        .valor(BigDecimal.ONE)
+                        .build();
+
+        // when
+        var response = restTemplate.postForEntity(url + "/sacar", saqueRequestDto, String.class);
+
+        // then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verify(contaRepository, never()).debitar(eq(99L), anyLong());
     }
 
     @Test
@@ -185,9 +269,11 @@ class OperacoesBancariasControllerTest {
 
         // then
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
-        assertEquals(0, valor.compareTo(contaRepository.findByNumero(numeroContaDestino).get().getSaldo()));
-        assertEquals(0, BigDecimal.ZERO.compareTo(contaRepository.findByNumero(numeroContaOrigem).get().getSaldo()));
-        verify(contaRepository, times(2)).save(any(Conta.class));
+        assertEquals(0, valor.compareTo(contaRepository.findByNumero(numeroContaDestino).get().getSaldo().paraBigDecimal()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(contaRepository.findByNumero(numeroContaOrigem).get().getSaldo().paraBigDecimal()));
+        verify(contaRepository).debitar(eq(numeroContaOrigem), anyLong());
+        verify(contaRepository).creditar(eq(numeroContaDestino), anyLong());
+        verify(contaRepository, never()).save(any(Conta.class));
     }
 
     @Test
@@ -206,6 +292,53 @@ class OperacoesBancariasControllerTest {
         assertEquals(numeroConta, response.getBody().getNumeroConta());
     }
 
+    @Test
+    void consultarSaldoDepoisDeDepositoTest() {
+        // given
+        final var numeroConta = 2L;
+        restTemplate.getForEntity(url + "/saldo/" + numeroConta, SaldoResponseDto.class);
+        var depositoRequestDto = DepositoRequestDto.builder()
+                .numeroConta(numeroConta)
+                .valor(BigDecimal.TEN)
+                .build();
+        restTemplate.postForEntity(url + "/depositar", depositoRequestDto, Void.class);
+
+        // when
+        var response = restTemplate.getForEntity(url + "/saldo/" + numeroConta, SaldoResponseDto.class);
+
+        // then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertEquals(0, BigDecimal.valueOf(110.50).compareTo(response.getBody().getSaldo()));
+        assertEquals(0, BigDecimal.valueOf(110.50).compareTo(projecaoSaldo.saldo(numeroConta).get()));
+    }
+
+    @Test
+    void metricasPrometheusTest() {
+        // given
+        var depositoRequestDto = DepositoRequestDto.builder()
+                .numeroConta(1L)
+                .valor(BigDecimal.TEN)
+                .build();
+        var saqueRequestDto = SaqueRequestDto.builder()
+                .numeroConta(1L)
+                .valor(BigDecimal.valueOf(1000))
+                .build();
+        restTemplate.postForEntity(url + "/depositar", depositoRequestDto, Void.class);
+        restTemplate.postForEntity(url + "/sacar", saqueRequestDto, Void.class);
+
+        // when
+        var response = restTemplate.getForEntity("http://localhost:" + port + "/actuator/prometheus", String.class);
+
+        // then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody())
+                .contains("banco_operacoes_latencia_seconds_count{operacao=\"deposito\",resultado=\"sucesso\",}")
+                .contains("banco_operacoes_latencia_seconds_count{operacao=\"saque\",resultado=\"saldo_insuficiente\",}")
+                .contains("banco_operacoes_latencia_seconds_bucket{operacao=\"deposito\",resultado=\"sucesso\",")
+                .contains("banco_operacoes_valor_reais_sum{operacao=\"deposito\",}")
+                .contains("banco_operacoes_em_andamento{operacao=\"deposito\",}");
+    }
+
     @Test
     void investirTest() {
         // given
@@ -236,6 +369,6 @@ class OperacoesBancariasControllerTest {
         // then
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         var poupanca = contaRepository.findContasByClienteAndTipo(cliente, TipoConta.CONTA_POUPANCA).get(contas);
-        assertEquals(0, BigDecimal.ZERO.compareTo(poupanca.getSaldo()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(poupanca.getSaldo().paraBigDecimal()));
     }
 }
\ No newline at end of file
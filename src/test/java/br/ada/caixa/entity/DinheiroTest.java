@@ -0,0 +1,92 @@
+package br.ada.caixa.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DinheiroTest {
+
+    @Test
+    void deArredondaParaCentavoComHalfUpTest() {
+        // when
+        // then
+        assertEquals(10_001L, Dinheiro.de(new BigDecimal("100.005")).getCentavos());
+        assertEquals(10_000L, Dinheiro.de(new BigDecimal("100.0049")).getCentavos());
+        assertEquals(-10_001L, Dinheiro.de(new BigDecimal("-100.005")).getCentavos());
+        assertEquals(10_000L, Dinheiro.de(new BigDecimal("1E+2")).getCentavos());
+        assertSame(Dinheiro.ZERO, Dinheiro.de(new BigDecimal("0.004")));
+        assertNull(Dinheiro.de(null));
+    }
+
+    @Test
+    void multiplicarPorTaxaEmPontoFixoTest() {
+        // given
+        var valor = Dinheiro.de(new BigDecimal("123.45"));
+
+        // when
+        var actual = valor.multiplicar(1005, 3);
+
+        // then
+        // 123,45 * 1,005 = 124,06725
+        assertEquals(Dinheiro.de(new BigDecimal("124.07")), actual);
+        // meio centavo negativo vai para longe do zero, como em BigDecimal HALF_UP
+        assertEquals(-2L, Dinheiro.deCentavos(-1).multiplicar(15, 1).getCentavos());
+    }
+
+    @Test
+    void multiplicarIgualAoBigDecimalArredondadoTest() {
+        // given
+        var taxa = new BigDecimal("1.01000000");
+
+        // when
+        // then
+        for (long centavos = -100_000; centavos <= 100_000; centavos += 37) {
+            var esperado = BigDecimal.valueOf(centavos, 2).multiply(taxa).setScale(2, RoundingMode.HALF_UP);
+            assertEquals(esperado, Dinheiro.deCentavos(centavos).multiplicar(taxa).paraBigDecimal(), "centavos " + centavos);
+        }
+    }
+
+    @Test
+    void multiplicarSemTransbordarNoLongTest() {
+        // given
+        var valor = Dinheiro.deCentavos(Long.MAX_VALUE / 10);
+
+        // when
+        var actual = valor.multiplicar(new BigDecimal("1.5"));
+
+        // then
+        assertEquals(new BigDecimal(Long.MAX_VALUE / 10).multiply(new BigDecimal("1.5"))
+                .setScale(0, RoundingMode.HALF_UP).longValueExact(), actual.getCentavos());
+        assertThrows(ArithmeticException.class, () -> Dinheiro.deCentavos(Long.MAX_VALUE).multiplicar(2, 0));
+    }
+
+    @Test
+    void somarESubtrairSaoExatosTest() {
+        // given
+        var saldo = Dinheiro.de(new BigDecimal("0.10"));
+
+        // when
+        var actual = saldo.somar(Dinheiro.de(new BigDecimal("0.20"))).subtrair(Dinheiro.de(new BigDecimal("0.30")));
+
+        // then
+        assertTrue(actual.isZero());
+        assertThrows(ArithmeticException.class, () -> Dinheiro.deCentavos(Long.MAX_VALUE).somar(Dinheiro.deCentavos(1)));
+    }
+
+    @Test
+    void paraBigDecimalSempreComDuasCasasTest() {
+        // when
+        // then
+        assertEquals(new BigDecimal("0.00"), Dinheiro.ZERO.paraBigDecimal());
+        assertEquals(new BigDecimal("-12.30"), Dinheiro.deCentavos(-1230).paraBigDecimal());
+        assertEquals("-12.30", Dinheiro.deCentavos(-1230).toString());
+    }
+
+}
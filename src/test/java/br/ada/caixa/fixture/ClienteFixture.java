@@ -0,0 +1,27 @@
+package br.ada.caixa.fixture;
+
+import br.ada.caixa.entity.Cliente;
+import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.enums.StatusCliente;
+
+import java.time.LocalDate;
+
+/**
+ * Clientes ativos prontos para salvar nos testes que montam contas direto no repositorio.
+ */
+public final class ClienteFixture {
+
+    private ClienteFixture() {
+    }
+
+    public static Cliente cliente(String documento, TipoCliente tipoCliente) {
+        return Cliente.builder()
+                .documento(documento)
+                .nome("Cliente " + tipoCliente)
+                .dataNascimento(LocalDate.now())
+                .status(StatusCliente.ATIVO)
+                .tipo(tipoCliente)
+                .build();
+    }
+
+}
@@ -0,0 +1,44 @@
+package br.ada.caixa.fixture;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+/**
+ * Roda um trecho com as sincronizacoes de transacao do Spring ativas e dispara o commit ou o rollback,
+ * sem banco.
+ */
+public final class TransacaoFixture {
+
+    private TransacaoFixture() {
+    }
+
+    public static void confirmar(Runnable operacao) {
+        executar(operacao, true);
+    }
+
+    public static void desfazer(Runnable operacao) {
+        executar(operacao, false);
+    }
+
+    private static void executar(Runnable operacao, boolean commit) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            try {
+                operacao.run();
+                if (commit) {
+                    TransactionSynchronizationUtils.triggerBeforeCommit(false);
+                }
+            } catch (RuntimeException e) {
+                TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+                throw e;
+            }
+            TransactionSynchronizationUtils.triggerAfterCompletion(commit
+                    ? TransactionSynchronization.STATUS_COMMITTED
+                    : TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+}
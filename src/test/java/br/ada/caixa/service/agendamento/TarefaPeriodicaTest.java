@@ -0,0 +1,70 @@
+package br.ada.caixa.service.agendamento;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TarefaPeriodicaTest {
+
+    private final AtomicInteger execucoes = new AtomicInteger();
+    private TarefaPeriodica sut;
+
+    @AfterEach
+    void tearDown() {
+        sut.parar();
+    }
+
+    @Test
+    void iniciarContinuaDepoisDeUmaFalhaTest() throws InterruptedException {
+        // given
+        sut = new TarefaPeriodica("teste", () -> {
+            if (execucoes.incrementAndGet() == 1) {
+                throw new IllegalStateException("falha na primeira execucao");
+            }
+        });
+
+        // when
+        sut.iniciar(Duration.ofMillis(5));
+
+        // then
+        final long limite = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (execucoes.get() < 3) {
+            assertTrue(System.nanoTime() < limite, "tarefa parou depois da falha");
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void iniciarComIntervaloZeroNaoAgendaTest() {
+        // given
+        sut = new TarefaPeriodica("teste", execucoes::incrementAndGet);
+
+        // when
+        sut.iniciar(Duration.ZERO);
+
+        // then
+        assertFalse(sut.isAgendada());
+        assertEquals(0, execucoes.get());
+    }
+
+    @Test
+    void pararCancelaAsProximasExecucoesTest() {
+        // given
+        sut = new TarefaPeriodica("teste", execucoes::incrementAndGet);
+        sut.iniciar(Duration.ofHours(1));
+
+        // when
+        sut.parar();
+
+        // then
+        assertFalse(sut.isAgendada());
+        assertEquals(0, execucoes.get());
+    }
+
+}
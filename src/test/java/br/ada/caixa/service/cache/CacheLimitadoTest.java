@@ -0,0 +1,73 @@
+package br.ada.caixa.service.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CacheLimitadoTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong relogio = new AtomicLong();
+    private final CacheLimitado<Long, String> sut =
+            new CacheLimitado<>("teste", 10, Duration.ofSeconds(1), meterRegistry, relogio::get);
+
+    @Test
+    void obterCarregaUmaVezEContaAcertosEFalhasTest() {
+        // given
+        AtomicInteger carregamentos = new AtomicInteger();
+
+        // when
+        sut.obter(1L, chave -> "conta " + carregamentos.incrementAndGet());
+        Optional<String> actual = sut.obter(1L, chave -> "conta " + carregamentos.incrementAndGet());
+
+        // then
+        assertEquals(Optional.of("conta 1"), actual);
+        assertEquals(1, carregamentos.get());
+        assertEquals(1.0, meterRegistry.get("banco.cache.acessos").tag("resultado", "acerto").counter().count());
+        assertEquals(1.0, meterRegistry.get("banco.cache.acessos").tag("resultado", "falha").counter().count());
+    }
+
+    @Test
+    void obterNaoGuardaCarregamentoNuloTest() {
+        // when
+        sut.obter(1L, chave -> null);
+
+        // then
+        assertEquals(0, sut.tamanho());
+    }
+
+    @Test
+    void obterDepoisDoTtlExpiraTest() {
+        // given
+        sut.colocar(1L, "conta");
+
+        // when
+        relogio.addAndGet(Duration.ofSeconds(1).toNanos());
+
+        // then
+        assertTrue(sut.obter(1L).isEmpty());
+        assertEquals(0, sut.tamanho());
+    }
+
+    @Test
+    void colocarAlemDoLimiteRemoveAsMaisAntigasTest() {
+        // when
+        for (long chave = 1; chave <= 11; chave++) {
+            relogio.incrementAndGet();
+            sut.colocar(chave, "conta " + chave);
+        }
+
+        // then
+        assertTrue(sut.tamanho() <= 10);
+        assertTrue(sut.obter(1L).isEmpty());
+        assertEquals(Optional.of("conta 11"), sut.obter(11L));
+    }
+
+}
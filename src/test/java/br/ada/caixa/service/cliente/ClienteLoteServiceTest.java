@@ -0,0 +1,206 @@
+package br.ada.caixa.service.cliente;
+
+import br.ada.caixa.dto.request.RegistrarClientePFRequestDto;
+import br.ada.caixa.dto.response.ResultadoRegistroClienteDto;
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.repository.ClienteRepository;
+import br.ada.caixa.repository.ContaRepository;
+import br.ada.caixa.service.conta.ContaCache;
+import br.ada.caixa.service.conta.GeradorNumeroConta;
+import br.ada.caixa.service.journal.JournalLancamentos;
+import br.ada.caixa.service.operacoesbancarias.saldo.SaldoPublicador;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ClienteLoteServiceTest {
+
+    private final ClienteRepository clienteRepository = mock(ClienteRepository.class);
+    private final GeradorNumeroConta geradorNumeroConta = mock(GeradorNumeroConta.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SaldoPublicador saldoPublicador = mock(SaldoPublicador.class);
+    private final ClienteMapper clienteMapper = new ClienteMapper();
+    private final ClienteService clienteService = new ClienteService(clienteRepository, mock(ContaRepository.class),
+            clienteMapper, geradorNumeroConta, mock(ContaCache.class));
+
+    private final ClienteLoteService sut = new ClienteLoteService(
+            clienteService,
+            clienteMapper,
+            clienteRepository,
+            geradorNumeroConta,
+            jdbcTemplate,
+            mock(PlatformTransactionManager.class),
+            saldoPublicador,
+            mock(JournalLancamentos.class),
+            2);
+
+    private static RegistrarClientePFRequestDto pf(String cpf, String nome) {
+        return RegistrarClientePFRequestDto.builder()
+                .cpf(cpf)
+                .nome(nome)
+                .dataNascimento(LocalDate.of(1990, 1, 1))
+                .build();
+    }
+
+    @Test
+    void registrarPFTest() {
+        // given
+        given(clienteRepository.findDocumentosExistentes(anyCollection())).willReturn(List.of("2"));
+        given(geradorNumeroConta.proximo()).willReturn(10L, 11L);
+
+        // when
+        List<ResultadoRegistroClienteDto> actual = sut.registrarPF(List.of(
+                pf("1", "Um"), pf("2", "Dois"), pf("3", "Tres"), pf("1", "Um de novo"), pf("", "Sem documento")));
+
+        // then
+        assertEquals(5, actual.size());
+        assertTrue(actual.get(0).isSucesso());
+        assertEquals(10L, actual.get(0).getNumeroConta());
+        assertEquals("Cliente ja cadastrado com o documento informado!", actual.get(1).getErro());
+        assertNull(actual.get(1).getNumeroConta());
+        assertTrue(actual.get(2).isSucesso());
+        assertEquals(11L, actual.get(2).getNumeroConta());
+        assertEquals("Documento repetido no lote!", actual.get(3).getErro());
+        assertEquals("Documento obrigatorio!", actual.get(4).getErro());
+        for (int i = 0; i < actual.size(); i++) {
+            assertEquals(i, actual.get(i).getIndice());
+        }
+    }
+
+    @Test
+    void registrarGravaCadaBlocoComBatchTest() {
+        // given
+        given(geradorNumeroConta.proximo()).willReturn(10L, 11L, 12L);
+
+        // when
+        sut.registrarPF(List.of(pf("1", "Um"), pf("2", "Dois"), pf("3", "Tres")));
+
+        // then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> clientes = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith("insert into cliente"), clientes.capture());
+        assertEquals(2, clientes.getAllValues().get(0).size());
+        assertEquals(1, clientes.getAllValues().get(1).size());
+        assertEquals("PF", clientes.getAllValues().get(0).get(0)[5]);
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith("insert into conta"), anyList());
+    }
+
+    @Test
+    void registrarComItensPorTransacaoGravaOLoteNumBlocoTest() {
+        // given
+        given(geradorNumeroConta.proximo()).willReturn(10L, 11L, 12L);
+        var clientes = List.of(
+                ClienteService.novo(clienteMapper.paraCliente(pf("1", "Um")), TipoCliente.PF),
+                ClienteService.novo(clienteMapper.paraCliente(pf("2", "Dois")), TipoCliente.PF),
+                ClienteService.novo(clienteMapper.paraCliente(pf("3", "Tres")), TipoCliente.PF));
+
+        // when
+        sut.registrar(clientes, null, clientes.size());
+
+        // then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> gravados = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("insert into cliente"), gravados.capture());
+        assertEquals(3, gravados.getValue().size());
+    }
+
+    @Test
+    void registrarComSaldoInicialTest() {
+        // given
+        given(geradorNumeroConta.proximo()).willReturn(10L, 11L);
+        var clientes = List.of(
+                ClienteService.novo(clienteMapper.paraCliente(pf("1", "Um")), TipoCliente.PF),
+                ClienteService.novo(clienteMapper.paraCliente(pf("2", "Dois")), TipoCliente.PF));
+
+        // when
+        sut.registrar(clientes, List.of(Dinheiro.de(new BigDecimal("150.25")), Dinheiro.ZERO));
+
+        // then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> contas = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("insert into conta"), contas.capture());
+        assertEquals(15025L, contas.getValue().get(0)[2]);
+        assertEquals(0L, contas.getValue().get(1)[2]);
+        verify(saldoPublicador).publicar(List.of(10L));
+    }
+
+    @Test
+    void registrarSemLinhasValidasNaoGravaTest() {
+        // given
+        var nascidoAmanha = pf("2", "Dois");
+        nascidoAmanha.setDataNascimento(LocalDate.now().plusDays(1));
+
+        // when
+        var actual = sut.registrarPF(List.of(pf("1", null), nascidoAmanha));
+
+        // then
+        assertEquals("Nome obrigatorio!", actual.get(0).getErro());
+        assertEquals("Data de nascimento no futuro!", actual.get(1).getErro());
+        assertFalse(actual.get(1).isSucesso());
+        verify(clienteRepository, never()).findDocumentosExistentes(anyCollection());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void registrarRepeteBlocoQuandoDocumentoEGravadoConcorrentementeTest() {
+        // given
+        given(clienteRepository.findDocumentosExistentes(anyCollection())).willReturn(List.of(), List.of("1"));
+        given(geradorNumeroConta.proximo()).willReturn(10L, 11L, 12L);
+        given(jdbcTemplate.batchUpdate(startsWith("insert into cliente"), anyList()))
+                .willThrow(new DuplicateKeyException("documento"))
+                .willReturn(new int[]{1});
+
+        // when
+        var actual = sut.registrarPF(List.of(pf("1", "Um"), pf("2", "Dois")));
+
+        // then
+        assertEquals("Cliente ja cadastrado com o documento informado!", actual.get(0).getErro());
+        assertTrue(actual.get(1).isSucesso());
+        assertEquals(12L, actual.get(1).getNumeroConta());
+    }
+
+    @Test
+    void registrarRecusaSoOBlocoQueConflitaDuasVezesTest() {
+        // given
+        given(clienteRepository.findDocumentosExistentes(anyCollection())).willReturn(List.of());
+        given(geradorNumeroConta.proximo()).willReturn(10L, 11L, 12L, 13L, 14L, 15L);
+        given(jdbcTemplate.batchUpdate(startsWith("insert into cliente"), anyList()))
+                .willThrow(new DuplicateKeyException("documento"))
+                .willThrow(new DuplicateKeyException("documento"))
+                .willReturn(new int[]{1, 1});
+
+        // when
+        var actual = sut.registrarPF(List.of(pf("1", "Um"), pf("2", "Dois"), pf("3", "Tres"), pf("", "Sem documento")));
+
+        // then
+        assertEquals(4, actual.size());
+        assertFalse(actual.get(0).isSucesso());
+        assertNull(actual.get(0).getNumeroConta());
+        assertEquals("Documento gravado concorrentemente, tente novamente!", actual.get(1).getErro());
+        assertTrue(actual.get(2).isSucesso());
+        assertEquals(2, actual.get(2).getIndice());
+        assertEquals("Documento obrigatorio!", actual.get(3).getErro());
+    }
+
+}
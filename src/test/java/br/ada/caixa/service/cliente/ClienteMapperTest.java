@@ -0,0 +1,101 @@
+package br.ada.caixa.service.cliente;
+
+import br.ada.caixa.config.AppConfiguration;
+import br.ada.caixa.dto.request.RegistrarClientePFRequestDto;
+import br.ada.caixa.dto.request.RegistrarClientePJRequestDto;
+import br.ada.caixa.dto.response.ClientePFResponseDto;
+import br.ada.caixa.dto.response.ClientePJResponseDto;
+import br.ada.caixa.dto.response.ClienteResponseDto;
+import br.ada.caixa.entity.Cliente;
+import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.enums.StatusCliente;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Garante que o mapper escrito a mao produz o mesmo resultado que o ModelMapper configurado.
+ */
+class ClienteMapperTest {
+
+    private final ModelMapper modelMapper = new AppConfiguration().getModelMapper();
+    private final ClienteMapper sut = new ClienteMapper();
+
+    private final Cliente cliente = Cliente.builder()
+            .id(UUID.randomUUID())
+            .documento("123.456.789-00")
+            .nome("Cliente Mapper")
+            .dataNascimento(LocalDate.of(1990, 1, 2))
+            .status(StatusCliente.ATIVO)
+            .tipo(TipoCliente.PF)
+            .createdAt(LocalDate.now())
+            .build();
+
+    @Test
+    void paraClientePFTest() {
+        // given
+        var dto = new RegistrarClientePFRequestDto("123.456.789-00", "Cliente PF", LocalDate.of(1990, 1, 2));
+
+        // when
+        var actual = sut.paraCliente(dto);
+
+        // then
+        assertEquals(modelMapper.map(dto, Cliente.class), actual);
+    }
+
+    @Test
+    void paraClientePJTest() {
+        // given
+        var dto = new RegistrarClientePJRequestDto("12.345.678/0001-90", "Fantasia", "Razao Social");
+
+        // when
+        var actual = sut.paraCliente(dto);
+
+        // then
+        assertEquals(modelMapper.map(dto, Cliente.class), actual);
+    }
+
+    @Test
+    void paraResponseTest() {
+        // when
+        var actual = sut.paraResponse(cliente);
+
+        // then
+        var expected = modelMapper.map(cliente, ClienteResponseDto.class);
+        assertEquals(expected.getDocumento(), actual.getDocumento());
+        assertEquals(expected.getTipo(), actual.getTipo());
+    }
+
+    @Test
+    void paraClientePFResponseTest() {
+        // when
+        var actual = sut.paraClientePFResponse(cliente);
+
+        // then
+        var expected = modelMapper.map(cliente, ClientePFResponseDto.class);
+        assertEquals(expected.getCpf(), actual.getCpf());
+        assertEquals(expected.getNome(), actual.getNome());
+        assertEquals(expected.getDataNascimento(), actual.getDataNascimento());
+        assertEquals(expected.getContas(), actual.getContas());
+    }
+
+    @Test
+    void paraClientePJResponseTest() {
+        // given
+        cliente.setTipo(TipoCliente.PJ);
+
+        // when
+        var actual = sut.paraClientePJResponse(cliente);
+
+        // then
+        var expected = modelMapper.map(cliente, ClientePJResponseDto.class);
+        assertEquals(expected.getCnpj(), actual.getCnpj());
+        assertEquals(expected.getNomeFantasia(), actual.getNomeFantasia());
+        assertEquals(expected.getRazaoSocial(), actual.getRazaoSocial());
+    }
+
+}
@@ -6,17 +6,23 @@ import br.ada.caixa.dto.response.ClienteResponseDto;
 import br.ada.caixa.dto.response.RegistrarClienteResponseDto;
 import br.ada.caixa.entity.Cliente;
 import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.exceptions.ValidacaoException;
 import br.ada.caixa.repository.ClienteRepository;
 import br.ada.caixa.repository.ContaRepository;
+import br.ada.caixa.service.conta.ContaCache;
+import br.ada.caixa.service.conta.GeradorNumeroConta;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.NullSource;
-import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 import static org.mockito.Mockito.mock;
 import static org.mockito.BDDMockito.given;
@@ -25,8 +31,10 @@ import static org.junit.jupiter.api.Assertions.*;
 class ClienteServiceTest {
     private final ClienteRepository clienteRepository = mock(ClienteRepository.class);
     private final ContaRepository contaRepository = mock(ContaRepository.class);
-    private final ModelMapper modelMapper = mock(ModelMapper.class);
-    private ClienteService sut = new ClienteService(clienteRepository, contaRepository, modelMapper);
+    private final ClienteMapper clienteMapper = mock(ClienteMapper.class);
+    private final GeradorNumeroConta geradorNumeroConta = mock(GeradorNumeroConta.class);
+    private final ContaCache contaCache = mock(ContaCache.class);
+    private ClienteService sut = new ClienteService(clienteRepository, contaRepository, clienteMapper, geradorNumeroConta, contaCache);
 
     @ParameterizedTest
     @NullSource
@@ -40,8 +48,8 @@ class ClienteServiceTest {
         ClienteResponseDto clientePFDto = new ClienteResponseDto();
         ClienteResponseDto clientePJDto = new ClienteResponseDto();
         List<ClienteResponseDto> expected = new ArrayList<ClienteResponseDto>();
-        given(modelMapper.map(clientePF, ClienteResponseDto.class)).willReturn(clientePFDto);
-        given(modelMapper.map(clientePJ, ClienteResponseDto.class)).willReturn(clientePJDto);
+        given(clienteMapper.paraResponse(clientePF)).willReturn(clientePFDto);
+        given(clienteMapper.paraResponse(clientePJ)).willReturn(clientePJDto);
         if (tipoCliente == null) {
             given(clienteRepository.findAll())
                     .willReturn(List.of(clientePF, clientePJ));
@@ -78,8 +86,9 @@ class ClienteServiceTest {
                 .tipo(TipoCliente.PF)
                 .build();
         RegistrarClientePFRequestDto entrada = mock(RegistrarClientePFRequestDto.class);
-        given(modelMapper.map(entrada, Cliente.class)).willReturn(cliente);
+        given(clienteMapper.paraCliente(entrada)).willReturn(cliente);
         given(clienteRepository.save(cliente)).willReturn(cliente);
+        given(geradorNumeroConta.proximo()).willReturn(1000L);
 
         // when
         RegistrarClienteResponseDto response = sut.registrarPF(entrada);
@@ -88,7 +97,7 @@ class ClienteServiceTest {
         // then
         assertEquals(expected, actual);
         assertNotNull(response.getSaldoResponseDto().getNumeroConta());
-        assertEquals(BigDecimal.ZERO, response.getSaldoResponseDto().getSaldo());
+        assertEquals(new BigDecimal("0.00"), response.getSaldoResponseDto().getSaldo());
     }
 
     @Test
@@ -100,8 +109,9 @@ class ClienteServiceTest {
                 .tipo(TipoCliente.PJ)
                 .build();
         RegistrarClientePJRequestDto entrada = mock(RegistrarClientePJRequestDto.class);
-        given(modelMapper.map(entrada, Cliente.class)).willReturn(cliente);
+        given(clienteMapper.paraCliente(entrada)).willReturn(cliente);
         given(clienteRepository.save(cliente)).willReturn(cliente);
+        given(geradorNumeroConta.proximo()).willReturn(1000L);
 
         // when
         RegistrarClienteResponseDto response = sut.registrarPJ(entrada);
@@ -110,6 +120,33 @@ class ClienteServiceTest {
         // then
         assertEquals(expected, actual);
         assertNotNull(response.getSaldoResponseDto().getNumeroConta());
-        assertEquals(BigDecimal.ZERO, response.getSaldoResponseDto().getSaldo());
+        assertEquals(new BigDecimal("0.00"), response.getSaldoResponseDto().getSaldo());
     }
-}
\ No newline at end of file
+
+    @Test
+    void listarPaginaRetornaCursorQuandoHaProximaTest() {
+        // given
+        Cliente cliente = Cliente.builder()
+                .id(UUID.randomUUID())
+                .createdAt(LocalDate.now())
+                .tipo(TipoCliente.PF)
+                .build();
+        given(clienteMapper.paraResponse(cliente)).willReturn(new ClienteResponseDto());
+        given(clienteRepository.buscarPagina(null, null, null, null, 1))
+                .willReturn(new SliceImpl<>(List.of(cliente), PageRequest.of(0, 1), true));
+
+        // when
+        var actual = sut.listarPagina(null, null, null, 1);
+
+        // then
+        assertEquals(1, actual.getClientes().size());
+        assertEquals(CursorCliente.de(cliente), CursorCliente.decodificar(actual.getProximoCursor()));
+    }
+
+    @Test
+    void listarPaginaTamanhoInvalidoTest() {
+        // then
+        assertThrows(ValidacaoException.class,
+                () -> sut.listarPagina(null, null, null, ClienteService.TAMANHO_MAXIMO_PAGINA + 1));
+    }
+}
@@ -2,6 +2,7 @@ package br.ada.caixa.service.conta;
 
 import br.ada.caixa.entity.Cliente;
 import br.ada.caixa.entity.Conta;
+import br.ada.caixa.entity.Dinheiro;
 import br.ada.caixa.entity.TipoCliente;
 import br.ada.caixa.exceptions.ValidacaoException;
 import br.ada.caixa.repository.ClienteRepository;
@@ -23,7 +24,9 @@ import static org.mockito.Mockito.mock;
 class ContaServiceTest {
     private ContaRepository contaRepository = mock(ContaRepository.class);
     private ClienteRepository clienteRepository = mock(ClienteRepository.class);
-    private ContaService sut = new ContaService(contaRepository, clienteRepository);
+    private GeradorNumeroConta geradorNumeroConta = mock(GeradorNumeroConta.class);
+    private ContaCache contaCache = mock(ContaCache.class);
+    private ContaService sut = new ContaService(contaRepository, clienteRepository, geradorNumeroConta, contaCache);
 
     @Test
     void abrirContaPoupancaTest() {
@@ -57,4 +60,15 @@ class ContaServiceTest {
         // then
         assertThrows(ValidacaoException.class, () -> sut.abrirContaPoupanca(cnpj));
     }
-}
\ No newline at end of file
+
+    @Test
+    void validarSaldoInicialTest() {
+        // when
+        // then
+        assertDoesNotThrow(() -> sut.validarSaldoInicial(Dinheiro.ZERO));
+        assertDoesNotThrow(() -> sut.validarSaldoInicial(Dinheiro.deCentavos(1)));
+        assertThrows(ValidacaoException.class, () -> sut.validarSaldoInicial(Dinheiro.deCentavos(-1)));
+        assertThrows(ValidacaoException.class, () -> sut.validarSaldoInicial(null));
+    }
+
+}
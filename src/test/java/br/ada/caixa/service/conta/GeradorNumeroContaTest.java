@@ -0,0 +1,103 @@
+package br.ada.caixa.service.conta;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class GeradorNumeroContaTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Test
+    void proximoReservaUmBlocoPorTamanhoTest() {
+        // given
+        given(jdbcTemplate.queryForObject(anyString(), eq(Long.class)))
+                .willAnswer(invocation -> sequence.incrementAndGet());
+        var sut = new GeradorNumeroConta(jdbcTemplate, 10, false);
+
+        // when
+        List<Long> numeros = List.of(sut.proximo(), sut.proximo(), sut.proximo());
+        for (int i = 0; i < 10; i++) {
+            sut.proximo();
+        }
+
+        // then
+        assertEquals(List.of(10L, 11L, 12L), numeros);
+        verify(jdbcTemplate, times(2)).queryForObject(anyString(), eq(Long.class));
+    }
+
+    @Test
+    void proximoConcorrenteNaoRepeteNumerosTest() throws Exception {
+        // given
+        given(jdbcTemplate.queryForObject(anyString(), eq(Long.class)))
+                .willAnswer(invocation -> sequence.incrementAndGet());
+        var sut = new GeradorNumeroConta(jdbcTemplate, 64, true);
+        final int threads = 8;
+        final int porThread = 5_000;
+        Set<Long> numeros = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch largada = new CountDownLatch(1);
+
+        // when
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    largada.await();
+                    for (int i = 0; i < porThread; i++) {
+                        numeros.add(sut.proximo());
+                    }
+                    return null;
+                }));
+            }
+            largada.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // then
+        assertEquals(threads * porThread, numeros.size());
+        assertTrue(numeros.stream().allMatch(numero -> numero > 0));
+    }
+
+    @Test
+    void embaralharEhBijetoraTest() {
+        // given
+        Set<Long> embaralhados = new HashSet<>();
+
+        // when
+        for (long sequencial = 1; sequencial <= 100_000; sequencial++) {
+            embaralhados.add(GeradorNumeroConta.embaralhar(sequencial));
+        }
+        embaralhados.add(GeradorNumeroConta.embaralhar(Long.MAX_VALUE));
+
+        // then
+        assertEquals(100_001, embaralhados.size());
+        assertTrue(embaralhados.stream().allMatch(numero -> numero > 0));
+    }
+
+}
@@ -0,0 +1,296 @@
+package br.ada.caixa.service.idempotencia;
+
+import br.ada.caixa.dto.request.DepositoRequestDto;
+import br.ada.caixa.dto.response.SaldoResponseDto;
+import br.ada.caixa.entity.RespostaIdempotente;
+import br.ada.caixa.exceptions.ChaveIdempotenciaReutilizadaException;
+import br.ada.caixa.exceptions.RequisicaoEmAndamentoException;
+import br.ada.caixa.exceptions.SaldoInsuficienteException;
+import br.ada.caixa.exceptions.ValidacaoException;
+import br.ada.caixa.repository.RespostaIdempotenteRepository;
+import br.ada.caixa.service.retry.RetryExecutor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class ControleIdempotenciaTest {
+
+    private final RespostaIdempotenteRepository repository = mock(RespostaIdempotenteRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final ControleIdempotencia sut = new ControleIdempotencia(repository, objectMapper, meterRegistry,
+            transactionManager, new RetryExecutor(meterRegistry, 1, 0, 0),
+            100, Duration.ofHours(1), Duration.ZERO);
+    private final AtomicInteger execucoes = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        given(transactionManager.getTransaction(any())).willReturn(new SimpleTransactionStatus());
+    }
+
+    @Test
+    void executarRepeteRespostaSemExecutarDeNovoTest() {
+        // given
+        var requisicao = deposito(BigDecimal.TEN);
+        sut.executar("deposito", "chave-1", requisicao, SaldoResponseDto.class, this::executarDeposito);
+
+        // when
+        var actual = sut.executar("deposito", "chave-1", deposito(BigDecimal.TEN), SaldoResponseDto.class, this::executarDeposito);
+
+        // then
+        assertEquals(1, execucoes.get());
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+        assertEquals(new SaldoResponseDto(1L, BigDecimal.TEN), actual.getBody());
+        assertEquals("true", actual.getHeaders().getFirst(ControleIdempotencia.CABECALHO_REPETICAO));
+        verify(repository).save(any(RespostaIdempotente.class));
+        assertEquals(1.0, meterRegistry.get("banco.idempotencia.requisicoes").tag("resultado", "nova").counter().count());
+        assertEquals(1.0, meterRegistry.get("banco.idempotencia.requisicoes").tag("resultado", "repetida_memoria").counter().count());
+    }
+
+    @Test
+    void executarSemChaveSempreExecutaTest() {
+        // when
+        sut.executar("deposito", null, deposito(BigDecimal.TEN), SaldoResponseDto.class, this::executarDeposito);
+        sut.executar("deposito", " ", deposito(BigDecimal.TEN), SaldoResponseDto.class, this::executarDeposito);
+
+        // then
+        assertEquals(2, execucoes.get());
+        verify(repository, never()).findById(anyString());
+        verify(repository, never()).save(any(RespostaIdempotente.class));
+    }
+
+    @Test
+    void executarMesmaChaveEmOutraOperacaoExecutaTest() {
+        // when
+        sut.executar("deposito", "chave-1", deposito(BigDecimal.TEN), SaldoResponseDto.class, this::executarDeposito);
+        sut.executar("saque", "chave-1", deposito(BigDecimal.TEN), SaldoResponseDto.class, this::executarDeposito);
+
+        // then
+        assertEquals(2, execucoes.get());
+    }
+
+    @Test
+    void executarMesmaChaveComOutraRequisicaoFalhaTest() {
+        // given
+        sut.executar("deposito", "chave-1", deposito(BigDecimal.TEN), SaldoResponseDto.class, this::executarDeposito);
+
+        // when
+        // then
+        assertThrows(ChaveIdempotenciaReutilizadaException.class, () ->
+                sut.executar("deposito", "chave-1", deposito(BigDecimal.ONE), SaldoResponseDto.class, this::executarDeposito));
+        assertEquals(1, execucoes.get());
+    }
+
+    @Test
+    void executarRepeteRecusaDeValidacaoTest() {
+        // given
+        assertThrows(SaldoInsuficienteException.class, () ->
+                sut.executar("saque", "chave-1", deposito(BigDecimal.TEN), Void.class, () -> {
+                    execucoes.incrementAndGet();
+                    throw new SaldoInsuficienteException();
+                }));
+
+        // when
+        var actual = assertThrows(ValidacaoException.class, () ->
+                sut.executar("saque", "chave-1", deposito(BigDecimal.TEN), Void.class, () -> {
+                    execucoes.incrementAndGet();
+                    return ResponseEntity.ok().build();
+                }));
+
+        // then
+        assertEquals("Saldo insuficiente!", actual.getMessage());
+        assertEquals(1, execucoes.get());
+    }
+
+    @Test
+    void executarNaoGuardaFalhaInesperadaTest() {
+        // given
+        assertThrows(IllegalStateException.class, () ->
+                sut.executar("deposito", "chave-1", deposito(BigDecimal.TEN), SaldoResponseDto.class, () -> {
+                    throw new IllegalStateException("banco fora");
+                }));
+
+        // when
+        var actual = sut.executar("deposito", "chave-1", deposito(BigDecimal.TEN), SaldoResponseDto.class, this::executarDeposito);
+
+        // then
+        assertEquals(1, execucoes.get());
+        assertNull(actual.getHeaders().getFirst(ControleIdempotencia.CABECALHO_REPETICAO));
+    }
+
+    @Test
+    void executarUsaRespostaDoBancoQuandoNaoEstaEmMemoriaTest() throws Exception {
+        // given
+        var requisicao = deposito(BigDecimal.TEN);
+        sut.executar("deposito", "chave-1", requisicao, SaldoResponseDto.class, this::executarDeposito);
+        var gravada = RespostaIdempotente.builder()
+                .chave("deposito:chave-1")
+                .hashRequisicao(hashGravado())
+                .status(200)
+                .corpo(objectMapper.writeValueAsString(new SaldoResponseDto(1L, BigDecimal.TEN)))
+                .criadaEm(LocalDateTime.now())
+                .build();
+        // simula o reinicio: a memoria se perde e a resposta continua no banco
+        sut.limpar();
+        given(repository.findById("deposito:chave-1")).willReturn(Optional.of(gravada));
+
+        // when
+        var actual = sut.executar("deposito", "chave-1", requisicao, SaldoResponseDto.class, this::executarDeposito);
+
+        // then
+        assertEquals(1, execucoes.get());
+        assertEquals(new SaldoResponseDto(1L, BigDecimal.TEN), actual.getBody());
+        assertEquals(1.0, meterRegistry.get("banco.idempotencia.requisicoes").tag("resultado", "repetida_banco").counter().count());
+    }
+
+    @Test
+    void executarIgnoraRespostaExpiradaNoBancoTest() {
+        // given
+        var expirada = RespostaIdempotente.builder()
+                .chave("deposito:chave-1")
+                .hashRequisicao("qualquer")
+                .status(200)
+                .criadaEm(LocalDateTime.now().minusHours(2))
+                .build();
+        given(repository.findById("deposito:chave-1")).willReturn(Optional.of(expirada));
+
+        // when
+        sut.executar("deposito", "chave-1", deposito(BigDecimal.TEN), SaldoResponseDto.class, this::executarDeposito);
+
+        // then
+        assertEquals(1, execucoes.get());
+    }
+
+    @Test
+    void executarRecusaRepeticaoEmAndamentoTest() throws Exception {
+        // given
+        var iniciou = new CountDownLatch(1);
+        var liberar = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<ResponseEntity<SaldoResponseDto>> primeira = executor.submit(() ->
+                    sut.executar("deposito", "chave-1", deposito(BigDecimal.TEN), SaldoResponseDto.class, () -> {
+                        iniciou.countDown();
+                        aguardar(liberar);
+                        return executarDeposito();
+                    }));
+            aguardar(iniciou);
+
+            // when
+            // then
+            assertThrows(RequisicaoEmAndamentoException.class, () ->
+                    sut.executar("deposito", "chave-1", deposito(BigDecimal.TEN), SaldoResponseDto.class, this::executarDeposito));
+            liberar.countDown();
+            assertEquals(HttpStatus.OK, primeira.get(5, TimeUnit.SECONDS).getStatusCode());
+            assertEquals(1, execucoes.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void executarComChaveReservadaPorOutroNoRepeteRespostaGravadaTest() throws Exception {
+        // given
+        var requisicao = deposito(BigDecimal.TEN);
+        sut.executar("deposito", "chave-0", requisicao, SaldoResponseDto.class, this::executarDeposito);
+        var gravada = RespostaIdempotente.builder()
+                .chave("deposito:chave-1")
+                .hashRequisicao(hashGravado())
+                .status(200)
+                .corpo(objectMapper.writeValueAsString(new SaldoResponseDto(1L, BigDecimal.TEN)))
+                .criadaEm(LocalDateTime.now())
+                .build();
+        // o outro no reservou a chave e fez commit entre a consulta e a reserva deste
+        given(repository.findById("deposito:chave-1")).willReturn(Optional.empty(), Optional.of(gravada));
+        given(repository.reservar(eq("deposito:chave-1"), anyString(), any(LocalDateTime.class)))
+                .willThrow(new DataIntegrityViolationException("chave duplicada"));
+
+        // when
+        var actual = sut.executar("deposito", "chave-1", requisicao, SaldoResponseDto.class, this::executarDeposito);
+
+        // then
+        assertEquals(1, execucoes.get());
+        assertEquals(new SaldoResponseDto(1L, BigDecimal.TEN), actual.getBody());
+        assertEquals("true", actual.getHeaders().getFirst(ControleIdempotencia.CABECALHO_REPETICAO));
+    }
+
+    @Test
+    void executarComChaveReservadaSemRespostaRecusaTest() {
+        // given
+        given(repository.reservar(eq("deposito:chave-1"), anyString(), any(LocalDateTime.class)))
+                .willThrow(new DataIntegrityViolationException("chave duplicada"));
+
+        // when
+        // then
+        assertThrows(RequisicaoEmAndamentoException.class, () ->
+                sut.executar("deposito", "chave-1", deposito(BigDecimal.TEN), SaldoResponseDto.class, this::executarDeposito));
+        assertEquals(0, execucoes.get());
+        verify(repository, never()).save(any(RespostaIdempotente.class));
+    }
+
+    @Test
+    void executarRecusaChaveMuitoLongaTest() {
+        // when
+        // then
+        assertThrows(ValidacaoException.class, () ->
+                sut.executar("deposito", "x".repeat(256), deposito(BigDecimal.TEN), SaldoResponseDto.class, this::executarDeposito));
+        assertEquals(0, execucoes.get());
+    }
+
+    private ResponseEntity<SaldoResponseDto> executarDeposito() {
+        execucoes.incrementAndGet();
+        return ResponseEntity.ok(new SaldoResponseDto(1L, BigDecimal.TEN));
+    }
+
+    private String hashGravado() {
+        var captor = ArgumentCaptor.forClass(RespostaIdempotente.class);
+        verify(repository).save(captor.capture());
+        return captor.getValue().getHashRequisicao();
+    }
+
+    private static DepositoRequestDto deposito(BigDecimal valor) {
+        return DepositoRequestDto.builder()
+                .numeroConta(1L)
+                .valor(valor)
+                .build();
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,139 @@
+package br.ada.caixa.service.importacao;
+
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.repository.ClienteRepository;
+import br.ada.caixa.repository.ContaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "banco.importacao.linhas-por-lote=3",
+        "banco.importacao.trabalhadores=2",
+        "banco.importacao.lotes-em-espera=1",
+        "banco.importacao.diretorio=target/importacao-teste"})
+class ImportacaoClientesServiceTest {
+
+    @Autowired
+    private ImportacaoClientesService sut;
+    @Autowired
+    private ClienteRepository clienteRepository;
+    @Autowired
+    private ContaRepository contaRepository;
+
+    @AfterEach
+    void tearDown() {
+        contaRepository.deleteAllInBatch();
+        clienteRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void importarTest() throws Exception {
+        // given
+        var csv = "documento,nome,dataNascimento,tipo,saldoInicial\n"
+                + "111,\"Ana, da Silva\",1990-05-01,PF,100.50\n"
+                + "222,Empresa,,pj,\n"
+                + "333,Sem tipo,,XX,10\n"
+                + "444,Negativo,,PF,-1\n"
+                + "111,Repetida,,PF,0\n"
+                + "555,Data ruim,01/02/1990,PF,0\n"
+                + "\n"
+                + "666,Ok,,PF,0\n"
+                + "777,\"Nome com \"\"aspas\"\"\",,PJ,1\n"
+                + "888,Colunas,PF\n";
+
+        // when
+        var actual = sut.importar(new StringReader(csv));
+
+        // then
+        assertFalse(actual.isEmExecucao());
+        assertEquals(9, actual.getLinhasLidas());
+        assertEquals(4, actual.getLinhasImportadas());
+        assertEquals(5, actual.getLinhasRejeitadas());
+
+        var ana = clienteRepository.findByDocumento("111").get();
+        assertEquals("Ana, da Silva", ana.getNome());
+        assertEquals(LocalDate.of(1990, 5, 1), ana.getDataNascimento());
+        assertEquals(TipoCliente.PJ, clienteRepository.findByDocumento("222").get().getTipo());
+        assertEquals("Nome com \"aspas\"", clienteRepository.findByDocumento("777").get().getNome());
+        assertEquals(4, contaRepository.count());
+        var saldoAna = contaRepository.findAll().stream()
+                .filter(conta -> conta.getCliente().getDocumento().equals("111"))
+                .findFirst().get().getSaldo();
+        assertEquals(Dinheiro.de(new BigDecimal("100.50")), saldoAna);
+
+        var rejeitados = Files.readAllLines(Path.of(actual.getArquivoRejeitados()), StandardCharsets.UTF_8);
+        assertEquals("linha,erro,documento,nome,dataNascimento,tipo,saldoInicial", rejeitados.get(0));
+        assertEquals(6, rejeitados.size());
+        assertEquals(List.of(
+                        "11,Linha deve ter 5 colunas!,888,Colunas,PF",
+                        "4,Tipo de cliente invalido!,333,Sem tipo,,XX,10",
+                        "5,Saldo inicial invalido!,444,Negativo,,PF,-1",
+                        "6,Documento repetido no lote!,111,Repetida,,PF,0",
+                        "7,Data de nascimento invalida!,555,Data ruim,01/02/1990,PF,0"),
+                rejeitados.subList(1, rejeitados.size()).stream().sorted().collect(Collectors.toList()));
+    }
+
+    @Test
+    void importarArquivoGrandeSemRejeicoesTest() {
+        // given
+        final int linhas = 2_000;
+
+        // when
+        var actual = sut.importar(csvGerado(linhas));
+
+        // then
+        assertEquals(linhas, actual.getLinhasLidas());
+        assertEquals(linhas, actual.getLinhasImportadas());
+        assertEquals(0, actual.getLinhasRejeitadas());
+        assertNull(actual.getArquivoRejeitados());
+        assertEquals(linhas, clienteRepository.count());
+        assertEquals(linhas, contaRepository.count());
+    }
+
+    // Gera o CSV sob demanda: o arquivo nunca existe inteiro em memoria
+    private static Reader csvGerado(int linhas) {
+        return new Reader() {
+            private int proxima;
+            private String atual = "";
+            private int posicao;
+
+            @Override
+            public int read(char[] destino, int deslocamento, int tamanho) {
+                if (posicao == atual.length()) {
+                    if (proxima == linhas) {
+                        return -1;
+                    }
+                    proxima++;
+                    atual = "doc-" + proxima + ",Cliente " + proxima + ",1980-01-01,PF,1.00\n";
+                    posicao = 0;
+                }
+                final int lidos = Math.min(tamanho, atual.length() - posicao);
+                atual.getChars(posicao, posicao + lidos, destino, deslocamento);
+                posicao += lidos;
+                return lidos;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+}
@@ -0,0 +1,60 @@
+package br.ada.caixa.service.importacao;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LeitorCsvTest {
+
+    @Test
+    void proximoLeRegistrosSimplesTest() throws IOException {
+        // given
+        var leitor = new LeitorCsv(new StringReader("\uFEFFa,b,c\r\n1,,3\n"), ',');
+
+        // when
+        var primeiro = leitor.proximo();
+        var segundo = leitor.proximo();
+
+        // then
+        assertEquals(List.of("a", "b", "c"), primeiro);
+        assertEquals(List.of("1", "", "3"), segundo);
+        assertEquals(2, leitor.getLinha());
+        assertNull(leitor.proximo());
+    }
+
+    @Test
+    void proximoLeCamposEntreAspasTest() throws IOException {
+        // given
+        var leitor = new LeitorCsv(new StringReader("\"x, y\",\"diz \"\"oi\"\"\",\"duas\nlinhas\"\nfim,2"), ',');
+
+        // when
+        var primeiro = leitor.proximo();
+        var segundo = leitor.proximo();
+
+        // then
+        assertEquals(List.of("x, y", "diz \"oi\"", "duas\nlinhas"), primeiro);
+        assertEquals(List.of("fim", "2"), segundo);
+        // O segundo registro comeca depois da quebra de linha dentro das aspas
+        assertEquals(3, leitor.getLinha());
+        assertNull(leitor.proximo());
+    }
+
+    @Test
+    void formatarVoltaAoMesmoRegistroTest() throws IOException {
+        // given
+        var registro = List.of("simples", "com, virgula", "com \"aspas\"", "", "com\nquebra");
+
+        // when
+        var formatado = LeitorCsv.formatar(registro, ',');
+
+        // then
+        assertEquals("simples,\"com, virgula\",\"com \"\"aspas\"\"\",,\"com\nquebra\"", formatado);
+        assertEquals(registro, new LeitorCsv(new StringReader(formatado), ',').proximo());
+    }
+
+}
@@ -0,0 +1,162 @@
+package br.ada.caixa.service.journal;
+
+import br.ada.caixa.entity.Cliente;
+import br.ada.caixa.entity.Conta;
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.entity.TipoConta;
+import br.ada.caixa.repository.ClienteRepository;
+import br.ada.caixa.repository.ContaRepository;
+import br.ada.caixa.repository.RendimentoCheckpointRepository;
+import br.ada.caixa.service.conta.ContaCache;
+import br.ada.caixa.service.operacoesbancarias.deposito.DepositoService;
+import br.ada.caixa.service.operacoesbancarias.investimento.InvestimentoService;
+import br.ada.caixa.service.operacoesbancarias.investimento.ModoRendimento;
+import br.ada.caixa.service.operacoesbancarias.saque.SaqueService;
+import br.ada.caixa.service.operacoesbancarias.transferencia.TransferenciaService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static br.ada.caixa.fixture.ClienteFixture.cliente;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Com o journal ligado, a soma dos lancamentos de cada conta bate com o saldo gravado no banco depois
+ * de todos os tipos de operacao, inclusive com valores que o banco arredonda.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class JournalLancamentosIntegracaoTest {
+
+    private static final Path DIRETORIO = diretorioTemporario();
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+    @Autowired
+    private ContaRepository contaRepository;
+    @Autowired
+    private RendimentoCheckpointRepository checkpointRepository;
+    @Autowired
+    private ContaCache contaCache;
+    @Autowired
+    private DepositoService depositoService;
+    @Autowired
+    private SaqueService saqueService;
+    @Autowired
+    private TransferenciaService transferenciaService;
+    @Autowired
+    private InvestimentoService investimentoService;
+    @Autowired
+    private JournalLancamentos journalLancamentos;
+    @Autowired
+    private SnapshotSaldos snapshotSaldos;
+
+    @DynamicPropertySource
+    static void journal(DynamicPropertyRegistry registry) {
+        registry.add("banco.journal.habilitado", () -> "true");
+        registry.add("banco.journal.diretorio", DIRETORIO::toString);
+        registry.add("banco.journal.tamanho-segmento", () -> "1KB");
+    }
+
+    @BeforeEach
+    void setUp() {
+        var clientePF = cliente("444.444.444-44", TipoCliente.PF);
+        var clientePJ = cliente("44.444.444/0001-44", TipoCliente.PJ);
+        clienteRepository.saveAllAndFlush(List.of(clientePF, clientePJ));
+
+        contaRepository.saveAllAndFlush(List.of(
+                conta(1L, TipoConta.CONTA_CORRENTE, clientePF),
+                conta(2L, TipoConta.CONTA_CORRENTE, clientePJ)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        contaCache.limpar();
+        checkpointRepository.deleteAllInBatch();
+        contaRepository.deleteAllInBatch();
+        clienteRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void reconstruirSaldosBateComBancoTest() {
+        // given
+        depositoService.depositar(1L, new BigDecimal("500.005"));
+        depositoService.depositar(2L, new BigDecimal("1000"));
+        saqueService.sacar(2L, new BigDecimal("100.005"));
+        transferenciaService.transferir(2L, 1L, new BigDecimal("33.333"));
+        transferenciaService.transferir(1L, 2L, new BigDecimal("10"));
+        investimentoService.investir("444.444.444-44", new BigDecimal("77.77"));
+        investimentoService.investir("44.444.444/0001-44", new BigDecimal("250.01"));
+        investimentoService.render(ModoRendimento.SQL);
+        investimentoService.render(ModoRendimento.LOTE);
+
+        // when
+        var saldos = journalLancamentos.reconstruirSaldos();
+
+        // then
+        var contas = contaRepository.findAll();
+        assertEquals(4, contas.size());
+        for (Conta conta : contas) {
+            assertEquals(conta.getSaldo(), saldos.get(conta.getNumero()),
+                    "conta " + conta.getNumero() + ": banco " + conta.getSaldo() + ", journal " + saldos.get(conta.getNumero()));
+        }
+    }
+
+    @Test
+    void recuperarDoSnapshotBateComBancoTest() {
+        // given
+        // contas proprias: o journal e compartilhado pelos testes da classe
+        var cliente = clienteRepository.findByDocumento("444.444.444-44").get();
+        contaRepository.saveAllAndFlush(List.of(
+                conta(101L, TipoConta.CONTA_CORRENTE, cliente),
+                conta(102L, TipoConta.CONTA_CORRENTE, cliente)));
+        depositoService.depositar(101L, new BigDecimal("300"));
+        depositoService.depositar(102L, new BigDecimal("200.005"));
+        snapshotSaldos.gerar();
+        transferenciaService.transferir(101L, 102L, new BigDecimal("45.45"));
+        saqueService.sacar(102L, new BigDecimal("10"));
+
+        // when
+        Map<Long, BigDecimal> saldos = new ConcurrentHashMap<>();
+        snapshotSaldos.recuperar(saldos::put, (conta, delta) -> saldos.merge(conta, delta, BigDecimal::add), saldos::remove);
+
+        // then
+        assertEquals(0, new BigDecimal("254.55").compareTo(saldos.get(101L)));
+        assertEquals(0, new BigDecimal("235.46").compareTo(saldos.get(102L)));
+        for (Long numero : List.of(101L, 102L)) {
+            var saldoBanco = contaRepository.findByNumero(numero).get().getSaldo().paraBigDecimal();
+            assertEquals(0, saldoBanco.compareTo(saldos.get(numero)), "conta " + numero + ": banco " + saldoBanco);
+        }
+    }
+
+    private static Conta conta(Long numero, TipoConta tipoConta, Cliente cliente) {
+        return Conta.builder()
+                .numero(numero)
+                .saldo(Dinheiro.ZERO)
+                .tipo(tipoConta)
+                .cliente(cliente)
+                .build();
+    }
+
+    private static Path diretorioTemporario() {
+        try {
+            return Files.createTempDirectory("journal-lancamentos");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,260 @@
+package br.ada.caixa.service.journal;
+
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.enums.TipoLancamento;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static br.ada.caixa.fixture.TransacaoFixture.confirmar;
+import static br.ada.caixa.fixture.TransacaoFixture.desfazer;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JournalLancamentosTest {
+
+    @TempDir
+    Path diretorio;
+
+    private final List<JournalLancamentos> abertos = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        abertos.forEach(JournalLancamentos::fechar);
+    }
+
+    @Test
+    void registrarELerTest() {
+        // given
+        var sut = abrir(DataSize.ofMegabytes(1));
+
+        // when
+        confirmar(() -> sut.registrar(TipoLancamento.DEPOSITO, 1L, Dinheiro.de(new BigDecimal("100.50"))));
+        confirmar(() -> sut.registrar(List.of(
+                new Lancamento(TipoLancamento.TRANSFERENCIA, 1L, Dinheiro.de(new BigDecimal("-40.00"))),
+                new Lancamento(TipoLancamento.TRANSFERENCIA, 2L, Dinheiro.de(new BigDecimal("40.00"))))));
+        List<Lancamento> lidos = new ArrayList<>();
+        sut.ler(1, lidos::add);
+
+        // then
+        // Cada transacao termina com um marcador de confirmacao, que ocupa uma sequencia
+        assertEquals(5, sut.getUltimaSequencia());
+        assertEquals(List.of(1L, 3L, 4L), lidos.stream().map(Lancamento::getSequencia).collect(Collectors.toList()));
+        assertEquals(List.of(1L, 3L, 3L), lidos.stream().map(Lancamento::getLote).collect(Collectors.toList()));
+        assertEquals(TipoLancamento.DEPOSITO, lidos.get(0).getTipo());
+        assertEquals(Dinheiro.de(new BigDecimal("100.50")), lidos.get(0).getDelta());
+        assertEquals(lidos.get(1).getInstante(), lidos.get(2).getInstante());
+        assertEquals(Dinheiro.de(new BigDecimal("60.50")), sut.reconstruirSaldos().get(1L));
+        assertEquals(Dinheiro.de(new BigDecimal("40.00")), sut.reconstruirSaldos().get(2L));
+    }
+
+    @Test
+    void registrarTrocaDeSegmentoQuandoEncheTest() throws IOException {
+        // given
+        var sut = abrir(DataSize.ofBytes(SegmentoJournal.TAMANHO_REGISTRO * 3L));
+
+        // when
+        for (long conta = 1; conta <= 10; conta++) {
+            final long numero = conta;
+            confirmar(() -> sut.registrar(TipoLancamento.DEPOSITO, numero, Dinheiro.de(BigDecimal.ONE)));
+        }
+        List<Long> aPartirDoCinco = new ArrayList<>();
+        sut.ler(5, lancamento -> aPartirDoCinco.add(lancamento.getSequencia()));
+
+        // then
+        // 20 registros (lancamento e confirmacao de cada deposito), 3 por segmento
+        assertEquals(7, segmentos().size());
+        assertEquals(List.of(5L, 7L, 9L, 11L, 13L, 15L, 17L, 19L), aPartirDoCinco);
+    }
+
+    @Test
+    void abrirContinuaDepoisDoUltimoRegistroTest() {
+        // given
+        var primeiro = abrir(DataSize.ofMegabytes(1));
+        confirmar(() -> primeiro.registrar(TipoLancamento.DEPOSITO, 1L, Dinheiro.de(BigDecimal.TEN)));
+        confirmar(() -> primeiro.registrar(TipoLancamento.SAQUE, 1L, Dinheiro.de(BigDecimal.ONE.negate())));
+        primeiro.fechar();
+
+        // when
+        var sut = abrir(DataSize.ofMegabytes(1));
+        confirmar(() -> sut.registrar(TipoLancamento.DEPOSITO, 1L, Dinheiro.de(BigDecimal.TEN)));
+
+        // then
+        assertEquals(6, sut.getUltimaSequencia());
+        assertEquals(Dinheiro.de(new BigDecimal("19.00")), sut.reconstruirSaldos().get(1L));
+    }
+
+    @Test
+    void abrirDescartaRegistroCorrompidoNoFimTest() throws IOException {
+        // given
+        var primeiro = abrir(DataSize.ofMegabytes(1));
+        confirmar(() -> primeiro.registrar(TipoLancamento.DEPOSITO, 1L, Dinheiro.de(BigDecimal.TEN)));
+        confirmar(() -> primeiro.registrar(TipoLancamento.DEPOSITO, 1L, Dinheiro.de(BigDecimal.ONE)));
+        primeiro.fechar();
+        // Simula uma escrita interrompida: o ultimo byte da confirmacao do segundo deposito (CRC) nao chegou ao disco
+        try (var canal = FileChannel.open(segmentos().get(0), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final long posicao = SegmentoJournal.TAMANHO_REGISTRO * 4L - 1;
+            var ultimoByte = ByteBuffer.allocate(1);
+            canal.read(ultimoByte, posicao);
+            canal.write(ByteBuffer.wrap(new byte[]{(byte) ~ultimoByte.get(0)}), posicao);
+        }
+
+        // when
+        var sut = abrir(DataSize.ofMegabytes(1));
+
+        // then
+        // O segundo deposito ficou sem confirmacao: em duvida, fica fora da releitura
+        assertEquals(3, sut.getUltimaSequencia());
+        assertEquals(Dinheiro.de(new BigDecimal("10.00")), sut.reconstruirSaldos().get(1L));
+        confirmar(() -> sut.registrar(TipoLancamento.DEPOSITO, 1L, Dinheiro.de(BigDecimal.ONE)));
+        assertEquals(5, sut.getUltimaSequencia());
+        assertEquals(Dinheiro.de(new BigDecimal("11.00")), sut.reconstruirSaldos().get(1L));
+    }
+
+    @Test
+    void registrarConcorrenteGeraSequenciaContinuaTest() throws Exception {
+        // given
+        var sut = abrir(DataSize.ofKilobytes(64));
+        final int threads = 8;
+        final int porThread = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // when
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final long conta = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < porThread; i++) {
+                        confirmar(() -> sut.registrar(TipoLancamento.DEPOSITO, conta, Dinheiro.de(BigDecimal.ONE)));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        List<Long> sequencias = new ArrayList<>();
+        sut.lerRegistros(1, registro -> sequencias.add(registro.getSequencia()));
+
+        // then
+        assertEquals(LongStream.rangeClosed(1, threads * porThread * 2L).boxed().collect(Collectors.toList()), sequencias);
+        sut.reconstruirSaldos().values().forEach(saldo -> assertEquals(Dinheiro.de(new BigDecimal("200.00")), saldo));
+    }
+
+    @Test
+    void registrarDesabilitadoNaoGravaTest() {
+        // given
+        var sut = new JournalLancamentos(new SimpleMeterRegistry(), false, diretorio.resolve("desligado").toString(),
+                DataSize.ofMegabytes(1));
+        sut.abrir();
+
+        // when
+        sut.registrar(TipoLancamento.DEPOSITO, 1L, Dinheiro.de(BigDecimal.TEN));
+
+        // then
+        assertFalse(Files.exists(diretorio.resolve("desligado")));
+        assertTrue(sut.reconstruirSaldos().isEmpty());
+    }
+
+    @Test
+    void registrarDepoisDeFecharFalhaTest() {
+        // given
+        var sut = abrir(DataSize.ofMegabytes(1));
+        sut.fechar();
+
+        // when
+        // then
+        assertThrows(IllegalStateException.class,
+                () -> confirmar(() -> sut.registrar(TipoLancamento.DEPOSITO, 1L, Dinheiro.de(BigDecimal.TEN))));
+    }
+
+    @Test
+    void registrarForaDeTransacaoFalhaTest() {
+        // given
+        var sut = abrir(DataSize.ofMegabytes(1));
+
+        // when
+        // then
+        assertThrows(IllegalStateException.class, () -> sut.registrar(TipoLancamento.DEPOSITO, 1L, Dinheiro.de(BigDecimal.TEN)));
+        assertEquals(0, sut.getUltimaSequencia());
+    }
+
+    @Test
+    void registrarGravaAntesDoCommitEConfirmaDepoisTest() {
+        // given
+        var sut = abrir(DataSize.ofMegabytes(1));
+        TransactionSynchronizationManager.initSynchronization();
+
+        // when
+        try {
+            sut.registrar(TipoLancamento.DEPOSITO, 1L, Dinheiro.de(BigDecimal.TEN));
+            sut.registrar(TipoLancamento.DEPOSITO, 2L, Dinheiro.de(BigDecimal.ONE));
+            TransactionSynchronizationUtils.triggerBeforeCommit(false);
+
+            // then
+            assertEquals(2, sut.getUltimaSequenciaDuravel());
+            assertTrue(sut.reconstruirSaldos().isEmpty());
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(3, sut.getUltimaSequencia());
+        assertEquals(Dinheiro.de(BigDecimal.TEN), sut.reconstruirSaldos().get(1L));
+        assertEquals(Dinheiro.de(BigDecimal.ONE), sut.reconstruirSaldos().get(2L));
+    }
+
+    @Test
+    void registrarDesfeitoFicaForaDaReleituraTest() {
+        // given
+        var sut = abrir(DataSize.ofMegabytes(1));
+
+        // when
+        desfazer(() -> sut.registrar(TipoLancamento.DEPOSITO, 1L, Dinheiro.de(BigDecimal.TEN)));
+
+        // then
+        List<TipoLancamento> registros = new ArrayList<>();
+        sut.lerRegistros(1, registro -> registros.add(registro.getTipo()));
+        assertEquals(List.of(TipoLancamento.DEPOSITO, TipoLancamento.CANCELAMENTO), registros);
+        assertTrue(sut.reconstruirSaldos().isEmpty());
+    }
+
+    private JournalLancamentos abrir(DataSize tamanhoSegmento) {
+        var journal = new JournalLancamentos(new SimpleMeterRegistry(), true, diretorio.toString(), tamanhoSegmento);
+        journal.abrir();
+        abertos.add(journal);
+        return journal;
+    }
+
+    private List<Path> segmentos() throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.filter(SegmentoJournal::isSegmento).sorted().collect(Collectors.toList());
+        }
+    }
+
+}
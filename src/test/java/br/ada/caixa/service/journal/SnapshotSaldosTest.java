@@ -0,0 +1,295 @@
+package br.ada.caixa.service.journal;
+
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.entity.TipoConta;
+import br.ada.caixa.enums.TipoLancamento;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static br.ada.caixa.fixture.TransacaoFixture.confirmar;
+import static br.ada.caixa.fixture.TransacaoFixture.desfazer;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class SnapshotSaldosTest {
+
+    @TempDir
+    Path diretorio;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    // Saldos em centavos da tabela de contas, como o SQL_SALDOS os devolveria
+    private final Map<Long, Long> banco = new TreeMap<>();
+    private JournalLancamentos journal;
+    private SnapshotSaldos sut;
+
+    @BeforeEach
+    void setUp() {
+        journal = new JournalLancamentos(new SimpleMeterRegistry(), true, diretorio.toString(),
+                DataSize.ofBytes(SegmentoJournal.TAMANHO_REGISTRO * 4L));
+        journal.abrir();
+        sut = new SnapshotSaldos(journal, jdbcTemplate, new SimpleMeterRegistry(), Duration.ZERO, 3, 2);
+        sut.iniciar();
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (var conta : banco.entrySet()) {
+                var rs = mock(ResultSet.class);
+                given(rs.getLong("numero")).willReturn(conta.getKey());
+                given(rs.getString("tipo")).willReturn(TipoConta.CONTA_CORRENTE.name());
+                given(rs.getLong("saldo")).willReturn(conta.getValue());
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(eq(SnapshotSaldos.SQL_SALDOS), any(RowCallbackHandler.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        sut.parar();
+        journal.fechar();
+    }
+
+    @Test
+    void recuperarSemSnapshotNaoServeSaldosTest() {
+        // given
+        depositar(1L, 10_000);
+        depositar(2L, 5_000);
+
+        // when
+        var recuperados = recuperar();
+
+        // then
+        assertTrue(recuperados.isEmpty());
+    }
+
+    @Test
+    void gerarIncluiSaldosAnterioresAoJournalTest() {
+        // given
+        // saldo de antes do journal ser ligado: so existe no banco
+        banco.put(1L, 50_000L);
+        depositar(2L, 1_000);
+
+        // when
+        sut.gerar();
+
+        // then
+        assertEquals(Map.of(1L, new BigDecimal("500.00"), 2L, new BigDecimal("10.00")), recuperar());
+    }
+
+    @Test
+    void recuperarCarregaSnapshotMaisCaudaConfirmadaTest() {
+        // given
+        for (long conta = 1; conta <= 10; conta++) {
+            depositar(conta, conta * 100);
+        }
+        final long sequenciaSnapshot = sut.gerar();
+        depositar(3L, -150);
+        depositar(11L, 1_000);
+        desfazer(() -> journal.registrar(TipoLancamento.DEPOSITO, 5L, Dinheiro.de(BigDecimal.TEN)));
+
+        // when
+        var recuperados = recuperar();
+
+        // then
+        assertEquals(20, sequenciaSnapshot);
+        assertEquals(11, recuperados.size());
+        assertEquals(new BigDecimal("1.50"), recuperados.get(3L));
+        assertEquals(new BigDecimal("5.00"), recuperados.get(5L));
+        assertEquals(new BigDecimal("7.00"), recuperados.get(7L));
+        assertEquals(new BigDecimal("10.00"), recuperados.get(11L));
+    }
+
+    @Test
+    void recuperarDescartaContasComLoteEmAndamentoNoSnapshotTest() {
+        // given
+        banco.put(1L, 0L);
+        depositar(2L, 100);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            journal.registrar(TipoLancamento.DEPOSITO, 1L, Dinheiro.de(BigDecimal.TEN));
+            // o snapshot le o banco enquanto o deposito na conta 1 ainda nao confirmou
+            sut.gerar();
+            banco.merge(1L, 1_000L, Long::sum);
+            TransactionSynchronizationUtils.triggerBeforeCommit(false);
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // when
+        var recuperados = recuperar();
+
+        // then
+        assertEquals(Map.of(2L, new BigDecimal("1.00")), recuperados);
+    }
+
+    @Test
+    void recuperarDescartaContasComLoteSemConfirmacaoTest() {
+        // given
+        banco.put(1L, 0L);
+        banco.put(2L, 0L);
+        sut.gerar();
+        depositar(2L, 100);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            journal.registrar(TipoLancamento.DEPOSITO, 1L, Dinheiro.de(BigDecimal.TEN));
+            TransactionSynchronizationUtils.triggerBeforeCommit(false);
+            // o resultado do commit nao chegou: o lote fica sem marcador
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_UNKNOWN);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // when
+        var recuperados = recuperar();
+
+        // then
+        assertEquals(Map.of(2L, new BigDecimal("1.00")), recuperados);
+    }
+
+    @Test
+    void gerarApagaSnapshotsESegmentosQueNaoSaoMaisUsadosTest() throws IOException {
+        // given
+        depositar(1L, 1_000);
+        sut.gerar();
+        depositar(1L, 100);
+        sut.gerar();
+        depositar(2L, 100);
+
+        // when
+        final long sequencia = sut.gerar();
+
+        // then
+        assertEquals(6, sequencia);
+        assertEquals(List.of(ArquivoSnapshot.nomeArquivo(4), ArquivoSnapshot.nomeArquivo(6)), snapshots());
+        // segmentos de 4 registros: o mais antigo snapshot mantido rele o journal a partir da sequencia 5
+        assertEquals(List.of(SegmentoJournal.nomeArquivo(5)), segmentos());
+        // sem lancamentos novos nao ha o que gravar
+        assertEquals(6, sut.gerar());
+        assertEquals(2, snapshots().size());
+        assertEquals(Map.of(1L, new BigDecimal("11.00"), 2L, new BigDecimal("1.00")), recuperar());
+    }
+
+    @Test
+    void recuperarVariosBlocosEmParaleloTest() {
+        // given
+        var saldos = new SaldosPorConta(0);
+        final int contas = ArquivoSnapshot.REGISTROS_POR_BLOCO * 2 + 123;
+        for (long conta = 1; conta <= contas; conta++) {
+            saldos.definir(conta, (byte) 0, conta);
+        }
+        ArquivoSnapshot.gravar(diretorio, 0, 0, saldos);
+
+        // when
+        var recuperados = recuperar();
+
+        // then
+        assertEquals(contas, recuperados.size());
+        assertEquals(BigDecimal.valueOf(contas, 2), recuperados.get((long) contas));
+        verify(jdbcTemplate, never()).query(anyString(), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void recuperarSnapshotCorrompidoFalhaTest() throws IOException {
+        // given
+        depositar(1L, 1_000);
+        sut.gerar();
+        var arquivo = diretorio.resolve(ArquivoSnapshot.nomeArquivo(2));
+        try (var canal = FileChannel.open(arquivo, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // ultimo byte do saldo da unica conta
+            final long posicao = canal.size() - Integer.BYTES - 1;
+            var ultimoByte = ByteBuffer.allocate(1);
+            canal.read(ultimoByte, posicao);
+            canal.write(ByteBuffer.wrap(new byte[]{(byte) ~ultimoByte.get(0)}), posicao);
+        }
+
+        // when
+        // then
+        assertThrows(IllegalStateException.class, this::recuperar);
+    }
+
+    @Test
+    void saldosPorContaCresceSemPerderContasTest() {
+        // given
+        var saldos = new SaldosPorConta(0);
+
+        // when
+        for (long conta = 1; conta <= 10_000; conta++) {
+            saldos.definir(conta * 1_000, (byte) 0, conta);
+            saldos.definir(conta * 1_000, (byte) 1, conta * 2);
+        }
+
+        // then
+        assertEquals(10_000, saldos.tamanho());
+        Map<Long, Long> lidos = new ConcurrentHashMap<>();
+        saldos.paraCada((numero, tipo, centavos) -> lidos.put(numero, centavos));
+        assertEquals(20_000L, lidos.get(10_000_000L));
+        assertTrue(lidos.keySet().stream().allMatch(numero -> numero % 1_000 == 0));
+    }
+
+    // Deposito confirmado: o lancamento no journal e o UPDATE no banco na mesma transacao
+    private void depositar(long conta, long centavos) {
+        confirmar(() -> {
+            journal.registrar(TipoLancamento.DEPOSITO, conta, Dinheiro.deCentavos(centavos));
+            banco.merge(conta, centavos, Long::sum);
+        });
+    }
+
+    private Map<Long, BigDecimal> recuperar() {
+        Map<Long, BigDecimal> saldos = new ConcurrentHashMap<>();
+        sut.recuperar(saldos::put, (conta, delta) -> saldos.merge(conta, delta, BigDecimal::add), saldos::remove);
+        return saldos;
+    }
+
+    private List<String> segmentos() throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.filter(SegmentoJournal::isSegmento)
+                    .map(arquivo -> arquivo.getFileName().toString())
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private List<String> snapshots() throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.filter(ArquivoSnapshot::isSnapshot)
+                    .map(arquivo -> arquivo.getFileName().toString())
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+}
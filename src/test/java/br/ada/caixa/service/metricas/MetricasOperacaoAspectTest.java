@@ -0,0 +1,97 @@
+package br.ada.caixa.service.metricas;
+
+import br.ada.caixa.exceptions.ContaInvalidaException;
+import br.ada.caixa.exceptions.SaldoInsuficienteException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MetricasOperacaoAspectTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private Operacoes sut;
+
+    @BeforeEach
+    void setUp() {
+        var factory = new AspectJProxyFactory(new Operacoes());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new MetricasOperacaoAspect(meterRegistry));
+        sut = factory.getProxy();
+    }
+
+    @Test
+    void medirSucessoTest() {
+        // given
+        final var valor = BigDecimal.valueOf(150.25);
+
+        // when
+        sut.depositar(1L, valor);
+        sut.depositar(2L, BigDecimal.TEN);
+
+        // then
+        assertEquals(2, meterRegistry.get("banco.operacoes.latencia")
+                .tags("operacao", "deposito", "resultado", "sucesso").timer().count());
+        var valores = meterRegistry.get("banco.operacoes.valor").tags("operacao", "deposito").summary();
+        assertEquals(2, valores.count());
+        assertEquals(160.25, valores.totalAmount(), 1e-9);
+        assertEquals(0.0, meterRegistry.get("banco.operacoes.em-andamento").tags("operacao", "deposito").gauge().value());
+    }
+
+    @Test
+    void medirEmAndamentoDuranteExecucaoTest() {
+        // given
+        final var durante = new AtomicReference<Double>();
+
+        // when
+        sut.consultar(() -> durante.set(
+                meterRegistry.get("banco.operacoes.em-andamento").tags("operacao", "saldo").gauge().value()));
+
+        // then
+        assertEquals(1.0, durante.get());
+        assertEquals(0.0, meterRegistry.get("banco.operacoes.em-andamento").tags("operacao", "saldo").gauge().value());
+    }
+
+    @Test
+    void medirResultadoPorTipoDeFalhaTest() {
+        // when
+        assertThrows(SaldoInsuficienteException.class, () -> sut.sacar(new SaldoInsuficienteException()));
+        assertThrows(ContaInvalidaException.class, () -> sut.sacar(new ContaInvalidaException()));
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> sut.sacar(new ObjectOptimisticLockingFailureException("Conta", 1L)));
+        assertThrows(IllegalStateException.class, () -> sut.sacar(new IllegalStateException()));
+
+        // then
+        for (String resultado : new String[]{"saldo_insuficiente", "conta_invalida", "conflito", "erro"}) {
+            assertEquals(1, meterRegistry.get("banco.operacoes.latencia")
+                    .tags("operacao", "saque", "resultado", resultado).timer().count(), resultado);
+        }
+        assertEquals(0, meterRegistry.find("banco.operacoes.valor").tags("operacao", "saque").summaries().size());
+    }
+
+    static class Operacoes {
+
+        @OperacaoMonitorada("deposito")
+        public void depositar(Long numeroConta, BigDecimal valor) {
+        }
+
+        @OperacaoMonitorada("saque")
+        public void sacar(RuntimeException falha) {
+            throw falha;
+        }
+
+        @OperacaoMonitorada("saldo")
+        public void consultar(Runnable durante) {
+            durante.run();
+        }
+
+    }
+
+}
@@ -0,0 +1,11 @@
+package br.ada.caixa.service.operacoesbancarias;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Os mesmos cenarios de {@link OperacoesConcorrentesStressTest} com o group commit de depositos ligado.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "banco.deposito.agrupamento.habilitado=true")
+class OperacoesConcorrentesAgrupadasStressTest extends OperacoesConcorrentesStressTest {
+}
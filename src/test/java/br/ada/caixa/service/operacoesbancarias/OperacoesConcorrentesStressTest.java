@@ -0,0 +1,157 @@
+package br.ada.caixa.service.operacoesbancarias;
+
+import br.ada.caixa.entity.Cliente;
+import br.ada.caixa.entity.Conta;
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.entity.TipoConta;
+import br.ada.caixa.enums.StatusCliente;
+import br.ada.caixa.exceptions.ValidacaoException;
+import br.ada.caixa.repository.ClienteRepository;
+import br.ada.caixa.repository.ContaRepository;
+import br.ada.caixa.service.conta.ContaCache;
+import br.ada.caixa.service.operacoesbancarias.deposito.DepositoService;
+import br.ada.caixa.service.operacoesbancarias.saque.SaqueService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class OperacoesConcorrentesStressTest {
+
+    private static final int CONTAS = 4;
+    private static final int OPERACOES_POR_THREAD = 200;
+    private static final BigDecimal SALDO_INICIAL = BigDecimal.valueOf(1000);
+    private static final int[] THREADS = {1, 2, 4, 8, 16};
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+    @Autowired
+    private ContaRepository contaRepository;
+    @Autowired
+    private DepositoService depositoService;
+    @Autowired
+    private SaqueService saqueService;
+    @Autowired
+    private ContaCache contaCache;
+
+    @BeforeEach
+    void setUp() {
+        var cliente = clienteRepository.saveAndFlush(Cliente.builder()
+                .documento("000.000.000-00")
+                .nome("Stress")
+                .dataNascimento(LocalDate.now())
+                .status(StatusCliente.ATIVO)
+                .tipo(TipoCliente.PF)
+                .build());
+
+        List<Conta> contas = new ArrayList<>();
+        for (long numero = 1; numero <= CONTAS; numero++) {
+            contas.add(Conta.builder()
+                    .numero(numero)
+                    .saldo(Dinheiro.de(SALDO_INICIAL))
+                    .tipo(TipoConta.CONTA_CORRENTE)
+                    .cliente(cliente)
+                    .build());
+        }
+        contaRepository.saveAllAndFlush(contas);
+    }
+
+    @AfterEach
+    void tearDown() {
+        contaCache.limpar();
+        contaRepository.deleteAllInBatch();
+        clienteRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void depositosConcorrentesNaMesmaContaNaoPerdemAtualizacoesTest() throws Exception {
+        // given
+        final int threads = 8;
+
+        // when
+        executarConcorrente(threads, () -> depositoService.depositar(1L, BigDecimal.ONE));
+
+        // then
+        var esperado = SALDO_INICIAL.add(BigDecimal.valueOf((long) threads * OPERACOES_POR_THREAD));
+        assertEquals(0, esperado.compareTo(contaRepository.findByNumero(1L).get().getSaldo().paraBigDecimal()));
+    }
+
+    @Test
+    void movimentacoesConcorrentesConservamODinheiroTest() throws Exception {
+        // given
+        final var total = SALDO_INICIAL.multiply(BigDecimal.valueOf(CONTAS));
+        final var curva = new StringBuilder();
+
+        for (int threads : THREADS) {
+            // when
+            final var chamadas = new AtomicLong();
+            long inicio = System.nanoTime();
+            executarConcorrente(threads, () -> {
+                var random = ThreadLocalRandom.current();
+                long origem = random.nextLong(1, CONTAS + 1);
+                long destino = random.nextLong(1, CONTAS + 1);
+                var valor = BigDecimal.valueOf(random.nextInt(1, 50));
+                chamadas.incrementAndGet();
+                try {
+                    saqueService.sacar(origem, valor);
+                } catch (ValidacaoException e) {
+                    return;
+                }
+                chamadas.incrementAndGet();
+                depositoService.depositar(destino, valor);
+            });
+            long nanos = System.nanoTime() - inicio;
+
+            // then
+            var soma = contaRepository.findAll().stream()
+                    .map(conta -> conta.getSaldo().paraBigDecimal())
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            assertEquals(0, total.compareTo(soma), "dinheiro nao conservado com " + threads + " threads");
+            curva.append(String.format("%n  threads=%2d  %,8.0f saques+depositos/s",
+                    threads, chamadas.get() / (nanos / 1_000_000_000.0)));
+        }
+        log.info("Vazao de SaqueService + DepositoService por numero de threads:{}", curva);
+    }
+
+    private void executarConcorrente(int threads, Runnable operacao) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            var largada = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    largada.await();
+                    for (int i = 0; i < OPERACOES_POR_THREAD; i++) {
+                        operacao.run();
+                    }
+                    return null;
+                }));
+            }
+            largada.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
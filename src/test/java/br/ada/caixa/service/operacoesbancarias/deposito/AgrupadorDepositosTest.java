@@ -0,0 +1,138 @@
+package br.ada.caixa.service.operacoesbancarias.deposito;
+
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.exceptions.ContaInvalidaException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AgrupadorDepositosTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<List<Dinheiro>> gravados = new CopyOnWriteArrayList<>();
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void depositarSemConcorrenciaGravaSozinhoTest() {
+        // given
+        var sut = new AgrupadorDepositos(Duration.ofMillis(1), 256, this::gravar, meterRegistry);
+
+        // when
+        sut.depositar(1L, Dinheiro.deCentavos(100));
+        sut.depositar(1L, Dinheiro.deCentavos(200));
+
+        // then
+        assertEquals(List.of(List.of(Dinheiro.deCentavos(100)), List.of(Dinheiro.deCentavos(200))), gravados);
+    }
+
+    @Test
+    void depositarConcorrenteNaMesmaContaGravaEmLotesTest() throws Exception {
+        // given
+        var sut = new AgrupadorDepositos(Duration.ofMillis(50), 256, this::gravar, meterRegistry);
+        final int depositos = 8;
+
+        // when
+        executarConcorrente(depositos, () -> sut.depositar(1L, Dinheiro.deCentavos(1)));
+
+        // then
+        assertTrue(gravados.size() < depositos, "esperava lotes, gravou " + gravados.size());
+        assertEquals(depositos, gravados.stream().mapToInt(List::size).sum());
+        assertEquals(gravados.size(), meterRegistry.get("banco.deposito.agrupamento.tamanho").summary().count());
+    }
+
+    @Test
+    void depositarFechaLoteCheioSemEsperarOAtrasoTest() throws Exception {
+        // given
+        var sut = new AgrupadorDepositos(Duration.ofMinutes(1), 2, this::gravar, meterRegistry);
+
+        // when
+        executarConcorrente(4, () -> sut.depositar(1L, Dinheiro.deCentavos(1)));
+
+        // then
+        assertEquals(2, gravados.size());
+        assertTrue(gravados.stream().allMatch(lote -> lote.size() == 2));
+    }
+
+    @Test
+    void depositarEntregaAFalhaDaGravacaoATodosDoLoteTest() throws Exception {
+        // given
+        var sut = new AgrupadorDepositos(Duration.ofMinutes(1), 3, (numeroConta, valores) -> {
+            throw new ContaInvalidaException();
+        }, meterRegistry);
+
+        // when
+        var futures = submeter(3, () -> sut.depositar(1L, Dinheiro.deCentavos(1)));
+
+        // then
+        for (var future : futures) {
+            var erro = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(ContaInvalidaException.class, erro.getCause());
+        }
+    }
+
+    @Test
+    void depositarEmContasDiferentesNaoAgrupaTest() throws Exception {
+        // given
+        var sut = new AgrupadorDepositos(Duration.ofMinutes(1), 2, this::gravar, meterRegistry);
+
+        // when
+        var futures = submeter(1, () -> sut.depositar(1L, Dinheiro.deCentavos(1)));
+        futures.addAll(submeter(1, () -> sut.depositar(2L, Dinheiro.deCentavos(2))));
+        futures.addAll(submeter(1, () -> sut.depositar(1L, Dinheiro.deCentavos(3))));
+        futures.addAll(submeter(1, () -> sut.depositar(2L, Dinheiro.deCentavos(4))));
+        for (var future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+
+        // then
+        assertEquals(2, gravados.size());
+        assertTrue(gravados.contains(List.of(Dinheiro.deCentavos(1), Dinheiro.deCentavos(3)))
+                || gravados.contains(List.of(Dinheiro.deCentavos(3), Dinheiro.deCentavos(1))));
+    }
+
+    private void gravar(Long numeroConta, List<Dinheiro> valores) {
+        gravados.add(List.copyOf(valores));
+    }
+
+    private void executarConcorrente(int depositos, Runnable deposito) throws Exception {
+        for (var future : submeter(depositos, deposito)) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private List<Future<?>> submeter(int depositos, Runnable deposito) {
+        var largada = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < depositos; i++) {
+            futures.add(executor.submit(() -> {
+                largada.await();
+                deposito.run();
+                return null;
+            }));
+        }
+        largada.countDown();
+        return futures;
+    }
+
+}
@@ -2,10 +2,15 @@ package br.ada.caixa.service.operacoesbancarias.investimento;
 
 import br.ada.caixa.entity.Cliente;
 import br.ada.caixa.entity.Conta;
+import br.ada.caixa.entity.Dinheiro;
 import br.ada.caixa.entity.TipoCliente;
 import br.ada.caixa.entity.TipoConta;
 import br.ada.caixa.repository.ClienteRepository;
 import br.ada.caixa.repository.ContaRepository;
+import br.ada.caixa.service.conta.ContaCache;
+import br.ada.caixa.service.conta.GeradorNumeroConta;
+import br.ada.caixa.service.journal.JournalLancamentos;
+import br.ada.caixa.service.operacoesbancarias.saldo.SaldoPublicador;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -37,6 +42,14 @@ class InvestimentoServiceTest {
     private ContaRepository contaRepository;
     @Mock
     private ClienteRepository clienteRepository;
+    @Mock
+    private GeradorNumeroConta geradorNumeroConta;
+    @Mock
+    private ContaCache contaCache;
+    @Mock
+    private SaldoPublicador saldoPublicador;
+    @Mock
+    private JournalLancamentos journalLancamentos;
 
     @InjectMocks
     private InvestimentoService service;
@@ -75,7 +88,7 @@ class InvestimentoServiceTest {
 
         // then
         assertEquals(expected, actual);
-        verify(investimentoOperacaoPF, times(1)).executar(actual, valor);
+        verify(investimentoOperacaoPF, times(1)).executar(actual, Dinheiro.de(valor));
         verify(contaRepository, times(1)).save(actual);
     }
 
@@ -103,8 +116,11 @@ class InvestimentoServiceTest {
         var expected = new Conta();
         expected.setTipo(TipoConta.CONTA_INVESTIMENTO);
         expected.setCliente(cliente);
-        expected.setSaldo(BigDecimal.ZERO);
+        expected.setSaldo(Dinheiro.ZERO);
+        expected.setNumero(1000L);
 
+        given(geradorNumeroConta.proximo())
+                .willReturn(1000L);
         given(contaRepository.save(expected))
                 .willReturn(expected);
 
@@ -116,7 +132,7 @@ class InvestimentoServiceTest {
 
         // then
         assertEquals(expected, actual);
-        verify(investimentoOperacaoPF, times(1)).executar(actual, valor);
+        verify(investimentoOperacaoPF, times(1)).executar(actual, Dinheiro.de(valor));
         verify(contaRepository, times(1)).save(actual);
     }
 
@@ -0,0 +1,111 @@
+package br.ada.caixa.service.operacoesbancarias.investimento;
+
+import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.entity.TipoConta;
+import br.ada.caixa.repository.ClienteRepository;
+import br.ada.caixa.repository.ContaRepository;
+import br.ada.caixa.repository.RendimentoCheckpointRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+import static br.ada.caixa.fixture.ClienteFixture.cliente;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compara o rendimento conta a conta ({@link RendimentoJob}) com o UPDATE por tipo de cliente
+ * ({@link RendimentoEmSql}). Pesado; roda apenas com -Dbenchmark=true.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {"banco.rendimento.tamanho-pagina=1000"})
+class RendimentoBenchmarkTest {
+
+    private static final String SQL_INSERIR_CONTA =
+            "insert into conta (id, numero, saldo, tipo, cliente_id, created_at, versao) values (?, ?, 10000, ?, ?, ?, 0)";
+    private static final int LOTE_INSERCAO = 10_000;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+    @Autowired
+    private ContaRepository contaRepository;
+    @Autowired
+    private RendimentoCheckpointRepository checkpointRepository;
+    @Autowired
+    private RendimentoJob rendimentoJob;
+    @Autowired
+    private RendimentoEmSql rendimentoEmSql;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        checkpointRepository.deleteAllInBatch();
+        contaRepository.deleteAllInBatch();
+        clienteRepository.deleteAllInBatch();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {100_000, 1_000_000})
+    void compararModosRendimentoTest(int quantidadeContas) {
+        // given
+        carregarContas(quantidadeContas);
+
+        // when
+        long inicioLote = System.nanoTime();
+        rendimentoJob.executar();
+        long duracaoLoteMs = (System.nanoTime() - inicioLote) / 1_000_000;
+        var totalLote = somarSaldos();
+
+        jdbcTemplate.update("update conta set saldo = 10000");
+        checkpointRepository.deleteAllInBatch();
+
+        long inicioSql = System.nanoTime();
+        rendimentoEmSql.executar();
+        long duracaoSqlMs = (System.nanoTime() - inicioSql) / 1_000_000;
+        var totalSql = somarSaldos();
+
+        // then
+        log.info("Rendimento contas={} lote={} ms sql={} ms ({}x)", quantidadeContas, duracaoLoteMs, duracaoSqlMs,
+                String.format(Locale.ROOT, "%.1f", duracaoLoteMs / (double) Math.max(1, duracaoSqlMs)));
+        assertEquals(0, totalLote.compareTo(totalSql));
+    }
+
+    private void carregarContas(int quantidadeContas) {
+        var clientePF = cliente("333.333.333-33", TipoCliente.PF);
+        var clientePJ = cliente("33.333.333/0001-33", TipoCliente.PJ);
+        clienteRepository.saveAllAndFlush(List.of(clientePF, clientePJ));
+
+        final var hoje = LocalDate.now();
+        List<Object[]> parametros = new ArrayList<>(LOTE_INSERCAO);
+        for (long numero = 1; numero <= quantidadeContas; numero++) {
+            var cliente = numero % 2 == 0 ? clientePJ : clientePF;
+            parametros.add(new Object[]{UUID.randomUUID(), numero, TipoConta.CONTA_INVESTIMENTO.name(), cliente.getId(), hoje});
+            if (parametros.size() == LOTE_INSERCAO) {
+                jdbcTemplate.batchUpdate(SQL_INSERIR_CONTA, parametros);
+                parametros.clear();
+            }
+        }
+        if (!parametros.isEmpty()) {
+            jdbcTemplate.batchUpdate(SQL_INSERIR_CONTA, parametros);
+        }
+    }
+
+    private BigDecimal somarSaldos() {
+        return jdbcTemplate.queryForObject("select sum(saldo) from conta", BigDecimal.class);
+    }
+
+}
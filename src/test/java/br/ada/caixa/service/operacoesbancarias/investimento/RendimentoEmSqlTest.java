@@ -0,0 +1,128 @@
+package br.ada.caixa.service.operacoesbancarias.investimento;
+
+import br.ada.caixa.entity.Cliente;
+import br.ada.caixa.entity.Conta;
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.entity.RendimentoCheckpoint;
+import br.ada.caixa.entity.TaxaRendimento;
+import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.entity.TipoConta;
+import br.ada.caixa.exceptions.ValidacaoException;
+import br.ada.caixa.repository.ClienteRepository;
+import br.ada.caixa.repository.ContaRepository;
+import br.ada.caixa.repository.RendimentoCheckpointRepository;
+import br.ada.caixa.repository.TaxaRendimentoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static br.ada.caixa.fixture.ClienteFixture.cliente;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class RendimentoEmSqlTest {
+
+    private static final Dinheiro SALDO_INICIAL = Dinheiro.de(BigDecimal.valueOf(100));
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+    @Autowired
+    private ContaRepository contaRepository;
+    @Autowired
+    private RendimentoCheckpointRepository checkpointRepository;
+    @Autowired
+    private TaxaRendimentoRepository taxaRendimentoRepository;
+    @Autowired
+    private TaxaRendimentoService taxaRendimentoService;
+    @Autowired
+    private RendimentoEmSql rendimentoEmSql;
+
+    @BeforeEach
+    void setUp() {
+        var clientePF = cliente("222.222.222-22", TipoCliente.PF);
+        var clientePJ = cliente("22.222.222/0001-22", TipoCliente.PJ);
+        clienteRepository.saveAllAndFlush(List.of(clientePF, clientePJ));
+
+        contaRepository.saveAllAndFlush(List.of(
+                conta(1L, TipoConta.CONTA_INVESTIMENTO, clientePF),
+                conta(2L, TipoConta.CONTA_INVESTIMENTO, clientePJ),
+                conta(3L, TipoConta.CONTA_CORRENTE, clientePF)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        taxaRendimentoRepository.saveAll(List.of(
+                new TaxaRendimento(TipoCliente.PF, new BigDecimal("1.01")),
+                new TaxaRendimento(TipoCliente.PJ, new BigDecimal("1.02"))));
+        taxaRendimentoService.recarregar();
+        checkpointRepository.deleteAllInBatch();
+        contaRepository.deleteAllInBatch();
+        clienteRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void executarRendeContasInvestimentoPorTipoClienteTest() {
+        // when
+        var progresso = rendimentoEmSql.executar();
+
+        // then
+        assertSaldo(1L, "101");
+        assertSaldo(2L, "102");
+        assertSaldo(3L, "100");
+        assertEquals(2, progresso.getContasProcessadas());
+    }
+
+    @Test
+    void executarUsaTaxaDaTabelaTest() {
+        // given
+        taxaRendimentoRepository.save(new TaxaRendimento(TipoCliente.PF, new BigDecimal("1.05")));
+
+        // when
+        rendimentoEmSql.executar();
+
+        // then
+        assertSaldo(1L, "105");
+        assertSaldo(2L, "102");
+    }
+
+    @Test
+    void executarComLotePendenteFalhaTest() {
+        // given
+        checkpointRepository.saveAndFlush(RendimentoCheckpoint.builder()
+                .execucao(UUID.randomUUID())
+                .particao(0)
+                .inicio(1L)
+                .fim(2L)
+                .concluida(false)
+                .build());
+
+        // when
+        assertThrows(ValidacaoException.class, () -> rendimentoEmSql.executar());
+
+        // then
+        assertSaldo(1L, "100");
+        assertSaldo(2L, "100");
+    }
+
+    private void assertSaldo(long numero, String esperado) {
+        var saldo = contaRepository.findByNumero(numero).get().getSaldo().paraBigDecimal();
+        assertEquals(0, new BigDecimal(esperado).compareTo(saldo), "conta " + numero + " saldo " + saldo);
+    }
+
+    private static Conta conta(Long numero, TipoConta tipoConta, Cliente cliente) {
+        return Conta.builder()
+                .numero(numero)
+                .saldo(SALDO_INICIAL)
+                .tipo(tipoConta)
+                .cliente(cliente)
+                .build();
+    }
+
+}
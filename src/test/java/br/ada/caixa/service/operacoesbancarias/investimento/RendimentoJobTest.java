@@ -0,0 +1,147 @@
+package br.ada.caixa.service.operacoesbancarias.investimento;
+
+import br.ada.caixa.entity.Conta;
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.entity.RendimentoCheckpoint;
+import br.ada.caixa.entity.TaxaRendimento;
+import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.entity.TipoConta;
+import br.ada.caixa.repository.ClienteRepository;
+import br.ada.caixa.repository.ContaRepository;
+import br.ada.caixa.repository.RendimentoCheckpointRepository;
+import br.ada.caixa.repository.TaxaRendimentoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static br.ada.caixa.fixture.ClienteFixture.cliente;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {"banco.rendimento.tamanho-pagina=2", "banco.rendimento.particoes=3"})
+class RendimentoJobTest {
+
+    private static final Dinheiro SALDO_INICIAL = Dinheiro.de(BigDecimal.valueOf(100));
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+    @Autowired
+    private ContaRepository contaRepository;
+    @Autowired
+    private RendimentoCheckpointRepository checkpointRepository;
+    @Autowired
+    private TaxaRendimentoRepository taxaRendimentoRepository;
+    @Autowired
+    private TaxaRendimentoService taxaRendimentoService;
+    @Autowired
+    private RendimentoJob rendimentoJob;
+
+    @BeforeEach
+    void setUp() {
+        var clientePF = cliente("111.111.111-11", TipoCliente.PF);
+        var clientePJ = cliente("11.111.111/0001-11", TipoCliente.PJ);
+        clienteRepository.saveAllAndFlush(List.of(clientePF, clientePJ));
+
+        List<Conta> contas = new ArrayList<>();
+        for (long numero = 1; numero <= 7; numero++) {
+            contas.add(Conta.builder()
+                    .numero(numero)
+                    .saldo(SALDO_INICIAL)
+                    .tipo(TipoConta.CONTA_INVESTIMENTO)
+                    .cliente(numero <= 4 ? clientePF : clientePJ)
+                    .build());
+        }
+        contas.add(Conta.builder()
+                .numero(8L)
+                .saldo(SALDO_INICIAL)
+                .tipo(TipoConta.CONTA_CORRENTE)
+                .cliente(clientePF)
+                .build());
+        contaRepository.saveAllAndFlush(contas);
+    }
+
+    @AfterEach
+    void tearDown() {
+        taxaRendimentoRepository.saveAll(List.of(
+                new TaxaRendimento(TipoCliente.PF, new BigDecimal("1.01")),
+                new TaxaRendimento(TipoCliente.PJ, new BigDecimal("1.02"))));
+        taxaRendimentoService.recarregar();
+        checkpointRepository.deleteAllInBatch();
+        contaRepository.deleteAllInBatch();
+        clienteRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void executarRendeTodasAsContasInvestimentoTest() {
+        // when
+        rendimentoJob.executar();
+
+        // then
+        for (long numero = 1; numero <= 4; numero++) {
+            assertSaldo(numero, "101");
+        }
+        for (long numero = 5; numero <= 7; numero++) {
+            assertSaldo(numero, "102");
+        }
+        assertSaldo(8L, "100");
+        assertEquals(7, rendimentoJob.progresso().getContasProcessadas());
+        assertTrue(checkpointRepository.findByConcluidaFalseOrderByParticao().isEmpty());
+    }
+
+    @Test
+    void executarUsaTaxaDaTabelaTest() {
+        // given
+        taxaRendimentoRepository.save(new TaxaRendimento(TipoCliente.PF, new BigDecimal("1.05")));
+
+        // when
+        rendimentoJob.executar();
+
+        // then
+        for (long numero = 1; numero <= 4; numero++) {
+            assertSaldo(numero, "105");
+        }
+        for (long numero = 5; numero <= 7; numero++) {
+            assertSaldo(numero, "102");
+        }
+    }
+
+    @Test
+    void executarRetomaDoUltimoCheckpointTest() {
+        // given
+        checkpointRepository.saveAndFlush(RendimentoCheckpoint.builder()
+                .execucao(UUID.randomUUID())
+                .particao(0)
+                .inicio(1L)
+                .fim(7L)
+                .ultimoNumero(4L)
+                .concluida(false)
+                .build());
+
+        // when
+        rendimentoJob.executar();
+
+        // then
+        for (long numero = 1; numero <= 4; numero++) {
+            assertSaldo(numero, "100");
+        }
+        for (long numero = 5; numero <= 7; numero++) {
+            assertSaldo(numero, "102");
+        }
+        assertEquals(3, rendimentoJob.progresso().getContasProcessadas());
+        assertTrue(checkpointRepository.findByConcluidaFalseOrderByParticao().isEmpty());
+    }
+
+    private void assertSaldo(long numero, String esperado) {
+        var saldo = contaRepository.findByNumero(numero).get().getSaldo().paraBigDecimal();
+        assertEquals(0, new BigDecimal(esperado).compareTo(saldo), "conta " + numero + " saldo " + saldo);
+    }
+
+}
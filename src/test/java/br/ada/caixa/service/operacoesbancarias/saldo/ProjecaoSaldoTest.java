@@ -0,0 +1,215 @@
+package br.ada.caixa.service.operacoesbancarias.saldo;
+
+import br.ada.caixa.service.journal.SnapshotSaldos;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class ProjecaoSaldoTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SnapshotSaldos snapshotSaldos = mock(SnapshotSaldos.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong relogio = new AtomicLong();
+    private final List<Runnable> releituras = new ArrayList<>();
+    private final ProjecaoSaldo sut = new ProjecaoSaldo(jdbcTemplate, snapshotSaldos, meterRegistry,
+            Duration.ofSeconds(30), relogio::get, releituras::add);
+
+    @Test
+    void onSaldoAlteradoServeSemBancoTest() {
+        // given
+        var event = new SaldoAlteradoEvent(List.of(new SaldoConta(1L, BigDecimal.TEN, 1)), Instant.now());
+
+        // when
+        sut.onSaldoAlterado(event);
+
+        // then
+        assertEquals(Optional.of(BigDecimal.TEN), sut.saldo(1L));
+        assertEquals(1, meterRegistry.get("banco.saldo.projecao.atraso").timer().count());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void onSaldoAlteradoIgnoraVersaoAntigaTest() {
+        // given
+        sut.onSaldoAlterado(new SaldoAlteradoEvent(List.of(new SaldoConta(1L, BigDecimal.ONE, 3)), Instant.now()));
+
+        // when
+        sut.onSaldoAlterado(new SaldoAlteradoEvent(List.of(new SaldoConta(1L, BigDecimal.TEN, 2)), Instant.now()));
+
+        // then
+        assertEquals(Optional.of(BigDecimal.ONE), sut.saldo(1L));
+    }
+
+    @Test
+    void reconstruirRecuperaDoJournalAntesDoBancoTest() {
+        // given
+        given(snapshotSaldos.isHabilitado()).willReturn(true);
+        doAnswer(invocation -> {
+            BiConsumer<Long, BigDecimal> saldo = invocation.getArgument(0);
+            BiConsumer<Long, BigDecimal> delta = invocation.getArgument(1);
+            saldo.accept(1L, new BigDecimal("100.00"));
+            saldo.accept(2L, new BigDecimal("5.00"));
+            // conta 2 ja foi alterada e publicada antes da recuperacao chegar nela
+            sut.onSaldoAlterado(new SaldoAlteradoEvent(List.of(new SaldoConta(2L, new BigDecimal("7.00"), 4)), Instant.now()));
+            delta.accept(1L, new BigDecimal("-30.50"));
+            delta.accept(2L, new BigDecimal("2.00"));
+            delta.accept(3L, new BigDecimal("9.99"));
+            return 5L;
+        }).when(snapshotSaldos).recuperar(any(), any(), any());
+        Map<Long, Optional<BigDecimal>> antesDoBanco = new HashMap<>();
+        doAnswer(invocation -> {
+            LongStream.rangeClosed(1, 3).forEach(numero -> antesDoBanco.put(numero, sut.saldo(numero)));
+            sut.aplicar(new SaldoConta(1L, new BigDecimal("69.50"), 8));
+            sut.aplicar(new SaldoConta(3L, new BigDecimal("9.99"), 1));
+            return null;
+        }).when(jdbcTemplate).query(eq(SaldoPublicador.SQL_SALDOS), any(RowCallbackHandler.class));
+
+        // when
+        sut.reconstruir();
+
+        // then
+        assertEquals(Optional.of(new BigDecimal("69.50")), antesDoBanco.get(1L));
+        assertEquals(Optional.of(new BigDecimal("7.00")), antesDoBanco.get(2L));
+        assertEquals(Optional.of(new BigDecimal("9.99")), antesDoBanco.get(3L));
+        assertEquals(Optional.of(new BigDecimal("69.50")), sut.saldo(1L));
+        assertEquals(Optional.of(new BigDecimal("7.00")), sut.saldo(2L));
+        assertEquals(1, meterRegistry.get("banco.saldo.projecao.recuperacao").tag("origem", "journal").timer().count());
+        assertEquals(1, meterRegistry.get("banco.saldo.projecao.recuperacao").tag("origem", "banco").timer().count());
+    }
+
+    @Test
+    void reconstruirNaoServeContasDescartadasPelaRecuperacaoTest() {
+        // given
+        given(snapshotSaldos.isHabilitado()).willReturn(true);
+        doAnswer(invocation -> {
+            BiConsumer<Long, BigDecimal> saldo = invocation.getArgument(0);
+            Consumer<Long> descartar = invocation.getArgument(2);
+            saldo.accept(1L, BigDecimal.TEN);
+            saldo.accept(2L, BigDecimal.ONE);
+            descartar.accept(2L);
+            return 2L;
+        }).when(snapshotSaldos).recuperar(any(), any(), any());
+        Map<Long, Optional<BigDecimal>> antesDoBanco = new HashMap<>();
+        doAnswer(invocation -> {
+            LongStream.rangeClosed(1, 2).forEach(numero -> antesDoBanco.put(numero, sut.saldo(numero)));
+            return null;
+        }).when(jdbcTemplate).query(eq(SaldoPublicador.SQL_SALDOS), any(RowCallbackHandler.class));
+
+        // when
+        sut.reconstruir();
+
+        // then
+        assertEquals(Optional.of(BigDecimal.TEN), antesDoBanco.get(1L));
+        assertTrue(antesDoBanco.get(2L).isEmpty());
+    }
+
+    @Test
+    void reconstruirRemoveContasQueSoExistiamNoJournalTest() {
+        // given
+        given(snapshotSaldos.isHabilitado()).willReturn(true);
+        doAnswer(invocation -> {
+            BiConsumer<Long, BigDecimal> saldo = invocation.getArgument(0);
+            saldo.accept(1L, BigDecimal.TEN);
+            saldo.accept(2L, BigDecimal.ONE);
+            return 2L;
+        }).when(snapshotSaldos).recuperar(any(), any(), any());
+        // a conta 2 foi apagada do banco depois do snapshot
+        doAnswer(invocation -> {
+            sut.aplicar(new SaldoConta(1L, BigDecimal.TEN, 3));
+            return null;
+        }).when(jdbcTemplate).query(eq(SaldoPublicador.SQL_SALDOS), any(RowCallbackHandler.class));
+
+        // when
+        sut.reconstruir();
+
+        // then
+        assertEquals(Optional.of(BigDecimal.TEN), sut.saldo(1L));
+        assertTrue(sut.saldo(2L).isEmpty());
+    }
+
+    @Test
+    void reconstruirDescartaRecuperacaoQueFalhouTest() {
+        // given
+        given(snapshotSaldos.isHabilitado()).willReturn(true);
+        doAnswer(invocation -> {
+            BiConsumer<Long, BigDecimal> saldo = invocation.getArgument(0);
+            saldo.accept(1L, BigDecimal.TEN);
+            throw new IllegalStateException("Snapshot corrompido");
+        }).when(snapshotSaldos).recuperar(any(), any(), any());
+        sut.onSaldoAlterado(new SaldoAlteradoEvent(List.of(new SaldoConta(2L, BigDecimal.ONE, 1)), Instant.now()));
+
+        // when
+        sut.reconstruir();
+
+        // then
+        assertTrue(sut.saldo(1L).isEmpty());
+        assertEquals(Optional.of(BigDecimal.ONE), sut.saldo(2L));
+    }
+
+    @Test
+    void saldoVencidoEServidoERelidoEmSegundoPlanoTest() {
+        // given
+        sut.onSaldoAlterado(new SaldoAlteradoEvent(List.of(new SaldoConta(1L, BigDecimal.ONE, 3)), Instant.now()));
+        relogio.addAndGet(Duration.ofSeconds(30).toNanos());
+        given(jdbcTemplate.query(anyString(), eq(SaldoPublicador.SALDO_CONTA), eq(1L)))
+                .willReturn(List.of(new SaldoConta(1L, BigDecimal.TEN, 4)));
+
+        // when
+        var vencido = sut.saldo(1L);
+        var repetido = sut.saldo(1L);
+        releituras.forEach(Runnable::run);
+
+        // then
+        assertEquals(Optional.of(BigDecimal.ONE), vencido);
+        assertEquals(Optional.of(BigDecimal.ONE), repetido);
+        assertEquals(1, releituras.size());
+        assertEquals(Optional.of(BigDecimal.TEN), sut.saldo(1L));
+        assertEquals(1, meterRegistry.get("banco.saldo.projecao.expiradas").counter().count());
+    }
+
+    @Test
+    void carregarContaApagadaRemoveDaProjecaoTest() {
+        // given
+        sut.onSaldoAlterado(new SaldoAlteradoEvent(List.of(new SaldoConta(1L, BigDecimal.ONE, 3)), Instant.now()));
+        given(jdbcTemplate.query(anyString(), eq(SaldoPublicador.SALDO_CONTA), eq(1L))).willReturn(List.of());
+
+        // when
+        var carregado = sut.carregar(1L);
+
+        // then
+        assertTrue(carregado.isEmpty());
+        assertTrue(sut.saldo(1L).isEmpty());
+    }
+
+    @Test
+    void saldoDeContaNaoProjetadaTest() {
+        // then
+        assertTrue(sut.saldo(42L).isEmpty());
+    }
+
+}
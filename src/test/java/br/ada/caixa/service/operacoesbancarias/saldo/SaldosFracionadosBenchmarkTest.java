@@ -0,0 +1,124 @@
+package br.ada.caixa.service.operacoesbancarias.saldo;
+
+import br.ada.caixa.entity.Cliente;
+import br.ada.caixa.entity.Conta;
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.entity.TipoConta;
+import br.ada.caixa.enums.StatusCliente;
+import br.ada.caixa.repository.ClienteRepository;
+import br.ada.caixa.repository.ContaRepository;
+import br.ada.caixa.repository.FracaoSaldoRepository;
+import br.ada.caixa.service.conta.ContaCache;
+import br.ada.caixa.service.operacoesbancarias.deposito.DepositoService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Depositos concorrentes em uma unica conta com o saldo em 1 a 16 fracoes: com uma fracao todos
+ * disputam a linha da conta; com mais, a vazao deve crescer ate o numero de threads. Pesado; roda
+ * apenas com -Dbenchmark=true.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "banco.saldo.fracionado.rebalanceamento=0")
+class SaldosFracionadosBenchmarkTest {
+
+    private static final int THREADS = 16;
+    private static final int DEPOSITOS_POR_THREAD = 2_000;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+    @Autowired
+    private ContaRepository contaRepository;
+    @Autowired
+    private FracaoSaldoRepository fracaoSaldoRepository;
+    @Autowired
+    private ContaCache contaCache;
+    @Autowired
+    private ProjecaoSaldo projecaoSaldo;
+    @Autowired
+    private SaldosFracionados saldosFracionados;
+    @Autowired
+    private SaldoService saldoService;
+    @Autowired
+    private DepositoService depositoService;
+
+    @AfterEach
+    void tearDown() {
+        saldosFracionados.fracionar(1L, 1);
+        contaCache.limpar();
+        projecaoSaldo.limpar();
+        fracaoSaldoRepository.deleteAllInBatch();
+        contaRepository.deleteAllInBatch();
+        clienteRepository.deleteAllInBatch();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 4, 8, 16})
+    void depositosNaMesmaContaTest(int fracoes) throws Exception {
+        // given
+        var cliente = clienteRepository.saveAndFlush(Cliente.builder()
+                .documento("66.666.666/0001-66")
+                .nome("Benchmark")
+                .dataNascimento(LocalDate.now())
+                .status(StatusCliente.ATIVO)
+                .tipo(TipoCliente.PJ)
+                .build());
+        contaRepository.saveAndFlush(Conta.builder()
+                .numero(1L)
+                .saldo(Dinheiro.ZERO)
+                .tipo(TipoConta.CONTA_CORRENTE)
+                .cliente(cliente)
+                .build());
+        saldosFracionados.fracionar(1L, fracoes);
+
+        // when
+        long inicio = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            var largada = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    largada.await();
+                    for (int i = 0; i < DEPOSITOS_POR_THREAD; i++) {
+                        depositoService.depositar(1L, BigDecimal.ONE);
+                    }
+                    return null;
+                }));
+            }
+            largada.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        long nanos = System.nanoTime() - inicio;
+
+        // then
+        final long depositos = (long) THREADS * DEPOSITOS_POR_THREAD;
+        log.info("Saldo fracionado fracoes={} threads={} vazao={} depositos/s",
+                fracoes, THREADS, Math.round(depositos / (nanos / 1_000_000_000.0)));
+        assertEquals(0, BigDecimal.valueOf(depositos).compareTo(saldoService.consultarSaldo(1L)));
+    }
+
+}
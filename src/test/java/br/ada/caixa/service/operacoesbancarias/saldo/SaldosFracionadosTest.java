@@ -0,0 +1,236 @@
+package br.ada.caixa.service.operacoesbancarias.saldo;
+
+import br.ada.caixa.dto.request.TransferenciaRequestDto;
+import br.ada.caixa.entity.Cliente;
+import br.ada.caixa.entity.Conta;
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.entity.FracaoSaldo;
+import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.entity.TipoConta;
+import br.ada.caixa.enums.StatusCliente;
+import br.ada.caixa.exceptions.SaldoInsuficienteException;
+import br.ada.caixa.exceptions.ValidacaoException;
+import br.ada.caixa.repository.ClienteRepository;
+import br.ada.caixa.repository.ContaRepository;
+import br.ada.caixa.repository.FracaoSaldoRepository;
+import br.ada.caixa.service.conta.ContaCache;
+import br.ada.caixa.service.operacoesbancarias.deposito.DepositoService;
+import br.ada.caixa.service.operacoesbancarias.saque.SaqueService;
+import br.ada.caixa.service.operacoesbancarias.transferencia.TransferenciaLoteService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "banco.saldo.fracionado.rebalanceamento=0")
+class SaldosFracionadosTest {
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+    @Autowired
+    private ContaRepository contaRepository;
+    @Autowired
+    private FracaoSaldoRepository fracaoSaldoRepository;
+    @Autowired
+    private ContaCache contaCache;
+    @Autowired
+    private ProjecaoSaldo projecaoSaldo;
+    @Autowired
+    private SaldosFracionados saldosFracionados;
+    @Autowired
+    private SaldoService saldoService;
+    @Autowired
+    private DepositoService depositoService;
+    @Autowired
+    private SaqueService saqueService;
+    @Autowired
+    private TransferenciaLoteService transferenciaLoteService;
+
+    @BeforeEach
+    void setUp() {
+        var cliente = clienteRepository.saveAndFlush(Cliente.builder()
+                .documento("55.555.555/0001-55")
+                .nome("Lojista")
+                .dataNascimento(LocalDate.now())
+                .status(StatusCliente.ATIVO)
+                .tipo(TipoCliente.PJ)
+                .build());
+        contaRepository.saveAllAndFlush(List.of(
+                conta(1L, "100.00", TipoConta.CONTA_CORRENTE, cliente),
+                conta(2L, "0", TipoConta.CONTA_CORRENTE, cliente),
+                conta(3L, "0", TipoConta.CONTA_INVESTIMENTO, cliente)));
+        saldosFracionados.fracionar(1L, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        saldosFracionados.fracionar(1L, 1);
+        contaCache.limpar();
+        projecaoSaldo.limpar();
+        fracaoSaldoRepository.deleteAllInBatch();
+        contaRepository.deleteAllInBatch();
+        clienteRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void fracionarDistribuiOSaldoSemAlterarOTotalTest() {
+        // then
+        assertTrue(saldosFracionados.isFracionada(1L));
+        assertEquals(List.of(2_500L, 2_500L, 2_500L), centavosFracoes());
+        assertEquals(2_500L, centavosConta(1L));
+        assertEquals(new BigDecimal("100.00"), saldoService.consultarSaldo(1L));
+    }
+
+    @Test
+    void depositosConcorrentesSomamTodasAsFracoesTest() throws Exception {
+        // given
+        final int threads = 8;
+        final int depositosPorThread = 50;
+
+        // when
+        executarConcorrente(threads, () -> {
+            for (int i = 0; i < depositosPorThread; i++) {
+                depositoService.depositar(1L, BigDecimal.ONE);
+            }
+        });
+
+        // then
+        assertEquals(new BigDecimal("500.00"), saldoService.consultarSaldo(1L));
+        // os creditos foram sorteados entre as fracoes, nao todos para a linha da conta
+        assertTrue(centavosFracoes().stream().mapToLong(Long::longValue).sum() > 7_500L);
+        assertTrue(centavosConta(1L) < 42_500L);
+    }
+
+    @Test
+    void sacarMaisQueUmaFracaoJuntaAsFracoesTest() {
+        // when
+        // 90,00 com a taxa PJ debita 90,45; nenhuma fracao tem tanto
+        saqueService.sacar(1L, new BigDecimal("90"));
+
+        // then
+        assertEquals(new BigDecimal("9.55"), saldoService.consultarSaldo(1L));
+        assertEquals(List.of(0L, 0L, 0L), centavosFracoes());
+        assertEquals(955L, centavosConta(1L));
+    }
+
+    @Test
+    void sacarMaisQueOTotalFalhaSemPerderSaldoTest() {
+        // when
+        // then
+        assertThrows(SaldoInsuficienteException.class, () -> saqueService.sacar(1L, new BigDecimal("100")));
+        assertEquals(new BigDecimal("100.00"), saldoService.consultarSaldo(1L));
+    }
+
+    @Test
+    void rebalancearRedistribuiFracoesEsvaziadasTest() {
+        // given
+        saqueService.sacar(1L, new BigDecimal("90"));
+
+        // when
+        var mudou = saldosFracionados.rebalancear(1L);
+
+        // then
+        assertTrue(mudou);
+        assertEquals(List.of(238L, 238L, 238L), centavosFracoes());
+        assertEquals(241L, centavosConta(1L));
+        assertFalse(saldosFracionados.rebalancear(1L));
+    }
+
+    @Test
+    void transferirEmLoteValidaOSaldoSomadoDasFracoesTest() {
+        // given
+        var transferencia = TransferenciaRequestDto.builder()
+                .numeroContaOrigem(1L)
+                .numeroContaDestino(2L)
+                .valor(new BigDecimal("80"))
+                .build();
+
+        // when
+        var resultados = transferenciaLoteService.transferir(List.of(transferencia));
+
+        // then
+        assertTrue(resultados.get(0).isSucesso());
+        assertEquals(new BigDecimal("19.60"), saldoService.consultarSaldo(1L));
+        assertEquals(new BigDecimal("80.00"), saldoService.consultarSaldo(2L));
+    }
+
+    @Test
+    void fracionarEmUmaFracaoJuntaTudoNaContaTest() {
+        // when
+        saldosFracionados.fracionar(1L, 1);
+
+        // then
+        assertFalse(saldosFracionados.isFracionada(1L));
+        assertEquals(List.of(0L, 0L, 0L), centavosFracoes());
+        assertEquals(10_000L, centavosConta(1L));
+    }
+
+    @Test
+    void fracionarContaInvestimentoFalhaTest() {
+        // when
+        // then
+        assertThrows(ValidacaoException.class, () -> saldosFracionados.fracionar(3L, 4));
+        assertFalse(saldosFracionados.isFracionada(3L));
+    }
+
+    private List<Long> centavosFracoes() {
+        List<Long> centavos = new ArrayList<>();
+        fracaoSaldoRepository.findAll().stream()
+                .filter(fracao -> fracao.getNumeroConta().equals(1L))
+                .sorted((a, b) -> a.getIndice().compareTo(b.getIndice()))
+                .map(FracaoSaldo::getSaldo)
+                .forEach(saldo -> centavos.add(saldo.getCentavos()));
+        return centavos;
+    }
+
+    private long centavosConta(Long numero) {
+        return contaRepository.findByNumero(numero).get().getSaldo().getCentavos();
+    }
+
+    private static void executarConcorrente(int threads, Runnable operacao) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            var largada = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    largada.await();
+                    operacao.run();
+                    return null;
+                }));
+            }
+            largada.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Conta conta(Long numero, String saldo, TipoConta tipo, Cliente cliente) {
+        return Conta.builder()
+                .numero(numero)
+                .saldo(Dinheiro.de(new BigDecimal(saldo)))
+                .tipo(tipo)
+                .cliente(cliente)
+                .build();
+    }
+
+}
@@ -0,0 +1,125 @@
+package br.ada.caixa.service.operacoesbancarias.saque;
+
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.entity.TipoConta;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParametrosSaqueTest {
+
+    @TempDir
+    Path diretorio;
+
+    private ParametrosSaque sut;
+
+    @AfterEach
+    void tearDown() {
+        if (sut != null) {
+            sut.parar();
+        }
+    }
+
+    @Test
+    void semArquivoUsaOsPadroesPorTipoDeClienteTest() {
+        // given
+        sut = parametros("", Duration.ZERO);
+
+        // when
+        sut.iniciar();
+
+        // then
+        assertEquals(new BigDecimal("1.005"), sut.de(TipoCliente.PJ, TipoConta.CONTA_POUPANCA).getTaxa());
+        assertEquals(BigDecimal.ONE, sut.de(TipoCliente.PF, TipoConta.CONTA_CORRENTE).getTaxa());
+        assertNull(sut.de(TipoCliente.PF, TipoConta.CONTA_CORRENTE).getLimite());
+    }
+
+    @Test
+    void arquivoSobrescrevePorTipoDeContaTest() throws IOException {
+        // given
+        var arquivo = escrever("taxa.pj.conta_poupanca=1.01\nlimite.pf=5000\n");
+        sut = parametros(arquivo.toString(), Duration.ZERO);
+
+        // when
+        sut.iniciar();
+
+        // then
+        assertEquals(new BigDecimal("1.01"), sut.de(TipoCliente.PJ, TipoConta.CONTA_POUPANCA).getTaxa());
+        assertEquals(new BigDecimal("1.005"), sut.de(TipoCliente.PJ, TipoConta.CONTA_CORRENTE).getTaxa());
+        assertEquals(Dinheiro.de(new BigDecimal("5000")), sut.de(TipoCliente.PF, TipoConta.CONTA_INVESTIMENTO).getLimite());
+        assertEquals(Dinheiro.de(new BigDecimal("101.00")),
+                sut.de(TipoCliente.PJ, TipoConta.CONTA_POUPANCA).aplicarTaxa(Dinheiro.de(BigDecimal.valueOf(100))));
+    }
+
+    @Test
+    void recarregaQuandoOArquivoMudaTest() throws Exception {
+        // given
+        var arquivo = escrever("taxa.pj=1.005\n");
+        sut = parametros(arquivo.toString(), Duration.ofMillis(10));
+        sut.iniciar();
+
+        // when
+        Files.writeString(arquivo, "taxa.pj=1.02\n");
+        Files.setLastModifiedTime(arquivo, FileTime.from(Instant.now().plusSeconds(5)));
+
+        // then
+        final long limite = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!new BigDecimal("1.02").equals(sut.de(TipoCliente.PJ, TipoConta.CONTA_CORRENTE).getTaxa())) {
+            assertTrue(System.nanoTime() < limite, "parametros nao recarregados");
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void recarregarArquivoInvalidoMantemOsAnterioresTest() throws IOException {
+        // given
+        var arquivo = escrever("limite.pf=100\n");
+        sut = parametros(arquivo.toString(), Duration.ZERO);
+        sut.iniciar();
+
+        // when
+        Files.writeString(arquivo, "taxa.pf=0.9\n");
+
+        // then
+        assertThrows(IllegalStateException.class, sut::recarregar);
+        assertEquals(BigDecimal.ONE, sut.de(TipoCliente.PF, TipoConta.CONTA_CORRENTE).getTaxa());
+        assertTrue(sut.de(TipoCliente.PF, TipoConta.CONTA_CORRENTE).excedeLimite(Dinheiro.de(new BigDecimal("100.01"))));
+    }
+
+    @Test
+    void arquivoComChaveDesconhecidaImpedeASubidaTest() throws IOException {
+        // given
+        var arquivo = escrever("taxa.pf.conta_corrent=1.01\n");
+        sut = parametros(arquivo.toString(), Duration.ZERO);
+
+        // when
+        // then
+        var erro = assertThrows(IllegalStateException.class, sut::iniciar);
+        assertTrue(erro.getMessage().contains("taxa.pf.conta_corrent"));
+        assertFalse(sut.de(TipoCliente.PF, TipoConta.CONTA_CORRENTE).excedeLimite(Dinheiro.de(BigDecimal.TEN)));
+    }
+
+    private ParametrosSaque parametros(String arquivo, Duration intervalo) {
+        return new ParametrosSaque(BigDecimal.ONE, new BigDecimal("1.005"), BigDecimal.ZERO, BigDecimal.ZERO, arquivo, intervalo);
+    }
+
+    private Path escrever(String conteudo) throws IOException {
+        return Files.writeString(diretorio.resolve("saque.properties"), conteudo);
+    }
+
+}
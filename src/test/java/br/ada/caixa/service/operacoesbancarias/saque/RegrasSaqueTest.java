@@ -0,0 +1,122 @@
+package br.ada.caixa.service.operacoesbancarias.saque;
+
+import br.ada.caixa.entity.Cliente;
+import br.ada.caixa.entity.Conta;
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.entity.TipoConta;
+import br.ada.caixa.exceptions.SaldoInsuficienteException;
+import br.ada.caixa.exceptions.ValidacaoException;
+import br.ada.caixa.repository.ContaRepository;
+import br.ada.caixa.repository.FracaoSaldoRepository;
+import br.ada.caixa.service.conta.ContaCache;
+import br.ada.caixa.service.journal.JournalLancamentos;
+import br.ada.caixa.service.operacoesbancarias.saldo.SaldoPublicador;
+import br.ada.caixa.service.operacoesbancarias.saldo.SaldosFracionados;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class RegrasSaqueTest {
+
+    private final ContaRepository contaRepository = mock(ContaRepository.class);
+    private final ParametrosSaque parametrosSaque = new ParametrosSaque(BigDecimal.ONE, new BigDecimal("1.005"),
+            new BigDecimal("1000"), BigDecimal.ZERO, "", Duration.ZERO);
+    private final OperacaoSaqueLimite limite = new OperacaoSaqueLimite(parametrosSaque);
+    private final SaldosFracionados saldosFracionados = new SaldosFracionados(contaRepository, mock(FracaoSaldoRepository.class),
+            mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), "", 1, Duration.ZERO);
+    private final OperacaoSaqueSaldoPF saldoPF = new OperacaoSaqueSaldoPF(saldosFracionados, parametrosSaque);
+    private final OperacaoSaqueSaldoPJ saldoPJ = new OperacaoSaqueSaldoPJ(saldosFracionados, parametrosSaque);
+    private final RegrasSaque sut = new RegrasSaque(List.of(limite, saldoPF, saldoPJ));
+
+    @Test
+    void paraMontaSoAsRegrasDaCombinacaoNaOrdemTest() {
+        // when
+        // then
+        for (TipoConta tipoConta : TipoConta.values()) {
+            assertArrayEquals(new OperacaoSaque[]{limite, saldoPF}, sut.para(conta(TipoCliente.PF, tipoConta)));
+            assertArrayEquals(new OperacaoSaque[]{limite, saldoPJ}, sut.para(conta(TipoCliente.PJ, tipoConta)));
+        }
+    }
+
+    @Test
+    void sacarExecutaSoAsRegrasAplicaveisTest() {
+        // given
+        var saqueService = saqueService();
+        var conta = conta(TipoCliente.PJ, TipoConta.CONTA_CORRENTE);
+        given(contaRepository.debitar(eq(1L), anyLong())).willReturn(1);
+
+        // when
+        var debito = saqueService.sacar(conta, Dinheiro.de(new BigDecimal("200")));
+
+        // then
+        // so a regra PJ debita, com a taxa de 0,5%
+        verify(contaRepository).debitar(1L, 20_100L);
+        assertEquals(Dinheiro.deCentavos(20_100L), debito);
+    }
+
+    @Test
+    void sacarAcimaDoLimiteNaoDebitaTest() {
+        // given
+        var saqueService = saqueService();
+        var conta = conta(TipoCliente.PF, TipoConta.CONTA_CORRENTE);
+
+        // when
+        // then
+        var erro = assertThrows(ValidacaoException.class,
+                () -> saqueService.sacar(conta, Dinheiro.de(new BigDecimal("1000.01"))));
+        assertEquals("Valor acima do limite de saque!", erro.getMessage());
+        verify(contaRepository, never()).debitar(anyLong(), anyLong());
+    }
+
+    @Test
+    void sacarSemSaldoFalhaTest() {
+        // given
+        var saqueService = saqueService();
+        var conta = conta(TipoCliente.PF, TipoConta.CONTA_CORRENTE);
+        given(contaRepository.debitar(1L, 10_000L)).willReturn(0);
+
+        // when
+        // then
+        assertThrows(SaldoInsuficienteException.class, () -> saqueService.sacar(conta, Dinheiro.de(BigDecimal.valueOf(100))));
+    }
+
+    @Test
+    void calcularDebitoSomaSoRegrasAplicaveisTest() {
+        // when
+        var debitoPF = saqueService().calcularDebito(conta(TipoCliente.PF, TipoConta.CONTA_POUPANCA), Dinheiro.de(BigDecimal.TEN));
+        var debitoPJ = saqueService().calcularDebito(conta(TipoCliente.PJ, TipoConta.CONTA_POUPANCA), Dinheiro.de(BigDecimal.TEN));
+
+        // then
+        assertEquals(Dinheiro.de(new BigDecimal("10.00")), debitoPF);
+        assertEquals(Dinheiro.de(new BigDecimal("10.05")), debitoPJ);
+    }
+
+    private SaqueService saqueService() {
+        return new SaqueService(contaRepository, mock(ContaCache.class), mock(SaldoPublicador.class),
+                mock(JournalLancamentos.class), sut, mock(PlatformTransactionManager.class));
+    }
+
+    private static Conta conta(TipoCliente tipoCliente, TipoConta tipoConta) {
+        return Conta.builder()
+                .numero(1L)
+                .tipo(tipoConta)
+                .cliente(Cliente.builder().tipo(tipoCliente).build())
+                .build();
+    }
+
+}
@@ -0,0 +1,196 @@
+package br.ada.caixa.service.operacoesbancarias.transferencia;
+
+import br.ada.caixa.dto.request.TransferenciaRequestDto;
+import br.ada.caixa.dto.response.ResultadoTransferenciaDto;
+import br.ada.caixa.entity.Cliente;
+import br.ada.caixa.entity.Conta;
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.entity.TipoCliente;
+import br.ada.caixa.entity.TipoConta;
+import br.ada.caixa.repository.ContaRepository;
+import br.ada.caixa.repository.FracaoSaldoRepository;
+import br.ada.caixa.service.conta.ContaCache;
+import br.ada.caixa.service.journal.JournalLancamentos;
+import br.ada.caixa.service.operacoesbancarias.saldo.SaldoPublicador;
+import br.ada.caixa.service.operacoesbancarias.saldo.SaldosFracionados;
+import br.ada.caixa.service.operacoesbancarias.saque.OperacaoSaqueLimite;
+import br.ada.caixa.service.operacoesbancarias.saque.OperacaoSaqueSaldoPF;
+import br.ada.caixa.service.operacoesbancarias.saque.OperacaoSaqueSaldoPJ;
+import br.ada.caixa.service.operacoesbancarias.saque.ParametrosSaque;
+import br.ada.caixa.service.operacoesbancarias.saque.RegrasSaque;
+import br.ada.caixa.service.operacoesbancarias.saque.SaqueService;
+import br.ada.caixa.service.retry.RetryExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class TransferenciaLoteServiceTest {
+
+    private final ContaRepository contaRepository = mock(ContaRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SaldoPublicador saldoPublicador = mock(SaldoPublicador.class);
+    // Limite de 50 por saque so para PF
+    private final ParametrosSaque parametrosSaque = new ParametrosSaque(BigDecimal.ONE, new BigDecimal("1.005"),
+            new BigDecimal("50"), BigDecimal.ZERO, "", Duration.ZERO);
+    private final SaldosFracionados saldosFracionados = new SaldosFracionados(contaRepository, mock(FracaoSaldoRepository.class),
+            mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), "", 1, Duration.ZERO);
+    private final SaqueService saqueService = new SaqueService(contaRepository, mock(ContaCache.class), saldoPublicador,
+            mock(JournalLancamentos.class), new RegrasSaque(List.of(
+                    new OperacaoSaqueLimite(parametrosSaque),
+                    new OperacaoSaqueSaldoPF(saldosFracionados, parametrosSaque),
+                    new OperacaoSaqueSaldoPJ(saldosFracionados, parametrosSaque))),
+            mock(PlatformTransactionManager.class));
+
+    private final TransferenciaLoteService sut = new TransferenciaLoteService(
+            contaRepository,
+            saqueService,
+            jdbcTemplate,
+            mock(PlatformTransactionManager.class),
+            new RetryExecutor(new SimpleMeterRegistry(), 1, 0, 0),
+            saldoPublicador,
+            mock(JournalLancamentos.class),
+            saldosFracionados,
+            2);
+
+    private static Conta conta(long numero, TipoCliente tipoCliente, String saldo) {
+        return Conta.builder()
+                .numero(numero)
+                .saldo(Dinheiro.de(new BigDecimal(saldo)))
+                .tipo(TipoConta.CONTA_CORRENTE)
+                .cliente(Cliente.builder().tipo(tipoCliente).build())
+                .build();
+    }
+
+    private static TransferenciaRequestDto transferencia(long origem, long destino, String valor) {
+        return TransferenciaRequestDto.builder()
+                .numeroContaOrigem(origem)
+                .numeroContaDestino(destino)
+                .valor(new BigDecimal(valor))
+                .build();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void transferirLiquidaDeltaLiquidoPorContaTest() {
+        // given
+        given(contaRepository.findAllByNumeroInParaAtualizacao(any()))
+                .willReturn(List.of(conta(1, TipoCliente.PF, "100"), conta(2, TipoCliente.PF, "0")));
+
+        // when
+        List<ResultadoTransferenciaDto> resultados = sut.transferir(List.of(
+                transferencia(1, 2, "30"),
+                transferencia(2, 1, "10")));
+
+        // then
+        assertTrue(resultados.get(0).isSucesso());
+        assertTrue(resultados.get(1).isSucesso());
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), captor.capture());
+        List<Object[]> parametros = captor.getValue();
+        assertEquals(2, parametros.size());
+        assertEquals(-2_000L, parametros.get(0)[0]);
+        assertEquals(1L, parametros.get(0)[1]);
+        assertEquals(2_000L, parametros.get(1)[0]);
+        assertEquals(2L, parametros.get(1)[1]);
+    }
+
+    @Test
+    void transferirRejeitaItemSemSaldoConsiderandoTaxaPJTest() {
+        // given
+        given(contaRepository.findAllByNumeroInParaAtualizacao(any()))
+                .willReturn(List.of(conta(1, TipoCliente.PJ, "100"), conta(2, TipoCliente.PF, "0")));
+
+        // when
+        List<ResultadoTransferenciaDto> resultados = sut.transferir(List.of(
+                transferencia(1, 2, "100"),
+                transferencia(1, 3, "1")));
+
+        // then
+        assertFalse(resultados.get(0).isSucesso());
+        assertEquals("Saldo insuficiente!", resultados.get(0).getErro());
+        assertFalse(resultados.get(1).isSucesso());
+        assertEquals("Conta inválida!", resultados.get(1).getErro());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(List.class));
+    }
+
+    @Test
+    void transferirRejeitaItemAcimaDoLimiteDeSaqueTest() {
+        // given
+        given(contaRepository.findAllByNumeroInParaAtualizacao(any()))
+                .willReturn(List.of(conta(1, TipoCliente.PF, "100"), conta(2, TipoCliente.PJ, "100")));
+
+        // when
+        List<ResultadoTransferenciaDto> resultados = sut.transferir(List.of(
+                transferencia(1, 2, "50.01"),
+                transferencia(2, 1, "60")));
+
+        // then
+        assertFalse(resultados.get(0).isSucesso());
+        assertEquals("Valor acima do limite de saque!", resultados.get(0).getErro());
+        // PJ sem limite
+        assertTrue(resultados.get(1).isSucesso());
+    }
+
+    @Test
+    void transferirNumeraItensEntreBlocosTest() {
+        // given
+        given(contaRepository.findAllByNumeroInParaAtualizacao(any()))
+                .willReturn(List.of(conta(1, TipoCliente.PF, "100"), conta(2, TipoCliente.PF, "100")));
+
+        // when
+        List<ResultadoTransferenciaDto> resultados = sut.transferir(List.of(
+                transferencia(1, 2, "1"),
+                transferencia(1, 2, "1"),
+                transferencia(2, 1, "1")));
+
+        // then
+        assertEquals(3, resultados.size());
+        assertEquals(2, resultados.get(2).getIndice());
+        assertTrue(resultados.stream().allMatch(ResultadoTransferenciaDto::isSucesso));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void transferirDebitaContaFracionadaPelasFracoesTest() {
+        // given
+        var fracionados = mock(SaldosFracionados.class);
+        given(fracionados.isFracionada(1L)).willReturn(true);
+        given(fracionados.somarFracoesBloqueando(any())).willReturn(Map.of(1L, Dinheiro.de(new BigDecimal("100"))));
+        given(fracionados.debitar(1L, 3_000L)).willReturn(1);
+        var comFracoes = new TransferenciaLoteService(contaRepository, saqueService, jdbcTemplate,
+                mock(PlatformTransactionManager.class), new RetryExecutor(new SimpleMeterRegistry(), 1, 0, 0),
+                saldoPublicador, mock(JournalLancamentos.class), fracionados, 2);
+        // o saldo da conta 1 esta todo nas fracoes
+        given(contaRepository.findAllByNumeroInParaAtualizacao(any()))
+                .willReturn(List.of(conta(1, TipoCliente.PF, "0"), conta(2, TipoCliente.PF, "0")));
+
+        // when
+        List<ResultadoTransferenciaDto> resultados = comFracoes.transferir(List.of(transferencia(1, 2, "30")));
+
+        // then
+        assertTrue(resultados.get(0).isSucesso());
+        verify(fracionados).debitar(1L, 3_000L);
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), captor.capture());
+        assertEquals(1, captor.getValue().size());
+        assertEquals(2L, captor.getValue().get(0)[1]);
+    }
+
+}
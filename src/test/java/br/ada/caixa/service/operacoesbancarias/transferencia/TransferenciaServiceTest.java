@@ -1,14 +1,28 @@
 package br.ada.caixa.service.operacoesbancarias.transferencia;
 
-import br.ada.caixa.service.operacoesbancarias.deposito.DepositoService;
+import br.ada.caixa.entity.Conta;
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.exceptions.ValidacaoException;
+import br.ada.caixa.repository.ContaRepository;
+import br.ada.caixa.repository.FracaoSaldoRepository;
+import br.ada.caixa.service.journal.JournalLancamentos;
+import br.ada.caixa.service.operacoesbancarias.saldo.SaldoPublicador;
+import br.ada.caixa.service.operacoesbancarias.saldo.SaldosFracionados;
 import br.ada.caixa.service.operacoesbancarias.saque.SaqueService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.List;
 import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.atMostOnce;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
@@ -20,45 +34,75 @@ class TransferenciaServiceTest {
 
     private final Random random = new Random();
     private final Long numeroContaOrigem  = random.nextLong();
-    private final Long numeroContaDestino = random.nextLong();
+    private final Long numeroContaDestino = numeroContaOrigem + 1;
     private final BigDecimal valor = new BigDecimal(random.nextDouble()).setScale(2, RoundingMode.HALF_UP);
 
+    private final Conta contaOrigem = Conta.builder().numero(numeroContaOrigem).build();
+    private final Conta contaDestino = Conta.builder().numero(numeroContaDestino).build();
 
+    private ContaRepository contaRepository = mock(ContaRepository.class);
     private SaqueService saqueService = mock(SaqueService.class);
-    private DepositoService depositoService = mock(DepositoService.class);
+    private PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    private SaldosFracionados saldosFracionados = new SaldosFracionados(contaRepository, mock(FracaoSaldoRepository.class),
+            mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), "", 1, Duration.ZERO);
 
     private TransferenciaService service =
-            new TransferenciaService(saqueService, depositoService);
+            new TransferenciaService(contaRepository, saqueService, transactionManager,
+                    mock(SaldoPublicador.class), mock(JournalLancamentos.class), saldosFracionados);
 
     @Test
     void transferirTest() {
         // given
+        given(contaRepository.findAllByNumeroInParaAtualizacao(List.of(numeroContaOrigem, numeroContaDestino)))
+                .willReturn(List.of(contaOrigem, contaDestino));
+
         // when
         service.transferir(numeroContaOrigem, numeroContaDestino, valor);
 
         // then
         verify(saqueService, times(1))
-                .sacar(numeroContaOrigem, valor);
-        verify(depositoService, times(1))
-                .depositar(numeroContaDestino, valor);
+                .sacar(contaOrigem, Dinheiro.de(valor));
+        verify(contaRepository, times(1))
+                .creditar(numeroContaDestino, Dinheiro.de(valor).getCentavos());
+        verify(transactionManager, times(1)).commit(any());
     }
 
 
     @Test
     void transferirSaqueFailsTest() {
         // given
+        given(contaRepository.findAllByNumeroInParaAtualizacao(List.of(numeroContaOrigem, numeroContaDestino)))
+                .willReturn(List.of(contaOrigem, contaDestino));
         doThrow(new RuntimeException("ERRO NO SAQUE"))
                 .when(saqueService)
-                .sacar(numeroContaOrigem, valor);
+                .sacar(contaOrigem, Dinheiro.de(valor));
 
         // when
         // then
         assertThrows(RuntimeException.class,
                      () -> service.transferir(numeroContaOrigem, numeroContaDestino, valor));
         verify(saqueService, atMostOnce())
-                .sacar(numeroContaOrigem, valor);
-        verify(depositoService, never())
-                .depositar(numeroContaDestino, valor);
+                .sacar(contaOrigem, Dinheiro.de(valor));
+        verify(contaRepository, never())
+                .creditar(anyLong(), anyLong());
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    @Test
+    void transferirContaDestinoInexistenteTest() {
+        // given
+        given(contaRepository.findAllByNumeroInParaAtualizacao(List.of(numeroContaOrigem, numeroContaDestino)))
+                .willReturn(List.of(contaOrigem));
+
+        // when
+        // then
+        assertThrows(ValidacaoException.class,
+                     () -> service.transferir(numeroContaOrigem, numeroContaDestino, valor));
+        verify(saqueService, never())
+                .sacar(any(Conta.class), any());
+        verify(contaRepository, never())
+                .creditar(anyLong(), anyLong());
     }
 
-}
\ No newline at end of file
+}
@@ -1,21 +1,33 @@
 package br.ada.caixa.service.operacoesbancarias.transferencia;
 
-import br.ada.caixa.service.operacoesbancarias.deposito.DepositoService;
+import br.ada.caixa.entity.Conta;
+import br.ada.caixa.entity.Dinheiro;
+import br.ada.caixa.repository.ContaRepository;
+import br.ada.caixa.service.journal.JournalLancamentos;
+import br.ada.caixa.service.operacoesbancarias.saldo.SaldoPublicador;
+import br.ada.caixa.service.operacoesbancarias.saldo.SaldosFracionados;
 import br.ada.caixa.service.operacoesbancarias.saque.SaqueService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.List;
 import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.atMostOnce;
 import static org.mockito.Mockito.doThrow;
-import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -25,13 +37,26 @@ class TransferenciaServiceV2Test {
 
     private final Random random = new Random();
     private final Long numeroContaOrigem  = random.nextLong();
-    private final Long numeroContaDestino = random.nextLong();
+    private final Long numeroContaDestino = numeroContaOrigem + 1;
     private final BigDecimal valor = BigDecimal.valueOf(random.nextDouble()).setScale(2, RoundingMode.HALF_UP);
 
+    private final Conta contaOrigem = Conta.builder().numero(numeroContaOrigem).build();
+    private final Conta contaDestino = Conta.builder().numero(numeroContaDestino).build();
+
+    @Mock
+    private ContaRepository contaRepository;
     @Mock
     private SaqueService saqueService;
     @Mock
-    private DepositoService depositoService;
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private SaldoPublicador saldoPublicador;
+    @Mock
+    private JournalLancamentos journalLancamentos;
+    @Mock
+    private SaldosFracionados saldosFracionados;
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @InjectMocks
     private TransferenciaService service;
@@ -39,32 +64,37 @@ class TransferenciaServiceV2Test {
     @Test
     void transferirTest() {
         // given
+        given(contaRepository.findAllByNumeroInParaAtualizacao(List.of(numeroContaOrigem, numeroContaDestino)))
+                .willReturn(List.of(contaOrigem, contaDestino));
+
         // when
         service.transferir(numeroContaOrigem, numeroContaDestino, valor);
 
         // then
         verify(saqueService, times(1))
-                .sacar(numeroContaOrigem, valor);
-        verify(depositoService, times(1))
-                .depositar(numeroContaDestino, valor);
+                .sacar(contaOrigem, Dinheiro.de(valor));
+        verify(saldosFracionados, times(1))
+                .creditar(numeroContaDestino, Dinheiro.de(valor).getCentavos());
     }
 
 
     @Test
     void transferirSaqueFailsTest() {
         // given
+        given(contaRepository.findAllByNumeroInParaAtualizacao(List.of(numeroContaOrigem, numeroContaDestino)))
+                .willReturn(List.of(contaOrigem, contaDestino));
         doThrow(new RuntimeException("ERRO NO SAQUE"))
                 .when(saqueService)
-                .sacar(numeroContaOrigem, valor);
+                .sacar(contaOrigem, Dinheiro.de(valor));
 
         // when
         // then
         assertThrows(RuntimeException.class,
                      () -> service.transferir(numeroContaOrigem, numeroContaDestino, valor));
         verify(saqueService, atMostOnce())
-                .sacar(numeroContaOrigem, valor);
-        verify(depositoService, never())
-                .depositar(numeroContaDestino, valor);
+                .sacar(contaOrigem, Dinheiro.de(valor));
+        verify(saldosFracionados, never())
+                .creditar(anyLong(), anyLong());
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,88 @@
+package br.ada.caixa.service.retry;
+
+import br.ada.caixa.exceptions.ValidacaoException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RetryExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RetryExecutor sut = new RetryExecutor(meterRegistry, 3, 1, 2);
+
+    @Test
+    void executarRetentaAteConseguirTest() {
+        // given
+        final var chamadas = new AtomicInteger();
+
+        // when
+        String actual = sut.executar("deposito", () -> {
+            if (chamadas.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("Conta", 1L);
+            }
+            return "ok";
+        });
+
+        // then
+        assertEquals("ok", actual);
+        assertEquals(3, chamadas.get());
+        assertEquals(1.0, meterRegistry.counter("banco.retry.execucoes", "operacao", "deposito").count());
+        assertEquals(2.0, meterRegistry.counter("banco.retry.conflitos", "operacao", "deposito").count());
+        assertEquals(0.0, meterRegistry.counter("banco.retry.esgotadas", "operacao", "deposito").count());
+    }
+
+    @Test
+    void executarDesisteAposNumeroMaximoDeTentativasTest() {
+        // given
+        final var chamadas = new AtomicInteger();
+
+        // when
+        // then
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> sut.executar("saque", () -> {
+            chamadas.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException("Conta", 1L);
+        }));
+        assertEquals(3, chamadas.get());
+        assertEquals(1.0, meterRegistry.counter("banco.retry.esgotadas", "operacao", "saque").count());
+    }
+
+    @Test
+    void executarNaoRetentaErroDeNegocioTest() {
+        // given
+        final var chamadas = new AtomicInteger();
+
+        // when
+        // then
+        assertThrows(ValidacaoException.class, () -> sut.executar("saque", () -> {
+            chamadas.incrementAndGet();
+            throw new ValidacaoException("Saldo insuficiente!");
+        }));
+        assertEquals(1, chamadas.get());
+    }
+
+    @Test
+    void executarDentroDeTransacaoNaoRetentaTest() {
+        // given
+        final var chamadas = new AtomicInteger();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        // when
+        // then
+        try {
+            assertThrows(ObjectOptimisticLockingFailureException.class, () -> sut.executar("deposito", () -> {
+                chamadas.incrementAndGet();
+                throw new ObjectOptimisticLockingFailureException("Conta", 1L);
+            }));
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        assertEquals(1, chamadas.get());
+    }
+
+}